@@ -3,6 +3,7 @@ package it.polimi.ingsw.Client;
 import it.polimi.ingsw.model.Creature;
 import it.polimi.ingsw.model.Tower;
 import it.polimi.ingsw.model.Wizard;
+import it.polimi.ingsw.network.WireFormat;
 
 import java.util.*;
 
@@ -10,6 +11,15 @@ import java.util.*;
  * This class represents the CLI: it manages the game through the command line interface.
  */
 public class CLI {
+    /**
+     * This attribute is the choice of the player asking for the next page of lobbies
+     */
+    public static final int NEXT_LOBBIES_PAGE = -1;
+    /**
+     * This attribute is the choice of the player asking to filter the lobbies
+     */
+    public static final int FILTER_LOBBIES = -2;
+
     private NetworkHandler networkHandler;
     Scanner scannerCLI = new Scanner(System.in);
     private final ArrayList<String> showKeyWords;
@@ -21,6 +31,27 @@ public class CLI {
      * @param port is the server port.
      */
     public CLI(String ip, int port){
+        this(ip, port, WireFormat.JSON_LINES);
+    }
+
+    /**
+     * Cli constructor creates a new instance of the cli and sets the connection between the client and the server through the startClient method.
+     * @param ip is the server ip;
+     * @param port is the server port;
+     * @param wireFormat is the format the client asks the server to use for the messages.
+     */
+    public CLI(String ip, int port, WireFormat wireFormat){
+        this(ip, port, wireFormat, false);
+    }
+
+    /**
+     * Cli constructor creates a new instance of the cli and sets the connection between the client and the server through the startClient method.
+     * @param ip is the server ip;
+     * @param port is the server port;
+     * @param wireFormat is the format the client asks the server to use for the messages;
+     * @param compression tells if the client asks the server to compress the long frames, it is used only with frames.
+     */
+    public CLI(String ip, int port, WireFormat wireFormat, boolean compression){
 
         // set all the possible requests for show command
         showKeyWords = new ArrayList<>();
@@ -36,13 +67,15 @@ public class CLI {
         showKeyWords.add("helpCharacter");
         showKeyWords.add("nothing");
 
-        this.networkHandler = new NetworkHandler(ip, port, this);
+        this.networkHandler = new NetworkHandler(ip, port, this, wireFormat, compression);
         this.networkHandler.startClient();
     }
 
     /**
      * Main method for the cli
-     * @param args are the main args.
+     * @param args are the main args: the first one, if it is "framed", asks the server to exchange the messages
+     *             as length-prefixed frames, if it is "binary" also asks for the binary form of the messages sent
+     *             by the server.
      */
     public static void main(String[] args) {
 
@@ -66,7 +99,14 @@ public class CLI {
             String ip = new Scanner(System.in).next();
             System.out.println("Insert server port: ");
             int port = new Scanner(System.in).nextInt();
-            CLI cli = new CLI(ip, port);
+            WireFormat wireFormat = WireFormat.JSON_LINES;
+            if(args.length > 0 && args[0].equalsIgnoreCase("framed")){
+                wireFormat = WireFormat.JSON_FRAMES;
+            }else if(args.length > 0 && args[0].equalsIgnoreCase("binary")){
+                wireFormat = WireFormat.BINARY_FRAMES;
+            }
+            boolean compression = args.length > 1 && args[1].equalsIgnoreCase("compressed");
+            CLI cli = new CLI(ip, port, wireFormat, compression);
 
             //fixed ip and port for tests:
             //CLI cli = new CLI("192.168.1.33", 4444);
@@ -148,16 +188,21 @@ public class CLI {
     }
 
     /**
-     * This method is used to ask the player which lobby he wants to join among the ones already existing.
-     * @param arrayLobby is the arraylist of boolean representing the existing lobby: true means the lobby is full, false means it's not full;
-     * @param arrayExpert list of boolean values specifying if the match with ID equals to the index of the array is played in expert mode or not;
+     * This method is used to ask the player which lobby he wants to join among the ones of the page received,
+     * or if he wants to see the next page or to filter the lobbies.
+     * @param arrayID list of the IDs of the lobbies of the page;
+     * @param arrayExpert list of boolean values specifying if the match of the lobby with the same index is played in expert mode or not;
      * @param arrayNumPlayer list of integers specifying what is the number of players required to start the match;
-     * @param arrayEnd list of boolean values specifying if the match with ID equals to the index of the array is already ended or not;
-     * @return ID of the lobby chosen by the player.
+     * @param arrayPlayersAdded list of integers specifying how many players are already inside the lobby;
+     * @param page number of the page received, starting from 0;
+     * @param numberOfPages number of pages of lobbies matching the filters;
+     * @return ID of the lobby chosen by the player, NEXT_LOBBIES_PAGE or FILTER_LOBBIES.
      */
-    public int lobbyToChoose(ArrayList<Boolean> arrayLobby, ArrayList<Boolean> arrayExpert, ArrayList<Integer> arrayNumPlayer, ArrayList<Boolean> arrayEnd){
+    public int lobbyToChoose(ArrayList<Integer> arrayID, ArrayList<Boolean> arrayExpert, ArrayList<Integer> arrayNumPlayer, ArrayList<Integer> arrayPlayersAdded, int page, int numberOfPages){
+        boolean nextPageAvailable = page + 1 < numberOfPages;
+
         println("Choose a Lobby: ");
-        printLobbies(arrayLobby, arrayExpert, arrayNumPlayer, arrayEnd);
+        printLobbies(arrayID, arrayExpert, arrayNumPlayer, arrayPlayersAdded, page, numberOfPages);
 
         //SCAN OF LOBBIES:
         int lobbyIDChosenByPlayer = scannerCLI.nextInt();
@@ -165,33 +210,13 @@ public class CLI {
         boolean rightLobbyChoice = false;
 
         while(!rightLobbyChoice) {
-            if( lobbyIDChosenByPlayer < arrayLobby.size() && lobbyIDChosenByPlayer >= 0) {
-                if (!arrayLobby.get(lobbyIDChosenByPlayer)) {
-
-                    if (arrayEnd.get(lobbyIDChosenByPlayer)) {
-                        println("Lobby " + lobbyIDChosenByPlayer + ": the match in this lobby is ended. Not available to join, select another one from the list below. ");
-                        println(" ");
-
-                        printLobbies(arrayLobby, arrayExpert, arrayNumPlayer, arrayEnd);
-
-                        lobbyIDChosenByPlayer = scannerCLI.nextInt();
-
-                    } else {
-                        println("You can't join this lobby, match selected already started. Select another one from the list below. ");
-                        println(" ");
-
-                        printLobbies(arrayLobby, arrayExpert, arrayNumPlayer, arrayEnd);
-
-                        lobbyIDChosenByPlayer = scannerCLI.nextInt();
-                    }
-                } else {
-                    rightLobbyChoice = true;
-                }
-
+            if(arrayID.contains(lobbyIDChosenByPlayer) || lobbyIDChosenByPlayer == FILTER_LOBBIES ||
+                    (lobbyIDChosenByPlayer == NEXT_LOBBIES_PAGE && nextPageAvailable)) {
+                rightLobbyChoice = true;
             }else {
                 println("Lobby not existing, insert a right number from the list of Lobbies: ");
                 println(" ");
-                printLobbies(arrayLobby, arrayExpert, arrayNumPlayer, arrayEnd);
+                printLobbies(arrayID, arrayExpert, arrayNumPlayer, arrayPlayersAdded, page, numberOfPages);
 
                 lobbyIDChosenByPlayer = scannerCLI.nextInt();
             }
@@ -201,40 +226,71 @@ public class CLI {
     }
 
     /**
-     * This method is used to print the lobbies in the game, their expert mode option, their maximum number of players and their availability.
-     * @param arrayLobby contains booleans which represent if a lobby is available to join or not (f.e. if the match is already started -> false).
-     * @param arrayExpert contains booleans which represents the expert mode option (index is the id of the lobby).
-     * @param arrayNumPlayer contains the maximum number of players in the lobbies (index is the id of the lobby).
-     * @param arrayEnd contains a booleans which represent if the game is ended (index is the id of the lobby).
+     * This method is used to print one page of the lobbies waiting for players, their expert mode option, their maximum number of players
+     * and the number of players already inside.
+     * @param arrayID contains the IDs of the lobbies.
+     * @param arrayExpert contains booleans which represents the expert mode option.
+     * @param arrayNumPlayer contains the maximum number of players in the lobbies.
+     * @param arrayPlayersAdded contains the number of players already inside the lobbies.
+     * @param page number of the page, starting from 0.
+     * @param numberOfPages number of pages of lobbies matching the filters.
      */
-    public void printLobbies(ArrayList<Boolean> arrayLobby, ArrayList<Boolean> arrayExpert, ArrayList<Integer> arrayNumPlayer, ArrayList<Boolean> arrayEnd){
+    public void printLobbies(ArrayList<Integer> arrayID, ArrayList<Boolean> arrayExpert, ArrayList<Integer> arrayNumPlayer, ArrayList<Integer> arrayPlayersAdded, int page, int numberOfPages){
         //PRINT OF LOBBIES:
-        println("ERIANTYS LOBBIES: ");
-        for (int i = 0; i < arrayLobby.size(); i++) {
-            if(!arrayEnd.get(i)) {
-                if (!arrayLobby.get(i)) {
-                    print("Lobby " + i + ": full. :(  [There are " + arrayNumPlayer.get(i) + " players in this Lobby] ");
-                    if (arrayExpert.get(i)) {
-                        print(" - This match is in Expert Mode - ");
-                    } else {
-                        print(" - This match is NOT in Expert Mode - ");
-                    }
-                    println(" ");
-
-                } else {
-                    print("Lobby " + i + ": available! :)  [Maximum number of players for this game is " + arrayNumPlayer.get(i) + "] ");
-                    if (arrayExpert.get(i)) {
-                        print(" - This match is in Expert Mode - ");
-                    } else {
-                        print(" - This match is NOT in Expert Mode - ");
-                    }
-                    println(" ");
-                }
-            }else {
-                print("Lobby " + i + ": the match in this lobby is ended. Not available to join.  ");
-                println(" ");
+        println("ERIANTYS LOBBIES (page " + (page + 1) + " of " + Math.max(numberOfPages, 1) + "): ");
+        if(arrayID.isEmpty()){
+            println("No lobby matches your filters.");
+        }
+        for (int i = 0; i < arrayID.size(); i++) {
+            print("Lobby " + arrayID.get(i) + ": available! :)  [" + arrayPlayersAdded.get(i) + " of " + arrayNumPlayer.get(i) + " players] ");
+            if (arrayExpert.get(i)) {
+                print(" - This match is in Expert Mode - ");
+            } else {
+                print(" - This match is NOT in Expert Mode - ");
             }
+            println(" ");
+        }
+        if(page + 1 < numberOfPages){
+            println("Insert " + NEXT_LOBBIES_PAGE + " to see the next page.");
+        }
+        println("Insert " + FILTER_LOBBIES + " to filter the lobbies by number of players and mode.");
+    }
+
+    /**
+     * This method is used to ask the player the number of players of the lobbies he wants to see.
+     * @return 2 or 3, or 0 for any number of players.
+     */
+    public int lobbiesNumberOfPlayersFilter(){
+        println("Number of players of the lobbies (2, 3 or 0 for any): ");
+        int numberOfPlayers = scannerCLI.nextInt();
+
+        while(!(numberOfPlayers == 0 || numberOfPlayers == 2 || numberOfPlayers == 3)){
+            println("Please, insert 2, 3 or 0: ");
+            numberOfPlayers = scannerCLI.nextInt();
+        }
+
+        return numberOfPlayers;
+    }
+
+    /**
+     * This method is used to ask the player the mode of the lobbies he wants to see.
+     * @return "expert", "normal" or null for any mode.
+     */
+    public String lobbiesModeFilter(){
+        println("Expert mode lobbies? (y, n or a for any): ");
+        String expertMode = scannerCLI.next();
+
+        while(!(expertMode.equals("y") || expertMode.equals("n") || expertMode.equals("a"))){
+            println("Please, insert y, n or a: ");
+            expertMode = scannerCLI.next();
+        }
+
+        if(expertMode.equals("y")){
+            return "expert";
+        }else if(expertMode.equals("n")){
+            return "normal";
         }
+        return null;
     }
 
     /**
@@ -1883,6 +1939,15 @@ public class CLI {
         println(" ");
     }
 
+    /**
+     * This method is used to notify the player the students he chose can't be moved all together,
+     * so he has to choose them again one at a time.
+     */
+    public void invalidStudentsBatch(){
+        println("The students you chose can't be moved all together: please choose them again one at a time.");
+        println(" ");
+    }
+
     /**
      * This method used to notify the player he can't use the herbalist character card.
      * @param herbalistNackExplanation is the reason why he can't.
@@ -3,18 +3,33 @@ package it.polimi.ingsw.Client;
 
 import com.google.gson.Gson;
 import it.polimi.ingsw.messages.Message;
+import it.polimi.ingsw.messages.MessageAdapters;
+import it.polimi.ingsw.messages.MessageDecoder;
+import it.polimi.ingsw.messages.MessageDispatcher;
 import it.polimi.ingsw.messages.clientMessages.*;
 import it.polimi.ingsw.messages.serverMessages.*;
 import it.polimi.ingsw.model.Creature;
 import it.polimi.ingsw.model.Tower;
 import it.polimi.ingsw.model.Wizard;
 import it.polimi.ingsw.messages.clientMessages.PingMessage;
-
+import it.polimi.ingsw.network.Frame;
+import it.polimi.ingsw.network.FrameCodec;
+import it.polimi.ingsw.network.FrameCompressor;
+import it.polimi.ingsw.network.FrameReader;
+import it.polimi.ingsw.network.WireFormat;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
 import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.OutputStream;
 import java.io.PrintWriter;
 import java.net.Socket;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.concurrent.TimeUnit;
@@ -23,16 +38,54 @@ import java.util.concurrent.TimeUnit;
  * The class handles the client-side connection between the server and the client
  */
 public class NetworkHandler {
+    /**
+     * This attribute links the class of each message sent by the server with the method handling it
+     */
+    private static final MessageDispatcher<NetworkHandler, Void> DISPATCHER = new MessageDispatcher<NetworkHandler, Void>()
+            .on(AckMatchCreationMessage.class, (networkHandler, context, message) -> networkHandler.onMatchCreation(message))
+            .on(AskMatchToJoinMessage.class, (networkHandler, context, message) -> networkHandler.onJoinMatch(message))
+            .on(IDSetAfterLobbyChoiceMessage.class, (networkHandler, context, message) -> networkHandler.onPlayerIDSet(message))
+            .on(NicknameNotValidMessage.class, (networkHandler, context, message) -> networkHandler.onNicknameNotValid(message))
+            .on(MatchStartMessage.class, (networkHandler, context, message) -> networkHandler.onMatchStart(message))
+            .on(EndOfMatchMessage.class, (networkHandler, context, message) -> networkHandler.onEndOfMatch(message))
+            .on(AckMessage.class, (networkHandler, context, message) -> networkHandler.onAck(message))
+            .on(StudentsMovedMessage.class, (networkHandler, context, message) -> networkHandler.onStudentsMoved(message))
+            .on(TurnResultMessage.class, (networkHandler, context, message) -> networkHandler.onTurnResult(message))
+            .on(NackMessage.class, (networkHandler, context, message) -> networkHandler.onNack(message))
+            .on(NoLobbyAvailableMessage.class, (networkHandler, context, message) -> networkHandler.onNoLobbyAvailable(message))
+            .on(AckCharactersMessage.class, (networkHandler, context, message) -> networkHandler.onCharacterAck(message));
+
     private CLI cli;
     private String nickNamePlayer;
     private int playerID;
     private Socket clientSocket = null;
-    private final Gson gsonObj = new Gson();
+    private final Gson gsonObj = MessageAdapters.GSON;
     private BufferedReader inputBufferClient = null;
     private PrintWriter outputPrintClient = null;
     private String ip;
     private int port;
 
+    /**
+     * This attribute is the format the client asks the server to use for the messages.
+     */
+    private final WireFormat requestedWireFormat;
+    /**
+     * This attribute tells if the client asks the server to compress the long frames.
+     */
+    private final boolean requestedCompression;
+    /**
+     * This attribute tells if the server accepted the frames: from then on the messages are read with the
+     * frameReaderClient and written on the outputStreamClient.
+     */
+    private boolean framed = false;
+    private FrameReader frameReaderClient = null;
+    /**
+     * This attribute compresses the long frames sent and inflates the compressed frames received; it is null if
+     * the server did not accept the compression.
+     */
+    private FrameCompressor compressor = null;
+    private OutputStream outputStreamClient = null;
+
     /**
      * This attribute represents the personal modelView of a player, and it is created in the first
      * update method, after receiving the match start message.
@@ -117,6 +170,13 @@ public class NetworkHandler {
      */
     private boolean characterUsed = false;
 
+    /**
+     * This attribute tells if the students of action_1 are moved all together in one MovedStudentsBatchMessage:
+     * it's true if the server agreed to send the results of a move in a single message, and it becomes false
+     * if the server refuses a batch, so that the students are moved one at a time from then on.
+     */
+    private boolean studentsBatchAllowed = false;
+
     /**
      * This attribute tells if the students in the bag are ended, which means there won't be an action3.
      */
@@ -134,9 +194,37 @@ public class NetworkHandler {
      * @param cliReceived  is a reference to the cli.
      */
     public NetworkHandler(String ipReceived, int portReceived, CLI cliReceived) {
+        this(ipReceived, portReceived, cliReceived, WireFormat.JSON_LINES);
+    }
+
+    /**
+     * NetworkHandler constructor which creates a new instance of the NetworkHandler.
+     *
+     * @param ipReceived   is the server ip.
+     * @param portReceived is the server port.
+     * @param cliReceived  is a reference to the cli.
+     * @param requestedWireFormat is the format the client asks the server to use for the messages.
+     */
+    public NetworkHandler(String ipReceived, int portReceived, CLI cliReceived, WireFormat requestedWireFormat) {
+        this(ipReceived, portReceived, cliReceived, requestedWireFormat, false);
+    }
+
+    /**
+     * NetworkHandler constructor which creates a new instance of the NetworkHandler.
+     *
+     * @param ipReceived   is the server ip.
+     * @param portReceived is the server port.
+     * @param cliReceived  is a reference to the cli.
+     * @param requestedWireFormat is the format the client asks the server to use for the messages.
+     * @param requestedCompression tells if the client asks the server to compress the long frames; it is
+     *                             used only if the requestedWireFormat uses frames.
+     */
+    public NetworkHandler(String ipReceived, int portReceived, CLI cliReceived, WireFormat requestedWireFormat, boolean requestedCompression) {
         this.ip = ipReceived;
         this.port = portReceived;
         this.cli = cliReceived;
+        this.requestedWireFormat = requestedWireFormat;
+        this.requestedCompression = requestedCompression;
     }
 
 
@@ -147,8 +235,14 @@ public class NetworkHandler {
     public void startClient() {
         try {
             clientSocket = new Socket(ip, port);
-            inputBufferClient = new BufferedReader(new InputStreamReader(clientSocket.getInputStream()));
-            outputPrintClient = new PrintWriter(clientSocket.getOutputStream());
+            sayHello();
+            if (framed) {
+                frameReaderClient = new FrameReader(new BufferedInputStream(clientSocket.getInputStream()));
+                outputStreamClient = new BufferedOutputStream(clientSocket.getOutputStream());
+            } else {
+                inputBufferClient = new BufferedReader(new InputStreamReader(clientSocket.getInputStream()));
+                outputPrintClient = new PrintWriter(clientSocket.getOutputStream());
+            }
         } catch (IOException e) {
             e.printStackTrace();
             closingNH();
@@ -160,7 +254,7 @@ public class NetworkHandler {
         try {
             while (!matchEnd) {
                 //System.out.println("Still connected");
-                String msgFromServer = inputBufferClient.readLine();
+                Message msgFromServer = readMessage();
                 //System.out.println("messaggio dal server: " + msgFromServer);
                 analysisOfReceivedMessageServer(msgFromServer);
             }
@@ -174,6 +268,74 @@ public class NetworkHandler {
         System.exit(0);
     }
 
+    /**
+     * This method tells the server the capabilities wanted by the client and waits for the ones agreed, which
+     * come in the last json line sent by the server if the frames are agreed. The answer is read one byte at a
+     * time, so no frame following it is consumed by a buffer; nothing else is sent before the answer.
+     * The client always accepts the results of a move in a single message; the frames, the binary payloads and
+     * the compression are asked as chosen by the player and used only if the server accepts them.
+     * @throws IOException if the connection is lost
+     */
+    private void sayHello() throws IOException {
+        OutputStream out = clientSocket.getOutputStream();
+        HelloMessage hello = new HelloMessage(requestedWireFormat.isFramed(), requestedWireFormat == WireFormat.BINARY_FRAMES,
+                requestedWireFormat.isFramed() && requestedCompression, true);
+        out.write((gsonObj.toJson(hello) + "\n").getBytes(StandardCharsets.UTF_8));
+        out.flush();
+
+        InputStream in = clientSocket.getInputStream();
+        ByteArrayOutputStream line = new ByteArrayOutputStream();
+        int b = in.read();
+        while (b >= 0 && b != '\n') {
+            line.write(b);
+            b = in.read();
+        }
+        if (b < 0) {
+            throw new IOException("connection closed while agreeing on the capabilities");
+        }
+        Message answer = MessageDecoder.CLIENT_SIDE.decode(line.toString(StandardCharsets.UTF_8));
+        if (!(answer instanceof HelloAckMessage)) {
+            throw new IOException("the server did not answer to the hello");
+        }
+        HelloAckMessage agreed = (HelloAckMessage) answer;
+        framed = agreed.isFramed();
+        studentsBatchAllowed = agreed.isBatching();
+        if (agreed.isCompressed()) {
+            compressor = new FrameCompressor();
+        }
+    }
+
+    /**
+     * This method waits for the next message from the server, as a json line or as a frame, and decodes it to
+     * its class; a message received in binary form is already decoded by the BinaryCodec, and a compressed
+     * frame is inflated before decoding it
+     * @return the message
+     * @throws IOException if the connection is lost or the message is not valid
+     */
+    private Message readMessage() throws IOException {
+        if (!framed) {
+            String line = inputBufferClient.readLine();
+            if (line == null) {
+                throw new EOFException("connection closed by the server");
+            }
+            return MessageDecoder.CLIENT_SIDE.decode(line);
+        }
+        Frame frame = frameReaderClient.read();
+        if (frame == null) {
+            throw new EOFException("connection closed by the server");
+        }
+        if (frame.isCompressed()) {
+            if (compressor == null) {
+                throw new IOException("compressed frame without compression");
+            }
+            compressor.inflate(frame);
+        }
+        if (frame.isBinary()) {
+            return frame.decodeBinary();
+        }
+        return MessageDecoder.CLIENT_SIDE.decode(frame.payloadAsString());
+    }
+
     /**
      * This method starts a thread which sends a Ping message to the server every 5 seconds
      */
@@ -193,7 +355,17 @@ public class NetworkHandler {
      * This method serializes the client message in json and sends it to the server.
      * @param msgToSend is the message to be sent.
      */
-    public void sendMessage(Message msgToSend) {
+    public synchronized void sendMessage(Message msgToSend) {
+        if (framed) {
+            try {
+                byte[] frame = FrameCodec.encode(msgToSend.getObjectOfMessage(), gsonObj.toJson(msgToSend));
+                outputStreamClient.write(compressor != null ? compressor.compress(frame) : frame);
+                outputStreamClient.flush();
+            } catch (IOException e) {
+                System.out.println("Server no longer available :(  " + e.getMessage());
+            }
+            return;
+        }
         outputPrintClient.println(gsonObj.toJson(msgToSend));
         outputPrintClient.flush();
     }
@@ -202,12 +374,25 @@ public class NetworkHandler {
      * This method is used by the NetworkHandler, which represent the client-side of the game, to access the game:
      * nickNamePlayer represents the nickName chosen.
      * newMatchBool specifies whether the player wants to create a new match or not.
+     * The nickname is always sent in a QuickLoginMessage together with what the player wants, so the server
+     * answers without waiting for another message: if the player wants to create a new match the specifics are
+     * asked immediately and the server creates the lobby; otherwise the player chooses the number of players and
+     * the mode of the match to join, and the server puts him in the first open lobby with those settings. Only if
+     * there is no such lobby the player chooses one from the list sent by the server, or creates a new match if no
+     * lobby is open.
      */
     public void loginFromClient() {
         nickNamePlayer = cli.loginNickname();
         boolean newMatchBool = cli.newMatchBoolean();
-        LoginMessage msgLogin = new LoginMessage(nickNamePlayer, newMatchBool);
-        sendMessage(msgLogin);
+        if (newMatchBool) {
+            int numberOfPlayerInTheLobby = cli.numberOfPlayer();
+            boolean expertMode = cli.expertModeSelection();
+            sendMessage(new QuickLoginMessage(nickNamePlayer, numberOfPlayerInTheLobby, expertMode));
+            return;
+        }
+        int numberOfPlayersWanted = cli.lobbiesNumberOfPlayersFilter();
+        String modeWanted = cli.lobbiesModeFilter();
+        sendMessage(new QuickLoginMessage(nickNamePlayer, numberOfPlayersWanted, modeWanted));
     }
 
 
@@ -216,682 +401,699 @@ public class NetworkHandler {
      * @param receivedMessageInJson is the string received in json format, which will be deserialized.
      */
     public void analysisOfReceivedMessageServer(String receivedMessageInJson) throws InterruptedException {
+        analysisOfReceivedMessageServer(MessageDecoder.CLIENT_SIDE.decode(receivedMessageInJson));
+    }
 
-        Message receivedMessageFromJson = gsonObj.fromJson(receivedMessageInJson, Message.class);
+    /**
+     * This method is used by the NetworkHandler class to analyse the received message from the server.
+     * The message has already been decoded to the class registered for its object, and it is handed over to
+     * the method registered for that class.
+     * @param receivedMessageFromJson is the message received, already deserialized.
+     */
+    public void analysisOfReceivedMessageServer(Message receivedMessageFromJson) throws InterruptedException {
+        if (!DISPATCHER.dispatch(this, null, receivedMessageFromJson)) {
+            cli.errorObject();
+        }
+    }
 
-        String messageObject = receivedMessageFromJson.getObjectOfMessage();
+    /**
+     * This method handles the answer to the login: the player creates a new match or waits for the lobby
+     * @param msgLoginSuccess the message received
+     */
+    private void onMatchCreation(AckMatchCreationMessage msgLoginSuccess) {
+        cli.loginSuccess();
+        boolean newMatchNeeded = msgLoginSuccess.getNewMatchNeeded();
+        playerID = msgLoginSuccess.getPlayerID();
+        if (newMatchNeeded) {
+            creatingNewSpecsFromClient();
+        } else {
+            sendAckFromClient();
+        }
+    }
 
+    /**
+     * This method lets the player choose the lobby to join among the ones listed by the server
+     * @param askMatchToJoinMessage the message received
+     */
+    private void onJoinMatch(AskMatchToJoinMessage askMatchToJoinMessage) {
+        int lobbyIDChosenByPlayer = cli.lobbyToChoose(askMatchToJoinMessage.getLobbiesID(), askMatchToJoinMessage.getLobbiesExpertMode(), askMatchToJoinMessage.getLobbiesNumberOfPlayers(), askMatchToJoinMessage.getLobbiesPlayersAdded(), askMatchToJoinMessage.getPage(), askMatchToJoinMessage.getNumberOfPages());
+
+        if(lobbyIDChosenByPlayer == CLI.NEXT_LOBBIES_PAGE){
+            // same filters, next page
+            sendMessage(new LobbyListRequestMessage(askMatchToJoinMessage.getNumOfPlayersFilter(), askMatchToJoinMessage.getModeFilter(), askMatchToJoinMessage.getPage() + 1));
+        }else if(lobbyIDChosenByPlayer == CLI.FILTER_LOBBIES){
+            sendMessage(new LobbyListRequestMessage(cli.lobbiesNumberOfPlayersFilter(), cli.lobbiesModeFilter(), 0));
+        }else {
+            ReplyChosenLobbyToJoinMessage replyChosenLobbyToJoinMessage = new ReplyChosenLobbyToJoinMessage(lobbyIDChosenByPlayer);
+            sendMessage(replyChosenLobbyToJoinMessage);
+        }
+    }
 
-        // analyze the message
-        switch (messageObject) {
+    /**
+     * This method saves the ID given by the server to the player
+     * @param idSetAfterLobbyChoiceMessage the message received
+     */
+    private void onPlayerIDSet(IDSetAfterLobbyChoiceMessage idSetAfterLobbyChoiceMessage) {
+        playerID = idSetAfterLobbyChoiceMessage.getPlayerID();
+        System.out.println("player id: " + playerID);
+    }
 
-            /* DEFAULT TO USE:
-                LoginMessage msgLogin = new LoginMessage();
-                msgLogin = gsonObj.fromJson(receivedMessageInJson, LoginMessage.class);
-                System.out.println(msgLogin.getNicknameOfPlayer());
-                loginInServer(msgLogin.getNicknameOfPlayer());
-                break;
-                */
-            case "MatchCreation":
-                cli.loginSuccess();
-                AckMatchCreationMessage msgLoginSuccess = gsonObj.fromJson(receivedMessageInJson, AckMatchCreationMessage.class);
-                boolean newMatchNeeded = msgLoginSuccess.getNewMatchNeeded();
-                playerID = msgLoginSuccess.getPlayerID();
-                if (newMatchNeeded) {
-                    creatingNewSpecsFromClient();
-                } else {
-                    sendAckFromClient();
-                }
-                break;
+    /**
+     * This method asks the player a new nickname, since the one chosen is already used
+     * @param message the message received
+     */
+    private void onNicknameNotValid(NicknameNotValidMessage message) {
+        cli.nicknameNotAvailable();
+        loginFromClient();
+    }
 
-            case "join match":
-                AskMatchToJoinMessage askMatchToJoinMessage = gsonObj.fromJson(receivedMessageInJson, AskMatchToJoinMessage.class);
+    /**
+     * This method starts the match: the model view is initialized and the first player chooses the color of the tower
+     * @param matchStartMessage the message received
+     */
+    private void onMatchStart(MatchStartMessage matchStartMessage) {
+        this.matchStarted = true;
+        cli.startAlert();
+        modelView = new ModelView(playerID);
 
-                int lobbyIDChosenByPlayer = cli.lobbyToChoose(askMatchToJoinMessage.getLobbiesTmp(), askMatchToJoinMessage.getLobbiesExpertMode(), askMatchToJoinMessage.getLobbiesNumberOfPlayers(), askMatchToJoinMessage.getLobbiesEnd());
+        System.out.println("NUMERO DI GIOCATORI TOTALI: " + matchStartMessage.getNumPlayer());
+        System.out.println("PARTITA IN EXPERT MODE: " + matchStartMessage.isExpertMode());
 
-                ReplyChosenLobbyToJoinMessage replyChosenLobbyToJoinMessage = new ReplyChosenLobbyToJoinMessage(lobbyIDChosenByPlayer);
-                sendMessage(replyChosenLobbyToJoinMessage);
+        System.out.println("player id: " + playerID);
+        System.out.println("first id: " + matchStartMessage.getFirstPlayer());
 
-                break;
+        updateStartModelView(matchStartMessage);                                            //primo update della cli, gli passo il messaggio ricevuto dal server così posso inizializzare
 
-            case "playerID_set":
-                IDSetAfterLobbyChoiceMessage idSetAfterLobbyChoiceMessage = gsonObj.fromJson(receivedMessageInJson, IDSetAfterLobbyChoiceMessage.class);
-                playerID = idSetAfterLobbyChoiceMessage.getPlayerID();
-                System.out.println("player id: " + playerID);
-                break;
 
-            case "NicknameNotValid":
-                cli.nicknameNotAvailable();
-                loginFromClient();
-                break;
+        if (matchStartMessage.getFirstPlayer() == playerID) {
+            cli.isYourTurn();
+
+            towerColor = cli.towerChoice(modelView);
 
-            case "start":
-                this.matchStarted = true;
-                cli.startAlert();
-                modelView = new ModelView(playerID);
-                MatchStartMessage matchStartMessage;
-                matchStartMessage = gsonObj.fromJson(receivedMessageInJson, MatchStartMessage.class);
+            ChosenTowerColorMessage chosenTowerColorMessage = new ChosenTowerColorMessage();
+            chosenTowerColorMessage.setColor(towerColor);
+            chosenTowerColorMessage.setSender_ID(playerID);
+            sendMessage(chosenTowerColorMessage);
 
-                System.out.println("NUMERO DI GIOCATORI TOTALI: " + matchStartMessage.getNumPlayer());
-                System.out.println("PARTITA IN EXPERT MODE: " + matchStartMessage.isExpertMode());
 
-                System.out.println("player id: " + playerID);
-                System.out.println("first id: " + matchStartMessage.getFirstPlayer());
+        } else if (matchStartMessage.getFirstPlayer() != playerID){
+            cli.turnWaitingTowers(matchStartMessage.getFirstPlayer());
 
-                updateStartModelView(matchStartMessage);                                            //primo update della cli, gli passo il messaggio ricevuto dal server così posso inizializzare
+        }
+    }
 
+    /**
+     * This method tells the player the match is ended
+     * @param endOfMatchMessage the message received
+     */
+    private void onEndOfMatch(EndOfMatchMessage endOfMatchMessage) {
+        matchIsEnded(endOfMatchMessage);
+    }
 
-                if (matchStartMessage.getFirstPlayer() == playerID) {
-                    cli.isYourTurn();
+    /**
+     * This method handles the acks of the server, depending on their subObject
+     * @param ackMessageMapped the message received
+     */
+    private void onAck(AckMessage ackMessageMapped) {
+        switch (ackMessageMapped.getSubObject()) {
+            case "waiting":
+                cli.ackWaiting();
+                break;
 
-                    towerColor = cli.towerChoice(modelView);
+            case "tower_color":
+                if ((ackMessageMapped.getNextPlayer() == playerID) && (towerColor == null)) {
+                    ArrayList<Tower> notAvailableTowerColors = ackMessageMapped.getNotAvailableTowerColors();
+                    towerColor = cli.towerChoiceNext(notAvailableTowerColors, modelView);
 
                     ChosenTowerColorMessage chosenTowerColorMessage = new ChosenTowerColorMessage();
                     chosenTowerColorMessage.setColor(towerColor);
                     chosenTowerColorMessage.setSender_ID(playerID);
                     sendMessage(chosenTowerColorMessage);
 
+                    break;
 
-                } else if (matchStartMessage.getFirstPlayer() != playerID){
-                    cli.turnWaitingTowers(matchStartMessage.getFirstPlayer());
-
-                }
-                break;
-            case "end":
-                matchIsEnded(receivedMessageInJson);
-                break;
-
-            // in case the message was an AckMessage
-            case "ack":
-                AckMessage ackMessageMapped = gsonObj.fromJson(receivedMessageInJson, AckMessage.class);
-                switch (ackMessageMapped.getSubObject()) {
-                    case "waiting":
-                        cli.ackWaiting();
-                        break;
-
-                    case "tower_color":
-                        if ((ackMessageMapped.getNextPlayer() == playerID) && (towerColor == null)) {
-                            ArrayList<Tower> notAvailableTowerColors = ackMessageMapped.getNotAvailableTowerColors();
-                            towerColor = cli.towerChoiceNext(notAvailableTowerColors, modelView);
-
-                            ChosenTowerColorMessage chosenTowerColorMessage = new ChosenTowerColorMessage();
-                            chosenTowerColorMessage.setColor(towerColor);
-                            chosenTowerColorMessage.setSender_ID(playerID);
-                            sendMessage(chosenTowerColorMessage);
-
-                            break;
-
-                        } else if ((ackMessageMapped.getNextPlayer() == playerID) && (towerColor != null)) {
-                            wizard = cli.deckChoice();
-                            ChosenDeckMessage chosenDeckMessage = new ChosenDeckMessage();
-                            chosenDeckMessage.setDeck(wizard);
-                            chosenDeckMessage.setSender_ID(playerID);
-                            sendMessage(chosenDeckMessage);
-                            break;
-
-                        } else if ((ackMessageMapped.getNextPlayer() != playerID) && (towerColor != null)) {
-                            if(modelView.getNumberOfPlayersGame() == 3){
-                                if(ackMessageMapped.getNotAvailableTowerColors().size() != 3){
-                                    cli.turnWaitingTowers(ackMessageMapped.getNextPlayer());
-                                }else{
-                                    cli.turnWaitingDecks(ackMessageMapped.getNextPlayer());
-                                }
-                            }else{
-                                if(ackMessageMapped.getNotAvailableTowerColors().size() != 2){
-                                    cli.turnWaitingTowers(ackMessageMapped.getNextPlayer());
-                                }else{
-                                    cli.turnWaitingDecks(ackMessageMapped.getNextPlayer());
-                                }
-                            }
-                            break;
+                } else if ((ackMessageMapped.getNextPlayer() == playerID) && (towerColor != null)) {
+                    wizard = cli.deckChoice();
+                    ChosenDeckMessage chosenDeckMessage = new ChosenDeckMessage();
+                    chosenDeckMessage.setDeck(wizard);
+                    chosenDeckMessage.setSender_ID(playerID);
+                    sendMessage(chosenDeckMessage);
+                    break;
 
-                        } else if ((ackMessageMapped.getNextPlayer() != playerID) && (towerColor == null)) {
+                } else if ((ackMessageMapped.getNextPlayer() != playerID) && (towerColor != null)) {
+                    if(modelView.getNumberOfPlayersGame() == 3){
+                        if(ackMessageMapped.getNotAvailableTowerColors().size() != 3){
                             cli.turnWaitingTowers(ackMessageMapped.getNextPlayer());
-                            break;
-
+                        }else{
+                            cli.turnWaitingDecks(ackMessageMapped.getNextPlayer());
                         }
-                        break;
+                    }else{
+                        if(ackMessageMapped.getNotAvailableTowerColors().size() != 2){
+                            cli.turnWaitingTowers(ackMessageMapped.getNextPlayer());
+                        }else{
+                            cli.turnWaitingDecks(ackMessageMapped.getNextPlayer());
+                        }
+                    }
+                    break;
 
-                    case "deck":
-                        if ((ackMessageMapped.getNextPlayer() == playerID) && (wizard == null)) {
-                            ArrayList<Wizard> notAvailableDecks = ackMessageMapped.getNotAvailableDecks();
-
-                            wizard = cli.deckChoiceNext(notAvailableDecks);
-                            ChosenDeckMessage chosenDeckMessage = new ChosenDeckMessage();
-                            chosenDeckMessage.setDeck(wizard);
-                            chosenDeckMessage.setSender_ID(playerID);
-                            sendMessage(chosenDeckMessage);
-                            break;
-
-                        } else if ((ackMessageMapped.getNextPlayer() == playerID) && (wizard != null)) {
-                            cli.bagClick();
-                            sendBagClickedByFirstClient();
-                            break;
-
-                        } else if (ackMessageMapped.getNextPlayer() != playerID && (wizard != null)) {
-                            if(modelView.getNumberOfPlayersGame() == 3){
-                                if(ackMessageMapped.getNotAvailableDecks().size() != 3){
-                                    cli.turnWaitingDecks(ackMessageMapped.getNextPlayer());
-                                }else{
-                                    cli.turnWaiting(ackMessageMapped.getNextPlayer());
-                                }
-                            }else{
-                                if(ackMessageMapped.getNotAvailableDecks().size() != 2){
-                                    cli.turnWaitingDecks(ackMessageMapped.getNextPlayer());
-                                }else{
-                                    cli.turnWaiting(ackMessageMapped.getNextPlayer());
-                                }
-                            }
-                            break;
+                } else if ((ackMessageMapped.getNextPlayer() != playerID) && (towerColor == null)) {
+                    cli.turnWaitingTowers(ackMessageMapped.getNextPlayer());
+                    break;
+
+                }
+                break;
 
-                        } else if (ackMessageMapped.getNextPlayer() != playerID && (wizard == null)) {
+            case "deck":
+                if ((ackMessageMapped.getNextPlayer() == playerID) && (wizard == null)) {
+                    ArrayList<Wizard> notAvailableDecks = ackMessageMapped.getNotAvailableDecks();
+
+                    wizard = cli.deckChoiceNext(notAvailableDecks);
+                    ChosenDeckMessage chosenDeckMessage = new ChosenDeckMessage();
+                    chosenDeckMessage.setDeck(wizard);
+                    chosenDeckMessage.setSender_ID(playerID);
+                    sendMessage(chosenDeckMessage);
+                    break;
+
+                } else if ((ackMessageMapped.getNextPlayer() == playerID) && (wizard != null)) {
+                    cli.bagClick();
+                    sendBagClickedByFirstClient();
+                    break;
+
+                } else if (ackMessageMapped.getNextPlayer() != playerID && (wizard != null)) {
+                    if(modelView.getNumberOfPlayersGame() == 3){
+                        if(ackMessageMapped.getNotAvailableDecks().size() != 3){
+                            cli.turnWaitingDecks(ackMessageMapped.getNextPlayer());
+                        }else{
+                            cli.turnWaiting(ackMessageMapped.getNextPlayer());
+                        }
+                    }else{
+                        if(ackMessageMapped.getNotAvailableDecks().size() != 2){
                             cli.turnWaitingDecks(ackMessageMapped.getNextPlayer());
-                            break;
+                        }else{
+                            cli.turnWaiting(ackMessageMapped.getNextPlayer());
                         }
+                    }
+                    break;
 
-                        break;
+                } else if (ackMessageMapped.getNextPlayer() != playerID && (wizard == null)) {
+                    cli.turnWaitingDecks(ackMessageMapped.getNextPlayer());
+                    break;
+                }
 
-                    case "refillClouds":
-                        modelView.setStudentsOnClouds(ackMessageMapped.getStudents());
+                break;
 
-                        cli.showSchoolBoard(playerID, modelView);
-                        cli.showCharacterCardsInTheGame(modelView);
-                        cli.showIslandsSituation(modelView);
-                        cli.showClouds(modelView);
+            case "refillClouds":
+                modelView.setStudentsOnClouds(ackMessageMapped.getStudents());
 
-                        if (ackMessageMapped.getNextPlayer() == playerID && !assistantChoiceFlag) {
-                            int assistantChosen = cli.assistantChoice(modelView.getAssistantCardsValuesPlayer());
-                            modelView.setLastAssistantChosen(assistantChosen);
+                cli.showSchoolBoard(playerID, modelView);
+                cli.showCharacterCardsInTheGame(modelView);
+                cli.showIslandsSituation(modelView);
+                cli.showClouds(modelView);
 
-                            assistantChoiceFlag = true;
-                            sendChosenAssistantCardMessage(assistantChosen);
+                if (ackMessageMapped.getNextPlayer() == playerID && !assistantChoiceFlag) {
+                    int assistantChosen = cli.assistantChoice(modelView.getAssistantCardsValuesPlayer());
+                    modelView.setLastAssistantChosen(assistantChosen);
 
-                        } else if (ackMessageMapped.getNextPlayer() != playerID && !assistantChoiceFlag) {
-                            cli.turnWaitingAssistant(ackMessageMapped.getNextPlayer());
-                        }
+                    assistantChoiceFlag = true;
+                    sendChosenAssistantCardMessage(assistantChosen);
 
-                        break;
+                } else if (ackMessageMapped.getNextPlayer() != playerID && !assistantChoiceFlag) {
+                    cli.turnWaitingAssistant(ackMessageMapped.getNextPlayer());
+                }
 
-                    case "assistant":
-                        if (ackMessageMapped.getNextPlayer() == playerID && !assistantChoiceFlag) {
-                            ArrayList<Integer> assistantAlreadyUsedInThisRound = ackMessageMapped.getAssistantAlreadyUsedInThisRound();
-                            int assistantChosen = cli.assistantChoiceNext(modelView.getAssistantCardsValuesPlayer(), assistantAlreadyUsedInThisRound);
+                break;
 
-                            modelView.setLastAssistantChosen(assistantChosen);
+            case "assistant":
+                if (ackMessageMapped.getNextPlayer() == playerID && !assistantChoiceFlag) {
+                    ArrayList<Integer> assistantAlreadyUsedInThisRound = ackMessageMapped.getAssistantAlreadyUsedInThisRound();
+                    int assistantChosen = cli.assistantChoiceNext(modelView.getAssistantCardsValuesPlayer(), assistantAlreadyUsedInThisRound);
 
-                            assistantChoiceFlag = true;
-                            sendChosenAssistantCardMessage(assistantChosen);
+                    modelView.setLastAssistantChosen(assistantChosen);
 
-                        } else if (ackMessageMapped.getNextPlayer() != playerID && !assistantChoiceFlag) {
-                            cli.turnWaitingAssistant(ackMessageMapped.getNextPlayer());
+                    assistantChoiceFlag = true;
+                    sendChosenAssistantCardMessage(assistantChosen);
 
-                        } else if (ackMessageMapped.getNextPlayer() != playerID && assistantChoiceFlag) {
-                            cli.turnWaiting(ackMessageMapped.getNextPlayer());
+                } else if (ackMessageMapped.getNextPlayer() != playerID && !assistantChoiceFlag) {
+                    cli.turnWaitingAssistant(ackMessageMapped.getNextPlayer());
 
-                        } else if (ackMessageMapped.getNextPlayer() == playerID && assistantChoiceFlag) {
-                            assistantChoiceFlag = false;
-                            // choose the student to move
-                            studentChosen = cli.choiceOfStudentsToMove(playerID, modelView);
-                            if(studentChosen == -2){
-                                lastCallFrom = "choiceOfStudentsToMove";
-                                String characterChosen = cli.characterChoice(modelView);
-                                sendRequestCharacterMessage(characterChosen);
-                                break;
-                            }
-                            // choose where to move the student
-                            int locationChosen = cli.choiceLocationToMove(playerID, modelView);
-                            if(locationChosen == -2){
-                                // if the player chose to use a character
-                                lastCallFrom = "choiceLocationToMove";
-                                String characterChosen = cli.characterChoice(modelView);
-                                sendRequestCharacterMessage(characterChosen);
-                                break;
-                            }
-                            sendMovedStudentsFromEntrance(studentChosen, locationChosen);
-                            numberOfChosenStudent ++;
+                } else if (ackMessageMapped.getNextPlayer() != playerID && assistantChoiceFlag) {
+                    cli.turnWaiting(ackMessageMapped.getNextPlayer());
 
-                        }
+                } else if (ackMessageMapped.getNextPlayer() == playerID && assistantChoiceFlag) {
+                    assistantChoiceFlag = false;
+                    // choose the student to move
+                    chooseStudentsToMove();
 
-                        break;
+                }
 
-                    case "action_1_dining_room":
-                        updateModelViewActionOne(ackMessageMapped);
+                break;
 
-                        if (ackMessageMapped.getNextPlayer() == playerID && numberOfChosenStudent < numberOfStudentToMoveAction1) {
-                            studentChosen = cli.choiceOfStudentsToMove(playerID, modelView);
-                            if(studentChosen == -2){
-                                lastCallFrom = "choiceOfStudentsToMove";
-                                String characterChosen = cli.characterChoice(modelView);
-                                sendRequestCharacterMessage(characterChosen);
-                                break;
-                            }
-                            int locationChosen = cli.choiceLocationToMove(playerID, modelView);
-                            if(locationChosen == -2){
-                                lastCallFrom = "choiceLocationToMove";
-                                String characterChosen = cli.characterChoice(modelView);
-                                sendRequestCharacterMessage(characterChosen);
-                                break;
-                            }
-                            sendMovedStudentsFromEntrance(studentChosen, locationChosen);
-                            numberOfChosenStudent++;
-                        } else if (ackMessageMapped.getNextPlayer() != playerID && numberOfChosenStudent <= numberOfStudentToMoveAction1 ) {
-                            cli.turnWaiting(ackMessageMapped.getNextPlayer());
-                        } else if (ackMessageMapped.getNextPlayer() == playerID && numberOfChosenStudent == numberOfStudentToMoveAction1) {
-                            motherNatureIslandID = 0;
-                            for (int i = 0; i < 12; i++) {
-                                if(modelView.getIslandGame().get(i) != null) {
-                                    if (modelView.getIslandGame().get(i).isMotherNaturePresence()) {
-                                        motherNatureIslandID = i;
-                                    }
-                                }
-                            }
-                            int chosenIslandID = cli.choiceMotherNatureMovement(playerID, motherNatureIslandID, modelView);
-                            if(chosenIslandID == -2){
-                                lastCallFrom = "choiceMotherNatureMovement";
-                                String characterChosen = cli.characterChoice(modelView);
-                                sendRequestCharacterMessage(characterChosen);
-                                break;
-                            }
-                            sendMovedMotherNature(chosenIslandID);
-                        }
+            case "action_1_dining_room":
+                updateModelViewActionOne(ackMessageMapped);
 
+                if (ackMessageMapped.getNextPlayer() == playerID && numberOfChosenStudent < numberOfStudentToMoveAction1) {
+                    studentChosen = cli.choiceOfStudentsToMove(playerID, modelView);
+                    if(studentChosen == -2){
+                        lastCallFrom = "choiceOfStudentsToMove";
+                        String characterChosen = cli.characterChoice(modelView);
+                        sendRequestCharacterMessage(characterChosen);
                         break;
-
-                    case "action_1_island":
-                        updateModelViewActionOne(ackMessageMapped);
-                        if (ackMessageMapped.getNextPlayer() == playerID && numberOfChosenStudent < numberOfStudentToMoveAction1) {
-                            studentChosen = cli.choiceOfStudentsToMove(playerID, modelView);
-                            if(studentChosen == -2){
-                                lastCallFrom = "choiceOfStudentsToMove";
-                                String characterChosen = cli.characterChoice(modelView);
-                                sendRequestCharacterMessage(characterChosen);
-                                break;
-                            }
-                            int locationChosen = cli.choiceLocationToMove(playerID, modelView);
-                            if(locationChosen == -2){
-                                lastCallFrom = "choiceLocationToMove";
-                                String characterChosen = cli.characterChoice(modelView);
-                                sendRequestCharacterMessage(characterChosen);
-                                break;
-                            }
-                            sendMovedStudentsFromEntrance(studentChosen, locationChosen);
-                            numberOfChosenStudent++;
-                        } else if (ackMessageMapped.getNextPlayer() != playerID && numberOfChosenStudent <= numberOfStudentToMoveAction1) {
-                            cli.turnWaiting(ackMessageMapped.getNextPlayer());
-
-                        } else if (ackMessageMapped.getNextPlayer() == playerID && numberOfChosenStudent == numberOfStudentToMoveAction1) {
-                            motherNatureIslandID = 0;
-                            for (int i = 0; i < 12; i++) {
-                                if(modelView.getIslandGame().get(i) != null) {
-                                    if (modelView.getIslandGame().get(i).isMotherNaturePresence()) {
-                                        motherNatureIslandID = i;
-                                    }
-                                }
-                            }
-                            int chosenIslandID = cli.choiceMotherNatureMovement(playerID, motherNatureIslandID, modelView);
-                            if(chosenIslandID == -2){
-                                lastCallFrom = "choiceMotherNatureMovement";
-                                String characterChosen = cli.characterChoice(modelView);
-                                sendRequestCharacterMessage(characterChosen);
-                                break;
+                    }
+                    int locationChosen = cli.choiceLocationToMove(playerID, modelView);
+                    if(locationChosen == -2){
+                        lastCallFrom = "choiceLocationToMove";
+                        String characterChosen = cli.characterChoice(modelView);
+                        sendRequestCharacterMessage(characterChosen);
+                        break;
+                    }
+                    sendMovedStudentsFromEntrance(studentChosen, locationChosen);
+                    numberOfChosenStudent++;
+                } else if (ackMessageMapped.getNextPlayer() != playerID && numberOfChosenStudent <= numberOfStudentToMoveAction1 ) {
+                    cli.turnWaiting(ackMessageMapped.getNextPlayer());
+                } else if (ackMessageMapped.getNextPlayer() == playerID && numberOfChosenStudent == numberOfStudentToMoveAction1) {
+                    motherNatureIslandID = 0;
+                    for (int i = 0; i < 12; i++) {
+                        if(modelView.getIslandGame().get(i) != null) {
+                            if (modelView.getIslandGame().get(i).isMotherNaturePresence()) {
+                                motherNatureIslandID = i;
                             }
-                            sendMovedMotherNature(chosenIslandID);
                         }
+                    }
+                    int chosenIslandID = cli.choiceMotherNatureMovement(playerID, motherNatureIslandID, modelView);
+                    if(chosenIslandID == -2){
+                        lastCallFrom = "choiceMotherNatureMovement";
+                        String characterChosen = cli.characterChoice(modelView);
+                        sendRequestCharacterMessage(characterChosen);
                         break;
+                    }
+                    sendMovedMotherNature(chosenIslandID);
+                }
 
-                    case "action_2_movement":
-                        if(!ackMessageMapped.isAction3Valid()){
-                            action3valid = false;
-                            nextPlayerAction3NotValid = ackMessageMapped.getNextPlayer();
-                        }
-                        updateModelViewActionTwo(ackMessageMapped);
-                        cli.newMotherNaturePosition(ackMessageMapped.getDestinationIsland_ID());
-                        break;
+                break;
 
-                    case "action_2_influence":
-                        updateModelViewActionTwo(ackMessageMapped);
-                        for (int i = 0; i < 12; i++) {
-                            if(modelView.getIslandGame().get(i) != null) {
-                                if (modelView.getIslandGame().get(i).isMotherNaturePresence()) {
-                                    motherNatureIslandID = i;
-                                }
-                            }
-                        }
-                        if (ackMessageMapped.isMasterChanged()) {
-                            modelView.getIslandGame().get(motherNatureIslandID).setMasterOfArchipelago(ackMessageMapped.getNewMaster_ID());
-                            if (ackMessageMapped.getNewMaster_ID() == playerID && ackMessageMapped.getPreviousMaster_ID() != playerID) {
-                                cli.newMaster(modelView, playerID);
-                            }else if(ackMessageMapped.getNewMaster_ID() != playerID && ackMessageMapped.getPreviousMaster_ID() == playerID){
-                                cli.oldMaster(modelView, motherNatureIslandID, playerID);
-                            }
-                        }
+            case "action_1_island":
+                updateModelViewActionOne(ackMessageMapped);
+                if (ackMessageMapped.getNextPlayer() == playerID && numberOfChosenStudent < numberOfStudentToMoveAction1) {
+                    studentChosen = cli.choiceOfStudentsToMove(playerID, modelView);
+                    if(studentChosen == -2){
+                        lastCallFrom = "choiceOfStudentsToMove";
+                        String characterChosen = cli.characterChoice(modelView);
+                        sendRequestCharacterMessage(characterChosen);
                         break;
-
-                    case "action_2_union":
-                        updateModelViewActionTwo(ackMessageMapped);
-                        if(!(ackMessageMapped.getIslandsUnified().equals("none"))){
-                            int islandUnifiedFlag = -2;
-                            if(ackMessageMapped.getIslandsUnified().equals("previous")){
-                                islandUnifiedFlag = -1;
-                            }else if(ackMessageMapped.getIslandsUnified().equals("next")){
-                                islandUnifiedFlag = 1;
-                            }else if(ackMessageMapped.getIslandsUnified().equals("both")){
-                                islandUnifiedFlag = 0;
-                            }
-                            cli.showUnion(motherNatureIslandID, islandUnifiedFlag, ackMessageMapped.getIslands_ID());
-                        }
-                        if(action3valid) {
-                            if (ackMessageMapped.getNextPlayer() == playerID) {
-                                int cloudChosenID = cli.chooseCloud(playerID, modelView);
-                                if (cloudChosenID == -2) {
-                                    lastCallFrom = "chooseCloud";
-                                    String characterChosen = cli.characterChoice(modelView);
-                                    sendRequestCharacterMessage(characterChosen);
-                                    break;
-                                }
-                                sendChosenCloudMessage(cloudChosenID);
-                            } else if (ackMessageMapped.getNextPlayer() != playerID) {
-                                cli.turnWaitingClouds(ackMessageMapped.getNextPlayer());
-                            }
-                        }else{
-                            if(nextPlayerAction3NotValid == playerID){
-                                studentChosen = cli.choiceOfStudentsToMove(playerID, modelView);
-                                if(studentChosen == -2){
-                                    lastCallFrom = "choiceOfStudentsToMove";
-                                    String characterChosen = cli.characterChoice(modelView);
-                                    sendRequestCharacterMessage(characterChosen);
-                                    break;
-                                }
-                                int locationChosen = cli.choiceLocationToMove(playerID, modelView);
-                                if(locationChosen == -2){
-                                    lastCallFrom = "choiceLocationToMove";
-                                    String characterChosen = cli.characterChoice(modelView);
-                                    sendRequestCharacterMessage(characterChosen);
-                                    break;
-                                }
-                                sendMovedStudentsFromEntrance(studentChosen, locationChosen);
-                                numberOfChosenStudent++;
-                            }else{
-                                cli.turnWaiting(nextPlayerAction3NotValid);
-                            }
-                        }
+                    }
+                    int locationChosen = cli.choiceLocationToMove(playerID, modelView);
+                    if(locationChosen == -2){
+                        lastCallFrom = "choiceLocationToMove";
+                        String characterChosen = cli.characterChoice(modelView);
+                        sendRequestCharacterMessage(characterChosen);
                         break;
-
-                    case "action_3":
-                        updateModelViewActionThree(ackMessageMapped);
-                        messengerActive = false;
-                        characterUsed = false;
-                        if(ackMessageMapped.getNextPlayer() == playerID && ackMessageMapped.isNextPlanningPhase()){
-                            cli.newRoundBeginning();
-                            cli.bagClick();
-                            sendBagClickedByFirstClient();
-                        }else if(ackMessageMapped.getNextPlayer() != playerID && ackMessageMapped.isNextPlanningPhase()){
-                            cli.newRoundBeginning();
-                            cli.turnWaiting(ackMessageMapped.getNextPlayer());
-                        }else if(ackMessageMapped.getNextPlayer() != playerID && !ackMessageMapped.isNextPlanningPhase()){
-                            cli.turnWaiting(ackMessageMapped.getNextPlayer());
-                        }else if(ackMessageMapped.getNextPlayer() == playerID && !ackMessageMapped.isNextPlanningPhase()){
-                            int studentChosen = cli.choiceOfStudentsToMove(playerID, modelView);
-                            if(studentChosen == -2){
-                                lastCallFrom = "choiceOfStudentsToMove";
-                                String characterChosen = cli.characterChoice(modelView);
-                                sendRequestCharacterMessage(characterChosen);
-                                break;
-                            }
-                            int locationChosen = cli.choiceLocationToMove(playerID, modelView);
-                            if(locationChosen == -2){
-                                lastCallFrom = "choiceLocationToMove";
-                                String characterChosen = cli.characterChoice(modelView);
-                                sendRequestCharacterMessage(characterChosen);
-                                break;
+                    }
+                    sendMovedStudentsFromEntrance(studentChosen, locationChosen);
+                    numberOfChosenStudent++;
+                } else if (ackMessageMapped.getNextPlayer() != playerID && numberOfChosenStudent <= numberOfStudentToMoveAction1) {
+                    cli.turnWaiting(ackMessageMapped.getNextPlayer());
+
+                } else if (ackMessageMapped.getNextPlayer() == playerID && numberOfChosenStudent == numberOfStudentToMoveAction1) {
+                    motherNatureIslandID = 0;
+                    for (int i = 0; i < 12; i++) {
+                        if(modelView.getIslandGame().get(i) != null) {
+                            if (modelView.getIslandGame().get(i).isMotherNaturePresence()) {
+                                motherNatureIslandID = i;
                             }
-                            sendMovedStudentsFromEntrance(studentChosen, locationChosen);
-                            numberOfChosenStudent++;
-                            assistantChoiceFlag = false;
-                        }
-                        break;
-                    case "monk":
-                        if (ackMessageMapped.getNextPlayer() == playerID) {
-                            int studentChosen = cli.choiceStudentMonk(modelView);
-                            int islandChosen = cli.choiceIslandMonk(modelView);
-                            sendCharacterDataMonk(studentChosen, islandChosen);
-                        }else if (ackMessageMapped.getNextPlayer() != playerID){
-                            cli.turnWaiting(ackMessageMapped.getNextPlayer());
                         }
+                    }
+                    int chosenIslandID = cli.choiceMotherNatureMovement(playerID, motherNatureIslandID, modelView);
+                    if(chosenIslandID == -2){
+                        lastCallFrom = "choiceMotherNatureMovement";
+                        String characterChosen = cli.characterChoice(modelView);
+                        sendRequestCharacterMessage(characterChosen);
                         break;
-                    case "cook" :
-                        if (ackMessageMapped.getNextPlayer() == playerID) {
-                            sendCharacterDataCook();
-                        }else if (ackMessageMapped.getNextPlayer() != playerID){
-                            cli.turnWaiting(ackMessageMapped.getNextPlayer());
-                        }
+                    }
+                    sendMovedMotherNature(chosenIslandID);
+                }
+                break;
 
-                        break;
+            case "action_3":
+                updateModelViewActionThree(ackMessageMapped);
+                messengerActive = false;
+                characterUsed = false;
+                if(ackMessageMapped.getNextPlayer() == playerID && ackMessageMapped.isNextPlanningPhase()){
+                    cli.newRoundBeginning();
+                    cli.bagClick();
+                    sendBagClickedByFirstClient();
+                }else if(ackMessageMapped.getNextPlayer() != playerID && ackMessageMapped.isNextPlanningPhase()){
+                    cli.newRoundBeginning();
+                    cli.turnWaiting(ackMessageMapped.getNextPlayer());
+                }else if(ackMessageMapped.getNextPlayer() != playerID && !ackMessageMapped.isNextPlanningPhase()){
+                    cli.turnWaiting(ackMessageMapped.getNextPlayer());
+                }else if(ackMessageMapped.getNextPlayer() == playerID && !ackMessageMapped.isNextPlanningPhase()){
+                    if(chooseStudentsToMove()) {
+                        assistantChoiceFlag = false;
+                    }
+                }
+                break;
+            case "monk":
+                if (ackMessageMapped.getNextPlayer() == playerID) {
+                    int studentChosen = cli.choiceStudentMonk(modelView);
+                    int islandChosen = cli.choiceIslandMonk(modelView);
+                    sendCharacterDataMonk(studentChosen, islandChosen);
+                }else if (ackMessageMapped.getNextPlayer() != playerID){
+                    cli.turnWaiting(ackMessageMapped.getNextPlayer());
+                }
+                break;
+            case "cook" :
+                if (ackMessageMapped.getNextPlayer() == playerID) {
+                    sendCharacterDataCook();
+                }else if (ackMessageMapped.getNextPlayer() != playerID){
+                    cli.turnWaiting(ackMessageMapped.getNextPlayer());
+                }
 
-                    case "centaur" :
-                        if (ackMessageMapped.getNextPlayer() == playerID) {
-                            sendCharacterDataCentaur();
-                        }else if (ackMessageMapped.getNextPlayer() != playerID){
-                            cli.turnWaiting(ackMessageMapped.getNextPlayer());
-                        }
-                        break;
-                    case "jester":
-                        if (ackMessageMapped.getNextPlayer() == playerID) {
-                            ArrayList<Integer> studentsFromEntranceJester = cli.choiceStudentEntranceJester(playerID, modelView);
-                            ArrayList<Integer> studentsFromCardJester = cli.choiceStudentCardJester(modelView);
-                            sendCharacterDataJester(studentsFromEntranceJester, studentsFromCardJester);
+                break;
 
-                        }else if (ackMessageMapped.getNextPlayer() != playerID){
-                            cli.turnWaiting(ackMessageMapped.getNextPlayer());
-                        }
-                        break;
-                    case "knight" :
-                        if (ackMessageMapped.getNextPlayer() == playerID) {
-                            sendCharacterDataKnight();
-                        }else if (ackMessageMapped.getNextPlayer() != playerID){
-                            cli.turnWaiting(ackMessageMapped.getNextPlayer());
-                        }
-                        break;
+            case "centaur" :
+                if (ackMessageMapped.getNextPlayer() == playerID) {
+                    sendCharacterDataCentaur();
+                }else if (ackMessageMapped.getNextPlayer() != playerID){
+                    cli.turnWaiting(ackMessageMapped.getNextPlayer());
+                }
+                break;
+            case "jester":
+                if (ackMessageMapped.getNextPlayer() == playerID) {
+                    ArrayList<Integer> studentsFromEntranceJester = cli.choiceStudentEntranceJester(playerID, modelView);
+                    ArrayList<Integer> studentsFromCardJester = cli.choiceStudentCardJester(modelView);
+                    sendCharacterDataJester(studentsFromEntranceJester, studentsFromCardJester);
+
+                }else if (ackMessageMapped.getNextPlayer() != playerID){
+                    cli.turnWaiting(ackMessageMapped.getNextPlayer());
+                }
+                break;
+            case "knight" :
+                if (ackMessageMapped.getNextPlayer() == playerID) {
+                    sendCharacterDataKnight();
+                }else if (ackMessageMapped.getNextPlayer() != playerID){
+                    cli.turnWaiting(ackMessageMapped.getNextPlayer());
+                }
+                break;
 
-                    case "messenger" :
-                        if (ackMessageMapped.getNextPlayer() == playerID) {
-                            sendCharacterDataMessenger();
-                        } else if (ackMessageMapped.getNextPlayer() != playerID){
-                            cli.turnWaiting(ackMessageMapped.getNextPlayer());
-                        }
-                        break;
+            case "messenger" :
+                if (ackMessageMapped.getNextPlayer() == playerID) {
+                    sendCharacterDataMessenger();
+                } else if (ackMessageMapped.getNextPlayer() != playerID){
+                    cli.turnWaiting(ackMessageMapped.getNextPlayer());
+                }
+                break;
 
-                    case "herbalist" :
-                        if (ackMessageMapped.getNextPlayer() == playerID) {
-                            int islandIDChosenHerbalist = cli.choiceHerbalist(modelView);
+            case "herbalist" :
+                if (ackMessageMapped.getNextPlayer() == playerID) {
+                    int islandIDChosenHerbalist = cli.choiceHerbalist(modelView);
 
-                            sendCharacterDataHerbalist(islandIDChosenHerbalist);
-                        }else if (ackMessageMapped.getNextPlayer() != playerID){
-                            cli.turnWaiting(ackMessageMapped.getNextPlayer());
-                        }
-                        break;
+                    sendCharacterDataHerbalist(islandIDChosenHerbalist);
+                }else if (ackMessageMapped.getNextPlayer() != playerID){
+                    cli.turnWaiting(ackMessageMapped.getNextPlayer());
+                }
+                break;
 
-                    case "ambassador" :
-                        if (ackMessageMapped.getNextPlayer() == playerID) {
-                            int islandIDChosenAmbassador = cli.choiceAmbassador(modelView);
+            case "ambassador" :
+                if (ackMessageMapped.getNextPlayer() == playerID) {
+                    int islandIDChosenAmbassador = cli.choiceAmbassador(modelView);
 
-                            sendCharacterDataAmbassador(islandIDChosenAmbassador);
-                        }else if (ackMessageMapped.getNextPlayer() != playerID){
-                            cli.turnWaiting(ackMessageMapped.getNextPlayer());
-                        }
-                        break;
+                    sendCharacterDataAmbassador(islandIDChosenAmbassador);
+                }else if (ackMessageMapped.getNextPlayer() != playerID){
+                    cli.turnWaiting(ackMessageMapped.getNextPlayer());
+                }
+                break;
 
-                    case "mushroomMerchant" :
-                        if (ackMessageMapped.getNextPlayer() == playerID) {
-                            Creature chosenStudentMushroomsMerchant = cli.choiceMushroomsMerchant();
+            case "mushroomMerchant" :
+                if (ackMessageMapped.getNextPlayer() == playerID) {
+                    Creature chosenStudentMushroomsMerchant = cli.choiceMushroomsMerchant();
 
-                            sendCharacterDataMushroomsMerchant(chosenStudentMushroomsMerchant);
-                        }else if (ackMessageMapped.getNextPlayer() != playerID){
-                            cli.turnWaiting(ackMessageMapped.getNextPlayer());
-                        }
-                        break;
-                    case "bard":
-                        if (ackMessageMapped.getNextPlayer() == playerID) {
-                            ArrayList<Integer> studentsFromEntranceBard = cli.choiceStudentEntranceBard(playerID, modelView);
-                            ArrayList<Creature> studentsFromDiningRoomBard;
-                            if(studentsFromEntranceBard == null){
-                                studentsFromDiningRoomBard = null;
-                            }else {
-                                studentsFromDiningRoomBard = cli.choiceStudentDiningRoomBard(playerID, modelView);
-                            }
-                            sendCharacterDataBard(studentsFromEntranceBard, studentsFromDiningRoomBard);
-                        }else if (ackMessageMapped.getNextPlayer() != playerID){
-                            cli.turnWaiting(ackMessageMapped.getNextPlayer());
-                        }
+                    sendCharacterDataMushroomsMerchant(chosenStudentMushroomsMerchant);
+                }else if (ackMessageMapped.getNextPlayer() != playerID){
+                    cli.turnWaiting(ackMessageMapped.getNextPlayer());
+                }
+                break;
+            case "bard":
+                if (ackMessageMapped.getNextPlayer() == playerID) {
+                    ArrayList<Integer> studentsFromEntranceBard = cli.choiceStudentEntranceBard(playerID, modelView);
+                    ArrayList<Creature> studentsFromDiningRoomBard;
+                    if(studentsFromEntranceBard == null){
+                        studentsFromDiningRoomBard = null;
+                    }else {
+                        studentsFromDiningRoomBard = cli.choiceStudentDiningRoomBard(playerID, modelView);
+                    }
+                    sendCharacterDataBard(studentsFromEntranceBard, studentsFromDiningRoomBard);
+                }else if (ackMessageMapped.getNextPlayer() != playerID){
+                    cli.turnWaiting(ackMessageMapped.getNextPlayer());
+                }
 
-                        break;
-                    case "trafficker" :
-                        if (ackMessageMapped.getNextPlayer() == playerID) {
-                            Creature chosenStudentTrafficker = cli.choiceTrafficker();
-                            sendCharacterDataTrafficker(chosenStudentTrafficker);
-                        }else if (ackMessageMapped.getNextPlayer() != playerID) {
-                            cli.turnWaiting(ackMessageMapped.getNextPlayer());
-                        }
+                break;
+            case "trafficker" :
+                if (ackMessageMapped.getNextPlayer() == playerID) {
+                    Creature chosenStudentTrafficker = cli.choiceTrafficker();
+                    sendCharacterDataTrafficker(chosenStudentTrafficker);
+                }else if (ackMessageMapped.getNextPlayer() != playerID) {
+                    cli.turnWaiting(ackMessageMapped.getNextPlayer());
+                }
 
-                        break;
+                break;
 
-                    case "princess":
-                        if (ackMessageMapped.getNextPlayer() == playerID) {
-                            int chosenStudentID = cli.choicePrincess(modelView);
+            case "princess":
+                if (ackMessageMapped.getNextPlayer() == playerID) {
+                    int chosenStudentID = cli.choicePrincess(modelView);
 
-                            sendCharacterDataPrincess(chosenStudentID);
-                        }else if (ackMessageMapped.getNextPlayer() != playerID){
-                            cli.turnWaiting(ackMessageMapped.getNextPlayer());
-                        }
-                        break;
+                    sendCharacterDataPrincess(chosenStudentID);
+                }else if (ackMessageMapped.getNextPlayer() != playerID){
+                    cli.turnWaiting(ackMessageMapped.getNextPlayer());
                 }
-
                 break;
+        }
+    }
 
-            // in case the message was a Nack
-            case "nack":
-                NackMessage nackMessageMapped = gsonObj.fromJson(receivedMessageInJson, NackMessage.class);
-                switch (nackMessageMapped.getSubObject()) {
-                    case "invalid_mother_nature_movement":
-                        cli.invalidMotherNatureMovement();
+    /**
+     * This method handles the result of the batch of moves of action_1 of a player
+     * @param studentsMoved the message received
+     */
+    private void onStudentsMoved(StudentsMovedMessage studentsMoved) {
+        for (AckMessage move : studentsMoved.getMoves()) {
+            updateModelViewActionOne(move);
+        }
+        if (studentsMoved.getNextPlayer() == playerID) {
+            numberOfChosenStudent = numberOfStudentToMoveAction1;
+            motherNatureIslandID = 0;
+            for (int i = 0; i < 12; i++) {
+                if(modelView.getIslandGame().get(i) != null) {
+                    if (modelView.getIslandGame().get(i).isMotherNaturePresence()) {
+                        motherNatureIslandID = i;
+                    }
+                }
+            }
+            int chosenIslandID = cli.choiceMotherNatureMovement(playerID, motherNatureIslandID, modelView);
+            if(chosenIslandID == -2){
+                lastCallFrom = "choiceMotherNatureMovement";
+                String characterChosen = cli.characterChoice(modelView);
+                sendRequestCharacterMessage(characterChosen);
+                return;
+            }
+            sendMovedMotherNature(chosenIslandID);
+        } else {
+            cli.turnWaiting(studentsMoved.getNextPlayer());
+        }
+    }
 
+    /**
+     * This method handles the result of the action_2 of a player
+     * @param turnResult the message received
+     */
+    private void onTurnResult(TurnResultMessage turnResult) {
+        if(!turnResult.getMovement().isAction3Valid()){
+            action3valid = false;
+            nextPlayerAction3NotValid = turnResult.getMovement().getNextPlayer();
+        }
+        updateModelViewActionTwo(turnResult);
+        cli.newMotherNaturePosition(turnResult.getMovement().getDestinationIsland_ID());
+
+        AckMessage influenceAck = turnResult.getInfluence();
+        if (influenceAck != null && influenceAck.isMasterChanged()) {
+            if (influenceAck.getNewMaster_ID() == playerID && influenceAck.getPreviousMaster_ID() != playerID) {
+                cli.newMaster(modelView, playerID);
+            }else if(influenceAck.getNewMaster_ID() != playerID && influenceAck.getPreviousMaster_ID() == playerID){
+                cli.oldMaster(modelView, motherNatureIslandID, playerID);
+            }
+        }
 
-                        for (int i = 0; i < 12; i++) {
-                            if(modelView.getIslandGame().get(i) != null) {
-                                if (modelView.getIslandGame().get(i).isMotherNaturePresence()) {
-                                    motherNatureIslandID = i;
-                                }
-                            }
-                        }
-                        int chosenIslandID = cli.choiceMotherNatureMovement(playerID, motherNatureIslandID, modelView);
-                        if(chosenIslandID == -2){
-                            lastCallFrom = "choiceMotherNatureMovement";
-                            String characterChosen = cli.characterChoice(modelView);
-                            sendRequestCharacterMessage(characterChosen);
-                            break;
-                        }
-                        sendMovedMotherNature(chosenIslandID);
+        AckMessage unionAck = turnResult.getUnion();
+        if(unionAck != null && !(unionAck.getIslandsUnified().equals("none"))){
+            int islandUnifiedFlag = -2;
+            if(unionAck.getIslandsUnified().equals("previous")){
+                islandUnifiedFlag = -1;
+            }else if(unionAck.getIslandsUnified().equals("next")){
+                islandUnifiedFlag = 1;
+            }else if(unionAck.getIslandsUnified().equals("both")){
+                islandUnifiedFlag = 0;
+            }
+            cli.showUnion(motherNatureIslandID, islandUnifiedFlag, unionAck.getIslands_ID());
+        }
 
-                        break;
+        // the end of the match message follows, no other move is asked
+        if(turnResult.isEndOfMatch()){
+            return;
+        }
+        if(action3valid) {
+            if (turnResult.getNextPlayer() == playerID) {
+                int cloudChosenID = cli.chooseCloud(playerID, modelView);
+                if (cloudChosenID == -2) {
+                    lastCallFrom = "chooseCloud";
+                    String characterChosen = cli.characterChoice(modelView);
+                    sendRequestCharacterMessage(characterChosen);
+                    return;
+                }
+                sendChosenCloudMessage(cloudChosenID);
+            } else if (turnResult.getNextPlayer() != playerID) {
+                cli.turnWaitingClouds(turnResult.getNextPlayer());
+            }
+        }else{
+            if(nextPlayerAction3NotValid == playerID){
+                chooseStudentsToMove();
+            }else{
+                cli.turnWaiting(nextPlayerAction3NotValid);
+            }
+        }
+    }
 
-                    case "invalid_cloud":
-                        int cloudChosenID = cli.invalidCloudSelection(playerID, modelView);
-                        if(cloudChosenID == -2){
-                            lastCallFrom = "chooseCloud";
-                            String characterChosen = cli.characterChoice(modelView);
-                            sendRequestCharacterMessage(characterChosen);
-                            break;
-                        }
-                        sendChosenCloudMessage(cloudChosenID);
-                        break;
+    /**
+     * This method handles the nacks of the server, depending on their subObject
+     * @param nackMessageMapped the message received
+     */
+    private void onNack(NackMessage nackMessageMapped) {
+        switch (nackMessageMapped.getSubObject()) {
+            case "invalid_mother_nature_movement":
+                cli.invalidMotherNatureMovement();
 
-                    case "herbalist":
-                        characterUsed = false;
-                        cli.invalidHerbalistChoice(nackMessageMapped.getExplanationMessage());
-                        followingChoiceToMake(lastCallFrom);
-                        break;
 
-                    case "princess":
-                        characterUsed = false;
-                        int princessIndex = modelView.getCharacterCardsInTheGame().indexOf("princess");
-                        if(modelView.getCharactersPriceIncreased().get(princessIndex)){
-                            modelView.getCoinPlayer().replace(playerID, (modelView.getCoinPlayer().get(playerID) - 3) );
-                            modelView.setCoinGame(modelView.getCoinGame() + 3);
-                        }else{
-                            modelView.getCoinPlayer().replace(playerID, (modelView.getCoinPlayer().get(playerID) - 2) );
-                            modelView.setCoinGame(modelView.getCoinGame() + 2);
-                            modelView.getCharactersPriceIncreased().set(princessIndex, true);
+                for (int i = 0; i < 12; i++) {
+                    if(modelView.getIslandGame().get(i) != null) {
+                        if (modelView.getIslandGame().get(i).isMotherNaturePresence()) {
+                            motherNatureIslandID = i;
                         }
+                    }
+                }
+                int chosenIslandID = cli.choiceMotherNatureMovement(playerID, motherNatureIslandID, modelView);
+                if(chosenIslandID == -2){
+                    lastCallFrom = "choiceMotherNatureMovement";
+                    String characterChosen = cli.characterChoice(modelView);
+                    sendRequestCharacterMessage(characterChosen);
+                    break;
+                }
+                sendMovedMotherNature(chosenIslandID);
 
-                        cli.invalidPrincessChoice(nackMessageMapped.getExplanationMessage());
-                        followingChoiceToMake(lastCallFrom);
-                        break;
-
-                    case "character_price":
-                        characterUsed = false;
-                        cli.invalidCharacter(nackMessageMapped.getExplanationMessage());
-                        followingChoiceToMake(lastCallFrom);
-                        break;
+                break;
 
-                    case "lobby_not_available":
-                        matchEnd = true;
-                        cli.lobbyChosenNotAvailable(nackMessageMapped.getExplanationMessage());
-                        break;
+            case "invalid_cloud":
+                int cloudChosenID = cli.invalidCloudSelection(playerID, modelView);
+                if(cloudChosenID == -2){
+                    lastCallFrom = "chooseCloud";
+                    String characterChosen = cli.characterChoice(modelView);
+                    sendRequestCharacterMessage(characterChosen);
+                    break;
+                }
+                sendChosenCloudMessage(cloudChosenID);
+                break;
 
-                    case "table_full":
-                        numberOfChosenStudent--;
-                        cli.invalidStudentMovementTableFull(nackMessageMapped.getExplanationMessage());
-                        studentChosen = cli.choiceOfStudentsToMove(playerID, modelView);
-                        if(studentChosen == -2){
-                            lastCallFrom = "choiceOfStudentsToMove";
-                            String characterChosen = cli.characterChoice(modelView);
-                            sendRequestCharacterMessage(characterChosen);
-                            break;
-                        }
-                        int locationChosen = cli.choiceLocationToMove(playerID, modelView);
-                        if(locationChosen == -2){
-                            lastCallFrom = "choiceLocationToMove";
-                            String characterChosen = cli.characterChoice(modelView);
-                            sendRequestCharacterMessage(characterChosen);
-                            break;
-                        }
-                        sendMovedStudentsFromEntrance(studentChosen, locationChosen);
-                        numberOfChosenStudent++;
+            case "herbalist":
+                characterUsed = false;
+                cli.invalidHerbalistChoice(nackMessageMapped.getExplanationMessage());
+                followingChoiceToMake(lastCallFrom);
+                break;
 
-                        break;
+            case "princess":
+                characterUsed = false;
+                int princessIndex = modelView.getCharacterCardsInTheGame().indexOf("princess");
+                if(modelView.getCharactersPriceIncreased().get(princessIndex)){
+                    modelView.getCoinPlayer().replace(playerID, (modelView.getCoinPlayer().get(playerID) - 3) );
+                    modelView.setCoinGame(modelView.getCoinGame() + 3);
+                }else{
+                    modelView.getCoinPlayer().replace(playerID, (modelView.getCoinPlayer().get(playerID) - 2) );
+                    modelView.setCoinGame(modelView.getCoinGame() + 2);
+                    modelView.getCharactersPriceIncreased().set(princessIndex, true);
                 }
+
+                cli.invalidPrincessChoice(nackMessageMapped.getExplanationMessage());
+                followingChoiceToMake(lastCallFrom);
                 break;
 
-            case "no lobby available":
-                NoLobbyAvailableMessage noLobbyAvailableMessage = gsonObj.fromJson(receivedMessageInJson, NoLobbyAvailableMessage.class);
-                playerID = noLobbyAvailableMessage.getPlayerID();
-                cli.lobbyNotAvailable();
-                creatingNewSpecsFromClient();
+            case "character_price":
+                characterUsed = false;
+                cli.invalidCharacter(nackMessageMapped.getExplanationMessage());
+                followingChoiceToMake(lastCallFrom);
                 break;
 
-            case "character_ack":
-                characterUsed = true;
-                AckCharactersMessage ackCharactersMessage = gsonObj.fromJson(receivedMessageInJson, AckCharactersMessage.class);
-                if(ackCharactersMessage.getCharacter().equals("messenger")){
-                    messengerActive = true;
+            case "lobby_not_available":
+                matchEnd = true;
+                cli.lobbyChosenNotAvailable(nackMessageMapped.getExplanationMessage());
+                break;
+
+            case "invalid_students_batch":
+                studentsBatchAllowed = false;
+                cli.invalidStudentsBatch();
+                chooseStudentsToMove();
+                break;
+
+            case "table_full":
+                numberOfChosenStudent--;
+                cli.invalidStudentMovementTableFull(nackMessageMapped.getExplanationMessage());
+                studentChosen = cli.choiceOfStudentsToMove(playerID, modelView);
+                if(studentChosen == -2){
+                    lastCallFrom = "choiceOfStudentsToMove";
+                    String characterChosen = cli.characterChoice(modelView);
+                    sendRequestCharacterMessage(characterChosen);
+                    break;
                 }
-                //update:
-                updateCharacterCard(ackCharactersMessage);
-                //callFrom:
-                if(ackCharactersMessage.getRecipient() == playerID) {
-                    cli.characterUsed(ackCharactersMessage.getCharacter(), ackCharactersMessage.getRecipient(), playerID);
-                    followingChoiceToMake(lastCallFrom);
-                }else{
-                    cli.characterUsed(ackCharactersMessage.getCharacter(), ackCharactersMessage.getRecipient(), playerID);
-                    cli.turnWaiting(ackCharactersMessage.getNextPlayer());
+                int locationChosen = cli.choiceLocationToMove(playerID, modelView);
+                if(locationChosen == -2){
+                    lastCallFrom = "choiceLocationToMove";
+                    String characterChosen = cli.characterChoice(modelView);
+                    sendRequestCharacterMessage(characterChosen);
+                    break;
                 }
+                sendMovedStudentsFromEntrance(studentChosen, locationChosen);
+                numberOfChosenStudent++;
+
                 break;
+        }
+    }
+
+    /**
+     * This method asks the player the specifics of a new match, since no lobby can be joined
+     * @param noLobbyAvailableMessage the message received
+     */
+    private void onNoLobbyAvailable(NoLobbyAvailableMessage noLobbyAvailableMessage) {
+        playerID = noLobbyAvailableMessage.getPlayerID();
+        cli.lobbyNotAvailable();
+        creatingNewSpecsFromClient();
+    }
 
-            default:
-                cli.errorObject();
+    /**
+     * This method handles the use of a character card by a player
+     * @param ackCharactersMessage the message received
+     */
+    private void onCharacterAck(AckCharactersMessage ackCharactersMessage) {
+        characterUsed = true;
+        if(ackCharactersMessage.getCharacter().equals("messenger")){
+            messengerActive = true;
+        }
+        //update:
+        updateCharacterCard(ackCharactersMessage);
+        //callFrom:
+        if(ackCharactersMessage.getRecipient() == playerID) {
+            cli.characterUsed(ackCharactersMessage.getCharacter(), ackCharactersMessage.getRecipient(), playerID);
+            followingChoiceToMake(lastCallFrom);
+        }else{
+            cli.characterUsed(ackCharactersMessage.getCharacter(), ackCharactersMessage.getRecipient(), playerID);
+            cli.turnWaiting(ackCharactersMessage.getNextPlayer());
         }
     }
 
+
     /**
      * This method is used to let the player make the following choice regarding
      * the moment when he chose to use the character card.
@@ -899,22 +1101,7 @@ public class NetworkHandler {
      */
     public void followingChoiceToMake(String lastCallFrom){
         if (lastCallFrom.equals("choiceOfStudentsToMove")) {
-            studentChosen = cli.choiceOfStudentsToMove(playerID, modelView);
-            if(studentChosen == -2){
-                this.lastCallFrom = "choiceOfStudentsToMove";
-                String characterChosen = cli.characterChoice(modelView);
-                sendRequestCharacterMessage(characterChosen);
-            }else {
-                int locationChosen = cli.choiceLocationToMove(playerID, modelView);
-                if(locationChosen == -2){
-                    this.lastCallFrom = "choiceLocationToMove";
-                    String characterChosen = cli.characterChoice(modelView);
-                    sendRequestCharacterMessage(characterChosen);
-                }else {
-                    sendMovedStudentsFromEntrance(studentChosen, locationChosen);
-                    numberOfChosenStudent++;
-                }
-            }
+            chooseStudentsToMove();
         } else if (lastCallFrom.equals("choiceLocationToMove")) {
             int locationChosen = cli.choiceLocationToMove(playerID, modelView);
             if(locationChosen == -2){
@@ -989,6 +1176,71 @@ public class NetworkHandler {
         sendMessage(chosenAssistantCardMessage);
     }
 
+    /**
+     * This method lets the player choose the students to move from the entrance and where to move them.
+     * If the batches are allowed all the moves still to do are collected, each chosen student being removed from
+     * the entrance of the modelView so that it can't be chosen twice, and sent in one MovedStudentsBatchMessage;
+     * the entrance is restored before sending, since it's updated by the result of the moves.
+     * Otherwise only one move is chosen and sent. If the player asks for a character the moves collected are
+     * discarded, and they are chosen again after the character has been used.
+     * @return true if the moves have been sent, false if the player asked for a character
+     */
+    private boolean chooseStudentsToMove() {
+        if (!studentsBatchAllowed) {
+            studentChosen = cli.choiceOfStudentsToMove(playerID, modelView);
+            if(studentChosen == -2){
+                lastCallFrom = "choiceOfStudentsToMove";
+                String characterChosen = cli.characterChoice(modelView);
+                sendRequestCharacterMessage(characterChosen);
+                return false;
+            }
+            int locationChosen = cli.choiceLocationToMove(playerID, modelView);
+            if(locationChosen == -2){
+                lastCallFrom = "choiceLocationToMove";
+                String characterChosen = cli.characterChoice(modelView);
+                sendRequestCharacterMessage(characterChosen);
+                return false;
+            }
+            sendMovedStudentsFromEntrance(studentChosen, locationChosen);
+            numberOfChosenStudent++;
+            return true;
+        }
+
+        ArrayList<Creature> entrance = modelView.getSchoolBoardPlayers().get(playerID).getEntrancePlayer().getStudentsInTheEntrancePlayer();
+        ArrayList<Creature> entranceBeforeChoices = new ArrayList<>(entrance);
+        MovedStudentsBatchMessage movedStudentsBatchMessage = new MovedStudentsBatchMessage(playerID);
+
+        while (numberOfChosenStudent + movedStudentsBatchMessage.getStudents_ID().size() < numberOfStudentToMoveAction1) {
+            int student = cli.choiceOfStudentsToMove(playerID, modelView);
+            int locationChosen = (student == -2) ? -2 : cli.choiceLocationToMove(playerID, modelView);
+            if(locationChosen == -2){
+                restoreEntrance(entrance, entranceBeforeChoices, movedStudentsBatchMessage);
+                lastCallFrom = "choiceOfStudentsToMove";
+                String characterChosen = cli.characterChoice(modelView);
+                sendRequestCharacterMessage(characterChosen);
+                return false;
+            }
+            movedStudentsBatchMessage.addMove(student, locationChosen);
+            entrance.set(student, null);
+        }
+
+        restoreEntrance(entrance, entranceBeforeChoices, movedStudentsBatchMessage);
+        sendMessage(movedStudentsBatchMessage);
+        return true;
+    }
+
+    /**
+     * This method puts back in the entrance of the modelView the students removed while collecting the moves.
+     * @param entrance is the entrance of the player in the modelView.
+     * @param entranceBeforeChoices is the copy of the entrance taken before the choices.
+     * @param movedStudentsBatchMessage is the message containing the moves collected.
+     */
+    private void restoreEntrance(ArrayList<Creature> entrance, ArrayList<Creature> entranceBeforeChoices, MovedStudentsBatchMessage movedStudentsBatchMessage) {
+        for (int student : movedStudentsBatchMessage.getStudents_ID()) {
+            entrance.set(student, entranceBeforeChoices.get(student));
+        }
+    }
+
     /**
      * This method creates a new MovedStudentsFromEntrance message and sends it to the server.
      * @param studentChosen  is the student chosen.
@@ -1317,6 +1569,24 @@ public class NetworkHandler {
         }
     }
 
+    /**
+     * This method is used to update the modelView after receiving the result of the action_2 of a player,
+     * applying in order the movement of mother nature, the influence and the union, if they were performed.
+     * @param turnResult is the message received.
+     */
+    public void updateModelViewActionTwo(TurnResultMessage turnResult) {
+        updateModelViewActionTwo(turnResult.getMovement());
+        if (turnResult.getInfluence() != null) {
+            updateModelViewActionTwo(turnResult.getInfluence());
+            if (turnResult.getInfluence().isMasterChanged()) {
+                modelView.getIslandGame().get(motherNatureIslandID).setMasterOfArchipelago(turnResult.getInfluence().getNewMaster_ID());
+            }
+        }
+        if (turnResult.getUnion() != null) {
+            updateModelViewActionTwo(turnResult.getUnion());
+        }
+    }
+
     /**
      * This method is used to update the modelView after receiving the action_2 ack message.
      * @param ackMessageMapped is the ack message received.
@@ -1605,10 +1875,9 @@ public class NetworkHandler {
     /**
      * This method is used to resolve the end of the match, and it calls the matchEnd cli method which notifies
      * the players that the match is over and the winner.
-     * @param receivedMessageInJson is the message received in json.
+     * @param endOfMatchMessage is the message received.
      */
-    public void matchIsEnded(String receivedMessageInJson){
-        EndOfMatchMessage endOfMatchMessage = gsonObj.fromJson(receivedMessageInJson, EndOfMatchMessage.class);
+    public void matchIsEnded(EndOfMatchMessage endOfMatchMessage){
         cli.matchEnd(endOfMatchMessage.getWinnerNickname(), endOfMatchMessage.getReason(), endOfMatchMessage.getWinner(), playerID);
 
         matchEnd = true;
@@ -1655,8 +1924,12 @@ public class NetworkHandler {
      */
     public void closingNH() {
         try {
-            this.inputBufferClient.close();
-            this.outputPrintClient.close();
+            if (this.inputBufferClient != null) {
+                this.inputBufferClient.close();
+            }
+            if (this.outputPrintClient != null) {
+                this.outputPrintClient.close();
+            }
             this.clientSocket.close();
         }catch (IOException e) {
             e.printStackTrace();
@@ -1,19 +1,37 @@
 package it.polimi.ingsw.controller;
 
+import it.polimi.ingsw.model.Archipelago;
 import it.polimi.ingsw.model.Creature;
 import it.polimi.ingsw.model.Match;
 import it.polimi.ingsw.model.schoolboard.DiningRoom;
 import it.polimi.ingsw.messages.Message;
+import it.polimi.ingsw.messages.MessageDispatcher;
 import it.polimi.ingsw.messages.clientMessages.CharacterDataMessage;
 import it.polimi.ingsw.messages.clientMessages.CharacterRequestMessage;
 import it.polimi.ingsw.messages.serverMessages.AckMessage;
+import it.polimi.ingsw.messages.clientMessages.MovedStudentsBatchMessage;
 import it.polimi.ingsw.messages.clientMessages.MovedStudentsFromEntranceMessage;
 import it.polimi.ingsw.messages.serverMessages.NackMessage;
+import it.polimi.ingsw.messages.serverMessages.StudentsMovedMessage;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 
 public class Action_1 implements ControllerState{
 
     private int studentsMoved = 0;
 
+    /**
+     * This attribute hands the messages accepted in this state over to the character manager or
+     * to the stateExecution method
+     */
+    private static final MessageDispatcher<Action_1, Controller> DISPATCHER = new MessageDispatcher<Action_1, Controller>()
+            .on(CharacterRequestMessage.class, (state, controller, request) -> controller.getCharactersManager().checkCard(request))
+            .on(CharacterDataMessage.class, (state, controller, dataMessage) -> controller.getCharactersManager().useCard(dataMessage))
+            .on(MovedStudentsFromEntranceMessage.class, (state, controller, request) -> state.stateExecution(controller))
+            .on(MovedStudentsBatchMessage.class, (state, controller, request) -> state.executeBatch(controller, request));
+
 
     @Override
     public void nextState(Controller controller) {
@@ -27,26 +45,11 @@ public class Action_1 implements ControllerState{
      */
     @Override
     public void controlMessageAndExecute(Controller controller) {
-        String json = controller.getMsg();
-        Message message = gson.fromJson(json, Message.class);
-        String object = message.getObjectOfMessage();
-
-        switch (object) {
-            case "character_request":
-                CharacterRequestMessage request = gson.fromJson(json, CharacterRequestMessage.class);
-                controller.getCharactersManager().checkCard(request);
-                break;
-            case "character_data":
-                CharacterDataMessage dataMessage = gson.fromJson(json, CharacterDataMessage.class);
-                controller.getCharactersManager().useCard(dataMessage);
-                break;
-            case "action_1":
-                stateExecution(controller);
-                break;
-            default:
-                System.out.println("ACTION_1: \nexpected message with object [action_1] or [character_request] or [character_data]" +
-                                   "\nreceived message with object["+ message.getObjectOfMessage() + "]");
-                break;
+        Message message = controller.getDecodedMsg();
+
+        if (!DISPATCHER.dispatch(this, controller, message)) {
+            System.out.println("ACTION_1: \nexpected message with object [action_1] or [action_1_batch] or [character_request] or [character_data]" +
+                               "\nreceived message with object["+ message.getObjectOfMessage() + "]");
         }
     }
 
@@ -59,42 +62,94 @@ public class Action_1 implements ControllerState{
     public void stateExecution(Controller controller) {
         Match match = controller.getMatch();
 
-        String json = controller.getMsg();
-        MovedStudentsFromEntranceMessage request = gson.fromJson(json, MovedStudentsFromEntranceMessage.class);
+        MovedStudentsFromEntranceMessage request = controller.getDecodedMsg(MovedStudentsFromEntranceMessage.class);
         match.setCurrentPlayer(request.getSender_ID());
 
-        // take and remove the chosen student from the entrance
-        int location = request.getLocation();
-        Creature creatureChosen = match.getStudentInEntranceOfPlayerByID(request.getSender_ID(), request.getStudent_ID());
-
-        AckMessage ack = new AckMessage();
-        ack.setRecipient(request.getSender_ID());
-        ack.setTypeOfStudentMoved(creatureChosen);
-        ack.setStudentMoved_ID(request.getStudent_ID());
-
         // student moved in the dining room
-        if(location == -1){
+        if(request.getLocation() == -1){
+            Creature creatureChosen = match.getStudentInEntranceOfPlayerByID(request.getSender_ID(), request.getStudent_ID());
             DiningRoom diningRoom = match.getPlayerByID(request.getSender_ID()).getSchoolBoard().getDiningRoom();
-            int studentsAtTheTable = diningRoom.getOccupiedSeatsAtTable(creatureChosen);
 
-            if(studentsAtTheTable == 10){
+            if(diningRoom.getOccupiedSeatsAtTable(creatureChosen) == 10){
                 NackMessage nack = new NackMessage("table_full");
                 controller.sendMessageToPlayer(request.getSender_ID(), nack);
                 return;
             }
+        }
+
+        AckMessage ack = moveStudent(controller, request.getSender_ID(), request.getStudent_ID(), request.getLocation());
+
+        // send the ack message in broadcast
+        controller.sendMessageAsBroadcast(ack);
+        studentsMoved++;
+
+        controlEndOfMovements(controller);
+    }
+
+    /**
+     * This method moves at once all the students chosen by the player: the moves are controlled all together
+     * before moving any student, so either all of them are performed or none is, and a single message with the
+     * ack of each move is sent to the players
+     * @param controller reference to the controller of the match
+     * @param request message received by the player
+     */
+    private void executeBatch(Controller controller, MovedStudentsBatchMessage request) {
+        Match match = controller.getMatch();
+
+        if(!isBatchValid(controller, request)){
+            NackMessage nack = new NackMessage("invalid_students_batch");
+            controller.sendMessageToPlayer(request.getSender_ID(), nack);
+            return;
+        }
+
+        match.setCurrentPlayer(request.getSender_ID());
 
+        StudentsMovedMessage result = new StudentsMovedMessage();
+        for(int i = 0; i < request.getStudents_ID().size(); i++){
+            result.addMove(moveStudent(controller, request.getSender_ID(), request.getStudents_ID().get(i), request.getLocations().get(i)));
+        }
+
+        // send the acks of all the moves in broadcast
+        controller.sendMessageAsBroadcast(result);
+        studentsMoved = studentsMoved + request.getStudents_ID().size();
+
+        controlEndOfMovements(controller);
+    }
+
+    /**
+     * This method moves one student from the entrance of the player to the given location and takes care of the
+     * control over the professor when the student is moved in the dining room
+     * @param controller reference to the controller of the match
+     * @param player_ID ID of the player moving the student
+     * @param student_ID ID of the student inside the entrance
+     * @param location ID of the island or -1 for the dining room
+     * @return the ack of the move
+     */
+    private AckMessage moveStudent(Controller controller, int player_ID, int student_ID, int location) {
+        Match match = controller.getMatch();
+
+        // take and remove the chosen student from the entrance
+        Creature creatureChosen = match.getStudentInEntranceOfPlayerByID(player_ID, student_ID);
+
+        AckMessage ack = new AckMessage();
+        ack.setRecipient(player_ID);
+        ack.setTypeOfStudentMoved(creatureChosen);
+        ack.setStudentMoved_ID(student_ID);
+
+        // student moved in the dining room
+        if(location == -1){
             ack.setSubObject("action_1_dining_room");
 
             // find who is controlling the professor of the same type chosen by the player
             int previousOwnerOfProfessor = SupportFunctions.whoControlsTheProfessor(match, creatureChosen);
 
             // move the student from entrance to dining room
-            match.moveStudentFromEntranceToDiningRoom(request.getStudent_ID());
+            match.moveStudentFromEntranceToDiningRoom(student_ID);
 
             // if the player controlling the professor is another player then...
-            if(previousOwnerOfProfessor != request.getSender_ID() && previousOwnerOfProfessor != -1){
+            if(previousOwnerOfProfessor != player_ID && previousOwnerOfProfessor != -1){
                 int previousNumberOfStudents = match.getPlayerByID(previousOwnerOfProfessor).getSchoolBoard().getDiningRoom().getOccupiedSeatsAtTable(creatureChosen);
-                int currentPlayerStudents = match.getPlayerByID(request.getSender_ID()).getSchoolBoard().getDiningRoom().getOccupiedSeatsAtTable(creatureChosen);
+                int currentPlayerStudents = match.getPlayerByID(player_ID).getSchoolBoard().getDiningRoom().getOccupiedSeatsAtTable(creatureChosen);
 
                 if(controller.isExpertMode() && controller.getCharactersManager().isCookActive()){
 
@@ -130,37 +185,89 @@ public class Action_1 implements ControllerState{
         // student moved on an island
         else{
             ack.setSubObject("action_1_island");
-            ack.setDestinationIsland_ID(request.getLocation());
+            ack.setDestinationIsland_ID(location);
 
-            if(match.getRealmOfTheMatch().getArchipelagos().get(request.getLocation()) != null){
-                match.moveStudentFromEntranceToIsland(request.getStudent_ID(), request.getLocation());
+            if(match.getRealmOfTheMatch().getArchipelagos().get(location) != null){
+                match.moveStudentFromEntranceToIsland(student_ID, location);
             }
         }
 
-        // send the ack message in broadcast
-        ack.setNextPlayer(request.getSender_ID());
-        controller.sendMessageAsBroadcast(ack);
-        studentsMoved++;
+        ack.setNextPlayer(player_ID);
+        return ack;
+    }
 
-        if(controller.getNumberOfPlayers() == 2){
-            // if 3 students have been moved we can change state
-            if(studentsMoved == 3){
-                controller.nextState();
+    /**
+     * This method controls the moves of a batch without moving any student: the batch must contain exactly the
+     * students the player has still to move, each one present in the entrance and chosen only once, the islands
+     * must exist and no table of the dining room can have more than ten students after the moves
+     * @param controller reference to the controller of the match
+     * @param request message received by the player
+     * @return true if all the moves can be performed
+     */
+    private boolean isBatchValid(Controller controller, MovedStudentsBatchMessage request) {
+        Match match = controller.getMatch();
+        ArrayList<Integer> students = request.getStudents_ID();
+        ArrayList<Integer> locations = request.getLocations();
 
-                if(controller.getMatch().isExpertMode()){
-                    // reset the value of cookUsed (it lasts only for the current players' action_1)
-                    controller.getCharactersManager().setCookActive(false);
-                }
+        if(students == null || locations == null || students.size() != locations.size() ||
+                students.size() != studentsToMove(controller) - studentsMoved){
+            return false;
+        }
+
+        ArrayList<Creature> entrance = match.getPlayerByID(request.getSender_ID()).getSchoolBoard().getEntrance().getStudentsInTheEntrance();
+        ArrayList<Archipelago> archipelagos = match.getRealmOfTheMatch().getArchipelagos();
+        DiningRoom diningRoom = match.getPlayerByID(request.getSender_ID()).getSchoolBoard().getDiningRoom();
+
+        HashSet<Integer> studentsChosen = new HashSet<>();
+        HashMap<Creature, Integer> studentsAddedAtTable = new HashMap<>();
+
+        for(int i = 0; i < students.size(); i++){
+            Integer student = students.get(i);
+            Integer location = locations.get(i);
+
+            // the student must be in the entrance and it can be moved only once
+            if(student == null || location == null || student < 0 || student >= entrance.size() ||
+                    entrance.get(student) == null || !studentsChosen.add(student)){
+                return false;
             }
-        }else if(controller.getNumberOfPlayers() == 3){
-            // if 4 students have been moved we can change state
-            if(studentsMoved == 4){
-                controller.nextState();
-
-                if(controller.getMatch().isExpertMode()){
-                    // reset the value of cookUsed (it lasts only for the current players' action_1)
-                    controller.getCharactersManager().setCookActive(false);
+
+            if(location == -1){
+                Creature creature = entrance.get(student);
+                int added = studentsAddedAtTable.getOrDefault(creature, 0) + 1;
+                if(diningRoom.getOccupiedSeatsAtTable(creature) + added > 10){
+                    return false;
                 }
+                studentsAddedAtTable.put(creature, added);
+            }else if(location < 0 || location >= archipelagos.size() || archipelagos.get(location) == null){
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * This method returns the number of students each player moves during action_1
+     * @param controller reference to the controller of the match
+     * @return 3 in the matches with 2 players, 4 in the matches with 3 players
+     */
+    private int studentsToMove(Controller controller) {
+        if(controller.getNumberOfPlayers() == 3){
+            return 4;
+        }
+        return 3;
+    }
+
+    /**
+     * This method changes state when the player has moved all the students
+     * @param controller reference to the controller of the match
+     */
+    private void controlEndOfMovements(Controller controller) {
+        if(studentsMoved == studentsToMove(controller)){
+            controller.nextState();
+
+            if(controller.getMatch().isExpertMode()){
+                // reset the value of cookUsed (it lasts only for the current players' action_1)
+                controller.getCharactersManager().setCookActive(false);
             }
         }
     }
@@ -5,8 +5,10 @@ import it.polimi.ingsw.messages.clientMessages.CharacterDataMessage;
 import it.polimi.ingsw.messages.clientMessages.CharacterRequestMessage;
 import it.polimi.ingsw.messages.serverMessages.AckMessage;
 import it.polimi.ingsw.messages.Message;
+import it.polimi.ingsw.messages.MessageDispatcher;
 import it.polimi.ingsw.messages.clientMessages.MovedMotherNatureMessage;
 import it.polimi.ingsw.messages.serverMessages.NackMessage;
+import it.polimi.ingsw.messages.serverMessages.TurnResultMessage;
 
 import java.util.ArrayList;
 
@@ -18,6 +20,15 @@ public class Action_2 implements ControllerState{
      */
     private boolean action3Allowed = true;
 
+    /**
+     * This attribute hands the messages accepted in this state over to the character manager or
+     * to the movement of mother nature
+     */
+    private static final MessageDispatcher<Action_2, Controller> DISPATCHER = new MessageDispatcher<Action_2, Controller>()
+            .on(CharacterRequestMessage.class, (state, controller, request) -> controller.getCharactersManager().checkCard(request))
+            .on(CharacterDataMessage.class, (state, controller, dataMessage) -> controller.getCharactersManager().useCard(dataMessage))
+            .on(MovedMotherNatureMessage.class, (state, controller, request) -> state.executeAction_2_movement(controller, request));
+
 
     @Override
     public void nextState(Controller controller) {
@@ -35,27 +46,11 @@ public class Action_2 implements ControllerState{
      */
     @Override
     public void controlMessageAndExecute(Controller controller) {
-        String json = controller.getMsg();
-
-        Message message = gson.fromJson(json, Message.class);
-        String object = message.getObjectOfMessage();
+        Message message = controller.getDecodedMsg();
 
-        switch (object){
-            case "character_request":
-                CharacterRequestMessage request = gson.fromJson(json, CharacterRequestMessage.class);
-                controller.getCharactersManager().checkCard(request);
-                break;
-            case "character_data":
-                CharacterDataMessage dataMessage = gson.fromJson(json, CharacterDataMessage.class);
-                controller.getCharactersManager().useCard(dataMessage);
-                break;
-            case "action_2":
-                executeAction_2_movement(controller, json);
-                break;
-            default:
-                System.out.println("ACTION_2: \nexpected message with object [action_2] or [character_request] or [character_data]" +
-                    "\nreceived message with object["+ message.getObjectOfMessage() + "]");
-                break;
+        if (!DISPATCHER.dispatch(this, controller, message)) {
+            System.out.println("ACTION_2: \nexpected message with object [action_2] or [character_request] or [character_data]" +
+                "\nreceived message with object["+ message.getObjectOfMessage() + "]");
         }
     }
 
@@ -65,22 +60,21 @@ public class Action_2 implements ControllerState{
      */
     @Override
     public void stateExecution(Controller controller){
-        String json = controller.getMsg();
-
-        executeAction_2_movement(controller, json);
+        executeAction_2_movement(controller, controller.getDecodedMsg(MovedMotherNatureMessage.class));
     }
 
 
     /**
      * This method takes care of all the controls and actions needed when the player moves mother nature,
-     * if the movement is legit it moves mother nature
+     * if the movement is legit it moves mother nature.
+     * The acks of the movement, of the influence and of the union are collected in a TurnResultMessage, which is
+     * sent to all the players once the whole action_2 has been performed
      * @param controller reference to the controller of this match
-     * @param json message received by the player, not yet deserialized
+     * @param request message received by the player
      */
-    private void executeAction_2_movement(Controller controller, String json) {
+    private void executeAction_2_movement(Controller controller, MovedMotherNatureMessage request) {
         Match match = controller.getMatch();
 
-        MovedMotherNatureMessage request = gson.fromJson(json, MovedMotherNatureMessage.class);
         int destinationIsland = request.getDestinationIsland_ID();
         Archipelago archipelago = match.getRealmOfTheMatch().getArchipelagos().get(destinationIsland);
 
@@ -89,6 +83,9 @@ public class Action_2 implements ControllerState{
         movementAck.setDestinationIsland_ID(destinationIsland);
         movementAck.setRecipient(request.getSender_ID());
 
+        TurnResultMessage turnResult = new TurnResultMessage();
+        turnResult.setMovement(movementAck);
+
         // control if the movement is legit
         if (!isMovementValid(controller, destinationIsland, request.getSender_ID())) {
             NackMessage nack = new NackMessage("invalid_mother_nature_movement");
@@ -141,34 +138,14 @@ public class Action_2 implements ControllerState{
                 if(action3Allowed){
                     movementAck.setNextPlayer(request.getSender_ID());
                 }
-                controller.sendMessageAsBroadcast(movementAck);
-
-                //send message for action_2_influence so that it won't be executed
-                AckMessage emptyInfluenceAck = new AckMessage();
-                emptyInfluenceAck.setRecipient(request.getSender_ID());
-                emptyInfluenceAck.setSubObject("action_2_influence");
-                emptyInfluenceAck.setMasterChanged(false);
-                if(action3Allowed){
-                    emptyInfluenceAck.setNextPlayer(request.getSender_ID());
-                }
-                controller.sendMessageAsBroadcast(emptyInfluenceAck);
-
-                //send message for action_2_union so that it won't be executed
-                AckMessage emptyUnionAck = new AckMessage();
-                emptyUnionAck.setRecipient(request.getSender_ID());
-                emptyUnionAck.setSubObject("action_2_union");
-                emptyUnionAck.setIslandsUnified("none");
-                if(action3Allowed){
-                    emptyUnionAck.setNextPlayer(request.getSender_ID());
-                }
-                controller.sendMessageAsBroadcast(emptyUnionAck);
+                // the influence and the union are not performed, so the result contains only the movement
+                controller.sendMessageAsBroadcast(turnResult);
 
                 controller.nextState();
 
             } else {
                 movementAck.setNextPlayer(request.getSender_ID());
-                controller.sendMessageAsBroadcast(movementAck);
-                executeAction_2_influence(controller, request);
+                executeAction_2_influence(controller, request, turnResult);
                 return;
             }
 
@@ -185,8 +162,9 @@ public class Action_2 implements ControllerState{
      * some islands must be unified
      * @param controller reference to the controller
      * @param request message received from the client
+     * @param turnResult message containing the ack of the movement, where the ack of the influence is added
      */
-    public void executeAction_2_influence(Controller controller, MovedMotherNatureMessage request){
+    public void executeAction_2_influence(Controller controller, MovedMotherNatureMessage request, TurnResultMessage turnResult){
         Match match = controller.getMatch();
 
         int currentIsland = match.getPositionOfMotherNature();
@@ -195,6 +173,7 @@ public class Action_2 implements ControllerState{
         AckMessage ack = new AckMessage();
         ack.setSubObject("action_2_influence");
         ack.setRecipient(request.getSender_ID());
+        turnResult.setInfluence(ack);
 
         // in the case there are no towers yet...
         if(archipelago.getMasterOfArchipelago() == null){
@@ -239,13 +218,12 @@ public class Action_2 implements ControllerState{
 
         // send end-of-match message if needed
         if(ack.isEndOfMatch()){
+            controller.sendMessageAsBroadcast(turnResult);
             SupportFunctions.endMatch(controller, "towers_finished", request.getSender_ID());
         }else{
-            // send the ack message
             ack.setNextPlayer(request.getSender_ID());
-            controller.sendMessageAsBroadcast(ack);
 
-            executeAction_2_union(controller, request);
+            executeAction_2_union(controller, request, turnResult);
         }
     }
 
@@ -254,8 +232,10 @@ public class Action_2 implements ControllerState{
      * in the realm then it calls the end of the match.
      * @param  controller reference to the controller of the match
      * @param  request message sent by the client containing data about the movement of mother nature
+     * @param  turnResult message containing the acks of the movement and of the influence, where the ack of the
+     *                    union is added before sending it
      */
-    private void executeAction_2_union(Controller controller, MovedMotherNatureMessage request){
+    private void executeAction_2_union(Controller controller, MovedMotherNatureMessage request, TurnResultMessage turnResult){
         Match match = controller.getMatch();
 
         int currentIsland = match.getPositionOfMotherNature();
@@ -268,6 +248,7 @@ public class Action_2 implements ControllerState{
         AckMessage ack = new AckMessage();
         ack.setSubObject("action_2_union");
         ack.setRecipient(request.getSender_ID());
+        turnResult.setUnion(ack);
 
         switch (unificationControl){
             case 1:
@@ -344,9 +325,9 @@ public class Action_2 implements ControllerState{
 
         if(SupportFunctions.onlyThreeIslandsLeft(match)){
 
-            // send the ack message and calls the end of the match because there are only 3 islands left
+            // send the result and calls the end of the match because there are only 3 islands left
             ack.setEndOfMatch(true);
-            controller.sendMessageAsBroadcast(ack);
+            controller.sendMessageAsBroadcast(turnResult);
             SupportFunctions.endMatch(controller, "three_islands");
 
         }else{
@@ -360,8 +341,8 @@ public class Action_2 implements ControllerState{
                 if(request.getSender_ID() == lastPlayerOfAction){
                     ack.setEndOfMatch(true);
 
-                    // send message and calls the end of the match for empty_bag
-                    controller.sendMessageAsBroadcast(ack);
+                    // send the result and calls the end of the match for empty_bag
+                    controller.sendMessageAsBroadcast(turnResult);
                     SupportFunctions.endMatch(controller, "empty_bag");
                 }else{
                     // reset the characters' attributes in CharacterManager
@@ -374,14 +355,14 @@ public class Action_2 implements ControllerState{
                     ack.setNextPlayer(nextPlayer);
                     controller.setActionPhaseCurrentPlayer(nextPlayer);
 
-                    // change state (action_1) and send message
+                    // change state (action_1) and send the result
                     controller.nextState();
-                    controller.sendMessageAsBroadcast(ack);
+                    controller.sendMessageAsBroadcast(turnResult);
                 }
             }else{
-                // send message and change state (action_3)
+                // send the result and change state (action_3)
                 ack.setNextPlayer(request.getSender_ID());
-                controller.sendMessageAsBroadcast(ack);
+                controller.sendMessageAsBroadcast(turnResult);
                 controller.nextState();
             }
         }
@@ -398,18 +379,14 @@ public class Action_2 implements ControllerState{
     private boolean isMovementValid(Controller controller, int destinationIsland_ID, int player_ID){
         Match match = controller.getMatch();
 
+        Realm realm = match.getRealmOfTheMatch();
         int currentMotherNaturePosition = match.getPositionOfMotherNature();
-        int steps = 0;
-        int tempIsland_ID = currentMotherNaturePosition;
 
-        assert match.getRealmOfTheMatch().getArchipelagos().get(destinationIsland_ID) != null :
-                "ERROR: the player choose an island [ID: " + destinationIsland_ID + "] that turned out to be null";
+        // an island unified with another one is no more a destination mother nature can reach
+        boolean reachable = realm.archipelagoOf(destinationIsland_ID) == destinationIsland_ID;
 
         // how many steps does it take to reach the destinationIsland ?
-        do {
-            steps++;
-            tempIsland_ID = match.getRealmOfTheMatch().nextIsland(tempIsland_ID);
-        }while(tempIsland_ID != destinationIsland_ID);
+        int steps = reachable ? realm.stepsBetween(currentMotherNaturePosition, destinationIsland_ID) : 0;
 
         // if the steps are more than the number allowed the movement is not legit
         Assistant lastPlayedCard = match.getPlayers().get(player_ID).getAssistantsDeck().getLastUsedCard();
@@ -422,7 +399,7 @@ public class Action_2 implements ControllerState{
             controller.getCharactersManager().setMessengerActive(false);
         }
 
-        return steps <= maxSteps;
+        return reachable && steps <= maxSteps;
     }
 
     /**
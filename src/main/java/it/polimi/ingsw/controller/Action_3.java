@@ -6,12 +6,22 @@ import it.polimi.ingsw.messages.clientMessages.CharacterRequestMessage;
 import it.polimi.ingsw.messages.serverMessages.AckMessage;
 import it.polimi.ingsw.messages.clientMessages.ChosenCloudMessage;
 import it.polimi.ingsw.messages.Message;
+import it.polimi.ingsw.messages.MessageDispatcher;
 import it.polimi.ingsw.messages.serverMessages.NackMessage;
 
 import java.util.ArrayList;
 
 public class Action_3 implements ControllerState{
 
+    /**
+     * This attribute hands the messages accepted in this state over to the character manager or
+     * to the stateExecution method
+     */
+    private static final MessageDispatcher<Action_3, Controller> DISPATCHER = new MessageDispatcher<Action_3, Controller>()
+            .on(CharacterRequestMessage.class, (state, controller, request) -> controller.getCharactersManager().checkCard(request))
+            .on(CharacterDataMessage.class, (state, controller, dataMessage) -> controller.getCharactersManager().useCard(dataMessage))
+            .on(ChosenCloudMessage.class, (state, controller, request) -> state.stateExecution(controller));
+
 
     @Override
     public void nextState(Controller controller) {
@@ -29,37 +39,18 @@ public class Action_3 implements ControllerState{
      */
     @Override
     public void controlMessageAndExecute(Controller controller) {
-        Match match = controller.getMatch();
-        String json = controller.getMsg();
-
-        Message message = gson.fromJson(json, Message.class);
-        String object = message.getObjectOfMessage();
-
-        switch (object){
-            case "character_request":
-                CharacterRequestMessage request = gson.fromJson(json, CharacterRequestMessage.class);
-                controller.getCharactersManager().checkCard(request);
-                break;
-            case "character_data":
-                CharacterDataMessage dataMessage = gson.fromJson(json, CharacterDataMessage.class);
-                controller.getCharactersManager().useCard(dataMessage);
-                break;
-            case "action_3":
-                stateExecution(controller);
-                break;
-            default:
-                System.out.println("ACTION_3: \nexpected message with object [action_3] or [character]" +
-                        "\nreceived message with object["+ message.getObjectOfMessage() + "]");
-                break;
+        Message message = controller.getDecodedMsg();
+
+        if (!DISPATCHER.dispatch(this, controller, message)) {
+            System.out.println("ACTION_3: \nexpected message with object [action_3] or [character]" +
+                    "\nreceived message with object["+ message.getObjectOfMessage() + "]");
         }
     }
 
     @Override
     public void stateExecution(Controller controller) {
         Match match = controller.getMatch();
-        String json = controller.getMsg();
-
-        ChosenCloudMessage request = gson.fromJson(json, ChosenCloudMessage.class);
+        ChosenCloudMessage request = controller.getDecodedMsg(ChosenCloudMessage.class);
         CloudTile cloud = match.getRealmOfTheMatch().getCloudRegion().get(request.getCloud_ID());
 
         if(cloud.getStudents().size() == 0){
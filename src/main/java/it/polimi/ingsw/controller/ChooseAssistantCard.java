@@ -35,11 +35,9 @@ public class ChooseAssistantCard implements ControllerState{
      */
     @Override
     public void controlMessageAndExecute(Controller controller) {
-        String json = controller.getMsg();
-        Message message = gson.fromJson(json, Message.class);
-        String object = message.getObjectOfMessage();
+        Message message = controller.getDecodedMsg();
 
-        if(object.equals("assistant_chosen")){
+        if (message instanceof ChosenAssistantCardMessage) {
             stateExecution(controller);
         }else{
             System.out.println("CHOOSE_ASSISTANT_CARD STATE: \nexpected message with object [assistant_chosen]" +
@@ -51,7 +49,7 @@ public class ChooseAssistantCard implements ControllerState{
     public void stateExecution(Controller controller) {
 
         //operations for a single player
-        ChosenAssistantCardMessage request = gson.fromJson(controller.getMsg(), ChosenAssistantCardMessage.class);
+        ChosenAssistantCardMessage request = controller.getDecodedMsg(ChosenAssistantCardMessage.class);
 
         //set current player
         controller.getMatch().setCurrentPlayer(request.getSender_ID());
@@ -29,11 +29,9 @@ public class ChooseDeck implements ControllerState{
      */
     @Override
     public void controlMessageAndExecute(Controller controller) {
-        String json = controller.getMsg();
-        Message message = gson.fromJson(json, Message.class);
-        String object = message.getObjectOfMessage();
+        Message message = controller.getDecodedMsg();
 
-        if (object.equals("deck")) {
+        if (message instanceof ChosenDeckMessage) {
             stateExecution(controller);
         } else {
             System.out.println("CHOOSE_ASSISTANT_CARD STATE: \nexpected message with object [deck]" +
@@ -44,8 +42,7 @@ public class ChooseDeck implements ControllerState{
     @Override
     public void stateExecution(Controller controller) {
 
-        String jsonMsg = controller.getMsg();
-        ChosenDeckMessage request = gson.fromJson(jsonMsg, ChosenDeckMessage.class);
+        ChosenDeckMessage request = controller.getDecodedMsg(ChosenDeckMessage.class);
 
         // control if the deck was already chosen or not
         if(deckAlreadyChosen(request)){
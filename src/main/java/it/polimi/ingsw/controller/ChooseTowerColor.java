@@ -30,11 +30,9 @@ public class ChooseTowerColor implements ControllerState{
      */
     @Override
     public void controlMessageAndExecute(Controller controller) {
-        String json = controller.getMsg();
-        Message message = gson.fromJson(json, Message.class);
-        String object = message.getObjectOfMessage();
+        Message message = controller.getDecodedMsg();
 
-        if (object.equals("tower_color")) {
+        if (message instanceof ChosenTowerColorMessage) {
             stateExecution(controller);
         } else {
             System.out.println("CHOOSE_TOWER_COLOR STATE: \nexpected message with object [tower_color]" +
@@ -46,8 +44,7 @@ public class ChooseTowerColor implements ControllerState{
     public void stateExecution(Controller controller) {
         playersCounter++;
 
-        String jsonRequest = controller.getMsg();
-        ChosenTowerColorMessage request = gson.fromJson(jsonRequest, ChosenTowerColorMessage.class);
+        ChosenTowerColorMessage request = controller.getDecodedMsg(ChosenTowerColorMessage.class);
 
         /*IMPORTANT:
         The control on the color chosen , that is a color is not legit if it has already been chosen by another player,
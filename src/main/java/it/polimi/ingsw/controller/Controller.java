@@ -4,14 +4,16 @@ import it.polimi.ingsw.controller.characterCards.*;
 import it.polimi.ingsw.controller.characterCards.Character;
 import it.polimi.ingsw.model.Creature;
 import it.polimi.ingsw.model.Match;
+import it.polimi.ingsw.model.MatchRandom;
 import it.polimi.ingsw.messages.serverMessages.AckMessage;
 import it.polimi.ingsw.messages.serverMessages.MatchStartMessage;
 import it.polimi.ingsw.messages.Message;
+import it.polimi.ingsw.messages.MessageDecoder;
 import it.polimi.ingsw.server.ClientHandler;
+import it.polimi.ingsw.server.EncodedMessage;
 
 import java.util.ArrayList;
 import java.util.HashMap;
-import java.util.Random;
 import java.util.Set;
 
 public class Controller {
@@ -19,7 +21,7 @@ public class Controller {
      * This attribute tells if the match has already started (no more player allowed in) -> [1]
      * or if it's waiting for other players to join -> [0]
      */
-    private boolean playing;
+    private volatile boolean playing;
     /**
      * This attribute is the current state of the match
      */
@@ -48,6 +50,10 @@ public class Controller {
      * This attribute is the last message received from the client
      */
     private String msg_in = null;
+    /**
+     * This attribute is the last message received from the client, already decoded to its class
+     */
+    private Message msg_decoded = null;
     /**
      * This attribute is an array of references to all the ClientHandler of the players playing this match
      */
@@ -79,16 +85,37 @@ public class Controller {
      */
     private ArrayList<Boolean> playersDisconnected;
     /**
-     * This attribute is set to true if the match is ended and false otherwise
+     * This attribute is set to true if the match is ended and false otherwise;
+     * it is read by the ClientHandlers while the match is played by the workers of the mailbox
+     */
+    private volatile boolean matchEnded;
+    /**
+     * This attribute is the mailbox of the match: the messages of the players and their disconnections are
+     * executed in order, one at a time, by the shared workers
      */
-    private boolean matchEnded;
+    private final MatchMailbox mailbox = new MatchMailbox();
+    /**
+     * This attribute is the source of all the random choices of the match, created from the seed of the match
+     */
+    private final MatchRandom random;
 
     /**
      * Controller constructor
      * @param ID the ID of the match
      */
     public Controller(int ID){
+        this(ID, new MatchRandom());
+    }
+
+    /**
+     * Controller constructor for a match whose random choices are given by the random generator, e.g. created
+     * from a known seed to play a match again
+     * @param ID the ID of the match
+     * @param random the random generator of the match
+     */
+    public Controller(int ID, MatchRandom random){
         this.match_ID = ID;
+        this.random = random;
         this.playing = false;
         this.clientHandlers = new ArrayList<ClientHandler>();
         this.playersNickname = new ArrayList<String>();
@@ -136,14 +163,13 @@ public class Controller {
      */
     public void startMatch(){
 
-        this.match = new Match(this.match_ID, this.numberOfPlayers, expertMode);
+        this.match = new Match(this.match_ID, this.numberOfPlayers, expertMode, random);
         //adds all the players
         for(String s: playersNickname){
             this.match.addPlayer(s);
         }
 
         //chooses the first player of the match
-        Random random = new Random();
         int firstPlayer_ID = random.nextInt(numberOfPlayers);
 
         //set the current player inside the model
@@ -205,12 +231,14 @@ public class Controller {
     }
 
     /**
-     * This method sends a message to all players of the match
+     * This method sends a message to all players of the match; the message is serialized only once and the same
+     * encoded bytes are sent to every player
      * @param msg the message that must be sent to the players
      */
     public void sendMessageAsBroadcast(Message msg){
+        EncodedMessage encodedMessage = EncodedMessage.of(msg);
         for(ClientHandler p: clientHandlers){
-            p.messageToSerialize(msg);
+            p.sendEncodedMessage(encodedMessage);
         }
     }
 
@@ -219,12 +247,81 @@ public class Controller {
      * @param msg message sent by the client
      */
     public void manageMsg(String msg){
+        manageMsg(msg, MessageDecoder.SERVER_SIDE.decode(msg));
+    }
+
+    /**
+     * This method hands the message received by the client, already decoded, over to the state
+     * @param msg message sent by the client
+     * @param decoded the message decoded to its class
+     */
+    public void manageMsg(String msg, Message decoded){
         msg_in = msg;
+        msg_decoded = decoded;
 
         // the state will control the type of message and will execute the actions required
         state.controlMessageAndExecute(this);
     }
 
+    /**
+     * This method puts the message received by the client in the mailbox of the match: it will be handed over
+     * to the state after all the messages received before it, by one of the workers shared by the matches
+     * @param msg message sent by the client
+     */
+    public void submitMsg(String msg){
+        mailbox.submit(() -> manageMsg(msg));
+    }
+
+    /**
+     * This method puts the request of a player to join this lobby in the mailbox of the match: when it's executed
+     * the player is added if the lobby is still waiting for players, otherwise the request is refused.
+     * The ClientHandler is told the result before the player is added, so the player knows its ID before
+     * receiving the messages of the match.
+     * @param playerHandler reference to the ClientHandler of the player
+     * @param nickname nickname chosen by the player
+     */
+    public void submitJoin(ClientHandler playerHandler, String nickname){
+        mailbox.submit(() -> {
+            if(playing || matchEnded || playersAddedCounter >= numberOfPlayers){
+                playerHandler.onLobbyJoinRefused();
+            }else{
+                playerHandler.onLobbyJoined(this, playersAddedCounter);
+                addPlayerHandler(playerHandler, nickname);
+            }
+        });
+    }
+
+    /**
+     * This method puts the disconnection of a player in the mailbox of the match, so it is handled after the
+     * messages the player sent before disconnecting and after its request to join the lobby
+     * @param playerHandler reference to the ClientHandler of the player who disconnected
+     */
+    public void submitPlayerDisconnected(ClientHandler playerHandler){
+        mailbox.submit(() -> {
+            int playerID = clientHandlers.indexOf(playerHandler);
+            if(playerID >= 0 && !matchEnded){
+                onePlayerDisconnected(playerID);
+            }
+        });
+    }
+
+    /**
+     * This method returns the number of messages and events of this match that are waiting in the mailbox
+     * or that are being executed
+     * @return the depth of the mailbox of the match
+     */
+    public int getMailboxDepth(){
+        return mailbox.getDepth();
+    }
+
+    /**
+     * This method returns the highest depth reached by the mailbox of this match
+     * @return the maximum depth of the mailbox of the match
+     */
+    public int getMailboxMaxDepth(){
+        return mailbox.getMaxDepth();
+    }
+
     /**
      * This method calls the current state asking for the next one
      */
@@ -241,6 +338,14 @@ public class Controller {
         this.state = cs;
     }
 
+    /**
+     * This method returns the current state of the controller
+     * @return the current state
+     */
+    public ControllerState getState(){
+        return state;
+    }
+
     /**
      * This method sets the player as disconnected and if the match has not already begun then it
      * sends an EndOfMatchMessage, while if the match has already begun then it calls the endMatch
@@ -315,6 +420,23 @@ public class Controller {
         return msg_in;
     }
 
+    public Message getDecodedMsg(){
+        return msg_decoded;
+    }
+
+    /**
+     * This method returns the last message received as an instance of the given class; the message is parsed
+     * again only if it has not been decoded to that class when it was received
+     * @param type the class of the message
+     * @return the last message received
+     */
+    public <T extends Message> T getDecodedMsg(Class<T> type){
+        if(type.isInstance(msg_decoded)){
+            return type.cast(msg_decoded);
+        }
+        return ControllerState.gson.fromJson(msg_in, type);
+    }
+
     public void setPlaying(boolean playing) {
         this.playing = playing;
     }
@@ -1,9 +1,10 @@
 package it.polimi.ingsw.controller;
 
 import com.google.gson.Gson;
+import it.polimi.ingsw.messages.MessageAdapters;
 
 public interface ControllerState {
-    Gson gson = new Gson();
+    Gson gson = MessageAdapters.GSON;
 
     public void nextState(Controller controller);
 
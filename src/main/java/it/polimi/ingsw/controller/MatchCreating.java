@@ -17,12 +17,9 @@ public class MatchCreating implements ControllerState{
 
     @Override
     public void controlMessageAndExecute(Controller controller) {
-        String json = controller.getMsg();
+        Message message = controller.getDecodedMsg();
 
-        Message message = gson.fromJson(json, Message.class);
-        String object = message.getObjectOfMessage();
-
-        if(object.equals("creation")){
+        if (message instanceof MatchSpecsMessage) {
             stateExecution(controller);
         }else{
             System.out.println("MATCH_CREATING: \nexpected message with object [creation]" +
@@ -37,8 +34,7 @@ public class MatchCreating implements ControllerState{
     @Override
     public void stateExecution(Controller controller) {
         //read the message in controller and map it in MatchSpecs
-        String jsonMessage = controller.getMsg();
-        MatchSpecsMessage msgMapped = gson.fromJson(jsonMessage, MatchSpecsMessage.class);
+        MatchSpecsMessage msgMapped = controller.getDecodedMsg(MatchSpecsMessage.class);
 
         //initialize numberOfPlayers (in controller and model) and expertMode (only inside the model)
         controller.setNumberOfPlayers(msgMapped.getNumOfPlayers());
@@ -0,0 +1,113 @@
+package it.polimi.ingsw.controller;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * This class is the mailbox of one match: the tasks submitted by the ClientHandlers of the players (messages
+ * and disconnections) are executed one at a time and in the order they were submitted, so the controller and
+ * the model of the match are never used by two threads at the same time and they don't need any lock.
+ * The tasks are executed by a small pool of worker threads shared by all the matches: a mailbox uses a worker
+ * only while it has tasks to execute.
+ */
+public class MatchMailbox {
+    /**
+     * This attribute is the pool of worker threads shared by the mailboxes of all the matches
+     */
+    private static final ExecutorService WORKERS = Executors.newFixedThreadPool(
+            Math.max(2, Runtime.getRuntime().availableProcessors()),
+            task -> {
+                Thread worker = new Thread(task, "match-worker");
+                worker.setDaemon(true);
+                return worker;
+            });
+    /**
+     * This attribute is the maximum number of tasks executed in a row before the worker is left to the
+     * other matches
+     */
+    private static final int MAX_TASKS_IN_A_ROW = 32;
+
+    /**
+     * This attribute is the queue of the tasks waiting to be executed
+     */
+    private final ConcurrentLinkedQueue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+    /**
+     * This attribute is the number of tasks submitted and not yet completed
+     */
+    private final AtomicInteger depth = new AtomicInteger(0);
+    /**
+     * This attribute is the highest number of tasks waiting in the mailbox at the same time
+     */
+    private final AtomicInteger maxDepth = new AtomicInteger(0);
+    /**
+     * This attribute tells if the mailbox has already been given to a worker to execute its tasks
+     */
+    private final AtomicBoolean scheduled = new AtomicBoolean(false);
+
+    /**
+     * This method adds a task to the mailbox; the task will be executed after all the tasks submitted before it
+     * @param task the task to execute
+     */
+    public void submit(Runnable task) {
+        tasks.add(task);
+        int currentDepth = depth.incrementAndGet();
+        maxDepth.accumulateAndGet(currentDepth, Math::max);
+        schedule();
+    }
+
+    /**
+     * This method gives the mailbox to a worker, unless a worker is already executing its tasks
+     */
+    private void schedule() {
+        if (scheduled.compareAndSet(false, true)) {
+            WORKERS.execute(this::drain);
+        }
+    }
+
+    /**
+     * This method executes the waiting tasks; an exception thrown by a task is printed and doesn't stop
+     * the execution of the following ones
+     */
+    private void drain() {
+        int executed = 0;
+        Runnable task = tasks.poll();
+        while (task != null && executed < MAX_TASKS_IN_A_ROW) {
+            try {
+                task.run();
+            } catch (RuntimeException e) {
+                e.printStackTrace();
+            } finally {
+                depth.decrementAndGet();
+            }
+            executed++;
+            if (executed < MAX_TASKS_IN_A_ROW) {
+                task = tasks.poll();
+            }
+        }
+
+        scheduled.set(false);
+        // a task may have been submitted after the last poll, while the mailbox was still marked as scheduled
+        if (!tasks.isEmpty()) {
+            schedule();
+        }
+    }
+
+    /**
+     * This method returns the number of tasks submitted and not yet completed
+     * @return the depth of the mailbox
+     */
+    public int getDepth() {
+        return depth.get();
+    }
+
+    /**
+     * This method returns the highest number of tasks that have been waiting in the mailbox at the same time
+     * @return the maximum depth reached by the mailbox
+     */
+    public int getMaxDepth() {
+        return maxDepth.get();
+    }
+}
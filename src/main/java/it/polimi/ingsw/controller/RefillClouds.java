@@ -22,11 +22,9 @@ public class RefillClouds implements ControllerState{
      */
     @Override
     public void controlMessageAndExecute(Controller controller) {
-        String json = controller.getMsg();
-        Message message = gson.fromJson(json, Message.class);
-        String object = message.getObjectOfMessage();
+        Message message = controller.getDecodedMsg();
 
-        if (object.equals("draw")) {
+        if (message instanceof BagClickMessage) {
             stateExecution(controller);
         }else{
             System.out.println("REFILL_CLOUDS STATE: \nexpected object [draw]\n" +
@@ -39,7 +37,7 @@ public class RefillClouds implements ControllerState{
      */
     @Override
     public void stateExecution(Controller controller) {
-        BagClickMessage request = gson.fromJson(controller.getMsg(), BagClickMessage.class);
+        BagClickMessage request = controller.getDecodedMsg(BagClickMessage.class);
 
         //refill every cloud on the table
         ArrayList<Creature> studentsPutOnEachCloud = controller.getMatch().moveStudentsFromBagToCloudsEveryRound();
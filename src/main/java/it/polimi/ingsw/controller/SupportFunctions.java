@@ -4,9 +4,12 @@ import it.polimi.ingsw.controller.characterCards.MushroomsMerchant;
 import it.polimi.ingsw.model.*;
 
 import java.util.ArrayList;
-import java.util.HashMap;
 
 public class SupportFunctions {
+    /**
+     * This attribute contains the kinds of creature, so they are not copied at every influence computation
+     */
+    private static final Creature[] CREATURES = Creature.values();
 
     /**
      * This method finds out who is the first player of the upcoming new round
@@ -35,14 +38,7 @@ public class SupportFunctions {
      *         false if there are more than three islands
      */
     static public boolean onlyThreeIslandsLeft(Match match){
-        int islandsLeftCounter = 0;
-
-        ArrayList<Archipelago> islands = match.getRealmOfTheMatch().getArchipelagos();
-        for(Archipelago a: islands){
-            if(a != null){
-                islandsLeftCounter++;
-            }
-        }
+        int islandsLeftCounter = match.getRealmOfTheMatch().getNumberOfArchipelagos();
 
         assert islandsLeftCounter > 3 || islandsLeftCounter == 3 : "ERROR: there are less than 3 islands left";
         return islandsLeftCounter == 3;
@@ -168,8 +164,8 @@ public class SupportFunctions {
                     tie = false;
                 }else if(tempTowersOfPlayer == winnerTowers){
 
-                    winnerProfessors = tempWinner.getMyProfessors().size();
-                    tempPlayerProfessors = p.getMyProfessors().size();
+                    winnerProfessors = tempWinner.getNumberOfProfessors();
+                    tempPlayerProfessors = p.getNumberOfProfessors();
 
                     if(tempPlayerProfessors > winnerProfessors){
                         /* N.B. We don't need to assign tempTowersOfPlayer to winnerTowers
@@ -194,16 +190,10 @@ public class SupportFunctions {
      * @return ID of the player controlling the professor or -1 if no player controls it
      */
     static public int whoControlsTheProfessor(Match match, Creature creature){
-        int player_ID = -1;
+        int player_ID = match.getOwnerOfProfessor(creature);
 
-        for(int i = 0; i < match.getPlayers().size(); i++){
-
-            if(match.getPlayers().get(i).getSchoolBoard().getProfessorTable().isOccupied(creature)){
-                assert player_ID == -1 : "ACTION_1 controller state:\ntwo players simultaneously " +
-                        "controlling the" + creature + "professor";
-                player_ID = i;
-            }
-        }
+        assert player_ID == -1 || match.getPlayerByID(player_ID).getSchoolBoard().getProfessorTable().isOccupied(creature) :
+                "The owner of the " + creature + " professor has not the professor on his table";
 
         // if nobody controls the creature it should be in the notControlledProfessors list
         assert player_ID != -1 || match.getNotControlledProfessors().contains(creature) :
@@ -225,32 +215,29 @@ public class SupportFunctions {
     static public int influenceComputation(Controller controller, int island_ID){
         Match match = controller.getMatch();
 
-        // in this variable we store for each player the influence on the island : HashMap<player_ID, influence>
-        HashMap<Integer, Integer> allPlayersInfluence = new HashMap<>();
+        // in this variable we store for each player the influence on the island, indexed by player_ID
+        int[] allPlayersInfluence = new int[match.getPlayers().size()];
 
         Archipelago island = match.getRealmOfTheMatch().getArchipelagos().get(island_ID);
-        ArrayList<Creature> playerProfessors;
 
-        for(int player_ID = 0; player_ID < match.getPlayers().size(); player_ID++){
-            Player player = match.getPlayers().get(player_ID);
-            playerProfessors = player.getMyProfessors();
-
-            // count the number of students of each type on the island
-            int playerInfluence = 0;
-            for(Creature creature: playerProfessors){
-
-                // control if mushroom-merchant has been used
-                if(controller.isExpertMode() && controller.getCharactersManager().isMushroomsMerchantActive()){
-                    MushroomsMerchant mushroomsMerchant = (MushroomsMerchant) controller.getCharactersManager().getCards().get("mushroomMerchant");
-                    /* we count the number of students only if they are not of the type
-                    to which the effect of the mushrooms-merchant card is applied*/
-                    if(!(mushroomsMerchant.getCreatureChosen().equals(creature))){
-                        playerInfluence += island.getStudentsOfType(creature);
-                    }
-                }else{
-                    playerInfluence += island.getStudentsOfType(creature);
-                }
+        // control if mushroom-merchant has been used
+        Creature creatureNotCounted = null;
+        if(controller.isExpertMode() && controller.getCharactersManager().isMushroomsMerchantActive()){
+            MushroomsMerchant mushroomsMerchant = (MushroomsMerchant) controller.getCharactersManager().getCards().get("mushroomMerchant");
+            creatureNotCounted = mushroomsMerchant.getCreatureChosen();
+        }
+
+        /* the students of each type on the island are counted for the player controlling their professor,
+        only if they are not of the type to which the effect of the mushrooms-merchant card is applied */
+        for(Creature creature: CREATURES){
+            int owner_ID = match.getOwnerOfProfessor(creature);
+            if(owner_ID != -1 && creature != creatureNotCounted){
+                allPlayersInfluence[owner_ID] += island.getStudentsOfType(creature);
             }
+        }
+
+        for(int player_ID = 0; player_ID < match.getPlayers().size(); player_ID++){
+            int playerInfluence = allPlayersInfluence[player_ID];
 
             if(!controller.isExpertMode() || !controller.getCharactersManager().isCentaurActive()){
                 // if the players owns the tower(s) then we also count them in the influence
@@ -259,11 +246,11 @@ public class SupportFunctions {
 
             // if the player is using the knight character two points are added to the influence
             if(controller.isExpertMode() && controller.getCharactersManager().getKnightUser() == player_ID){
-                allPlayersInfluence.put(player_ID, playerInfluence + 2);
+                allPlayersInfluence[player_ID] = playerInfluence + 2;
                 // RESET knightUser
                 controller.getCharactersManager().setKnightUser(-1);
             }else{
-                allPlayersInfluence.put(player_ID, playerInfluence);
+                allPlayersInfluence[player_ID] = playerInfluence;
             }
         }
         // RESET centaur character card
@@ -277,11 +264,11 @@ public class SupportFunctions {
         int equalInfluenceCounter = 0;
 
         for(int i = 0; i < match.getPlayers().size(); i++){
-            if(allPlayersInfluence.get(i) > maxInfluence){
+            if(allPlayersInfluence[i] > maxInfluence){
                 equalInfluenceCounter = 1;
                 playerWithMaxInfluence = i;
-                maxInfluence = allPlayersInfluence.get(i);
-            }else if(allPlayersInfluence.get(i) == maxInfluence){
+                maxInfluence = allPlayersInfluence[i];
+            }else if(allPlayersInfluence[i] == maxInfluence){
                 equalInfluenceCounter++;
             }
         }
@@ -10,6 +10,7 @@ import it.polimi.ingsw.messages.clientMessages.CharacterDataMessage;
 import it.polimi.ingsw.messages.serverMessages.AckCharactersMessage;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 
 /**
  * This class represents the character called "bard" (the third to last on the rules file).
@@ -105,7 +106,7 @@ public class Bard extends Character {
         AckCharactersMessage ack = new AckCharactersMessage(player.getID(), "bard", coinsReserve);
 
         ack.setEntranceOfPlayer(player.getSchoolBoard().getEntrance().getStudentsInTheEntrance());
-        ack.setPlayerDiningRoom(player.getSchoolBoard().getDiningRoom().getOccupiedSeats());
+        ack.setPlayerDiningRoom(new HashMap<>(player.getSchoolBoard().getDiningRoom().getOccupiedSeats()));
 
         for(int k = 0; k < controller.getNumberOfPlayers(); k++){
             player = controller.getMatch().getPlayerByID(k);
@@ -1,6 +1,7 @@
 package it.polimi.ingsw.controller.characterCards;
 
 import it.polimi.ingsw.controller.Controller;
+import it.polimi.ingsw.model.MatchRandom;
 import it.polimi.ingsw.model.Player;
 import it.polimi.ingsw.messages.clientMessages.CharacterDataMessage;
 import it.polimi.ingsw.messages.clientMessages.CharacterRequestMessage;
@@ -9,7 +10,6 @@ import it.polimi.ingsw.messages.serverMessages.NackMessage;
 
 import java.util.ArrayList;
 import java.util.HashMap;
-import java.util.Random;
 import java.util.Set;
 
 public class CharactersManager {
@@ -61,7 +61,7 @@ public class CharactersManager {
      */
     public Set<String> chooseCharacter(){
 
-        Random random = new Random();
+        MatchRandom random = controller.getMatch().getRandom();
         int randomNumber;
 
         ArrayList<Integer> alreadyDrawnNumbers = new ArrayList<>();
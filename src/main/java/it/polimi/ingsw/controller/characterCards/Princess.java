@@ -10,6 +10,7 @@ import it.polimi.ingsw.messages.serverMessages.AckCharactersMessage;
 import it.polimi.ingsw.messages.serverMessages.NackMessage;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 
 /**
  * This class represents the character card called "princess".
@@ -80,7 +81,7 @@ public class Princess extends Character {
 
         ack.setCreature(studentTaken);
         ack.setStudentsOnCard(studentsOnPrincess);
-        ack.setPlayerDiningRoom(player.getSchoolBoard().getDiningRoom().getOccupiedSeats());
+        ack.setPlayerDiningRoom(new HashMap<>(player.getSchoolBoard().getDiningRoom().getOccupiedSeats()));
 
         for(int k = 0; k < controller.getNumberOfPlayers(); k++){
             player = controller.getMatch().getPlayerByID(k);
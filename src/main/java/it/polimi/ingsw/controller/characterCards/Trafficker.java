@@ -9,6 +9,8 @@ import it.polimi.ingsw.model.schoolboard.DiningRoom;
 import it.polimi.ingsw.messages.clientMessages.CharacterDataMessage;
 import it.polimi.ingsw.messages.serverMessages.AckCharactersMessage;
 
+import java.util.HashMap;
+
 /**
  * This class represents the character card called "trafficker".
  * It allows players to remove from their own dining room and from those of the
@@ -83,7 +85,7 @@ public class Trafficker extends Character {
         for(int k = 0; k < controller.getNumberOfPlayers(); k++){
             player = controller.getMatch().getPlayerByID(k);
             ack.setPlayerProfessors(k, player.getMyProfessors());
-            ack.addPlayerDiningRoom(k, player.getSchoolBoard().getDiningRoom().getOccupiedSeats());
+            ack.addPlayerDiningRoom(k, new HashMap<>(player.getSchoolBoard().getDiningRoom().getOccupiedSeats()));
         }
 
         int coinsOfPlayer = controller.getMatch().getPlayerByID(request.getSender_ID()).getCoinsOwned();
@@ -0,0 +1,16 @@
+package it.polimi.ingsw.messages;
+
+import java.util.List;
+
+/**
+ * This interface is implemented by the messages which carry at once the results that were sent as separate
+ * messages (e.g. the acks of the movement, of the influence and of the union of action_2).
+ * A client that did not agree on batching in its HelloMessage receives the parts one by one, in order.
+ */
+public interface BatchedMessage {
+    /**
+     * This method returns the messages carried by this one, in the order they would have been sent
+     * @return the parts of the message, without the missing ones
+     */
+    List<? extends Message> getParts();
+}
@@ -0,0 +1,256 @@
+package it.polimi.ingsw.messages;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.TypeAdapter;
+import com.google.gson.TypeAdapterFactory;
+import com.google.gson.reflect.TypeToken;
+import it.polimi.ingsw.messages.clientMessages.*;
+import it.polimi.ingsw.messages.serverMessages.*;
+import it.polimi.ingsw.model.Creature;
+import it.polimi.ingsw.model.Tower;
+import it.polimi.ingsw.model.Wizard;
+
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Set;
+
+/**
+ * This class contains the schemas of all the messages and gives them to Gson as TypeAdapters, so the messages
+ * are read and written without accessing their fields by reflection.
+ * The messages must be serialized with the GSON object of this class; a class without a schema is still
+ * handled by the reflective adapter of Gson.
+ * The acks are sparse: each kind of ack sets only a few of their many fields, so the other ones are left out.
+ */
+public final class MessageAdapters implements TypeAdapterFactory {
+    private static final Type CREATURE_LIST = new TypeToken<ArrayList<Creature>>(){}.getType();
+    private static final Type INTEGER_LIST = new TypeToken<ArrayList<Integer>>(){}.getType();
+    private static final Type BOOLEAN_LIST = new TypeToken<ArrayList<Boolean>>(){}.getType();
+    private static final Type STRING_LIST = new TypeToken<ArrayList<String>>(){}.getType();
+    private static final Type TOWER_LIST = new TypeToken<ArrayList<Tower>>(){}.getType();
+    private static final Type WIZARD_LIST = new TypeToken<ArrayList<Wizard>>(){}.getType();
+    private static final Type STRING_SET = new TypeToken<Set<String>>(){}.getType();
+    private static final Type CREATURES_BY_PLAYER = new TypeToken<HashMap<Integer, ArrayList<Creature>>>(){}.getType();
+    private static final Type DINING_ROOM = new TypeToken<HashMap<Creature, Integer>>(){}.getType();
+    private static final Type DINING_ROOM_BY_PLAYER = new TypeToken<HashMap<Integer, HashMap<Creature, Integer>>>(){}.getType();
+    private static final Type ACK_LIST = new TypeToken<ArrayList<AckMessage>>(){}.getType();
+
+    /**
+     * This attribute links each message class with its schema
+     */
+    private static final HashMap<Class<?>, MessageSchema<?>> SCHEMAS = new HashMap<>();
+
+    /**
+     * This attribute is the schema of the fields shared by all the messages
+     */
+    private static final MessageSchema<Message> MESSAGE = new MessageSchema<>(Message::new)
+            .stringField("object", Message::getObjectOfMessage, Message::setObject).required()
+            .intField("sender_ID", Message::getSender_ID, Message::setSender_ID);
+
+    /**
+     * This attribute is the schema of the acks, shared with the acks of the characters
+     */
+    private static final MessageSchema<AckMessage> ACK = new MessageSchema<>(AckMessage::new)
+            .stringField("subObject", AckMessage::getSubObject, AckMessage::setSubObject)
+            .intField("recipient", AckMessage::getRecipient, AckMessage::setRecipient)
+            .intField("nextPlayer", AckMessage::getNextPlayer, AckMessage::setNextPlayer)
+            .field("students", CREATURE_LIST, AckMessage::getStudents, AckMessage::setStudents)
+            .field("notAvailableTowerColors", TOWER_LIST, AckMessage::getNotAvailableTowerColors, AckMessage::setNotAvailableTowerColors)
+            .field("notAvailableDecks", WIZARD_LIST, AckMessage::getNotAvailableDecks, AckMessage::setNotAvailableDecks)
+            .field("assistantAlreadyUsedInThisRound", INTEGER_LIST, AckMessage::getAssistantAlreadyUsedInThisRound, AckMessage::setAssistantAlreadyUsedInThisRound)
+            .intField("studentMoved_ID", AckMessage::getStudentMoved_ID, AckMessage::setStudentMoved_ID)
+            .field("typeOfStudentMoved", Creature.class, AckMessage::getTypeOfStudentMoved, AckMessage::setTypeOfStudentMoved)
+            .booleanField("professorTaken", AckMessage::isProfessorTaken, AckMessage::setProfessorTaken)
+            .intField("previousOwnerOfProfessor", AckMessage::getPreviousOwnerOfProfessor, AckMessage::setPreviousOwnerOfProfessor)
+            .intField("destinationIsland_ID", AckMessage::getDestinationIsland_ID, AckMessage::setDestinationIsland_ID)
+            .stringField("islandsUnified", AckMessage::getIslandsUnified, AckMessage::setIslandsUnified)
+            .field("islands_ID", INTEGER_LIST, AckMessage::getIslands_ID, AckMessage::setIslands_ID)
+            .booleanField("removedNoEntryTile", AckMessage::isRemovedNoEntryTile, AckMessage::setRemovedNoEntryTile)
+            .intField("islandThatLostNoEntryTile", AckMessage::getIslandThatLostNoEntryTile, AckMessage::setIslandThatLostNoEntryTile)
+            .booleanField("masterChanged", AckMessage::isMasterChanged, AckMessage::setMasterChanged)
+            .intField("previousMaster_ID", AckMessage::getPreviousMaster_ID, AckMessage::setPreviousMaster_ID)
+            .intField("newMaster_ID", AckMessage::getNewMaster_ID, AckMessage::setNewMaster_ID)
+            .booleanField("action3Valid", AckMessage::isAction3Valid, AckMessage::setAction3Valid)
+            .intField("cloudChosen_ID", AckMessage::getCloudChosen_ID, AckMessage::setCloudChosen_ID)
+            .booleanField("endOfMatch", AckMessage::isEndOfMatch, AckMessage::setEndOfMatch)
+            .booleanField("nextPlanningPhase", AckMessage::isNextPlanningPhase, AckMessage::setNextPlanningPhase)
+            .field("towerColor", Tower.class, AckMessage::getTowerColor, AckMessage::setTowerColor)
+            .inherit(MESSAGE)
+            .sparse();
+
+    static {
+        SCHEMAS.put(Message.class, MESSAGE);
+        SCHEMAS.put(AckMessage.class, ACK);
+
+        // messages sent by the clients
+        register(PingMessage.class, new MessageSchema<>(PingMessage::new));
+        register(BagClickMessage.class, new MessageSchema<>(BagClickMessage::new));
+        register(HelloMessage.class, new MessageSchema<>(HelloMessage::new)
+                .intField("protocolVersion", HelloMessage::getProtocolVersion, HelloMessage::setProtocolVersion)
+                .booleanField("framed", HelloMessage::isFramed, HelloMessage::setFramed)
+                .booleanField("binary", HelloMessage::isBinary, HelloMessage::setBinary)
+                .booleanField("compressed", HelloMessage::isCompressed, HelloMessage::setCompressed)
+                .booleanField("batching", HelloMessage::isBatching, HelloMessage::setBatching));
+        register(FramingRequestMessage.class, new MessageSchema<>(FramingRequestMessage::new)
+                .booleanField("binary", FramingRequestMessage::isBinary, FramingRequestMessage::setBinary)
+                .booleanField("compressed", FramingRequestMessage::isCompressed, FramingRequestMessage::setCompressed));
+        register(LoginMessage.class, new MessageSchema<>(LoginMessage::new)
+                .stringField("nicknameOfPlayer", LoginMessage::getNicknameOfPlayer, LoginMessage::setNicknameOfPlayer)
+                .booleanField("createNewMatch", LoginMessage::isCreateNewMatch, LoginMessage::setCreateNewMatch));
+        register(QuickLoginMessage.class, new MessageSchema<>(QuickLoginMessage::new)
+                .stringField("nicknameOfPlayer", QuickLoginMessage::getNicknameOfPlayer, QuickLoginMessage::setNicknameOfPlayer)
+                .booleanField("createNewMatch", QuickLoginMessage::isCreateNewMatch, QuickLoginMessage::setCreateNewMatch)
+                .intField("numOfPlayers", QuickLoginMessage::getNumOfPlayers, QuickLoginMessage::setNumOfPlayers)
+                .booleanField("expertMode", QuickLoginMessage::isExpertMode, QuickLoginMessage::setExpertMode)
+                .stringField("mode", QuickLoginMessage::getMode, QuickLoginMessage::setMode));
+        register(MatchSpecsMessage.class, new MessageSchema<>(MatchSpecsMessage::new)
+                .intField("numOfPlayers", MatchSpecsMessage::getNumOfPlayers, MatchSpecsMessage::setNumOfPlayers)
+                .booleanField("expertMode", MatchSpecsMessage::isExpertMode, MatchSpecsMessage::setExpertMode));
+        register(LobbyListRequestMessage.class, new MessageSchema<>(LobbyListRequestMessage::new)
+                .intField("numOfPlayers", LobbyListRequestMessage::getNumOfPlayers, LobbyListRequestMessage::setNumOfPlayers)
+                .stringField("mode", LobbyListRequestMessage::getMode, LobbyListRequestMessage::setMode)
+                .intField("page", LobbyListRequestMessage::getPage, LobbyListRequestMessage::setPage));
+        register(ReplyChosenLobbyToJoinMessage.class, new MessageSchema<>(ReplyChosenLobbyToJoinMessage::new)
+                .intField("lobbyIDChosen", ReplyChosenLobbyToJoinMessage::getLobbyIDChosen, ReplyChosenLobbyToJoinMessage::setLobbyIDChosen));
+        register(ChosenTowerColorMessage.class, new MessageSchema<>(ChosenTowerColorMessage::new)
+                .field("color", Tower.class, ChosenTowerColorMessage::getColor, ChosenTowerColorMessage::setColor));
+        register(ChosenDeckMessage.class, new MessageSchema<>(ChosenDeckMessage::new)
+                .field("deck", Wizard.class, ChosenDeckMessage::getDeck, ChosenDeckMessage::setDeck));
+        register(ChosenAssistantCardMessage.class, new MessageSchema<>(ChosenAssistantCardMessage::new)
+                .intField("assistantChosen", ChosenAssistantCardMessage::getAssistantChosen, ChosenAssistantCardMessage::setAssistantChosen));
+        register(MovedStudentsFromEntranceMessage.class, new MessageSchema<>(MovedStudentsFromEntranceMessage::new)
+                .intField("student_ID", MovedStudentsFromEntranceMessage::getStudent_ID, MovedStudentsFromEntranceMessage::setStudent_ID)
+                .intField("location", MovedStudentsFromEntranceMessage::getLocation, MovedStudentsFromEntranceMessage::setLocation));
+        register(MovedStudentsBatchMessage.class, new MessageSchema<>(MovedStudentsBatchMessage::new)
+                .field("students_ID", INTEGER_LIST, MovedStudentsBatchMessage::getStudents_ID, MovedStudentsBatchMessage::setStudents_ID)
+                .field("locations", INTEGER_LIST, MovedStudentsBatchMessage::getLocations, MovedStudentsBatchMessage::setLocations));
+        register(MovedMotherNatureMessage.class, new MessageSchema<>(MovedMotherNatureMessage::new)
+                .intField("destinationIsland_ID", MovedMotherNatureMessage::getDestinationIsland_ID, MovedMotherNatureMessage::setDestinationIsland_ID));
+        register(ChosenCloudMessage.class, new MessageSchema<>(ChosenCloudMessage::new)
+                .intField("cloud_ID", ChosenCloudMessage::getCloud_ID, ChosenCloudMessage::setCloud_ID));
+        register(CharacterRequestMessage.class, new MessageSchema<>(CharacterRequestMessage::new)
+                .stringField("character", CharacterRequestMessage::getCharacter, CharacterRequestMessage::setCharacter));
+        register(CharacterDataMessage.class, new MessageSchema<>(CharacterDataMessage::new)
+                .stringField("character", CharacterDataMessage::getCharacter, CharacterDataMessage::setCharacter)
+                .intField("student_ID", CharacterDataMessage::getStudent_ID, CharacterDataMessage::setStudent_ID)
+                .intField("island_ID", CharacterDataMessage::getIsland_ID, CharacterDataMessage::setIsland_ID)
+                .field("elementsFromCard", INTEGER_LIST, CharacterDataMessage::getElementsFromCard, CharacterDataMessage::setElementsFromCard)
+                .field("studentsFromPlayerEntrance", INTEGER_LIST, CharacterDataMessage::getStudentsFromPlayerEntrance, CharacterDataMessage::setStudentsFromPlayerEntrance)
+                .field("studentsFromPlayerDiningRoom", CREATURE_LIST, CharacterDataMessage::getStudentsFromPlayerDiningRoom, CharacterDataMessage::setStudentsFromPlayerDiningRoom)
+                .field("creature", Creature.class, CharacterDataMessage::getCreature, CharacterDataMessage::setCreature));
+
+        // messages sent by the server
+        register(HelloAckMessage.class, new MessageSchema<>(HelloAckMessage::new)
+                .intField("protocolVersion", HelloAckMessage::getProtocolVersion, HelloAckMessage::setProtocolVersion)
+                .booleanField("framed", HelloAckMessage::isFramed, HelloAckMessage::setFramed)
+                .booleanField("binary", HelloAckMessage::isBinary, HelloAckMessage::setBinary)
+                .booleanField("compressed", HelloAckMessage::isCompressed, HelloAckMessage::setCompressed)
+                .booleanField("batching", HelloAckMessage::isBatching, HelloAckMessage::setBatching));
+        register(FramingAckMessage.class, new MessageSchema<>(FramingAckMessage::new)
+                .booleanField("binary", FramingAckMessage::isBinary, FramingAckMessage::setBinary)
+                .booleanField("compressed", FramingAckMessage::isCompressed, FramingAckMessage::setCompressed));
+        register(NicknameNotValidMessage.class, new MessageSchema<>(NicknameNotValidMessage::new));
+        register(AckMatchCreationMessage.class, new MessageSchema<>(AckMatchCreationMessage::new)
+                .intField("playerID", AckMatchCreationMessage::getPlayerID, AckMatchCreationMessage::setPlayerID)
+                .booleanField("newMatchNeeded", AckMatchCreationMessage::getNewMatchNeeded, AckMatchCreationMessage::setNewMatchNeeded));
+        register(AskMatchToJoinMessage.class, new MessageSchema<>(AskMatchToJoinMessage::new)
+                .field("lobbiesID", INTEGER_LIST, AskMatchToJoinMessage::getLobbiesID, AskMatchToJoinMessage::setLobbiesID)
+                .field("lobbiesNumberOfPlayers", INTEGER_LIST, AskMatchToJoinMessage::getLobbiesNumberOfPlayers, AskMatchToJoinMessage::setLobbiesNumberOfPlayers)
+                .field("lobbiesPlayersAdded", INTEGER_LIST, AskMatchToJoinMessage::getLobbiesPlayersAdded, AskMatchToJoinMessage::setLobbiesPlayersAdded)
+                .field("lobbiesExpertMode", BOOLEAN_LIST, AskMatchToJoinMessage::getLobbiesExpertMode, AskMatchToJoinMessage::setLobbiesExpertMode)
+                .intField("numOfPlayersFilter", AskMatchToJoinMessage::getNumOfPlayersFilter, AskMatchToJoinMessage::setNumOfPlayersFilter)
+                .stringField("modeFilter", AskMatchToJoinMessage::getModeFilter, AskMatchToJoinMessage::setModeFilter)
+                .intField("page", AskMatchToJoinMessage::getPage, AskMatchToJoinMessage::setPage)
+                .intField("numberOfPages", AskMatchToJoinMessage::getNumberOfPages, AskMatchToJoinMessage::setNumberOfPages));
+        register(NoLobbyAvailableMessage.class, new MessageSchema<>(() -> new NoLobbyAvailableMessage(0))
+                .intField("playerID", NoLobbyAvailableMessage::getPlayerID, NoLobbyAvailableMessage::setPlayerID));
+        register(IDSetAfterLobbyChoiceMessage.class, new MessageSchema<>(() -> new IDSetAfterLobbyChoiceMessage(0))
+                .intField("playerID", IDSetAfterLobbyChoiceMessage::getPlayerID, IDSetAfterLobbyChoiceMessage::setPlayerID));
+        register(MatchStartMessage.class, new MessageSchema<>(MatchStartMessage::new)
+                .intField("firstPlayer", MatchStartMessage::getFirstPlayer, MatchStartMessage::setFirstPlayer)
+                .field("nicknames", STRING_LIST, MatchStartMessage::getNicknames, MatchStartMessage::setNicknames)
+                .intField("numPlayer", MatchStartMessage::getNumPlayer, MatchStartMessage::setNumPlayer)
+                .booleanField("expertMode", MatchStartMessage::isExpertMode, MatchStartMessage::setExpertMode)
+                .intField("motherNaturePosition", MatchStartMessage::getMotherNaturePosition, MatchStartMessage::setMotherNaturePosition)
+                .field("studentsOnIslands", CREATURE_LIST, MatchStartMessage::getStudentsOnIslands, MatchStartMessage::setStudentsOnIslands)
+                .field("studentsInEntrance", CREATURES_BY_PLAYER, MatchStartMessage::getStudentsInEntrance, MatchStartMessage::setStudentsInEntrance)
+                .field("characters", STRING_SET, MatchStartMessage::getCharacters, MatchStartMessage::setCharacters)
+                .field("monkStudents", CREATURE_LIST, MatchStartMessage::getMonkStudents, MatchStartMessage::setMonkStudents)
+                .field("jesterStudents", CREATURE_LIST, MatchStartMessage::getJesterStudents, MatchStartMessage::setJesterStudents)
+                .field("princessStudents", CREATURE_LIST, MatchStartMessage::getPrincessStudents, MatchStartMessage::setPrincessStudents));
+        register(NackMessage.class, new MessageSchema<>(NackMessage::new)
+                .stringField("subObject", NackMessage::getSubObject, NackMessage::setSubObject)
+                .stringField("explanationMessage", NackMessage::getExplanationMessage, NackMessage::setExplanationMessage));
+        register(EndOfMatchMessage.class, new MessageSchema<>(EndOfMatchMessage::new)
+                .intField("winner", EndOfMatchMessage::getWinner, EndOfMatchMessage::setWinner)
+                .stringField("winnerNickname", EndOfMatchMessage::getWinnerNickname, EndOfMatchMessage::setWinnerNickname)
+                .stringField("reason", EndOfMatchMessage::getReason, EndOfMatchMessage::setReason));
+        register(TurnResultMessage.class, new MessageSchema<>(TurnResultMessage::new)
+                .field("movement", AckMessage.class, TurnResultMessage::getMovement, TurnResultMessage::setMovement)
+                .field("influence", AckMessage.class, TurnResultMessage::getInfluence, TurnResultMessage::setInfluence)
+                .field("union", AckMessage.class, TurnResultMessage::getUnion, TurnResultMessage::setUnion));
+        register(StudentsMovedMessage.class, new MessageSchema<>(StudentsMovedMessage::new)
+                .field("moves", ACK_LIST, StudentsMovedMessage::getMoves, StudentsMovedMessage::setMoves));
+        SCHEMAS.put(AckCharactersMessage.class, new MessageSchema<>(AckCharactersMessage::new)
+                .stringField("character", AckCharactersMessage::getCharacter, AckCharactersMessage::setCharacter)
+                .intField("coinReserve", AckCharactersMessage::getCoinReserve, AckCharactersMessage::setCoinReserve)
+                .intField("playerCoins", AckCharactersMessage::getPlayerCoins, AckCharactersMessage::setPlayerCoins)
+                .field("student", Creature.class, AckCharactersMessage::getStudent, AckCharactersMessage::setStudent)
+                .intField("island_ID", AckCharactersMessage::getIsland_ID, AckCharactersMessage::setIsland_ID)
+                .field("studentsOnCard", CREATURE_LIST, AckCharactersMessage::getStudentsOnCard, AckCharactersMessage::setStudentsOnCard)
+                .intField("numberOfElementsOnTheCard", AckCharactersMessage::getNumberOfElementsOnTheCard, AckCharactersMessage::setNumberOfElementsOnTheCard)
+                .field("entranceOfPlayer", CREATURE_LIST, AckCharactersMessage::getEntranceOfPlayer, AckCharactersMessage::setEntranceOfPlayer)
+                .field("creature", Creature.class, AckCharactersMessage::getCreature, AckCharactersMessage::setCreature)
+                .field("playerDiningRoom", DINING_ROOM, AckCharactersMessage::getPlayerDiningRoom, AckCharactersMessage::setPlayerDiningRoom)
+                .field("allPlayersProfessors", CREATURES_BY_PLAYER, AckCharactersMessage::getAllPlayersProfessors, AckCharactersMessage::setAllPlayersProfessors)
+                .field("allPlayersDiningRoom", DINING_ROOM_BY_PLAYER, AckCharactersMessage::getAllPlayersDiningRoom, AckCharactersMessage::setAllPlayersDiningRoom)
+                .inherit(ACK)
+                .sparse());
+    }
+
+    /**
+     * This attribute is the Gson object which uses the schemas of the messages; like any Gson object it can be
+     * shared by many threads
+     */
+    public static final Gson GSON = new GsonBuilder().registerTypeAdapterFactory(new MessageAdapters()).create();
+
+    private MessageAdapters() {
+    }
+
+    /**
+     * This method registers the schema of a message class which extends Message directly
+     */
+    private static <T extends Message> void register(Class<T> messageClass, MessageSchema<T> schema) {
+        SCHEMAS.put(messageClass, schema.inherit(MESSAGE));
+    }
+
+    /**
+     * This method tells if a class is read and written through its schema
+     * @param messageClass the class of the message
+     * @return true if the class has a schema
+     */
+    public static boolean supports(Class<?> messageClass) {
+        return SCHEMAS.containsKey(messageClass);
+    }
+
+    /**
+     * This method finds the schema of a message class
+     * @param messageClass the class of the message
+     * @return the schema of the class, or null if the class has no schema
+     */
+    @SuppressWarnings("unchecked")
+    public static <T extends Message> MessageSchema<T> schemaOf(Class<T> messageClass) {
+        return (MessageSchema<T>) SCHEMAS.get(messageClass);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> TypeAdapter<T> create(Gson gson, TypeToken<T> type) {
+        MessageSchema<?> schema = SCHEMAS.get(type.getRawType());
+        if (schema == null) {
+            return null;
+        }
+        return (TypeAdapter<T>) schema.adapter(gson);
+    }
+}
@@ -0,0 +1,109 @@
+package it.polimi.ingsw.messages;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+import it.polimi.ingsw.messages.clientMessages.*;
+import it.polimi.ingsw.messages.serverMessages.*;
+
+import java.util.HashMap;
+
+/**
+ * This class builds the concrete message from its json in a single pass: the json is parsed once, the object of
+ * the message is read from the parsed tree and the tree is bound to the class registered for that object, so
+ * the receiver does not need to parse the json as a generic Message first and then again as the right class.
+ * The messages with an object that is not registered are decoded as generic messages.
+ */
+public class MessageDecoder {
+    /**
+     * This attribute is the decoder of the messages sent by the clients, used by the server
+     */
+    public static final MessageDecoder SERVER_SIDE = new MessageDecoder()
+            .register("hello", HelloMessage.class)
+            .register("framing", FramingRequestMessage.class)
+            .register("ping", PingMessage.class)
+            .register("login", LoginMessage.class)
+            .register("quick login", QuickLoginMessage.class)
+            .register("creation", MatchSpecsMessage.class)
+            .register("lobby list", LobbyListRequestMessage.class)
+            .register("chosen lobby", ReplyChosenLobbyToJoinMessage.class)
+            .register("tower_color", ChosenTowerColorMessage.class)
+            .register("deck", ChosenDeckMessage.class)
+            .register("assistant_chosen", ChosenAssistantCardMessage.class)
+            .register("action_1", MovedStudentsFromEntranceMessage.class)
+            .register("action_1_batch", MovedStudentsBatchMessage.class)
+            .register("action_2", MovedMotherNatureMessage.class)
+            .register("action_3", ChosenCloudMessage.class)
+            .register("draw", BagClickMessage.class)
+            .register("character_request", CharacterRequestMessage.class)
+            .register("character_data", CharacterDataMessage.class);
+
+    /**
+     * This attribute is the decoder of the messages sent by the server, used by the clients
+     */
+    public static final MessageDecoder CLIENT_SIDE = new MessageDecoder()
+            .register("hello", HelloAckMessage.class)
+            .register("ack", AckMessage.class)
+            .register("action_1_result", StudentsMovedMessage.class)
+            .register("action_2_result", TurnResultMessage.class)
+            .register("character_ack", AckCharactersMessage.class)
+            .register("nack", NackMessage.class)
+            .register("start", MatchStartMessage.class)
+            .register("end", EndOfMatchMessage.class)
+            .register("MatchCreation", AckMatchCreationMessage.class)
+            .register("join match", AskMatchToJoinMessage.class)
+            .register("no lobby available", NoLobbyAvailableMessage.class)
+            .register("playerID_set", IDSetAfterLobbyChoiceMessage.class)
+            .register("NicknameNotValid", NicknameNotValidMessage.class);
+
+    /**
+     * This attribute links the object of each registered message with its class
+     */
+    private final HashMap<String, Class<? extends Message>> classes = new HashMap<>();
+    /**
+     * This attribute is the Gson object used to bind the parsed json to the classes
+     */
+    private final Gson gson = MessageAdapters.GSON;
+
+    /**
+     * This method registers the class of the messages with the given object
+     * @param object the object of the messages
+     * @param messageClass the class the messages are decoded to
+     * @return this decoder
+     */
+    public MessageDecoder register(String object, Class<? extends Message> messageClass) {
+        classes.put(object, messageClass);
+        return this;
+    }
+
+    /**
+     * This method returns the class registered for the given object
+     * @param object the object of the message
+     * @return the class of the message, Message if the object is not registered
+     */
+    public Class<? extends Message> classOf(String object) {
+        if (object == null) {
+            return Message.class;
+        }
+        return classes.getOrDefault(object, Message.class);
+    }
+
+    /**
+     * This method decodes a message parsing its json only once
+     * @param json the json of the message
+     * @return the message, an instance of the class registered for its object
+     * @throws JsonParseException if the json is not a valid message
+     */
+    public Message decode(String json) {
+        JsonElement parsed = JsonParser.parseString(json);
+        if (!parsed.isJsonObject()) {
+            throw new JsonParseException("the message is not a json object");
+        }
+        JsonObject tree = parsed.getAsJsonObject();
+        JsonElement object = tree.get("object");
+        String objectName = object != null && object.isJsonPrimitive() ? object.getAsString() : null;
+        return gson.fromJson(tree, classOf(objectName));
+    }
+}
@@ -0,0 +1,59 @@
+package it.polimi.ingsw.messages;
+
+import java.util.HashMap;
+
+/**
+ * This class hands a decoded message over to the handler registered for its class, replacing the chains of
+ * comparisons on the object of the message.
+ * A dispatcher is built once for each kind of receiver and shared by all of them, so the handlers receive the
+ * receiver and the context of the message as parameters.
+ * @param <R> the type of the receiver of the messages
+ * @param <C> the type of the context the messages are handled in
+ */
+public class MessageDispatcher<R, C> {
+    /**
+     * This interface represents the action executed when a message of a given class is received
+     * @param <R> the type of the receiver of the messages
+     * @param <C> the type of the context the messages are handled in
+     * @param <T> the class of the message
+     */
+    public interface Handler<R, C, T extends Message> {
+        void handle(R receiver, C context, T message);
+    }
+
+    /**
+     * This attribute links each class of message with its handler
+     */
+    private final HashMap<Class<? extends Message>, Handler<R, C, ? extends Message>> handlers = new HashMap<>();
+
+    /**
+     * This method registers the handler of the messages of the given class
+     * @param messageClass the class of the messages
+     * @param handler the action executed when a message of that class is received
+     * @return this dispatcher
+     */
+    public <T extends Message> MessageDispatcher<R, C> on(Class<T> messageClass, Handler<R, C, T> handler) {
+        handlers.put(messageClass, handler);
+        return this;
+    }
+
+    /**
+     * This method hands the message over to the handler registered for its class
+     * @param receiver the receiver of the message
+     * @param context the context the message is handled in
+     * @param message the decoded message
+     * @return true if the message has been handled, false if no handler is registered for its class
+     */
+    @SuppressWarnings("unchecked")
+    public boolean dispatch(R receiver, C context, Message message) {
+        if (message == null) {
+            return false;
+        }
+        Handler<R, C, Message> handler = (Handler<R, C, Message>) handlers.get(message.getClass());
+        if (handler == null) {
+            return false;
+        }
+        handler.handle(receiver, context, message);
+        return true;
+    }
+}
@@ -0,0 +1,432 @@
+package it.polimi.ingsw.messages;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonSyntaxException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Objects;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
+
+/**
+ * This class describes how a message class is written in json: the list of its fields, each one with the
+ * getter and the setter used to access it, and the constructor of an empty message.
+ * The TypeAdapter built from a schema reads and writes the fields through these methods, so no field is
+ * accessed by reflection and the int and boolean fields are never boxed.
+ * The fields must be listed in the order Gson would use, that is the fields of the class in the order they are
+ * declared followed by the ones of its superclasses, so the json is the same one written by Gson.
+ * A sparse schema does not write the fields which still have the value given by the constructor: the reader
+ * starts from a message created by the same constructor, so the message read is equal to the one written.
+ * @param <T> the class of the message
+ */
+public class MessageSchema<T extends Message> {
+    /**
+     * This interface represents the setter of an int field
+     */
+    public interface IntSetter<T> {
+        void set(T message, int value);
+    }
+
+    /**
+     * This interface represents the getter of a boolean field
+     */
+    public interface BooleanGetter<T> {
+        boolean get(T message);
+    }
+
+    /**
+     * This interface represents the setter of a boolean field
+     */
+    public interface BooleanSetter<T> {
+        void set(T message, boolean value);
+    }
+
+    /**
+     * This interface is implemented by the classes which go through the fields of a schema, in the order they
+     * are written, to encode the messages in another form
+     */
+    public interface FieldVisitor<T> {
+        void intField(String name, ToIntFunction<? super T> getter, IntSetter<? super T> setter);
+
+        void booleanField(String name, BooleanGetter<? super T> getter, BooleanSetter<? super T> setter);
+
+        void stringField(String name, Function<? super T, String> getter, BiConsumer<? super T, String> setter);
+
+        <V> void field(String name, Type type, Function<? super T, V> getter, BiConsumer<? super T, V> setter);
+    }
+
+    /**
+     * This attribute creates the empty message the json is read into
+     */
+    private final Supplier<T> constructor;
+    /**
+     * This attribute is the list of the fields of the message, in the order they are written
+     */
+    private final ArrayList<Property<? super T>> properties = new ArrayList<>();
+    /**
+     * This attribute tells if the fields with the value given by the constructor are left out of the json
+     */
+    private boolean sparse = false;
+
+    /**
+     * @param constructor creates the empty message the json is read into
+     */
+    public MessageSchema(Supplier<T> constructor) {
+        this.constructor = constructor;
+    }
+
+    public MessageSchema<T> intField(String name, ToIntFunction<T> getter, IntSetter<T> setter) {
+        properties.add(new IntProperty<>(name, getter, setter));
+        return this;
+    }
+
+    public MessageSchema<T> booleanField(String name, BooleanGetter<T> getter, BooleanSetter<T> setter) {
+        properties.add(new BooleanProperty<>(name, getter, setter));
+        return this;
+    }
+
+    public MessageSchema<T> stringField(String name, Function<T, String> getter, BiConsumer<T, String> setter) {
+        properties.add(new StringProperty<>(name, getter, setter));
+        return this;
+    }
+
+    /**
+     * This method adds a field of any other type (enums, lists, maps): its value is written by the adapter Gson
+     * has for its type, none of which reads the fields of an object by reflection
+     * @param name the name of the field in the json
+     * @param type the type of the field, with its type arguments
+     * @param getter the getter of the field
+     * @param setter the setter of the field
+     * @return this schema
+     */
+    public <V> MessageSchema<T> field(String name, Type type, Function<T, V> getter, BiConsumer<T, V> setter) {
+        properties.add(new ObjectProperty<>(name, type, getter, setter, null));
+        return this;
+    }
+
+    /**
+     * This method marks the last field added as always written, also by a sparse schema
+     * @return this schema
+     */
+    public MessageSchema<T> required() {
+        properties.get(properties.size() - 1).required = true;
+        return this;
+    }
+
+    /**
+     * This method makes the schema sparse: the fields which still have the value given by the constructor are
+     * not written
+     * @return this schema
+     */
+    public MessageSchema<T> sparse() {
+        sparse = true;
+        return this;
+    }
+
+    /**
+     * This method adds the fields of the superclass, which are written after the ones of the class
+     * @param parent the schema of the superclass
+     * @return this schema
+     */
+    public MessageSchema<T> inherit(MessageSchema<? super T> parent) {
+        properties.addAll(parent.properties);
+        return this;
+    }
+
+    /**
+     * This method creates an empty message, the same one the json is read into
+     * @return the new message
+     */
+    public T newMessage() {
+        return constructor.get();
+    }
+
+    /**
+     * This method goes through the fields of the schema, in the order they are written
+     * @param visitor the visitor called for each field
+     */
+    public void visit(FieldVisitor<T> visitor) {
+        for (Property<? super T> property : properties) {
+            property.accept(visitor);
+        }
+    }
+
+    /**
+     * This method builds the adapter of the message for the given Gson object
+     * @param gson the Gson object asking for the adapter, used to find the adapters of the fields
+     * @return the adapter of the message
+     */
+    public TypeAdapter<T> adapter(Gson gson) {
+        ArrayList<Property<? super T>> bound = new ArrayList<>();
+        for (Property<? super T> property : properties) {
+            bound.add(property.bind(gson));
+        }
+        return new Adapter<>(constructor, bound, sparse ? constructor.get() : null);
+    }
+
+    /**
+     * This class reads and writes the messages through the fields of a schema
+     */
+    private static final class Adapter<T extends Message> extends TypeAdapter<T> {
+        private final Supplier<T> constructor;
+        private final ArrayList<Property<? super T>> properties;
+        private final HashMap<String, Property<? super T>> byName = new HashMap<>();
+        /**
+         * This attribute is the message created by the constructor, compared with the messages written by a
+         * sparse schema; it is null if the schema is not sparse
+         */
+        private final T defaults;
+
+        private Adapter(Supplier<T> constructor, ArrayList<Property<? super T>> properties, T defaults) {
+            this.constructor = constructor;
+            this.properties = properties;
+            this.defaults = defaults;
+            for (Property<? super T> property : properties) {
+                byName.put(property.name, property);
+            }
+        }
+
+        @Override
+        public void write(JsonWriter out, T message) throws IOException {
+            if (message == null) {
+                out.nullValue();
+                return;
+            }
+            out.beginObject();
+            for (int i = 0; i < properties.size(); i++) {
+                Property<? super T> property = properties.get(i);
+                if (defaults != null && !property.required && property.isDefault(message, defaults)) {
+                    continue;
+                }
+                property.write(out, message);
+            }
+            out.endObject();
+        }
+
+        @Override
+        public T read(JsonReader in) throws IOException {
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                return null;
+            }
+            T message = constructor.get();
+            in.beginObject();
+            while (in.hasNext()) {
+                Property<? super T> property = byName.get(in.nextName());
+                if (property == null) {
+                    in.skipValue();
+                } else {
+                    property.read(in, message);
+                }
+            }
+            in.endObject();
+            return message;
+        }
+    }
+
+    /**
+     * This class represents a field of a message
+     */
+    private abstract static class Property<T> {
+        final String name;
+        boolean required = false;
+
+        Property(String name) {
+            this.name = name;
+        }
+
+        /**
+         * This method returns the field ready to be used with the given Gson object
+         */
+        Property<T> bind(Gson gson) {
+            return this;
+        }
+
+        /**
+         * This method tells if the field has the same value in the message and in the message created by the
+         * constructor
+         */
+        abstract boolean isDefault(T message, T defaults);
+
+        /**
+         * This method calls the visitor with the getter and the setter of the field
+         */
+        abstract void accept(FieldVisitor<? extends T> visitor);
+
+        abstract void write(JsonWriter out, T message) throws IOException;
+
+        abstract void read(JsonReader in, T message) throws IOException;
+    }
+
+    private static final class IntProperty<T> extends Property<T> {
+        private final ToIntFunction<T> getter;
+        private final IntSetter<T> setter;
+
+        IntProperty(String name, ToIntFunction<T> getter, IntSetter<T> setter) {
+            super(name);
+            this.getter = getter;
+            this.setter = setter;
+        }
+
+        @Override
+        boolean isDefault(T message, T defaults) {
+            return getter.applyAsInt(message) == getter.applyAsInt(defaults);
+        }
+
+        @Override
+        void accept(FieldVisitor<? extends T> visitor) {
+            visitor.intField(name, getter, setter);
+        }
+
+        @Override
+        void write(JsonWriter out, T message) throws IOException {
+            out.name(name).value(getter.applyAsInt(message));
+        }
+
+        @Override
+        void read(JsonReader in, T message) throws IOException {
+            if (in.peek() == JsonToken.NULL) {
+                // as Gson does, a null primitive leaves the default value
+                in.nextNull();
+                return;
+            }
+            try {
+                setter.set(message, in.nextInt());
+            } catch (NumberFormatException e) {
+                throw new JsonSyntaxException(e);
+            }
+        }
+    }
+
+    private static final class BooleanProperty<T> extends Property<T> {
+        private final BooleanGetter<T> getter;
+        private final BooleanSetter<T> setter;
+
+        BooleanProperty(String name, BooleanGetter<T> getter, BooleanSetter<T> setter) {
+            super(name);
+            this.getter = getter;
+            this.setter = setter;
+        }
+
+        @Override
+        boolean isDefault(T message, T defaults) {
+            return getter.get(message) == getter.get(defaults);
+        }
+
+        @Override
+        void accept(FieldVisitor<? extends T> visitor) {
+            visitor.booleanField(name, getter, setter);
+        }
+
+        @Override
+        void write(JsonWriter out, T message) throws IOException {
+            out.name(name).value(getter.get(message));
+        }
+
+        @Override
+        void read(JsonReader in, T message) throws IOException {
+            JsonToken token = in.peek();
+            if (token == JsonToken.NULL) {
+                in.nextNull();
+            } else if (token == JsonToken.STRING) {
+                setter.set(message, Boolean.parseBoolean(in.nextString()));
+            } else {
+                setter.set(message, in.nextBoolean());
+            }
+        }
+    }
+
+    private static final class StringProperty<T> extends Property<T> {
+        private final Function<T, String> getter;
+        private final BiConsumer<T, String> setter;
+
+        StringProperty(String name, Function<T, String> getter, BiConsumer<T, String> setter) {
+            super(name);
+            this.getter = getter;
+            this.setter = setter;
+        }
+
+        @Override
+        boolean isDefault(T message, T defaults) {
+            return Objects.equals(getter.apply(message), getter.apply(defaults));
+        }
+
+        @Override
+        void accept(FieldVisitor<? extends T> visitor) {
+            visitor.stringField(name, getter, setter);
+        }
+
+        @Override
+        void write(JsonWriter out, T message) throws IOException {
+            // a null value is dropped by the writer together with its name, unless nulls are serialized
+            out.name(name).value(getter.apply(message));
+        }
+
+        @Override
+        void read(JsonReader in, T message) throws IOException {
+            JsonToken token = in.peek();
+            if (token == JsonToken.NULL) {
+                in.nextNull();
+                setter.accept(message, null);
+            } else if (token == JsonToken.BOOLEAN) {
+                setter.accept(message, Boolean.toString(in.nextBoolean()));
+            } else {
+                setter.accept(message, in.nextString());
+            }
+        }
+    }
+
+    private static final class ObjectProperty<T, V> extends Property<T> {
+        private final Type type;
+        private final Function<T, V> getter;
+        private final BiConsumer<T, V> setter;
+        private final TypeAdapter<V> adapter;
+
+        ObjectProperty(String name, Type type, Function<T, V> getter, BiConsumer<T, V> setter, TypeAdapter<V> adapter) {
+            super(name);
+            this.type = type;
+            this.getter = getter;
+            this.setter = setter;
+            this.adapter = adapter;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        Property<T> bind(Gson gson) {
+            ObjectProperty<T, V> bound = new ObjectProperty<>(name, type, getter, setter, (TypeAdapter<V>) gson.getAdapter(TypeToken.get(type)));
+            bound.required = required;
+            return bound;
+        }
+
+        @Override
+        boolean isDefault(T message, T defaults) {
+            return Objects.equals(getter.apply(message), getter.apply(defaults));
+        }
+
+        @Override
+        void accept(FieldVisitor<? extends T> visitor) {
+            visitor.field(name, type, getter, setter);
+        }
+
+        @Override
+        void write(JsonWriter out, T message) throws IOException {
+            out.name(name);
+            adapter.write(out, getter.apply(message));
+        }
+
+        @Override
+        void read(JsonReader in, T message) throws IOException {
+            setter.accept(message, adapter.read(in));
+        }
+    }
+}
@@ -24,4 +24,8 @@ public class CharacterRequestMessage extends Message {
     public String getCharacter() {
         return character;
     }
+
+    public void setCharacter(String character) {
+        this.character = character;
+    }
 }
@@ -0,0 +1,51 @@
+package it.polimi.ingsw.messages.clientMessages;
+
+import it.polimi.ingsw.messages.Message;
+
+/**
+ * This class represents the first message of the clients written before the HelloMessage, which only asked to
+ * exchange the following messages as length-prefixed frames.
+ * The server handles it as a HelloMessage asking for frames without batching, and answers with a
+ * FramingAckMessage, which is the answer those clients wait for.
+ */
+public class FramingRequestMessage extends Message {
+    /**
+     * This attribute is true if the client also wants the acks, nacks, start and end messages in binary form
+     */
+    private boolean binary;
+    /**
+     * This attribute is true if the client also wants the long frames to be compressed
+     */
+    private boolean compressed;
+
+    public FramingRequestMessage(){
+        this.object = "framing";
+    }
+
+    /**
+     * This constructor creates the request of frames
+     * @param binary true to ask for the binary form of the messages
+     * @param compressed true to ask for the compression of the long frames
+     */
+    public FramingRequestMessage(boolean binary, boolean compressed){
+        this.object = "framing";
+        this.binary = binary;
+        this.compressed = compressed;
+    }
+
+    public boolean isBinary() {
+        return binary;
+    }
+
+    public void setBinary(boolean binary) {
+        this.binary = binary;
+    }
+
+    public boolean isCompressed() {
+        return compressed;
+    }
+
+    public void setCompressed(boolean compressed) {
+        this.compressed = compressed;
+    }
+}
@@ -0,0 +1,100 @@
+package it.polimi.ingsw.messages.clientMessages;
+
+import it.polimi.ingsw.messages.Message;
+
+/**
+ * This class represents the message sent by the client, as first message, to tell the server the version of the
+ * protocol it speaks and the capabilities it wants to use: length-prefixed frames instead of json lines, binary
+ * payloads, compression of the long frames and the results of the moves sent as a single message.
+ * The client sends nothing else until the server answers with a HelloAckMessage.
+ * A client that starts with the login instead keeps using json lines and receives every ack as a separate message.
+ */
+public class HelloMessage extends Message {
+    /**
+     * This attribute is the version of the protocol spoken by this client
+     */
+    public static final int PROTOCOL_VERSION = 1;
+
+    /**
+     * This attribute is the version of the protocol spoken by the client
+     */
+    private int protocolVersion;
+    /**
+     * This attribute is true if the client wants the messages to be exchanged as length-prefixed frames
+     */
+    private boolean framed;
+    /**
+     * This attribute is true if the client also wants the acks, nacks, start and end messages in binary form;
+     * it is used only with frames
+     */
+    private boolean binary;
+    /**
+     * This attribute is true if the client also wants the long frames to be compressed; it is used only with frames
+     */
+    private boolean compressed;
+    /**
+     * This attribute is true if the client accepts the results of a move in a single message (e.g. the
+     * action_2_result instead of the acks of the movement, of the influence and of the union)
+     */
+    private boolean batching;
+
+    public HelloMessage(){
+        this.object = "hello";
+    }
+
+    /**
+     * This constructor creates the message with the capabilities wanted by the client
+     * @param framed true to ask for length-prefixed frames
+     * @param binary true to ask for the binary form of the messages
+     * @param compressed true to ask for the compression of the long frames
+     * @param batching true to ask for the results of a move in a single message
+     */
+    public HelloMessage(boolean framed, boolean binary, boolean compressed, boolean batching){
+        this.object = "hello";
+        this.protocolVersion = PROTOCOL_VERSION;
+        this.framed = framed;
+        this.binary = binary;
+        this.compressed = compressed;
+        this.batching = batching;
+    }
+
+    public int getProtocolVersion() {
+        return protocolVersion;
+    }
+
+    public void setProtocolVersion(int protocolVersion) {
+        this.protocolVersion = protocolVersion;
+    }
+
+    public boolean isFramed() {
+        return framed;
+    }
+
+    public void setFramed(boolean framed) {
+        this.framed = framed;
+    }
+
+    public boolean isBinary() {
+        return binary;
+    }
+
+    public void setBinary(boolean binary) {
+        this.binary = binary;
+    }
+
+    public boolean isCompressed() {
+        return compressed;
+    }
+
+    public void setCompressed(boolean compressed) {
+        this.compressed = compressed;
+    }
+
+    public boolean isBatching() {
+        return batching;
+    }
+
+    public void setBatching(boolean batching) {
+        this.batching = batching;
+    }
+}
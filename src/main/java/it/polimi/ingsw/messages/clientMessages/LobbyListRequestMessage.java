@@ -0,0 +1,59 @@
+package it.polimi.ingsw.messages.clientMessages;
+
+import it.polimi.ingsw.messages.Message;
+
+/**
+ * This class represents the message sent by the client to the server to ask one page of the lobbies waiting
+ * for players, optionally only the ones with a certain number of players and/or a certain mode.
+ */
+public class LobbyListRequestMessage extends Message {
+    /**
+     * It represents the number of players of the lobbies requested, 0 for any number.
+     */
+    int numOfPlayers;
+
+    /**
+     * It tells the mode of the lobbies requested: "expert", "normal" or null for any mode.
+     */
+    String mode;
+
+    /**
+     * It represents the number of the page requested, starting from 0.
+     */
+    int page;
+
+    public LobbyListRequestMessage(){
+        this.object = "lobby list";
+    }
+
+    public LobbyListRequestMessage(int numOfPlayers, String mode, int page){
+        this.object = "lobby list";
+        this.numOfPlayers = numOfPlayers;
+        this.mode = mode;
+        this.page = page;
+    }
+
+    public int getNumOfPlayers() {
+        return numOfPlayers;
+    }
+
+    public void setNumOfPlayers(int numOfPlayers) {
+        this.numOfPlayers = numOfPlayers;
+    }
+
+    public String getMode() {
+        return mode;
+    }
+
+    public void setMode(String mode) {
+        this.mode = mode;
+    }
+
+    public int getPage() {
+        return page;
+    }
+
+    public void setPage(int page) {
+        this.page = page;
+    }
+}
@@ -40,4 +40,8 @@ public class LoginMessage extends Message {
         return createNewMatch;
     }
 
+    public void setCreateNewMatch(boolean createNewMatch) {
+        this.createNewMatch = createNewMatch;
+    }
+
 }
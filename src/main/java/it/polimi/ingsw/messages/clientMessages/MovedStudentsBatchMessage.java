@@ -0,0 +1,67 @@
+package it.polimi.ingsw.messages.clientMessages;
+
+import it.polimi.ingsw.messages.Message;
+
+import java.util.ArrayList;
+
+/**
+ * This class represents the message sent by the client to move at once all the students of the first part of
+ * action phase from the entrance to the dining room or the islands.
+ * The i-th student is moved to the i-th location; the moves are accepted only if all of them are valid.
+ */
+public class MovedStudentsBatchMessage extends Message {
+
+    /**
+     * This attribute contains the IDs used to identify the students to move inside the entrance array
+     */
+    private ArrayList<Integer> students_ID = new ArrayList<>();
+
+    /**
+     * This attribute contains, for each student, the ID of the island where it is moved
+     * or the value -1 meaning that the student is put into the dining room
+     */
+    private ArrayList<Integer> locations = new ArrayList<>();
+
+    /**
+     * This constructor can be used by the controller to deserialize the message received
+     */
+    public MovedStudentsBatchMessage(){
+        this.object = "action_1_batch";
+    }
+
+    /**
+     * This constructor can be used by the Client to create the message to send
+     * to the server
+     * @param sender_ID ID of the player that send the message
+     */
+    public MovedStudentsBatchMessage(int sender_ID){
+        this.object = "action_1_batch";
+        this.sender_ID = sender_ID;
+    }
+
+    /**
+     * This method adds the move of one student to the message
+     * @param student_ID the ID of the student inside the entrance
+     * @param location the ID of the island or -1 for the dining room
+     */
+    public void addMove(int student_ID, int location){
+        students_ID.add(student_ID);
+        locations.add(location);
+    }
+
+    public ArrayList<Integer> getStudents_ID() {
+        return students_ID;
+    }
+
+    public void setStudents_ID(ArrayList<Integer> students_ID) {
+        this.students_ID = students_ID;
+    }
+
+    public ArrayList<Integer> getLocations() {
+        return locations;
+    }
+
+    public void setLocations(ArrayList<Integer> locations) {
+        this.locations = locations;
+    }
+}
@@ -0,0 +1,110 @@
+package it.polimi.ingsw.messages.clientMessages;
+
+import it.polimi.ingsw.messages.Message;
+
+/**
+ * This class represents the message used to log in and enter a lobby with a single request: it carries the
+ * nickname of the player together with the specifics of the new match, if the player wants to create one,
+ * or with the kind of lobby the player wants to join.
+ * The login can still be done in more steps with the LoginMessage.
+ */
+public class QuickLoginMessage extends Message {
+    /**
+     * It represents the nickname of the player.
+     */
+    String nicknameOfPlayer;
+
+    /**
+     * It tells if the player wants to create a new match or to join a lobby.
+     */
+    boolean createNewMatch;
+
+    /**
+     * It represents the number of players of the new match or, if the player wants to join a lobby,
+     * the number of players of the lobby wanted, 0 for any number.
+     */
+    int numOfPlayers;
+
+    /**
+     * It tells if the new match will be played in expert mode; it is used only to create a new match.
+     */
+    boolean expertMode;
+
+    /**
+     * It tells the mode of the lobby the player wants to join: "expert", "normal" or null for any mode;
+     * it is used only to join a lobby.
+     */
+    String mode;
+
+    public QuickLoginMessage(){
+        this.object = "quick login";
+    }
+
+    /**
+     * This constructor creates the message to log in and create a new match
+     * @param nicknameOfPlayer the nickname of the player
+     * @param numOfPlayers the number of players of the new match
+     * @param expertMode true if the new match will be played in expert mode
+     */
+    public QuickLoginMessage(String nicknameOfPlayer, int numOfPlayers, boolean expertMode){
+        this.object = "quick login";
+        this.nicknameOfPlayer = nicknameOfPlayer;
+        this.createNewMatch = true;
+        this.numOfPlayers = numOfPlayers;
+        this.expertMode = expertMode;
+    }
+
+    /**
+     * This constructor creates the message to log in and join the first lobby with the given settings
+     * @param nicknameOfPlayer the nickname of the player
+     * @param numOfPlayers the number of players of the lobby wanted, 0 for any number
+     * @param mode the mode of the lobby wanted: "expert", "normal" or null for any mode
+     */
+    public QuickLoginMessage(String nicknameOfPlayer, int numOfPlayers, String mode){
+        this.object = "quick login";
+        this.nicknameOfPlayer = nicknameOfPlayer;
+        this.createNewMatch = false;
+        this.numOfPlayers = numOfPlayers;
+        this.mode = mode;
+    }
+
+    public String getNicknameOfPlayer() {
+        return nicknameOfPlayer;
+    }
+
+    public void setNicknameOfPlayer(String nicknameOfPlayer) {
+        this.nicknameOfPlayer = nicknameOfPlayer;
+    }
+
+    public boolean isCreateNewMatch() {
+        return createNewMatch;
+    }
+
+    public void setCreateNewMatch(boolean createNewMatch) {
+        this.createNewMatch = createNewMatch;
+    }
+
+    public int getNumOfPlayers() {
+        return numOfPlayers;
+    }
+
+    public void setNumOfPlayers(int numOfPlayers) {
+        this.numOfPlayers = numOfPlayers;
+    }
+
+    public boolean isExpertMode() {
+        return expertMode;
+    }
+
+    public void setExpertMode(boolean expertMode) {
+        this.expertMode = expertMode;
+    }
+
+    public String getMode() {
+        return mode;
+    }
+
+    public void setMode(String mode) {
+        this.mode = mode;
+    }
+}
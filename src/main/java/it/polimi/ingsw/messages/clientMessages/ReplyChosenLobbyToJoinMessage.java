@@ -20,6 +20,10 @@ public class ReplyChosenLobbyToJoinMessage extends Message {
         return lobbyIDChosen;
     }
 
+    public void setLobbyIDChosen(int lobbyIDChosen) {
+        this.lobbyIDChosen = lobbyIDChosen;
+    }
+
     public ReplyChosenLobbyToJoinMessage(int lobbyIDchosenByPlayer){
         this.object = "chosen lobby";
         this.lobbyIDChosen = lobbyIDchosenByPlayer;
@@ -92,11 +92,19 @@ public class AckCharactersMessage extends AckMessage {
         return character;
     }
 
+    public void setCharacter(String character) {
+        this.character = character;
+    }
+
     // GETTER FOR coinReserve
     public int getCoinReserve() {
         return coinReserve;
     }
 
+    public void setCoinReserve(int coinReserve) {
+        this.coinReserve = coinReserve;
+    }
+
     // SETTER AND GETTER FOR student
     public void setStudent(Creature student) {
         this.student = student;
@@ -215,11 +223,19 @@ public class AckCharactersMessage extends AckMessage {
         return allPlayersProfessors;
     }
 
+    public void setAllPlayersProfessors(HashMap<Integer, ArrayList<Creature>> allPlayersProfessors) {
+        this.allPlayersProfessors = allPlayersProfessors;
+    }
+
     // ADDER AND GETTER FOR allPlayersDiningRoom
     public HashMap<Integer, HashMap<Creature, Integer>> getAllPlayersDiningRoom() {
         return allPlayersDiningRoom;
     }
 
+    public void setAllPlayersDiningRoom(HashMap<Integer, HashMap<Creature, Integer>> allPlayersDiningRoom) {
+        this.allPlayersDiningRoom = allPlayersDiningRoom;
+    }
+
     public void addPlayerDiningRoom(int player_ID, HashMap<Creature, Integer> playerDiningRoom){
         allPlayersDiningRoom.put(player_ID, playerDiningRoom);
     }
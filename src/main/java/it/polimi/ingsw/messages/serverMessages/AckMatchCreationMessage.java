@@ -29,8 +29,16 @@ public class AckMatchCreationMessage extends Message {
         return playerID;
     }
 
+    public void setPlayerID(int playerID) {
+        this.playerID = playerID;
+    }
+
     public boolean getNewMatchNeeded() {
         return newMatchNeeded;
     }
 
+    public void setNewMatchNeeded(boolean newMatchNeeded) {
+        this.newMatchNeeded = newMatchNeeded;
+    }
+
 }
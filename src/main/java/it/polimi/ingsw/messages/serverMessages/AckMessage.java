@@ -392,6 +392,10 @@ public class AckMessage extends Message {
         - 'typeOfStudentMoved' contains the kind of student moved [Creature]  <-- maybe useless
         - 'destinationIsland_ID' contains the ID of the island where the student has been moved
 
+   7. action_2_movement, action_2_influence and action_2_union are not sent alone: they are the movement, the
+      influence and the union carried together by the TurnResultMessage ('action_2_result'), where the last two
+      are null if they were not performed
+
    7.1. action_2_movement:
         it means that mother nature has been moved successfully and
         - 'nextPlayer': it doesn't change
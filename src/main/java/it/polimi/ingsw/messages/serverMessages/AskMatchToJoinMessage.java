@@ -5,52 +5,133 @@ import it.polimi.ingsw.messages.Message;
 import java.util.ArrayList;
 
 /**
- * This class represents the message sent by the server to the client providing the available lobbies to join.
+ * This class represents the message sent by the server to the client providing one page of the lobbies
+ * available to join: only the lobbies waiting for players are listed, so the message doesn't grow with the
+ * number of matches played on the server.
+ * The lists are parallel: the same index refers to the same lobby.
  */
 
 public class AskMatchToJoinMessage extends Message {
     /**
      * This attribute is the list of lobbies' ID that are available for joining
      */
-    ArrayList<Boolean> availableLobbiesTmp = new ArrayList<>();
+    ArrayList<Integer> lobbiesID = new ArrayList<>();
     /**
-     * This attribute is the list of players playing in every lobby (waiting or not)
+     * This attribute is the list of the number of players needed to start the match of each lobby
      */
     ArrayList<Integer> lobbiesNumberOfPlayers = new ArrayList<>();
+    /**
+     * This attribute is the list of the number of players already inside each lobby
+     */
+    ArrayList<Integer> lobbiesPlayersAdded = new ArrayList<>();
     /**
      * This attribute tells if the lobby was created as expert mode or not
      */
     ArrayList<Boolean> lobbiesExpertMode = new ArrayList<>();
     /**
-     * This attribute tells the status of the match in the lobbies (true if ended).
+     * This attribute is the number of players of the lobbies requested (0 for any number)
+     */
+    int numOfPlayersFilter;
+    /**
+     * This attribute is the mode of the lobbies requested ("expert", "normal" or null for any mode)
+     */
+    String modeFilter;
+    /**
+     * This attribute is the number of this page, starting from 0
+     */
+    int page;
+    /**
+     * This attribute is the number of pages of lobbies matching the filters
      */
-    ArrayList<Boolean> lobbiesEnd = new ArrayList<>();
+    int numberOfPages;
 
     public AskMatchToJoinMessage(){
         this.object = "join match";
     }
 
-    public AskMatchToJoinMessage (ArrayList<Boolean> listAvailableLobbies, ArrayList<Integer> lobbiesNumberOfPlayers, ArrayList<Boolean> lobbiesExpertMode, ArrayList<Boolean> listLobbiesEnd){
+    public AskMatchToJoinMessage(int numOfPlayersFilter, String modeFilter, int page, int numberOfPages){
         this.object = "join match";
-        this.availableLobbiesTmp = listAvailableLobbies;
-        this.lobbiesNumberOfPlayers = lobbiesNumberOfPlayers;
-        this.lobbiesExpertMode = lobbiesExpertMode;
-        this.lobbiesEnd = listLobbiesEnd;
+        this.numOfPlayersFilter = numOfPlayersFilter;
+        this.modeFilter = modeFilter;
+        this.page = page;
+        this.numberOfPages = numberOfPages;
     }
 
-    public ArrayList<Boolean> getLobbiesTmp() {
-        return availableLobbiesTmp;
+    /**
+     * This method adds a lobby to the page
+     * @param lobbyID ID of the lobby
+     * @param numberOfPlayers number of players needed to start the match
+     * @param playersAdded number of players already inside the lobby
+     * @param expertMode true if the match is played in expert mode
+     */
+    public void addLobby(int lobbyID, int numberOfPlayers, int playersAdded, boolean expertMode){
+        lobbiesID.add(lobbyID);
+        lobbiesNumberOfPlayers.add(numberOfPlayers);
+        lobbiesPlayersAdded.add(playersAdded);
+        lobbiesExpertMode.add(expertMode);
+    }
+
+    public ArrayList<Integer> getLobbiesID() {
+        return lobbiesID;
+    }
+
+    public void setLobbiesID(ArrayList<Integer> lobbiesID) {
+        this.lobbiesID = lobbiesID;
     }
 
     public ArrayList<Boolean> getLobbiesExpertMode() {
         return lobbiesExpertMode;
     }
 
+    public void setLobbiesExpertMode(ArrayList<Boolean> lobbiesExpertMode) {
+        this.lobbiesExpertMode = lobbiesExpertMode;
+    }
+
     public ArrayList<Integer> getLobbiesNumberOfPlayers() {
         return lobbiesNumberOfPlayers;
     }
 
-    public ArrayList<Boolean> getLobbiesEnd() {
-        return lobbiesEnd;
+    public void setLobbiesNumberOfPlayers(ArrayList<Integer> lobbiesNumberOfPlayers) {
+        this.lobbiesNumberOfPlayers = lobbiesNumberOfPlayers;
+    }
+
+    public ArrayList<Integer> getLobbiesPlayersAdded() {
+        return lobbiesPlayersAdded;
+    }
+
+    public void setLobbiesPlayersAdded(ArrayList<Integer> lobbiesPlayersAdded) {
+        this.lobbiesPlayersAdded = lobbiesPlayersAdded;
+    }
+
+    public int getNumOfPlayersFilter() {
+        return numOfPlayersFilter;
+    }
+
+    public void setNumOfPlayersFilter(int numOfPlayersFilter) {
+        this.numOfPlayersFilter = numOfPlayersFilter;
+    }
+
+    public String getModeFilter() {
+        return modeFilter;
+    }
+
+    public void setModeFilter(String modeFilter) {
+        this.modeFilter = modeFilter;
+    }
+
+    public int getPage() {
+        return page;
+    }
+
+    public void setPage(int page) {
+        this.page = page;
+    }
+
+    public int getNumberOfPages() {
+        return numberOfPages;
+    }
+
+    public void setNumberOfPages(int numberOfPages) {
+        this.numberOfPages = numberOfPages;
     }
 }
@@ -0,0 +1,49 @@
+package it.polimi.ingsw.messages.serverMessages;
+
+import it.polimi.ingsw.messages.Message;
+
+/**
+ * This class represents the answer of the server to a FramingRequestMessage: after this json line all the
+ * messages are exchanged as length-prefixed frames.
+ */
+public class FramingAckMessage extends Message {
+    /**
+     * This attribute is true if the server sends the acks, nacks, start and end messages in binary form
+     */
+    private boolean binary;
+    /**
+     * This attribute is true if the server compresses the long frames and accepts the compressed ones
+     */
+    private boolean compressed;
+
+    public FramingAckMessage(){
+        this.object = "framing";
+    }
+
+    /**
+     * This constructor creates the answer with the options accepted
+     * @param binary true if the messages are sent in binary form
+     * @param compressed true if the long frames are compressed
+     */
+    public FramingAckMessage(boolean binary, boolean compressed){
+        this.object = "framing";
+        this.binary = binary;
+        this.compressed = compressed;
+    }
+
+    public boolean isBinary() {
+        return binary;
+    }
+
+    public void setBinary(boolean binary) {
+        this.binary = binary;
+    }
+
+    public boolean isCompressed() {
+        return compressed;
+    }
+
+    public void setCompressed(boolean compressed) {
+        this.compressed = compressed;
+    }
+}
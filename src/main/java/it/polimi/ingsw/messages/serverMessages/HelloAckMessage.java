@@ -0,0 +1,93 @@
+package it.polimi.ingsw.messages.serverMessages;
+
+import it.polimi.ingsw.messages.Message;
+
+/**
+ * This class represents the answer of the server to a HelloMessage: it contains the version of the protocol and
+ * the capabilities agreed, which are the ones asked by the client and supported by the server.
+ * It is the last json line sent by the server if the frames have been agreed: all the following messages are
+ * exchanged as length-prefixed frames.
+ */
+public class HelloAckMessage extends Message {
+    /**
+     * This attribute is the version of the protocol used on the connection
+     */
+    private int protocolVersion;
+    /**
+     * This attribute is true if the messages are exchanged as length-prefixed frames
+     */
+    private boolean framed;
+    /**
+     * This attribute is true if the server sends the acks, nacks, start and end messages in binary form
+     */
+    private boolean binary;
+    /**
+     * This attribute is true if the server compresses the long frames and accepts the compressed ones
+     */
+    private boolean compressed;
+    /**
+     * This attribute is true if the server sends the results of a move in a single message
+     */
+    private boolean batching;
+
+    public HelloAckMessage(){
+        this.object = "hello";
+    }
+
+    /**
+     * This constructor creates the answer with the capabilities agreed
+     * @param protocolVersion the version of the protocol used on the connection
+     * @param framed true if the messages are exchanged as frames
+     * @param binary true if the server sends the messages in binary form
+     * @param compressed true if the long frames are compressed
+     * @param batching true if the results of a move are sent in a single message
+     */
+    public HelloAckMessage(int protocolVersion, boolean framed, boolean binary, boolean compressed, boolean batching){
+        this.object = "hello";
+        this.protocolVersion = protocolVersion;
+        this.framed = framed;
+        this.binary = binary;
+        this.compressed = compressed;
+        this.batching = batching;
+    }
+
+    public int getProtocolVersion() {
+        return protocolVersion;
+    }
+
+    public void setProtocolVersion(int protocolVersion) {
+        this.protocolVersion = protocolVersion;
+    }
+
+    public boolean isFramed() {
+        return framed;
+    }
+
+    public void setFramed(boolean framed) {
+        this.framed = framed;
+    }
+
+    public boolean isBinary() {
+        return binary;
+    }
+
+    public void setBinary(boolean binary) {
+        this.binary = binary;
+    }
+
+    public boolean isCompressed() {
+        return compressed;
+    }
+
+    public void setCompressed(boolean compressed) {
+        this.compressed = compressed;
+    }
+
+    public boolean isBatching() {
+        return batching;
+    }
+
+    public void setBatching(boolean batching) {
+        this.batching = batching;
+    }
+}
@@ -86,6 +86,10 @@ public class MatchStartMessage extends Message {
         return firstPlayer;
     }
 
+    public void setFirstPlayer(int firstPlayer) {
+        this.firstPlayer = firstPlayer;
+    }
+
     /**
      * This method adds one entry to the HashMap of studentsInEntrance
      * @param player_ID ID of the player
@@ -95,12 +99,20 @@ public class MatchStartMessage extends Message {
         studentsInEntrance.put(player_ID, students);
     }
 
+    public void setStudentsInEntrance(HashMap<Integer, ArrayList<Creature>> studentsInEntrance) {
+        this.studentsInEntrance = studentsInEntrance;
+    }
+
 
 
     public int getMotherNaturePosition() {
         return motherNaturePosition;
     }
 
+    public void setMotherNaturePosition(int motherNaturePosition) {
+        this.motherNaturePosition = motherNaturePosition;
+    }
+
 
     public Set<String> getCharacters() {
         return characters;
@@ -114,10 +126,18 @@ public class MatchStartMessage extends Message {
         return numPlayer;
     }
 
+    public void setNumPlayer(int numPlayer) {
+        this.numPlayer = numPlayer;
+    }
+
     public boolean isExpertMode() {
         return expertMode;
     }
 
+    public void setExpertMode(boolean expertMode) {
+        this.expertMode = expertMode;
+    }
+
     public void setStudentsOnIslands(ArrayList<Creature> studentsOnIslands) {
         this.studentsOnIslands = studentsOnIslands;
     }
@@ -149,6 +169,10 @@ public class MatchStartMessage extends Message {
         return princessStudents;
     }
 
+    public ArrayList<String> getNicknames() {
+        return nicknames;
+    }
+
     public void setNicknames(ArrayList<String> nicknames) {
         this.nicknames = nicknames;
     }
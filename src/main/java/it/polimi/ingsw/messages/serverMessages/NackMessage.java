@@ -66,6 +66,11 @@ public class NackMessage extends Message {
             case "princess":
                 this.explanationMessage = "The seats are all occupied, there is no room for other students.";
                 break;
+            case "invalid_students_batch":
+                this.explanationMessage = "These students can't be moved: check that each student is in the entrance, " +
+                                          "that the islands exist and that the tables have enough free seats.\n" +
+                                          "No student has been moved, choose the moves again.";
+                break;
         }
     }
 
@@ -80,6 +85,10 @@ public class NackMessage extends Message {
     public String getExplanationMessage() {
         return explanationMessage;
     }
+
+    public void setExplanationMessage(String explanationMessage) {
+        this.explanationMessage = explanationMessage;
+    }
 }
 
 /*POSSIBLE VALUES OF "subObject":
@@ -120,4 +129,9 @@ public class NackMessage extends Message {
     11. princess:
         it means that the seats on the table corresponding to the student chosen by the player is
         fully occupied
+
+    12. invalid_students_batch:
+        sent during action_1 when the moves of a batch can't be all performed (a student is not in the entrance or
+        is moved twice, an island does not exist, a table would have more than ten students, or the number of
+        moves is not the number of students the player still has to move); no student has been moved
 */
@@ -20,4 +20,8 @@ public class NoLobbyAvailableMessage extends Message {
     public int getPlayerID() {
         return playerID;
     }
+
+    public void setPlayerID(int playerID) {
+        this.playerID = playerID;
+    }
 }
@@ -0,0 +1,52 @@
+package it.polimi.ingsw.messages.serverMessages;
+
+import it.polimi.ingsw.messages.BatchedMessage;
+import it.polimi.ingsw.messages.Message;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * This class represents the message sent by the server to all the clients after a player moved at once all the
+ * students of the first part of action phase: it contains the ack of each move ('action_1_dining_room' or
+ * 'action_1_island'), in the order the moves were applied.
+ */
+public class StudentsMovedMessage extends Message implements BatchedMessage {
+    /**
+     * This attribute contains the acks of the moves
+     */
+    private ArrayList<AckMessage> moves = new ArrayList<>();
+
+    public StudentsMovedMessage(){
+        this.object = "action_1_result";
+    }
+
+    public void addMove(AckMessage move) {
+        moves.add(move);
+    }
+
+    public ArrayList<AckMessage> getMoves() {
+        return moves;
+    }
+
+    public void setMoves(ArrayList<AckMessage> moves) {
+        this.moves = moves;
+    }
+
+    /**
+     * This method returns the player who moves after these moves, written in the last ack
+     * @return the ID of the next player
+     */
+    public int getNextPlayer() {
+        return moves.get(moves.size() - 1).getNextPlayer();
+    }
+
+    /**
+     * This method returns the acks of the moves, which are the ones sent when the students are moved one by one
+     * @return the acks of the moves, in order
+     */
+    @Override
+    public List<AckMessage> getParts() {
+        return moves;
+    }
+}
@@ -0,0 +1,122 @@
+package it.polimi.ingsw.messages.serverMessages;
+
+import it.polimi.ingsw.messages.BatchedMessage;
+import it.polimi.ingsw.messages.Message;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * This class represents the message sent by the server to all the clients after a player moved mother nature:
+ * it carries in a single message the results of the movement, of the computation of the influence and of the
+ * union of the islands, so the clients receive the whole action_2 at once.
+ * The influence and the union are null if they were not performed, that is when mother nature reached an island
+ * with a no entry tile.
+ */
+public class TurnResultMessage extends Message implements BatchedMessage {
+    /**
+     * This attribute is the ack of the movement of mother nature (subObject 'action_2_movement')
+     */
+    private AckMessage movement;
+    /**
+     * This attribute is the ack of the computation of the influence (subObject 'action_2_influence');
+     * it is null if the influence was not computed
+     */
+    private AckMessage influence;
+    /**
+     * This attribute is the ack of the union of the islands (subObject 'action_2_union');
+     * it is null if the union was not controlled
+     */
+    private AckMessage union;
+
+    public TurnResultMessage(){
+        this.object = "action_2_result";
+    }
+
+    public AckMessage getMovement() {
+        return movement;
+    }
+
+    public void setMovement(AckMessage movement) {
+        this.movement = movement;
+    }
+
+    public AckMessage getInfluence() {
+        return influence;
+    }
+
+    public void setInfluence(AckMessage influence) {
+        this.influence = influence;
+    }
+
+    public AckMessage getUnion() {
+        return union;
+    }
+
+    public void setUnion(AckMessage union) {
+        this.union = union;
+    }
+
+    /**
+     * This method tells if the match ends after this action_2
+     * @return true if one of the acks in this message says that the match ends
+     */
+    public boolean isEndOfMatch() {
+        return (movement != null && movement.isEndOfMatch()) ||
+                (influence != null && influence.isEndOfMatch()) ||
+                (union != null && union.isEndOfMatch());
+    }
+
+    /**
+     * This method returns the player who moves after this action_2, written in the last ack of this message
+     * @return the ID of the next player
+     */
+    public int getNextPlayer() {
+        if (union != null) {
+            return union.getNextPlayer();
+        }
+        return movement.getNextPlayer();
+    }
+
+    /**
+     * This method returns the acks carried by this message, in the order they were sent one by one.
+     * When mother nature reached an island with a no entry tile the influence and the union were not performed,
+     * but the clients receiving the acks one by one still wait for both of them before the next move: so the empty
+     * acks sent in that case are rebuilt, with no new master and no island unified
+     * @return the acks of the movement, of the influence and of the union
+     */
+    @Override
+    public List<AckMessage> getParts() {
+        ArrayList<AckMessage> parts = new ArrayList<>(3);
+        if (movement != null && influence == null && union == null) {
+            AckMessage emptyInfluence = emptyAck("action_2_influence");
+            emptyInfluence.setMasterChanged(false);
+            AckMessage emptyUnion = emptyAck("action_2_union");
+            emptyUnion.setIslandsUnified("none");
+
+            parts.add(movement);
+            parts.add(emptyInfluence);
+            parts.add(emptyUnion);
+            return parts;
+        }
+        for (AckMessage ack : new AckMessage[]{movement, influence, union}) {
+            if (ack != null) {
+                parts.add(ack);
+            }
+        }
+        return parts;
+    }
+
+    /**
+     * This method creates an ack of the action_2 for the same player and with the same next player of the movement
+     * @param subObject the subObject of the ack
+     * @return the ack created
+     */
+    private AckMessage emptyAck(String subObject) {
+        AckMessage ack = new AckMessage();
+        ack.setRecipient(movement.getRecipient());
+        ack.setSubObject(subObject);
+        ack.setNextPlayer(movement.getNextPlayer());
+        return ack;
+    }
+}
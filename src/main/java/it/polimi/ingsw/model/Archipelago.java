@@ -1,6 +1,6 @@
 package it.polimi.ingsw.model;
 
-import java.util.HashMap;
+import java.util.Map;
 
 /**
  * This Class represents one group of islands-tile (at the beginning it consists of one single island-tile)
@@ -32,7 +32,7 @@ public class Archipelago {
     /**
      * This attribute is the population of students of each kind currently on the island
      */
-    private HashMap<Creature, Integer> studentsPopulation;
+    private final CreatureCounter studentsPopulation;
 
     public Archipelago(int ID){
         this.ID = ID;
@@ -40,12 +40,7 @@ public class Archipelago {
         this.noEntryTiles = 0;
         this.masterOfArchipelago = null;
 
-        this.studentsPopulation = new HashMap<Creature, Integer>();
-        this.studentsPopulation.put(Creature.DRAGON, 0);
-        this.studentsPopulation.put(Creature.FAIRY, 0);
-        this.studentsPopulation.put(Creature.FROG, 0);
-        this.studentsPopulation.put(Creature.UNICORN, 0);
-        this.studentsPopulation.put(Creature.GNOME, 0);
+        this.studentsPopulation = new CreatureCounter();
     }
 
     public Tower getTowerColor() {
@@ -72,8 +67,12 @@ public class Archipelago {
         return masterOfArchipelago;
     }
 
-    public HashMap<Creature, Integer> getStudentsPopulation() {
-        return studentsPopulation;
+    /**
+     * Returns the population of students of each kind as a map, which is a view of the students on the archipelago
+     * @return the map from each type of student to the number of students of that type
+     */
+    public Map<Creature, Integer> getStudentsPopulation() {
+        return studentsPopulation.asMap();
     }
 
     /**
@@ -90,12 +89,7 @@ public class Archipelago {
      * @return total number of students
      */
     public int getTotalNumberOfStudents(){
-        int sum = 0;
-
-        for(Creature c: Creature.values()){
-            sum += studentsPopulation.get(c);
-        }
-        return sum;
+        return studentsPopulation.getTotal();
     }
 
     /**
@@ -103,8 +97,7 @@ public class Archipelago {
      * @param c type of student
      */
     public void addStudent(Creature c){
-        int previousValue = studentsPopulation.get(c);
-        studentsPopulation.put(c, previousValue + 1);
+        studentsPopulation.add(c);
     }
 
     /**
@@ -113,8 +106,15 @@ public class Archipelago {
      * @param quantityToAdd number of students to put on the island
      */
     public void addStudents(Creature c, int quantityToAdd){
-        int previousValue = studentsPopulation.get(c);
-        studentsPopulation.put(c, previousValue + quantityToAdd);
+        studentsPopulation.add(c, quantityToAdd);
+    }
+
+    /**
+     * Add all the students of another archipelago, used when the two archipelagos are unified
+     * @param other the archipelago whose students are added
+     */
+    public void addStudentsOf(Archipelago other){
+        studentsPopulation.addAll(other.studentsPopulation);
     }
 
     /**
@@ -1,70 +1,82 @@
 package it.polimi.ingsw.model;
 
 import java.util.ArrayList;
-import java.util.Random;
 
+/**
+ * This class represents the bag of the students. The students in the bag have no order, so the bag only keeps,
+ * for each kind of creature, the number of students of that kind: a student is drawn by choosing a random
+ * position among all the students in the bag and finding the kind of creature that position falls in, which gives
+ * each student the same probability of being drawn, as picking a random student from a list would do.
+ */
 public class Bag {
     /**
-     * This attribute is the list of students from where we'll draw for
-     * the setup of the islands
+     * This attribute contains the kinds of creature, in the order used by the counters
      */
-    private ArrayList<Creature> studentsIslandSetUp;
+    private static final Creature[] CREATURES = Creature.values();
+
     /**
-     * This attribute is the list of students in the bag used during the match after
+     * This attribute contains, for each kind of creature, the number of students from where we'll draw for
      * the setup of the islands
      */
-    private ArrayList<Creature> remainingStudents;
+    private final int[] studentsIslandSetUp = new int[CREATURES.length];
+    /**
+     * This attribute is the total number of students left for the setup of the islands
+     */
+    private int numberOfStudentsIslandSetUp;
+    /**
+     * This attribute contains, for each kind of creature, the number of students in the bag used during the match
+     * after the setup of the islands
+     */
+    private final int[] remainingStudents = new int[CREATURES.length];
+    /**
+     * This attribute is the total number of students in the bag used during the match
+     */
+    private int numberOfRemainingStudents;
+    /**
+     * This attribute is the random generator of the match, used for all the draws from the bag
+     */
+    private final MatchRandom randomGenerator;
 
     /**
-     * This constructor builds the two attributes: add two students of each type in the
-     * studentsIslandSetUp array and the remaining students are added to the remainingStudents array
+     * This constructor builds a bag with its own random generator
      */
     public Bag() {
-        int i;
-
-        this.studentsIslandSetUp = new ArrayList<Creature>(10);
-        for(i = 0; i < 2; i++) {
-            studentsIslandSetUp.add(Creature.DRAGON);
-            studentsIslandSetUp.add(Creature.FAIRY);
-            studentsIslandSetUp.add(Creature.UNICORN);
-            studentsIslandSetUp.add(Creature.GNOME);
-            studentsIslandSetUp.add(Creature.FROG);
-        }
+        this(new MatchRandom());
+    }
 
-        this.remainingStudents = new ArrayList<>(120);
-        for(i = 0; i < 24; i++) {
-            remainingStudents.add(Creature.DRAGON);
-            remainingStudents.add(Creature.FAIRY);
-            remainingStudents.add(Creature.UNICORN);
-            remainingStudents.add(Creature.GNOME);
-            remainingStudents.add(Creature.FROG);
+    /**
+     * This constructor builds the two attributes: two students of each type are put among the students for
+     * the setup of the islands and the remaining 24 students of each type are put in the bag
+     * @param randomGenerator the random generator of the match
+     */
+    public Bag(MatchRandom randomGenerator) {
+        this.randomGenerator = randomGenerator;
+        for(Creature c: CREATURES) {
+            studentsIslandSetUp[c.ordinal()] = 2;
+            remainingStudents[c.ordinal()] = 24;
         }
+        numberOfStudentsIslandSetUp = 2 * CREATURES.length;
+        numberOfRemainingStudents = 24 * CREATURES.length;
     }
 
     public ArrayList<Creature> getStudentsIslandSetUp() {
-        ArrayList<Creature> returnArray = new ArrayList<Creature>();
-        for(Creature c: studentsIslandSetUp){
-            returnArray.add(c);
-        }
-        return returnArray;
+        return listOf(studentsIslandSetUp, numberOfStudentsIslandSetUp);
     }
 
+    /**
+     * This method returns the students in the bag, grouped by kind of creature
+     * @return a new ArrayList containing the students in the bag
+     */
     public ArrayList<Creature> getRemainingStudents() {
-        ArrayList<Creature> returnArray = new ArrayList<Creature>();
-        for(Creature c: remainingStudents){
-            returnArray.add(c);
-        }
-        return returnArray;
+        return listOf(remainingStudents, numberOfRemainingStudents);
     }
 
     /**
-     * This method computes the total number of students remaining in the bag
+     * This method returns the number of students remaining in the bag
      * @return number of students in the bag
      */
     public int getNumberOfRemainingStudents() {
-        int numberRemainingStudents;
-        numberRemainingStudents = getRemainingStudents().size();
-        return numberRemainingStudents;
+        return numberOfRemainingStudents;
     }
 
     /**
@@ -73,95 +85,102 @@ public class Bag {
      * @param typeOfStudents type of students to add
      */
     public void addStudentsOfType(int qt, Creature typeOfStudents){
-        for(int i = 0; i < qt; i++){
-            remainingStudents.add(typeOfStudents);
-        }
+        remainingStudents[typeOfStudents.ordinal()] += qt;
+        numberOfRemainingStudents += qt;
     }
 
     /**
-     * This method adds an Array of students to the bag (to the array "remainingStudents")
+     * This method adds an Array of students to the bag
      * @param studentsToAdd the array of students' type that must be added
      */
     public void addStudents(ArrayList<Creature> studentsToAdd){
         for(Creature c: studentsToAdd){
-            remainingStudents.add(c);
+            remainingStudents[c.ordinal()]++;
         }
+        numberOfRemainingStudents += studentsToAdd.size();
     }
 
     /**
-     * This method draw all ten students from the "studentsIslandSetUp" ArrayList and put them, sequentially, in a new
+     * This method draws all ten students for the setup of the islands and puts them, sequentially, in a new
      * ArrayList that will be returned (is used by Realm to put the first student on each archipelago except the one
      * where mother nature is at the beginning of the match and the one opposite to mother nature position).
-     * The "studentsIslandSetUp" ArrayList at the end of the method execution will be empty.
-     * @return The 10 students belonging to "studentsIslandSetUp" in the order they have been drawn.
+     * At the end of the method execution no student is left for the setup of the islands.
+     * @return The 10 students used for the setup of the islands in the order they have been drawn.
      */
     public ArrayList<Creature> drawSetUpStudents() {
-        ArrayList<Creature> caughtStudentsForSetup;
-        Random randomGenerator;
-        int randomIndex;
-        int i;
-
-        caughtStudentsForSetup = new ArrayList<Creature>();
-        randomGenerator = new Random();
-
-        for (i = 0; i < 10; i++) {
-            randomIndex = randomGenerator.nextInt(this.studentsIslandSetUp.size());
-            caughtStudentsForSetup.add(this.studentsIslandSetUp.get(randomIndex));
-            this.studentsIslandSetUp.remove(randomIndex);
+        ArrayList<Creature> caughtStudentsForSetup = new ArrayList<Creature>(numberOfStudentsIslandSetUp);
+
+        while (numberOfStudentsIslandSetUp > 0) {
+            caughtStudentsForSetup.add(draw(studentsIslandSetUp, numberOfStudentsIslandSetUp));
+            numberOfStudentsIslandSetUp--;
         }
 
         return caughtStudentsForSetup;
     }
 
     /**
-     * This method draws a certain number of students, specified by the parameter, from the bag, and remove it from
-     * the "remainingStudents" arrayList.
-     * The bag's size (size of "remainingStudents") is decreased by the 'numberOfStudentsToDraw'
+     * This method draws a certain number of students, specified by the parameter, from the bag, and removes them
+     * from the bag.
+     * The bag's size is decreased by the 'numberOfStudentsToDraw', or it becomes empty if it has fewer students
      * @param numberOfStudentsToDraw number of students that must be drawn (size of the ArrayList returned)
-     * @return ArrayList containing 'numberOfStudentsToDraw' students in the order they have been drawn from the bag.
+     * @return ArrayList containing 'numberOfStudentsToDraw' students in the order they have been drawn from the bag,
+     * or all the students left in the bag if they are not enough.
      */
     public ArrayList<Creature> drawStudents(int numberOfStudentsToDraw){
-        ArrayList<Creature> caughtStudents = null;
-        Random randomGenerator;
-        int randomIndex;
-        int i;
-
-        caughtStudents = new ArrayList<Creature>();
-        randomGenerator = new Random();
-
-        for(i = 0; i < numberOfStudentsToDraw; i++) {
-
-            if(!(this.getNumberOfRemainingStudents()==0)){
-                randomIndex = randomGenerator.nextInt(this.remainingStudents.size());
-                caughtStudents.add(this.remainingStudents.get(randomIndex));
-                this.remainingStudents.remove(randomIndex);
-            }else{
-                break;
-            }
+        int toDraw = Math.min(numberOfStudentsToDraw, numberOfRemainingStudents);
+        ArrayList<Creature> caughtStudents = new ArrayList<Creature>(toDraw);
 
+        for(int i = 0; i < toDraw; i++) {
+            caughtStudents.add(drawOneStudent());
         }
 
         return caughtStudents;
-
     }
 
     /**
-     * This method draws only one student from the bag ("remainingStudents") and remove it from the ArrayList
-     * "remainingStudents"
+     * This method draws only one student from the bag and removes it from the bag
      * @return The kind of student that has been drawn
+     * @throws IllegalArgumentException if the bag is empty
      */
     public Creature drawOneStudent(){
-        Creature caughtStudent;
-        Random randomGenerator;
-        int randomIndex;
-        int i;
-
-        randomGenerator = new Random();
+        Creature caughtStudent = draw(remainingStudents, numberOfRemainingStudents);
+        numberOfRemainingStudents--;
+        return caughtStudent;
+    }
 
-        randomIndex = randomGenerator.nextInt(this.remainingStudents.size());
-        caughtStudent = this.remainingStudents.get(randomIndex);
-        this.remainingStudents.remove(randomIndex);
+    /**
+     * This method draws one student from a group of counters: a random position among all the students is chosen,
+     * then the counters are walked until the kind of creature containing that position is found, and its counter
+     * is decreased. The caller decreases the total.
+     * @param counters the number of students of each kind of creature
+     * @param total the sum of the counters
+     * @return the kind of student that has been drawn
+     * @throws IllegalArgumentException if there are no students to draw
+     */
+    private Creature draw(int[] counters, int total) {
+        int position = randomGenerator.nextInt(total);
+        int kind = 0;
+        while (position >= counters[kind]) {
+            position -= counters[kind];
+            kind++;
+        }
+        counters[kind]--;
+        return CREATURES[kind];
+    }
 
-        return caughtStudent;
+    /**
+     * This method builds a list with the students counted by a group of counters, grouped by kind of creature
+     * @param counters the number of students of each kind of creature
+     * @param total the sum of the counters
+     * @return a new ArrayList containing the students
+     */
+    private static ArrayList<Creature> listOf(int[] counters, int total) {
+        ArrayList<Creature> returnArray = new ArrayList<Creature>(total);
+        for(Creature c: CREATURES){
+            for(int i = 0; i < counters[c.ordinal()]; i++){
+                returnArray.add(c);
+            }
+        }
+        return returnArray;
     }
-}
\ No newline at end of file
+}
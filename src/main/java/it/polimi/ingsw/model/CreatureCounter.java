@@ -0,0 +1,160 @@
+package it.polimi.ingsw.model;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * This class counts a group of students by kind of creature (e.g. the students on an island or at the tables of
+ * a dining room): the numbers are kept in an array indexed by the ordinal of the creature, together with their
+ * sum, so reading and changing them never boxes an integer nor computes a hash.
+ */
+public class CreatureCounter {
+    /**
+     * This attribute contains the kinds of creature, in the order used by the counters
+     */
+    private static final Creature[] CREATURES = Creature.values();
+
+    /**
+     * This attribute contains the number of students of each kind of creature
+     */
+    private final int[] counts = new int[CREATURES.length];
+    /**
+     * This attribute is the total number of students, kept equal to the sum of the counts
+     */
+    private int total = 0;
+    /**
+     * This attribute is the map view of the counter, created the first time it's asked
+     */
+    private Map<Creature, Integer> view = null;
+
+    /**
+     * This method returns the number of students of a kind of creature
+     * @param c the kind of creature
+     * @return the number of students of that kind
+     */
+    public int get(Creature c) {
+        return counts[c.ordinal()];
+    }
+
+    /**
+     * This method returns the total number of students counted
+     * @return the sum of the students of all kinds
+     */
+    public int getTotal() {
+        return total;
+    }
+
+    /**
+     * This method adds one student
+     * @param c the kind of the student
+     */
+    public void add(Creature c) {
+        counts[c.ordinal()]++;
+        total++;
+    }
+
+    /**
+     * This method adds some students of the same kind
+     * @param c the kind of the students
+     * @param quantity the number of students to add
+     */
+    public void add(Creature c, int quantity) {
+        counts[c.ordinal()] += quantity;
+        total += quantity;
+    }
+
+    /**
+     * This method adds all the students counted by another counter, e.g. when two islands are unified
+     * @param other the counter whose students are added
+     */
+    public void addAll(CreatureCounter other) {
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] += other.counts[i];
+        }
+        total += other.total;
+    }
+
+    /**
+     * This method sets the number of students of a kind of creature
+     * @param c the kind of creature
+     * @param quantity the new number of students of that kind
+     */
+    public void set(Creature c, int quantity) {
+        total += quantity - counts[c.ordinal()];
+        counts[c.ordinal()] = quantity;
+    }
+
+    /**
+     * This method returns a map view of the counter, kept for the code reading the students as a map: the view
+     * always shows the current numbers, and the numbers put in it change the counter
+     * @return the map from each kind of creature to the number of its students
+     */
+    public Map<Creature, Integer> asMap() {
+        if (view == null) {
+            view = new MapView();
+        }
+        return view;
+    }
+
+    /**
+     * This class is the map view of the counter: it contains all the kinds of creature, in the order of the enum
+     */
+    private final class MapView extends AbstractMap<Creature, Integer> {
+        @Override
+        public Integer get(Object key) {
+            return key instanceof Creature ? counts[((Creature) key).ordinal()] : null;
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return key instanceof Creature;
+        }
+
+        @Override
+        public Integer put(Creature key, Integer value) {
+            int previous = CreatureCounter.this.get(key);
+            set(key, value);
+            return previous;
+        }
+
+        @Override
+        public int size() {
+            return CREATURES.length;
+        }
+
+        @Override
+        public Set<Entry<Creature, Integer>> entrySet() {
+            return new AbstractSet<Entry<Creature, Integer>>() {
+                @Override
+                public Iterator<Entry<Creature, Integer>> iterator() {
+                    return new Iterator<Entry<Creature, Integer>>() {
+                        private int next = 0;
+
+                        @Override
+                        public boolean hasNext() {
+                            return next < CREATURES.length;
+                        }
+
+                        @Override
+                        public Entry<Creature, Integer> next() {
+                            if (next >= CREATURES.length) {
+                                throw new NoSuchElementException();
+                            }
+                            Creature c = CREATURES[next++];
+                            return new SimpleImmutableEntry<>(c, counts[c.ordinal()]);
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return CREATURES.length;
+                }
+            };
+        }
+    }
+}
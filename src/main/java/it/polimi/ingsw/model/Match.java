@@ -4,6 +4,7 @@ import it.polimi.ingsw.model.schoolboard.Entrance;
 import it.polimi.ingsw.model.schoolboard.ProfessorTable;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 
 /**
  * This class represent a single match of Eriantys
@@ -41,17 +42,39 @@ public class Match {
      * This attribute memorizes the professors that are not already controlled by any of the players
      */
     private ArrayList<Creature> notControlledProfessors;
+    /**
+     * This attribute contains, for each kind of professor (indexed by the ordinal of the creature), the ID of the
+     * player controlling it, or -1 if nobody controls it; it's kept updated by the professors' tables of the players
+     */
+    private final int[] ownersOfProfessors;
     /**
      * This attribute tells us if the match is expert mode or not
      */
     private boolean expertMode;
+    /**
+     * This attribute is the source of all the random choices of the match
+     */
+    private final MatchRandom random;
 
 
     public Match(int ID, int numberOfPlayers, boolean expertMode) {
+        this(ID, numberOfPlayers, expertMode, new MatchRandom());
+    }
+
+    /**
+     * This constructor creates the match using the given random generator for all its random choices, so the
+     * match can be played again with the same seed
+     * @param ID the ID of the match
+     * @param numberOfPlayers the number of players of the match
+     * @param expertMode true if the match is played in expert mode
+     * @param random the random generator of the match
+     */
+    public Match(int ID, int numberOfPlayers, boolean expertMode, MatchRandom random) {
         this.ID = ID;
         this.numberOfPlayers = numberOfPlayers;
-        this.bagOfTheMatch = new Bag();
-        this.realmOfTheMatch = new Realm(numberOfPlayers, bagOfTheMatch);
+        this.random = random;
+        this.bagOfTheMatch = new Bag(random);
+        this.realmOfTheMatch = new Realm(numberOfPlayers, bagOfTheMatch, random);
         this.players = new ArrayList<>();
         this.coinsReserve = 20;
 
@@ -59,6 +82,8 @@ public class Match {
         for(Creature c: Creature.values()){
             notControlledProfessors.add(c);
         }
+        this.ownersOfProfessors = new int[Creature.values().length];
+        Arrays.fill(ownersOfProfessors, -1);
 
         this.expertMode = expertMode;
     }
@@ -291,6 +316,36 @@ public class Match {
         players.get(currentPlayer).getSchoolBoard().getProfessorTable().addProfessor(professor);
     }
 
+    /**
+     * This method finds which player is controlling the professor
+     * @param professor the kind of professor
+     * @return the ID of the player controlling the professor, or -1 if nobody controls it
+     */
+    public int getOwnerOfProfessor(Creature professor){
+        return ownersOfProfessors[professor.ordinal()];
+    }
+
+    /**
+     * This method records that the professor has been put on the table of a player
+     * @param professor the kind of professor
+     * @param player_ID the ID of the player who now controls it
+     */
+    public void professorAcquired(Creature professor, int player_ID){
+        ownersOfProfessors[professor.ordinal()] = player_ID;
+    }
+
+    /**
+     * This method records that the professor has been taken from the table of a player: nobody controls it
+     * until another player acquires it
+     * @param professor the kind of professor
+     * @param player_ID the ID of the player who lost it
+     */
+    public void professorLost(Creature professor, int player_ID){
+        if(ownersOfProfessors[professor.ordinal()] == player_ID){
+            ownersOfProfessors[professor.ordinal()] = -1;
+        }
+    }
+
     /**
      * This method set a new master on the current island where mother nature is
      * @param master_ID ID of the new master
@@ -341,6 +396,10 @@ public class Match {
         return bagOfTheMatch;
     }
 
+    public MatchRandom getRandom() {
+        return random;
+    }
+
     public ArrayList<Player> getPlayers() {
         return players;
     }
@@ -0,0 +1,55 @@
+package it.polimi.ingsw.model;
+
+import java.util.SplittableRandom;
+
+/**
+ * This class is the source of all the random choices of a match: the first player, the initial position of mother
+ * nature, the characters of an expert match and the students drawn from the bag.
+ * It is created from a single seed, so two matches with the same seed and the same moves of the players are
+ * played in the same way, which is used to replay a match or to simulate it.
+ * The generator is not thread-safe: it is used only by the thread executing the messages of the match.
+ */
+public class MatchRandom {
+    /**
+     * This attribute is the seed the generator has been created from
+     */
+    private final long seed;
+    /**
+     * This attribute is the generator of the random numbers
+     */
+    private final SplittableRandom generator;
+
+    /**
+     * Constructor of the MatchRandom with a new random seed
+     */
+    public MatchRandom() {
+        this(new SplittableRandom().nextLong());
+    }
+
+    /**
+     * Constructor of the MatchRandom
+     * @param seed the seed of the match
+     */
+    public MatchRandom(long seed) {
+        this.seed = seed;
+        this.generator = new SplittableRandom(seed);
+    }
+
+    /**
+     * This method returns the seed of the match, which is enough to play it again in the same way
+     * @return the seed
+     */
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * This method draws a random number, with the same probability for each value
+     * @param bound the upper bound, excluded, it must be positive
+     * @return a number between 0 included and bound excluded
+     * @throws IllegalArgumentException if bound is not positive
+     */
+    public int nextInt(int bound) {
+        return generator.nextInt(bound);
+    }
+}
@@ -69,6 +69,14 @@ public class Player {
         return schoolBoard.getControlledProfessors();
     }
 
+    /**
+     * This method counts the professors controlled by the player
+     * @return number of professors controlled
+     */
+    public int getNumberOfProfessors(){
+        return schoolBoard.getNumberOfControlledProfessors();
+    }
+
     /**
      * This method sets the assistants' deck of the player
      * @param wizard deck chosen
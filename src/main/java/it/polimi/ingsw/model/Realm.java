@@ -1,13 +1,16 @@
 package it.polimi.ingsw.model;
 
-import java.sql.Array;
 import java.util.ArrayList;
-import java.util.Random;
 
 /**
  * This Class represents the realm of the game,regarded as the union of islands and clouds
  */
 public class Realm{
+    /**
+     * This attribute is the number of island tiles the realm is made of
+     */
+    private static final int NUMBER_OF_ISLANDS = 12;
+
     /**
      * This attribute is the archipelago's ID where motherNature currently stands
      */
@@ -24,6 +27,31 @@ public class Realm{
      *This attribute
      */
     private Bag bag;
+    /**
+     * This attribute contains, for each archipelago still in the realm, the ID of the next one going clockwise
+     */
+    private final int[] nextArchipelago;
+    /**
+     * This attribute contains, for each archipelago still in the realm, the ID of the previous one
+     */
+    private final int[] previousArchipelago;
+    /**
+     * This attribute is the union-find of the groups of islands: each island points to an island of its own group,
+     * and the archipelagos still in the realm point to themselves
+     */
+    private final int[] groupOfIsland;
+    /**
+     * This attribute contains the IDs of the archipelagos still in the realm, in their order around the ring
+     */
+    private final int[] ring;
+    /**
+     * This attribute contains, for each archipelago still in the realm, its position in the ring attribute
+     */
+    private final int[] positionInRing;
+    /**
+     * This attribute is the number of archipelagos still in the realm
+     */
+    private int numberOfArchipelagos;
 
     /**
      * Constructor of Realm: it creates islands and clouds, positions motherNature and puts one
@@ -32,6 +60,17 @@ public class Realm{
      * @param bag reference to the Bag used in the match
      */
     public Realm(int numberOfPlayers, Bag bag){
+        this(numberOfPlayers, bag, new MatchRandom());
+    }
+
+    /**
+     * This constructor creates the realm as the other one, choosing the position of mother nature with the random
+     * generator of the match
+     * @param numberOfPlayers number of Players
+     * @param bag reference to the Bag used in the match
+     * @param random the random generator of the match
+     */
+    public Realm(int numberOfPlayers, Bag bag, MatchRandom random){
         archipelagos = new ArrayList<Archipelago>();
         cloudRegion = new ArrayList<CloudTile>();
         this.bag = bag;
@@ -42,12 +81,22 @@ public class Realm{
         }
 
         //archipelagos creation
-        for(int j = 0; j<12; j++){
+        nextArchipelago = new int[NUMBER_OF_ISLANDS];
+        previousArchipelago = new int[NUMBER_OF_ISLANDS];
+        groupOfIsland = new int[NUMBER_OF_ISLANDS];
+        ring = new int[NUMBER_OF_ISLANDS];
+        positionInRing = new int[NUMBER_OF_ISLANDS];
+        for(int j = 0; j<NUMBER_OF_ISLANDS; j++){
             archipelagos.add(new Archipelago(j));
+            nextArchipelago[j] = (j + 1) % NUMBER_OF_ISLANDS;
+            previousArchipelago[j] = (j + NUMBER_OF_ISLANDS - 1) % NUMBER_OF_ISLANDS;
+            groupOfIsland[j] = j;
+            ring[j] = j;
+            positionInRing[j] = j;
         }
+        numberOfArchipelagos = NUMBER_OF_ISLANDS;
 
         //choose motherNature start position
-        Random random = new Random();
         positionOfMotherNature = random.nextInt(12);
 
         // put one student on each island(Archipelago)
@@ -91,10 +140,46 @@ public class Realm{
 
     public int getPositionOfMotherNature(){return positionOfMotherNature;}
 
+    /**
+     * This method returns the number of archipelagos still in the realm, i.e. the groups of islands
+     * @return number of archipelagos
+     */
+    public int getNumberOfArchipelagos(){
+        return numberOfArchipelagos;
+    }
+
+    /**
+     * This method finds the archipelago an island belongs to, which is the island itself until it is unified
+     * with another one
+     * @param island_ID ID of the island
+     * @return ID of the archipelago containing the island
+     */
+    public int archipelagoOf(int island_ID){
+        while(groupOfIsland[island_ID] != island_ID){
+            // every island visited is moved closer to the archipelago, so the next searches are shorter
+            groupOfIsland[island_ID] = groupOfIsland[groupOfIsland[island_ID]];
+            island_ID = groupOfIsland[island_ID];
+        }
+        return island_ID;
+    }
+
+    /**
+     * This method counts the steps mother nature takes, going clockwise, to move between two archipelagos; reaching
+     * the same archipelago it started from takes a whole round of the realm
+     * @param from_ID ID of the archipelago where mother nature starts
+     * @param to_ID ID of the archipelago where mother nature arrives
+     * @return number of steps, between 1 and the number of archipelagos
+     */
+    public int stepsBetween(int from_ID, int to_ID){
+        int steps = (positionInRing[to_ID] - positionInRing[from_ID] + numberOfArchipelagos) % numberOfArchipelagos;
+        return steps == 0 ? numberOfArchipelagos : steps;
+    }
+
     /**
      * Unifies two groups of islands together, updating the attributes of the first (a1) one passed as
      * parameter and replacing the second one (a2) with a null pointer so that the correspondence between
      * island's IDs and arrayList's index doesn't change.
+     * The second group is taken out of the ring, and its islands become part of the group of the first one.
      * @param ID_1 first group of islands, its attributes will be updated
      * @param ID_2 second group of islands, it will be replaced with 'null'
      */
@@ -111,46 +196,42 @@ public class Realm{
         a1.addNoEntryTiles(a2.getNoEntryTiles());
 
         //update studentsPopulation in a1
-        for(Creature c: Creature.values()){
-            a1.addStudents(c, a2.getStudentsOfType(c));
-        }
+        a1.addStudentsOf(a2);
 
         archipelagos.set(ID_2, null);
+
+        nextArchipelago[previousArchipelago[ID_2]] = nextArchipelago[ID_2];
+        previousArchipelago[nextArchipelago[ID_2]] = previousArchipelago[ID_2];
+        groupOfIsland[ID_2] = ID_1;
+        numberOfArchipelagos--;
+
+        // the archipelagos are numbered again around the ring, starting from the one that grew
+        int archipelago_ID = ID_1;
+        for(int i = 0; i < numberOfArchipelagos; i++){
+            ring[i] = archipelago_ID;
+            positionInRing[archipelago_ID] = i;
+            archipelago_ID = nextArchipelago[archipelago_ID];
+        }
     }
 
     /**
-     * This method finds the next island or group of islands with respect to the island argument of the method
+     * This method finds the next island or group of islands with respect to the island argument of the method;
+     * if the island has been unified the group it belongs to is taken as reference
      * @param island_ID ID of the island taken as reference
      * @return ID of the next island/group of islands
      */
     public int nextIsland(int island_ID){
-        int i = 1;
-
-        while(archipelagos.get((island_ID + i)%12) == null){
-            i++;
-        }
-
-        return (island_ID+i) % 12;
+        return nextArchipelago[archipelagoOf(island_ID)];
     }
 
     /**
-     * This method finds the previous island or group of islands with respect to the island argument of the method
+     * This method finds the previous island or group of islands with respect to the island argument of the method;
+     * if the island has been unified the group it belongs to is taken as reference
      * @param island_ID ID of the island taken as reference
      * @return ID of the previous island/group of islands
      */
     public int previousIsland(int island_ID){
-        int i = 0;
-        int previousIndex;
-        do {
-            i++;
-            if(island_ID - i < 0){
-                previousIndex = (12 + (island_ID - i));
-            }else{
-                previousIndex = island_ID - i;
-            }
-        }while(archipelagos.get(previousIndex) == null);
-
-        return previousIndex;
+        return previousArchipelago[archipelagoOf(island_ID)];
     }
 
     /**
@@ -199,20 +280,13 @@ public class Realm{
     }
 
     /**
-     * Moves mother nature by given steps, paying attention to the fact that there could be some positions
-     * inside the ArrayList archipelagos that are null pointer; the next position of mother nature will
-     * certainly correspond to a non-null element of the array archipelagos.
+     * Moves mother nature by given steps, counted on the ring of the archipelagos still in the realm, so the
+     * positions inside the ArrayList archipelagos that are null pointer are skipped; the next position of mother
+     * nature will certainly correspond to a non-null element of the array archipelagos.
      * @param steps number of steps motherNature will take
      */
     public void moveMotherNatureWithSteps(int steps){
-        int i = 1;
-        while(steps > 0){
-            if(archipelagos.get((positionOfMotherNature+i)%12) != null){
-                steps--;
-            }
-            i++;
-        }
-        positionOfMotherNature = (positionOfMotherNature + (i-1)) % 12;
+        positionOfMotherNature = ring[(positionInRing[positionOfMotherNature] + steps) % numberOfArchipelagos];
         // if there is one or more noEntry-tiles on this current archipelago, then one of theme will be removed
         archipelagos.get(positionOfMotherNature).removeNoEntryTile();
     }
@@ -2,17 +2,18 @@ package it.polimi.ingsw.model.schoolboard;
 
 import it.polimi.ingsw.model.CoinManagerObserver;
 import it.polimi.ingsw.model.Creature;
+import it.polimi.ingsw.model.CreatureCounter;
 import it.polimi.ingsw.model.Match;
 import it.polimi.ingsw.model.Player;
 
-import java.util.HashMap;
+import java.util.Map;
 
 public class DiningRoom {
     /**
      * This attribute contains information about the seats in the dining room, for each type of
      * student the number of student on that particular table is associated
      */
-    private HashMap<Creature, Integer> occupiedSeats;
+    private final CreatureCounter occupiedSeats;
     /**
      * This attribute is the reference to the entrance of the school board
      */
@@ -25,12 +26,7 @@ public class DiningRoom {
     private CoinManagerObserver coinObserver;
 
     public DiningRoom(Match match, Player p){
-        occupiedSeats = new HashMap<>();
-        occupiedSeats.put(Creature.DRAGON,0);
-        occupiedSeats.put(Creature.UNICORN,0);
-        occupiedSeats.put(Creature.FROG,0);
-        occupiedSeats.put(Creature.FAIRY,0);
-        occupiedSeats.put(Creature.GNOME,0);
+        occupiedSeats = new CreatureCounter();
 
         coinObserver = new CoinManagerObserver(match, p);
     }
@@ -40,7 +36,7 @@ public class DiningRoom {
      * @param s the type of student to add
      */
     public void addStudent(Creature s){
-        occupiedSeats.replace(s, occupiedSeats.get(s) + 1);
+        occupiedSeats.add(s);
         if ((occupiedSeats.get(s)) % 3 == 0) {
             coinObserver.depositCoin();
         }
@@ -56,18 +52,14 @@ public class DiningRoom {
     public int removeStudents(int qt, Creature s){
         int numberStudentsRemoved;
 
+        /* if there aren't enough students all the students on that table are removed */
         if(occupiedSeats.get(s) >= qt){
             numberStudentsRemoved = qt;
         }else {
             numberStudentsRemoved = occupiedSeats.get(s);
         }
 
-        occupiedSeats.replace(s, occupiedSeats.get(s) - qt);
-        /* if there weren't enough students we set the number of students on
-        that table to 0 */
-        if(occupiedSeats.get(s) < 0){
-            occupiedSeats.replace(s, 0);
-        }
+        occupiedSeats.add(s, -numberStudentsRemoved);
 
         return numberStudentsRemoved;
     }
@@ -86,20 +78,19 @@ public class DiningRoom {
      * @return total number of students
      */
     public int getTotalNumberOfStudents(){
-        int tot = 0;
-
-        for(Creature c: Creature.values()){
-            tot += occupiedSeats.get(c);
-        }
-        return  tot;
+        return occupiedSeats.getTotal();
     }
 
     public void setEntrance(Entrance d){
         this.entrance = d;
     }
 
-    public HashMap<Creature, Integer> getOccupiedSeats() {
-        return occupiedSeats;
+    /**
+     * This method returns the seats in the dining room as a map, which is a view of the students at the tables
+     * @return the map from each type of student to the number of students at its table
+     */
+    public Map<Creature, Integer> getOccupiedSeats() {
+        return occupiedSeats.asMap();
     }
 
     public Entrance getEntrance() {
@@ -1,24 +1,54 @@
 package it.polimi.ingsw.model.schoolboard;
 
 import it.polimi.ingsw.model.Creature;
+import it.polimi.ingsw.model.Match;
 
-import java.util.HashMap;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
 
 public class ProfessorTable {
+    /**
+     * This attribute contains the kinds of creature, in the order of the bits of the seats
+     */
+    private static final Creature[] CREATURES = Creature.values();
+
     /**
      * This attribute contains information about the table of the professors, if a seat is
-     * occupied or not
+     * occupied or not: the bit in the position of the ordinal of a creature is set if its professor is at the table
+     */
+    private int occupiedSeats;
+    /**
+     * This attribute is the reference to the match, told about each professor added or removed, or null if the
+     * table is not part of a match
+     */
+    private final Match match;
+    /**
+     * This attribute is the ID of the player to whom the table belongs
      */
-    private HashMap<Creature, Boolean> occupiedSeats;
+    private final int owner_ID;
+    /**
+     * This attribute is the map view of the seats, created the first time it's asked
+     */
+    private Map<Creature, Boolean> view = null;
 
 
     public ProfessorTable(){
-        occupiedSeats = new HashMap<>();
-        occupiedSeats.put(Creature.DRAGON, false);
-        occupiedSeats.put(Creature.UNICORN, false);
-        occupiedSeats.put(Creature.FROG, false);
-        occupiedSeats.put(Creature.FAIRY, false);
-        occupiedSeats.put(Creature.GNOME, false);
+        this(null, -1);
+    }
+
+    /**
+     * This constructor creates the table of a player of the match
+     * @param match reference to the match, kept updated about the owners of the professors
+     * @param owner_ID the ID of the player to whom the table belongs
+     */
+    public ProfessorTable(Match match, int owner_ID){
+        this.occupiedSeats = 0;
+        this.match = match;
+        this.owner_ID = owner_ID;
     }
 
     /**
@@ -26,7 +56,10 @@ public class ProfessorTable {
      * @param p the kind of professor added
      */
     public void addProfessor(Creature p) {
-        occupiedSeats.put(p, true);
+        occupiedSeats |= 1 << p.ordinal();
+        if(match != null){
+            match.professorAcquired(p, owner_ID);
+        }
     }
 
     /**
@@ -34,7 +67,10 @@ public class ProfessorTable {
      * @param p the kind of professor removed
      */
     public void removeProfessor(Creature p){
-        occupiedSeats.put(p, false);
+        occupiedSeats &= ~(1 << p.ordinal());
+        if(match != null){
+            match.professorLost(p, owner_ID);
+        }
     }
 
     /**
@@ -44,15 +80,89 @@ public class ProfessorTable {
      *         false if the seat is not occupied
      */
     public boolean isOccupied(Creature p){
-        return occupiedSeats.get(p);
+        return (occupiedSeats & (1 << p.ordinal())) != 0;
+    }
+
+    /**
+     * This method counts the professors at the table
+     * @return the number of occupied seats
+     */
+    public int getNumberOfProfessors(){
+        return Integer.bitCount(occupiedSeats);
     }
 
 
     /**
-     * This method allows us to get the entire hashmap, and it is useful for Tests
-     * @return the reference to the hashmap with the number of occupied seats for each table
+     * This method allows us to get the seats as a map, and it is useful for Tests: the map is a view of the table,
+     * so the values put in it add or remove the professors
+     * @return the map telling for each kind of professor if its seat is occupied
+     */
+    public Map<Creature, Boolean> getOccupiedSeats() {
+        if(view == null){
+            view = new SeatsView();
+        }
+        return view;
+    }
+
+    /**
+     * This class is the map view of the seats: it contains all the kinds of creature, in the order of the enum
      */
-    public HashMap<Creature, Boolean> getOccupiedSeats() {
-        return occupiedSeats;
+    private final class SeatsView extends AbstractMap<Creature, Boolean> {
+        @Override
+        public Boolean get(Object key) {
+            return key instanceof Creature ? isOccupied((Creature) key) : null;
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return key instanceof Creature;
+        }
+
+        @Override
+        public Boolean put(Creature key, Boolean value) {
+            boolean previous = isOccupied(key);
+            if(value){
+                addProfessor(key);
+            }else{
+                removeProfessor(key);
+            }
+            return previous;
+        }
+
+        @Override
+        public int size() {
+            return CREATURES.length;
+        }
+
+        @Override
+        public Set<Entry<Creature, Boolean>> entrySet() {
+            return new AbstractSet<Entry<Creature, Boolean>>() {
+                @Override
+                public Iterator<Entry<Creature, Boolean>> iterator() {
+                    return new Iterator<Entry<Creature, Boolean>>() {
+                        private int next = 0;
+
+                        @Override
+                        public boolean hasNext() {
+                            return next < CREATURES.length;
+                        }
+
+                        @Override
+                        public Entry<Creature, Boolean> next() {
+                            if (next >= CREATURES.length) {
+                                throw new NoSuchElementException();
+                            }
+                            Creature c = CREATURES[next++];
+                            return new SimpleImmutableEntry<>(c, isOccupied(c));
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return CREATURES.length;
+                }
+            };
+        }
     }
 }
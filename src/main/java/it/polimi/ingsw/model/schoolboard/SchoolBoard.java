@@ -40,7 +40,7 @@ public class SchoolBoard {
     public SchoolBoard(Match match, int numPlayers, Realm r, Player p){
         this.towerArea = new TowerArea(numPlayers);
         this.diningRoom = new DiningRoom(match, p);
-        this.professorTable = new ProfessorTable();
+        this.professorTable = new ProfessorTable(match, p.getID());
         this.entrance = new Entrance(diningRoom, r, numPlayers);
     }
 
@@ -59,6 +59,14 @@ public class SchoolBoard {
         return controlledProfessorsList;
     }
 
+    /**
+     * Counts the professors controlled by the Player, without building their list
+     * @return the number of professors under the control of the player to whom the board(SchoolBoard) belongs
+     */
+    public int getNumberOfControlledProfessors() {
+        return professorTable.getNumberOfProfessors();
+    }
+
     /**
      * This method controls if there are enough towers and remove theme from the tower-area;
      * if there are not enough towers then the match must end, so the return value will be false
@@ -0,0 +1,446 @@
+package it.polimi.ingsw.network;
+
+import it.polimi.ingsw.messages.Message;
+import it.polimi.ingsw.messages.MessageAdapters;
+import it.polimi.ingsw.messages.MessageSchema;
+import it.polimi.ingsw.messages.serverMessages.AckCharactersMessage;
+import it.polimi.ingsw.messages.serverMessages.AckMessage;
+import it.polimi.ingsw.messages.serverMessages.EndOfMatchMessage;
+import it.polimi.ingsw.messages.serverMessages.MatchStartMessage;
+import it.polimi.ingsw.messages.serverMessages.NackMessage;
+import it.polimi.ingsw.messages.serverMessages.StudentsMovedMessage;
+import it.polimi.ingsw.messages.serverMessages.TurnResultMessage;
+
+import java.io.IOException;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+
+/**
+ * This class encodes the most frequent messages sent by the server (acks, nacks, results of action_1 and
+ * action_2, start and end of the match) in a compact binary form, used by the connections that asked for it instead of the json.
+ * The schema of each message is built once from the fields listed by its MessageSchema, the same ones written in
+ * the json: the values are written one after the other, in the order of the schema and without their names, and
+ * they are read and written through the getters and setters of the schema. Integers are written as zig-zag varints,
+ * so IDs and small counters take one byte; enums are written as their ordinal; strings, lists and maps are
+ * preceded by their length. For the values that can be null, 0 means null and the length (or ordinal) is
+ * written plus one; a message inside another one is preceded by 1, or replaced by 0 if it is null.
+ */
+public final class BinaryCodec {
+    /**
+     * This attribute links the type of each supported message with its class
+     */
+    private static final HashMap<MessageType, Class<? extends Message>> CLASSES = new HashMap<>();
+    /**
+     * This attribute links each supported class with its schema
+     */
+    private static final HashMap<Class<?>, Schema<?>> SCHEMAS = new HashMap<>();
+
+    static {
+        register(MessageType.ACK, AckMessage.class);
+        register(MessageType.CHARACTER_ACK, AckCharactersMessage.class);
+        register(MessageType.START, MatchStartMessage.class);
+        register(MessageType.NACK, NackMessage.class);
+        register(MessageType.END, EndOfMatchMessage.class);
+        // registered after AckMessage, whose schema is used for its fields
+        register(MessageType.ACTION_2_RESULT, TurnResultMessage.class);
+        register(MessageType.ACTION_1_RESULT, StudentsMovedMessage.class);
+    }
+
+    private BinaryCodec() {
+    }
+
+    private static <T extends Message> void register(MessageType type, Class<T> messageClass) {
+        CLASSES.put(type, messageClass);
+        SCHEMAS.put(messageClass, new Schema<>(messageClass));
+    }
+
+    /**
+     * This method tells if a message can be encoded in binary form
+     * @param message the message
+     * @return true if the class of the message has a binary schema
+     */
+    public static boolean supports(Message message) {
+        return message != null && SCHEMAS.containsKey(message.getClass());
+    }
+
+    /**
+     * This method finds the class of the messages of a type sent in binary form
+     * @param type the type read from the frame
+     * @return the class of the message, or null if the type has no binary form
+     */
+    public static Class<? extends Message> classOf(MessageType type) {
+        return CLASSES.get(type);
+    }
+
+    /**
+     * This method encodes a message
+     * @param message the message, its class must be supported
+     * @return the binary payload
+     */
+    public static byte[] encode(Message message) {
+        Schema<?> schema = SCHEMAS.get(message.getClass());
+        if (schema == null) {
+            throw new IllegalArgumentException("no binary schema for " + message.getClass().getSimpleName());
+        }
+        ByteWriter out = new ByteWriter();
+        schema.write(out, message);
+        return out.toByteArray();
+    }
+
+    /**
+     * This method decodes a message
+     * @param payload the buffer containing the payload
+     * @param length the number of bytes of the payload, starting from position 0
+     * @param messageClass the class of the message
+     * @return the message
+     * @throws IOException if the payload is not a valid message of that class
+     */
+    public static <T extends Message> T decode(byte[] payload, int length, Class<T> messageClass) throws IOException {
+        Schema<?> schema = SCHEMAS.get(messageClass);
+        if (schema == null) {
+            throw new IOException("no binary schema for " + messageClass.getSimpleName());
+        }
+        ByteReader in = new ByteReader(payload, length);
+        try {
+            T message = messageClass.cast(schema.read(in));
+            if (in.position != length) {
+                throw new IOException("unexpected bytes after the message");
+            }
+            return message;
+        } catch (IndexOutOfBoundsException | IllegalArgumentException e) {
+            throw new IOException("invalid binary " + messageClass.getSimpleName(), e);
+        }
+    }
+
+    /**
+     * This class contains the fields of a message class, in the order they are written, taken from the schema
+     * of the class used for the json
+     */
+    private static final class Schema<T extends Message> {
+        private final MessageSchema<T> messageSchema;
+        private final ArrayList<BinaryField<T>> fields = new ArrayList<>();
+
+        private Schema(Class<T> messageClass) {
+            messageSchema = MessageAdapters.schemaOf(messageClass);
+            if (messageSchema == null) {
+                throw new IllegalArgumentException("no schema for " + messageClass.getSimpleName());
+            }
+            messageSchema.visit(new MessageSchema.FieldVisitor<T>() {
+                @Override
+                public void intField(String name, ToIntFunction<? super T> getter, MessageSchema.IntSetter<? super T> setter) {
+                    fields.add(new BinaryField<T>() {
+                        public void write(ByteWriter out, T message) {
+                            out.writeVarint(zigZag(getter.applyAsInt(message)));
+                        }
+
+                        public void read(ByteReader in, T message) {
+                            setter.set(message, unZigZag(in.readVarint()));
+                        }
+                    });
+                }
+
+                @Override
+                public void booleanField(String name, MessageSchema.BooleanGetter<? super T> getter, MessageSchema.BooleanSetter<? super T> setter) {
+                    fields.add(new BinaryField<T>() {
+                        public void write(ByteWriter out, T message) {
+                            out.write(getter.get(message) ? 1 : 0);
+                        }
+
+                        public void read(ByteReader in, T message) {
+                            setter.set(message, in.read() != 0);
+                        }
+                    });
+                }
+
+                @Override
+                public void stringField(String name, Function<? super T, String> getter, BiConsumer<? super T, String> setter) {
+                    field(name, String.class, getter, setter);
+                }
+
+                @Override
+                @SuppressWarnings("unchecked")
+                public <V> void field(String name, Type type, Function<? super T, V> getter, BiConsumer<? super T, V> setter) {
+                    ValueCodec codec = codecOf(type);
+                    fields.add(new BinaryField<T>() {
+                        public void write(ByteWriter out, T message) {
+                            codec.write(out, getter.apply(message));
+                        }
+
+                        public void read(ByteReader in, T message) throws IOException {
+                            setter.accept(message, (V) codec.read(in));
+                        }
+                    });
+                }
+            });
+        }
+
+        @SuppressWarnings("unchecked")
+        private void write(ByteWriter out, Object message) {
+            for (BinaryField<T> field : fields) {
+                field.write(out, (T) message);
+            }
+        }
+
+        private T read(ByteReader in) throws IOException {
+            T message = messageSchema.newMessage();
+            for (BinaryField<T> field : fields) {
+                field.read(in, message);
+            }
+            return message;
+        }
+    }
+
+    /**
+     * This interface represents the way a field of a message is written and read
+     */
+    private interface BinaryField<T> {
+        void write(ByteWriter out, T message);
+
+        void read(ByteReader in, T message) throws IOException;
+    }
+
+    /**
+     * This interface represents the way a value of a certain type is written and read
+     */
+    private interface ValueCodec {
+        void write(ByteWriter out, Object value);
+
+        Object read(ByteReader in) throws IOException;
+    }
+
+    /**
+     * This method builds the codec of a type
+     * @param type the type of a field which is not an int or a boolean, or of an element of a list or map
+     * @return the codec
+     */
+    private static ValueCodec codecOf(Type type) {
+        if (type == Integer.class) {
+            return new ValueCodec() {
+                public void write(ByteWriter out, Object value) {
+                    out.writeVarint(value == null ? 0 : zigZag((Integer) value) + 1);
+                }
+
+                public Object read(ByteReader in) {
+                    int value = in.readVarint();
+                    return value == 0 ? null : unZigZag(value - 1);
+                }
+            };
+        }
+        if (type == String.class) {
+            return new ValueCodec() {
+                public void write(ByteWriter out, Object value) {
+                    if (value == null) {
+                        out.writeVarint(0);
+                        return;
+                    }
+                    byte[] bytes = ((String) value).getBytes(StandardCharsets.UTF_8);
+                    out.writeVarint(bytes.length + 1);
+                    out.write(bytes);
+                }
+
+                public Object read(ByteReader in) {
+                    int length = in.readVarint();
+                    return length == 0 ? null : in.readString(length - 1);
+                }
+            };
+        }
+        if (type instanceof Class && ((Class<?>) type).isEnum()) {
+            Object[] constants = ((Class<?>) type).getEnumConstants();
+            return new ValueCodec() {
+                public void write(ByteWriter out, Object value) {
+                    out.writeVarint(value == null ? 0 : ((Enum<?>) value).ordinal() + 1);
+                }
+
+                public Object read(ByteReader in) {
+                    int ordinal = in.readVarint();
+                    return ordinal == 0 ? null : constants[ordinal - 1];
+                }
+            };
+        }
+        if (type instanceof Class && SCHEMAS.containsKey(type)) {
+            Schema<?> schema = SCHEMAS.get(type);
+            return new ValueCodec() {
+                public void write(ByteWriter out, Object value) {
+                    if (value == null) {
+                        out.write(0);
+                        return;
+                    }
+                    out.write(1);
+                    schema.write(out, value);
+                }
+
+                public Object read(ByteReader in) throws IOException {
+                    return in.read() == 0 ? null : schema.read(in);
+                }
+            };
+        }
+        if (type instanceof ParameterizedType) {
+            ParameterizedType parameterized = (ParameterizedType) type;
+            Class<?> raw = (Class<?>) parameterized.getRawType();
+            Type[] arguments = parameterized.getActualTypeArguments();
+            if (Collection.class.isAssignableFrom(raw)) {
+                return collectionCodec(raw, codecOf(arguments[0]));
+            }
+            if (Map.class.isAssignableFrom(raw)) {
+                return mapCodec(codecOf(arguments[0]), codecOf(arguments[1]));
+            }
+        }
+        throw new IllegalArgumentException("type not supported by the binary codec: " + type);
+    }
+
+    private static ValueCodec collectionCodec(Class<?> raw, ValueCodec elementCodec) {
+        boolean isSet = Set.class.isAssignableFrom(raw);
+        return new ValueCodec() {
+            public void write(ByteWriter out, Object value) {
+                if (value == null) {
+                    out.writeVarint(0);
+                    return;
+                }
+                Collection<?> collection = (Collection<?>) value;
+                out.writeVarint(collection.size() + 1);
+                for (Object element : collection) {
+                    elementCodec.write(out, element);
+                }
+            }
+
+            public Object read(ByteReader in) throws IOException {
+                int size = in.readVarint();
+                if (size == 0) {
+                    return null;
+                }
+                // the sets keep the order they were written in
+                Collection<Object> collection = isSet ? new LinkedHashSet<>() : new ArrayList<>();
+                for (int i = 0; i < size - 1; i++) {
+                    collection.add(elementCodec.read(in));
+                }
+                return collection;
+            }
+        };
+    }
+
+    private static ValueCodec mapCodec(ValueCodec keyCodec, ValueCodec valueCodec) {
+        return new ValueCodec() {
+            public void write(ByteWriter out, Object value) {
+                if (value == null) {
+                    out.writeVarint(0);
+                    return;
+                }
+                Map<?, ?> map = (Map<?, ?>) value;
+                out.writeVarint(map.size() + 1);
+                for (Map.Entry<?, ?> entry : map.entrySet()) {
+                    keyCodec.write(out, entry.getKey());
+                    valueCodec.write(out, entry.getValue());
+                }
+            }
+
+            public Object read(ByteReader in) throws IOException {
+                int size = in.readVarint();
+                if (size == 0) {
+                    return null;
+                }
+                HashMap<Object, Object> map = new HashMap<>();
+                for (int i = 0; i < size - 1; i++) {
+                    Object key = keyCodec.read(in);
+                    map.put(key, valueCodec.read(in));
+                }
+                return map;
+            }
+        };
+    }
+
+    private static int zigZag(int value) {
+        return (value << 1) ^ (value >> 31);
+    }
+
+    private static int unZigZag(int value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    /**
+     * This class is the growing buffer where a message is encoded
+     */
+    private static final class ByteWriter {
+        private byte[] bytes = new byte[64];
+        private int length = 0;
+
+        private void write(int b) {
+            if (length == bytes.length) {
+                bytes = Arrays.copyOf(bytes, bytes.length * 2);
+            }
+            bytes[length++] = (byte) b;
+        }
+
+        private void write(byte[] source) {
+            if (length + source.length > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, length + source.length));
+            }
+            System.arraycopy(source, 0, bytes, length, source.length);
+            length += source.length;
+        }
+
+        private void writeVarint(int value) {
+            while ((value & ~0x7F) != 0) {
+                write((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            write(value);
+        }
+
+        private byte[] toByteArray() {
+            return Arrays.copyOf(bytes, length);
+        }
+    }
+
+    /**
+     * This class reads the values of a message from its payload
+     */
+    private static final class ByteReader {
+        private final byte[] bytes;
+        private final int length;
+        private int position = 0;
+
+        private ByteReader(byte[] bytes, int length) {
+            this.bytes = bytes;
+            this.length = length;
+        }
+
+        private int read() {
+            if (position >= length) {
+                throw new IndexOutOfBoundsException("end of the payload");
+            }
+            return bytes[position++] & 0xFF;
+        }
+
+        private int readVarint() {
+            int value = 0;
+            for (int shift = 0; shift < 35; shift += 7) {
+                int b = read();
+                value |= (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return value;
+                }
+            }
+            throw new IllegalArgumentException("varint too long");
+        }
+
+        private String readString(int size) {
+            if (size < 0 || position + size > length) {
+                throw new IndexOutOfBoundsException("end of the payload");
+            }
+            String value = new String(bytes, position, size, StandardCharsets.UTF_8);
+            position += size;
+            return value;
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package it.polimi.ingsw.network;
+
+import it.polimi.ingsw.messages.Message;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * This class represents one frame received from the connection: the tag of the message and its payload.
+ * The payload is kept in the buffer of the reader that received the frame, which is reused for the next frame,
+ * so a frame is valid only until the next one is read.
+ */
+public final class Frame {
+    /**
+     * This attribute is the tag read from the header of the frame
+     */
+    private int tag;
+    /**
+     * This attribute is the buffer containing the payload, it may be longer than the payload
+     */
+    private byte[] payload;
+    /**
+     * This attribute is the number of bytes of the payload
+     */
+    private int length;
+
+    /**
+     * This method sets the content of the frame; it is used by the readers reusing the same frame object
+     * @param tag the tag of the message
+     * @param payload the buffer containing the payload
+     * @param length the number of bytes of the payload
+     */
+    void set(int tag, byte[] payload, int length) {
+        this.tag = tag;
+        this.payload = payload;
+        this.length = length;
+    }
+
+    public int getTag() {
+        return tag;
+    }
+
+    public MessageType getType() {
+        return MessageType.fromTag(tag & ~(FrameCodec.BINARY_FLAG | FrameCodec.COMPRESSED_FLAG));
+    }
+
+    /**
+     * This method tells if the payload has been encoded by the BinaryCodec
+     * @return true if the payload is binary, false if it is json
+     */
+    public boolean isBinary() {
+        return (tag & FrameCodec.BINARY_FLAG) != 0;
+    }
+
+    /**
+     * This method tells if the payload has been compressed by the FrameCompressor
+     * @return true if the payload must be inflated before decoding it
+     */
+    public boolean isCompressed() {
+        return (tag & FrameCodec.COMPRESSED_FLAG) != 0;
+    }
+
+    public int getLength() {
+        return length;
+    }
+
+    /**
+     * This method returns the buffer containing the payload, which starts at position 0 and is getLength() bytes long
+     * @return the buffer of the payload, shared with the reader
+     */
+    public byte[] getPayload() {
+        return payload;
+    }
+
+    /**
+     * This method decodes a frame with a binary payload
+     * @return the message
+     * @throws IOException if the type of the frame has no binary form or the payload is not valid
+     */
+    public Message decodeBinary() throws IOException {
+        Class<? extends Message> messageClass = BinaryCodec.classOf(getType());
+        if (messageClass == null) {
+            throw new IOException("no binary form for " + getType());
+        }
+        return BinaryCodec.decode(payload, length, messageClass);
+    }
+
+    /**
+     * This method decodes the payload of a json frame
+     * @return the json message
+     */
+    public String payloadAsString() {
+        return new String(payload, 0, length, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,108 @@
+package it.polimi.ingsw.network;
+
+import it.polimi.ingsw.messages.Message;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * This class contains the format of the frames used once the client and the server agreed to stop using json lines.
+ * Each frame is made of a header and a payload:
+ * <pre>
+ * [int length of the payload, big endian][byte tag of the message][payload]
+ * </pre>
+ * The payload is the json message, without the final new line, or the message encoded by the BinaryCodec:
+ * in that case the tag has the BINARY_FLAG bit set.
+ * On the connections that agreed to compress the frames, a payload may be replaced by its compressed form,
+ * written by the FrameCompressor: in that case the tag has the COMPRESSED_FLAG bit set.
+ */
+public final class FrameCodec {
+    /**
+     * This attribute is the number of bytes of the header: 4 for the length and 1 for the tag
+     */
+    public static final int HEADER_LENGTH = 5;
+    /**
+     * This attribute is the maximum length, in bytes, of a payload: a peer sending a longer frame is disconnected
+     */
+    public static final int MAX_PAYLOAD_LENGTH = 1 << 20;
+    /**
+     * This attribute is the bit set in the tag of the frames with a binary payload
+     */
+    public static final int BINARY_FLAG = 0x80;
+    /**
+     * This attribute is the bit set in the tag of the frames with a compressed payload
+     */
+    public static final int COMPRESSED_FLAG = 0x40;
+
+    private FrameCodec() {
+    }
+
+    /**
+     * This method builds a frame
+     * @param tag the tag of the message
+     * @param payload the buffer containing the payload
+     * @param offset the position of the payload in the buffer
+     * @param length the number of bytes of the payload
+     * @return the bytes of the whole frame
+     */
+    public static byte[] encode(int tag, byte[] payload, int offset, int length) {
+        byte[] frame = new byte[HEADER_LENGTH + length];
+        frame[0] = (byte) (length >>> 24);
+        frame[1] = (byte) (length >>> 16);
+        frame[2] = (byte) (length >>> 8);
+        frame[3] = (byte) length;
+        frame[4] = (byte) tag;
+        System.arraycopy(payload, offset, frame, HEADER_LENGTH, length);
+        return frame;
+    }
+
+    /**
+     * This method builds the frame of a json message
+     * @param objectOfMessage the object of the message, used to choose the tag
+     * @param json the serialized message
+     * @return the bytes of the whole frame
+     */
+    public static byte[] encode(String objectOfMessage, String json) {
+        byte[] payload = json.getBytes(StandardCharsets.UTF_8);
+        return encode(MessageType.fromObject(objectOfMessage).getTag(), payload, 0, payload.length);
+    }
+
+    /**
+     * This method builds the frame of a message encoded by the BinaryCodec
+     * @param message the message, its class must be supported by the BinaryCodec
+     * @return the bytes of the whole frame
+     */
+    public static byte[] encodeBinary(Message message) {
+        byte[] payload = BinaryCodec.encode(message);
+        int tag = MessageType.fromObject(message.getObjectOfMessage()).getTag() | BINARY_FLAG;
+        return encode(tag, payload, 0, payload.length);
+    }
+
+    /**
+     * This method reads the length of the payload from a header
+     * @param header the buffer containing the header
+     * @return the length of the payload
+     * @throws IOException if the length is negative or too big
+     */
+    static int payloadLength(byte[] header) throws IOException {
+        int length = ((header[0] & 0xFF) << 24) | ((header[1] & 0xFF) << 16) | ((header[2] & 0xFF) << 8) | (header[3] & 0xFF);
+        if (length < 0 || length > MAX_PAYLOAD_LENGTH) {
+            throw new IOException("invalid frame length " + length);
+        }
+        return length;
+    }
+
+    /**
+     * This method returns a buffer able to contain a payload, reusing the current one if it's big enough;
+     * the buffers grow to the next power of two, so a connection allocates only a few of them
+     * @param current the buffer used so far
+     * @param length the length of the payload
+     * @return a buffer at least length bytes long
+     */
+    static byte[] ensureCapacity(byte[] current, int length) {
+        if (current.length >= length) {
+            return current;
+        }
+        return new byte[Math.max(length, Integer.highestOneBit(length) << 1)];
+    }
+}
@@ -0,0 +1,162 @@
+package it.polimi.ingsw.network;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * This class compresses and inflates the payloads of the frames of one connection, once the client and the server
+ * agreed to compress them. Only the payloads longer than a threshold are compressed, e.g. the start message and
+ * the lists of lobbies, so the small acks are written as they are; a payload is also left as it is if its
+ * compressed form is not shorter.
+ * The deflater and the inflater are primed with a preset dictionary made of the names of the fields and the
+ * values repeated in the messages, so even a single message finds them already known. Each payload is compressed
+ * on its own, starting from the dictionary: the same payload is always compressed to the same bytes, so the frame
+ * of a message sent as broadcast can be compressed once for all the connections.
+ * A compressed payload is written as:
+ * <pre>
+ * [int length of the inflated payload, big endian][deflated payload]
+ * </pre>
+ */
+public class FrameCompressor {
+    /**
+     * This attribute is the default length, in bytes, above which a payload is compressed
+     */
+    public static final int DEFAULT_THRESHOLD = 256;
+    /**
+     * This attribute is the number of bytes of the length of the inflated payload
+     */
+    private static final int LENGTH_PREFIX = 4;
+    /**
+     * This attribute is the preset dictionary shared by the client and the server: the strings used more often
+     * are at the end, where they are found by the shortest distances
+     */
+    private static final byte[] DICTIONARY = ("\"winnerNickname\":\"reason\":\"explanationMessage\":\"object\":\"end\"" +
+            "\"numOfPlayersFilter\":\"modeFilter\":\"expert\"\"normal\"\"page\":\"numberOfPages\":\"object\":\"join match\"" +
+            "\"lobbiesID\":[\"lobbiesNumberOfPlayers\":[\"lobbiesPlayersAdded\":[\"lobbiesExpertMode\":[false,true," +
+            "\"characters\":[\"monk\",\"jester\",\"princess\",\"herbalist\",\"knight\",\"centaur\",\"cook\",\"bard\"," +
+            "\"trafficker\",\"ambassador\",\"messenger\"],\"monkStudents\":[\"jesterStudents\":[\"princessStudents\":[" +
+            "\"firstPlayer\":\"nicknames\":[\"numPlayer\":\"expertMode\":\"motherNaturePosition\":" +
+            "\"studentsOnIslands\":[\"studentsInEntrance\":{\"0\":[\"1\":[\"2\":[\"3\":[\"object\":\"start\"" +
+            "\"subObject\":\"recipient\":\"nextPlayer\":\"endOfMatch\":\"sender_ID\":\"object\":\"ack\"}" +
+            "\"DRAGON\",\"FAIRY\",\"UNICORN\",\"GNOME\",\"FROG\",").getBytes(StandardCharsets.UTF_8);
+
+    /**
+     * This attribute is the length, in bytes, above which a payload is compressed
+     */
+    private final int threshold;
+    /**
+     * This attribute compresses the payloads sent on the connection
+     */
+    private final Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+    /**
+     * This attribute inflates the payloads received from the connection
+     */
+    private final Inflater inflater = new Inflater();
+    /**
+     * This attribute is the buffer of the compressed payload, reused for all the frames sent
+     */
+    private byte[] deflated = new byte[DEFAULT_THRESHOLD];
+    /**
+     * This attribute is the buffer of the inflated payload, reused for all the frames received
+     */
+    private byte[] inflated = new byte[DEFAULT_THRESHOLD];
+
+    /**
+     * Constructor of the FrameCompressor with the default threshold
+     */
+    public FrameCompressor() {
+        this(DEFAULT_THRESHOLD);
+    }
+
+    /**
+     * Constructor of the FrameCompressor
+     * @param threshold the length, in bytes, above which a payload is compressed
+     */
+    public FrameCompressor(int threshold) {
+        this.threshold = threshold;
+    }
+
+    /**
+     * This method compresses the payload of a frame, if it's long enough and its compressed form is shorter
+     * @param frame the bytes of the whole frame
+     * @return the bytes of the frame with the compressed payload, or the same frame if it's not compressed
+     */
+    public synchronized byte[] compress(byte[] frame) {
+        int length = frame.length - FrameCodec.HEADER_LENGTH;
+        int tag = frame[FrameCodec.HEADER_LENGTH - 1] & 0xFF;
+        if (length < threshold || (tag & FrameCodec.COMPRESSED_FLAG) != 0) {
+            return frame;
+        }
+
+        deflater.reset();
+        deflater.setDictionary(DICTIONARY);
+        deflater.setInput(frame, FrameCodec.HEADER_LENGTH, length);
+        deflater.finish();
+
+        // a compressed payload as long as the original one is useless, so the buffer is never longer than that
+        deflated = FrameCodec.ensureCapacity(deflated, length);
+        deflated[0] = (byte) (length >>> 24);
+        deflated[1] = (byte) (length >>> 16);
+        deflated[2] = (byte) (length >>> 8);
+        deflated[3] = (byte) length;
+        int size = LENGTH_PREFIX;
+        while (!deflater.finished() && size < length) {
+            size += deflater.deflate(deflated, size, length - size);
+        }
+        if (!deflater.finished() || size >= length) {
+            return frame;
+        }
+        return FrameCodec.encode(tag | FrameCodec.COMPRESSED_FLAG, deflated, 0, size);
+    }
+
+    /**
+     * This method inflates the payload of a frame received, if it's compressed; the frame is changed to contain
+     * the inflated payload, kept in a buffer of the compressor reused for the next frame
+     * @param frame the frame received
+     * @return the same frame, with the inflated payload
+     * @throws IOException if the compressed payload is not valid
+     */
+    public synchronized Frame inflate(Frame frame) throws IOException {
+        if (!frame.isCompressed()) {
+            return frame;
+        }
+        byte[] payload = frame.getPayload();
+        int length = frame.getLength();
+        if (length < LENGTH_PREFIX) {
+            throw new IOException("invalid compressed frame");
+        }
+        int original = ((payload[0] & 0xFF) << 24) | ((payload[1] & 0xFF) << 16) | ((payload[2] & 0xFF) << 8) | (payload[3] & 0xFF);
+        if (original < 0 || original > FrameCodec.MAX_PAYLOAD_LENGTH) {
+            throw new IOException("invalid inflated length " + original);
+        }
+
+        // one more byte than needed, so a payload longer than declared is detected
+        inflated = FrameCodec.ensureCapacity(inflated, original + 1);
+        inflater.reset();
+        inflater.setInput(payload, LENGTH_PREFIX, length - LENGTH_PREFIX);
+        int size = 0;
+        try {
+            while (!inflater.finished()) {
+                int read = inflater.inflate(inflated, size, original + 1 - size);
+                size += read;
+                if (read == 0 && !inflater.finished()) {
+                    if (!inflater.needsDictionary()) {
+                        throw new IOException("invalid compressed frame");
+                    }
+                    inflater.setDictionary(DICTIONARY);
+                }
+            }
+        } catch (DataFormatException e) {
+            throw new IOException("invalid compressed frame", e);
+        }
+        if (size != original) {
+            throw new IOException("invalid compressed frame");
+        }
+
+        frame.set(frame.getTag() & ~FrameCodec.COMPRESSED_FLAG, inflated, original);
+        return frame;
+    }
+}
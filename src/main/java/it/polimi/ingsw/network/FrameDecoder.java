@@ -0,0 +1,75 @@
+package it.polimi.ingsw.network;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * This class rebuilds the frames from the bytes read from a non-blocking channel, which may contain a part of a
+ * frame or many frames together.
+ * Once the header is complete, the payload is copied in bulk into a buffer reused for all the frames of the
+ * connection.
+ */
+public class FrameDecoder {
+    /**
+     * This attribute is the initial size, in bytes, of the buffer of the payload
+     */
+    private static final int INITIAL_BUFFER_SIZE = 256;
+
+    /**
+     * This attribute is the buffer of the header being received
+     */
+    private final byte[] header = new byte[FrameCodec.HEADER_LENGTH];
+    /**
+     * This attribute is the number of bytes of the header received so far
+     */
+    private int headerReceived = 0;
+    /**
+     * This attribute is the buffer of the payload, reused for all the frames
+     */
+    private byte[] payload = new byte[INITIAL_BUFFER_SIZE];
+    /**
+     * This attribute is the length of the payload being received, -1 while the header is not complete
+     */
+    private int payloadLength = -1;
+    /**
+     * This attribute is the number of bytes of the payload received so far
+     */
+    private int payloadReceived = 0;
+    /**
+     * This attribute is the frame returned by the decoder, reused for all the frames
+     */
+    private final Frame frame = new Frame();
+
+    /**
+     * This method consumes the bytes of the buffer until a frame is complete
+     * @param in the bytes read from the channel, ready to be read
+     * @return the frame, valid until the next call, or null if all the bytes have been consumed and the
+     * frame is not complete yet
+     * @throws IOException if the frame is not valid
+     */
+    public Frame next(ByteBuffer in) throws IOException {
+        if (payloadLength < 0) {
+            int needed = Math.min(FrameCodec.HEADER_LENGTH - headerReceived, in.remaining());
+            in.get(header, headerReceived, needed);
+            headerReceived += needed;
+            if (headerReceived < FrameCodec.HEADER_LENGTH) {
+                return null;
+            }
+            payloadLength = FrameCodec.payloadLength(header);
+            payload = FrameCodec.ensureCapacity(payload, payloadLength);
+            payloadReceived = 0;
+        }
+
+        int needed = Math.min(payloadLength - payloadReceived, in.remaining());
+        in.get(payload, payloadReceived, needed);
+        payloadReceived += needed;
+        if (payloadReceived < payloadLength) {
+            return null;
+        }
+
+        frame.set(header[4] & 0xFF, payload, payloadLength);
+        headerReceived = 0;
+        payloadLength = -1;
+        return frame;
+    }
+}
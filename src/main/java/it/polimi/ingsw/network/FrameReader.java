@@ -0,0 +1,81 @@
+package it.polimi.ingsw.network;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * This class reads the frames from a blocking stream: the header tells exactly how many bytes the payload is made
+ * of, so the reader never scans the bytes looking for the end of the message.
+ * The payload is read into a buffer reused for all the frames of the connection.
+ */
+public class FrameReader {
+    /**
+     * This attribute is the initial size, in bytes, of the buffer of the payload
+     */
+    private static final int INITIAL_BUFFER_SIZE = 256;
+
+    /**
+     * This attribute is the stream of the connection, it should be buffered
+     */
+    private final InputStream in;
+    /**
+     * This attribute is the buffer of the header
+     */
+    private final byte[] header = new byte[FrameCodec.HEADER_LENGTH];
+    /**
+     * This attribute is the buffer of the payload, reused for all the frames
+     */
+    private byte[] payload = new byte[INITIAL_BUFFER_SIZE];
+    /**
+     * This attribute is the frame returned by the reader, reused for all the frames
+     */
+    private final Frame frame = new Frame();
+
+    /**
+     * Constructor of the FrameReader
+     * @param in the stream of the connection
+     */
+    public FrameReader(InputStream in) {
+        this.in = in;
+    }
+
+    /**
+     * This method waits for the next frame
+     * @return the frame, valid until the next call, or null if the stream ended between two frames
+     * @throws IOException if an I/O error occurred, the frame is not valid or the stream ended inside a frame
+     */
+    public Frame read() throws IOException {
+        int first = in.read();
+        if (first < 0) {
+            return null;
+        }
+        header[0] = (byte) first;
+        readFully(header, 1, FrameCodec.HEADER_LENGTH - 1);
+
+        int length = FrameCodec.payloadLength(header);
+        payload = FrameCodec.ensureCapacity(payload, length);
+        readFully(payload, 0, length);
+
+        frame.set(header[4] & 0xFF, payload, length);
+        return frame;
+    }
+
+    /**
+     * This method reads exactly the given number of bytes
+     * @param buffer the buffer where the bytes are stored
+     * @param offset the position of the first byte in the buffer
+     * @param length the number of bytes to read
+     * @throws IOException if an I/O error occurred or the stream ended before
+     */
+    private void readFully(byte[] buffer, int offset, int length) throws IOException {
+        while (length > 0) {
+            int read = in.read(buffer, offset, length);
+            if (read < 0) {
+                throw new EOFException("connection closed inside a frame");
+            }
+            offset += read;
+            length -= read;
+        }
+    }
+}
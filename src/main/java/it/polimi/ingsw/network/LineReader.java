@@ -0,0 +1,60 @@
+package it.polimi.ingsw.network;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * This class reads json lines from a blocking stream, one byte at a time from the buffer of the stream.
+ * Unlike a BufferedReader it never takes from the stream more than the current line, so, once the peers agreed
+ * to use frames, a FrameReader can go on reading from the same stream.
+ */
+public class LineReader {
+    /**
+     * This attribute is the maximum length, in bytes, of a single line: a peer sending a longer line is disconnected
+     */
+    private static final int MAX_LINE_LENGTH = FrameCodec.MAX_PAYLOAD_LENGTH;
+
+    /**
+     * This attribute is the stream of the connection, it should be buffered
+     */
+    private final InputStream in;
+    /**
+     * This attribute contains the bytes of the line being read
+     */
+    private final ByteArrayOutputStream line = new ByteArrayOutputStream();
+
+    /**
+     * Constructor of the LineReader
+     * @param in the stream of the connection
+     */
+    public LineReader(InputStream in) {
+        this.in = in;
+    }
+
+    /**
+     * This method waits for the next line
+     * @return the line, without the final new line, or null if the stream ended
+     * @throws IOException if an I/O error occurred or the line is too long
+     */
+    public String readLine() throws IOException {
+        line.reset();
+        int b = in.read();
+        if (b < 0) {
+            return null;
+        }
+        while (b >= 0 && b != '\n') {
+            line.write(b);
+            if (line.size() > MAX_LINE_LENGTH) {
+                throw new IOException("message too long");
+            }
+            b = in.read();
+        }
+        String text = line.toString(StandardCharsets.UTF_8);
+        if (text.endsWith("\r")) {
+            text = text.substring(0, text.length() - 1);
+        }
+        return text;
+    }
+}
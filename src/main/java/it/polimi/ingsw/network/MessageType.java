@@ -0,0 +1,103 @@
+package it.polimi.ingsw.network;
+
+import java.util.HashMap;
+
+/**
+ * This enum links the object of each message with the tag written in the header of its frame, so the receiver
+ * knows the type of the message before parsing it.
+ * The messages with an object not listed here are sent with the GENERIC tag: their object is read from the json.
+ */
+public enum MessageType {
+    GENERIC(0, null),
+    HELLO(1, "hello"),
+    PING(2, "ping"),
+    LOGIN(3, "login"),
+    CREATION(4, "creation"),
+    LOBBY_LIST(5, "lobby list"),
+    CHOSEN_LOBBY(6, "chosen lobby"),
+    TOWER_COLOR(7, "tower_color"),
+    DECK(8, "deck"),
+    ASSISTANT_CHOSEN(9, "assistant_chosen"),
+    ACTION_1(10, "action_1"),
+    ACTION_2(11, "action_2"),
+    ACTION_3(12, "action_3"),
+    DRAW(13, "draw"),
+    CHARACTER_REQUEST(14, "character_request"),
+    CHARACTER_DATA(15, "character_data"),
+    ACK(16, "ack"),
+    CHARACTER_ACK(17, "character_ack"),
+    NACK(18, "nack"),
+    START(19, "start"),
+    END(20, "end"),
+    MATCH_CREATION(21, "MatchCreation"),
+    JOIN_MATCH(22, "join match"),
+    NO_LOBBY_AVAILABLE(23, "no lobby available"),
+    PLAYER_ID_SET(24, "playerID_set"),
+    NICKNAME_NOT_VALID(25, "NicknameNotValid"),
+    ACTION_2_RESULT(26, "action_2_result"),
+    ACTION_1_BATCH(27, "action_1_batch"),
+    ACTION_1_RESULT(28, "action_1_result"),
+    QUICK_LOGIN(29, "quick login");
+
+    /**
+     * This attribute links the object of each message with its type
+     */
+    private static final HashMap<String, MessageType> BY_OBJECT = new HashMap<>();
+    /**
+     * This attribute contains the types, each one at the position of its tag
+     */
+    private static final MessageType[] BY_TAG = new MessageType[values().length];
+
+    static {
+        for (MessageType type : values()) {
+            BY_TAG[type.tag] = type;
+            if (type.object != null) {
+                BY_OBJECT.put(type.object, type);
+            }
+        }
+    }
+
+    /**
+     * This attribute is the tag written in the frames of the messages of this type
+     */
+    private final int tag;
+    /**
+     * This attribute is the object of the messages of this type
+     */
+    private final String object;
+
+    MessageType(int tag, String object) {
+        this.tag = tag;
+        this.object = object;
+    }
+
+    public int getTag() {
+        return tag;
+    }
+
+    public String getObject() {
+        return object;
+    }
+
+    /**
+     * This method finds the type of a message from its object
+     * @param object the object of the message
+     * @return the type of the message, GENERIC if the object is not known
+     */
+    public static MessageType fromObject(String object) {
+        MessageType type = BY_OBJECT.get(object);
+        return type == null ? GENERIC : type;
+    }
+
+    /**
+     * This method finds the type of a message from the tag of its frame
+     * @param tag the tag read from the frame
+     * @return the type of the message, GENERIC if the tag is not known
+     */
+    public static MessageType fromTag(int tag) {
+        if (tag < 0 || tag >= BY_TAG.length) {
+            return GENERIC;
+        }
+        return BY_TAG[tag];
+    }
+}
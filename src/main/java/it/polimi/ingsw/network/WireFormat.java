@@ -0,0 +1,28 @@
+package it.polimi.ingsw.network;
+
+/**
+ * This enum represents the ways the messages can be written on a connection
+ */
+public enum WireFormat {
+    /**
+     * Each message is a json line; it is the format used by every connection at the beginning
+     */
+    JSON_LINES,
+    /**
+     * Each message is a frame with the json as payload
+     */
+    JSON_FRAMES,
+    /**
+     * Each message is a frame; the messages supported by the BinaryCodec have a binary payload, the other ones
+     * keep the json
+     */
+    BINARY_FRAMES;
+
+    /**
+     * This method tells if the messages are written as frames
+     * @return true if the format uses frames
+     */
+    public boolean isFramed() {
+        return this != JSON_LINES;
+    }
+}
@@ -1,25 +1,51 @@
 package it.polimi.ingsw.server;
 
-import com.google.gson.Gson;
 import it.polimi.ingsw.controller.Controller;
 import it.polimi.ingsw.messages.Message;
+import it.polimi.ingsw.messages.MessageAdapters;
+import it.polimi.ingsw.messages.MessageDecoder;
+import it.polimi.ingsw.messages.MessageDispatcher;
+import it.polimi.ingsw.messages.clientMessages.FramingRequestMessage;
+import it.polimi.ingsw.messages.clientMessages.HelloMessage;
+import it.polimi.ingsw.messages.clientMessages.LobbyListRequestMessage;
 import it.polimi.ingsw.messages.clientMessages.LoginMessage;
 import it.polimi.ingsw.messages.clientMessages.MatchSpecsMessage;
+import it.polimi.ingsw.messages.clientMessages.PingMessage;
+import it.polimi.ingsw.messages.clientMessages.QuickLoginMessage;
 import it.polimi.ingsw.messages.clientMessages.ReplyChosenLobbyToJoinMessage;
 import it.polimi.ingsw.messages.serverMessages.*;
+import it.polimi.ingsw.network.Frame;
+import it.polimi.ingsw.network.FrameCompressor;
+import it.polimi.ingsw.network.FrameReader;
+import it.polimi.ingsw.network.LineReader;
+import it.polimi.ingsw.network.MessageType;
+import it.polimi.ingsw.network.WireFormat;
 
 import java.io.*;
 import java.net.Socket;
-import java.net.SocketException;
-import java.net.SocketTimeoutException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
 
 /**
  * This class is the one really dealing with the client connected, it communicates with the client-slide socket.
  * It deserializes the json message received and passes it to the controller.
  */
-public class ClientHandler extends Thread {
+public class ClientHandler implements Runnable {
+    /**
+     * This attribute is the socket of the client when the server works in blocking mode (one thread per client),
+     * it is null when the connection is handled by the NioServer
+     */
     private Socket clientSocket;
+    /**
+     * This attribute is the non-blocking connection of the client when the server works in NIO mode,
+     * it is null when the connection is handled by a blocking socket
+     */
+    private NioConnection nioConnection;
     private Server server;
     /**
      * This attribute indicates the nickname chosen by the player.
@@ -34,6 +60,11 @@ public class ClientHandler extends Thread {
      * This attribute is the lobbyID to which the player is connected.
      */
     private int lobbyID;
+    /**
+     * This attribute is the controller of the lobby to which the player is connected (or is asking to join):
+     * the messages of the match are handed over to it directly, without looking for the lobby in the server.
+     */
+    private volatile Controller controller;
     /**
      * This attribute tells the number of the player of the new lobby which is being created or of the lobby
      * which is being joined.
@@ -47,29 +78,120 @@ public class ClientHandler extends Thread {
     /**
      * This attribute tells if the lobby has been accessed or not.
      */
-    private boolean lobbyAccessed = false;
+    private volatile boolean lobbyAccessed = false;
+    /**
+     * This attribute tells if the connection with the client has already been handled as closed, so that the
+     * disconnection of the player is notified to the controller only once.
+     */
+    private final AtomicBoolean connectionClosed = new AtomicBoolean(false);
+    /**
+     * This attribute tells if the client already sent its HelloMessage, or the FramingRequestMessage of the older
+     * clients: the capabilities are agreed only once, before the login.
+     */
+    private boolean helloReceived = false;
+    /**
+     * This attribute tells how the messages are written to the client: json lines until the client asks for
+     * length-prefixed frames, with json or binary payloads; it is changed once, after the HelloAckMessage
+     * has been queued.
+     */
+    private volatile WireFormat wireFormat = WireFormat.JSON_LINES;
+    /**
+     * This attribute tells if the client accepts the results of a move in a single message; if it's false, the
+     * acks carried by a batched message are sent one by one, as the clients which don't send the HelloMessage expect.
+     */
+    private volatile boolean batching = false;
+    /**
+     * This attribute compresses the long frames written to the client and inflates the compressed frames it
+     * sends; it is null if the client did not ask for compression, and it's set together with the wireFormat.
+     */
+    private volatile FrameCompressor compressor = null;
 
     /**
-     * Gson object "gsonObj" to deserialize the json message received
+     * This attribute hands the messages received while the player chooses the lobby over to their handlers:
+     * the json of the message is passed as context because a new lobby receives it as its first message
      */
-    private final Gson gsonObj = new Gson();
+    private static final MessageDispatcher<ClientHandler, String> SPECS_DISPATCHER = new MessageDispatcher<ClientHandler, String>()
+            .on(MatchSpecsMessage.class, ClientHandler::onMatchSpecs)
+            .on(LobbyListRequestMessage.class, (clientHandler, json, request) ->
+                    clientHandler.askMatchToJoin(request.getNumOfPlayers(), request.getMode(), request.getPage()))
+            .on(ReplyChosenLobbyToJoinMessage.class, (clientHandler, json, reply) -> clientHandler.onChosenLobby(reply));
 
 
     /**
-     * This attribute represents the output stream.
+     * This attribute represents the output stream; the messages are written already encoded, one line at a time.
      */
-    private PrintWriter outputHandler = null;
+    private volatile OutputStream outputHandler = null;
     /**
-     * This attribute represents the input stream.
+     * This attribute is the queue of the messages waiting to be written on the socket, in blocking mode;
+     * in NIO mode the queue is inside the NioConnection
      */
-    private BufferedReader inputHandler = null;
+    private final OutboundQueue outboundQueue = new OutboundQueue();
+    /**
+     * This attribute tells if a writer has already been asked to empty the outbound queue
+     */
+    private final AtomicBoolean writerScheduled = new AtomicBoolean(false);
+    /**
+     * This attribute tells the writer to close the socket as soon as the outbound queue is empty
+     */
+    private volatile boolean closeWhenFlushed = false;
+    /**
+     * This attribute is the size, in bytes, of the buffer used to write the queued messages on the socket
+     */
+    private static final int WRITE_BUFFER_SIZE = 8192;
+    /**
+     * This attribute is the buffer where the writer puts the queued messages before writing them on the socket;
+     * it is created by the first write, and used by one writer at a time
+     */
+    private byte[] writeBuffer = null;
+    /**
+     * This attribute is the pool of threads writing the queued messages on the sockets, shared by all the
+     * ClientHandlers in BLOCKING mode: the thread playing the match never waits for a slow client.
+     * In VIRTUAL mode each writer runs on a new virtual thread instead, as the sessions do.
+     */
+    private static final ExecutorService WRITERS = Executors.newCachedThreadPool(task -> {
+        Thread writer = new Thread(task, "client-writer");
+        writer.setDaemon(true);
+        return writer;
+    });
 
     /**
-     * We use this timeout to know that client is still alive and that it is still sending
-     * ping messages. If we don't receive any messages, ping or not, from the client, it means that
-     * the client side connection is not available anymore.
+     * This attribute represents the input stream; it is read as json lines and then, if the client asks for them,
+     * as frames.
      */
-    private static final int TIMEOUT = 10000;
+    private BufferedInputStream inputHandler = null;
+
+    /**
+     * This attribute is the entry of the client in the LivenessTimer of the server: it is touched every time
+     * something is received, so the timer knows the client is still alive and sending ping messages.
+     * If we don't receive any messages, ping or not, from the client, it means that the client side connection
+     * is not available anymore. It is null until the session starts.
+     */
+    private volatile LivenessTimer.Entry liveness;
+    /**
+     * This attribute is the size, in bytes, of the input buffer used when the session runs on a
+     * virtual thread: the messages are short lines, so a small buffer is enough and many idle clients
+     * take much less heap than with the default 8192 bytes buffer.
+     */
+    private static final int VIRTUAL_BUFFER_SIZE = 512;
+    /**
+     * This attribute is the number of lobbies sent in each page of the list of the lobbies to join.
+     */
+    private static final int LOBBIES_PER_PAGE = 10;
+    /**
+     * This is the beginning of the json line sent by the NetworkHandler to keep the connection alive: the object
+     * is written first, so a ping is recognised by these bytes, whatever the sender_ID that follows, without
+     * parsing the line.
+     */
+    private static final String PING_PREFIX = "{\"object\":\"ping\"";
+    /**
+     * This attribute contains the bytes of the PING_PREFIX, compared with the bytes read by the NioConnection
+     */
+    private static final byte[] PING_PREFIX_BYTES = PING_PREFIX.getBytes(StandardCharsets.US_ASCII);
+    /**
+     * This attribute is the number of bytes a line must begin with to be a ping
+     */
+    public static final int PING_PREFIX_LENGTH = PING_PREFIX_BYTES.length;
+
     /**
      * Constructor of the ClientHandler
      * @param socket is the client socket returned from the serverSocket.accept() method.
@@ -78,216 +200,400 @@ public class ClientHandler extends Thread {
     public ClientHandler(Socket socket, Server server) {
         this.clientSocket = socket;
         this.server = server;
-        try{
-            clientSocket.setSoTimeout(TIMEOUT);
-        }catch (SocketException e){
-            e.printStackTrace();
-        }
     }
 
     /**
-     * Main method of the ClientHandler. Since it is a thread, it executes the run method and, through it,
-     * it starts listening for messages from the client (NetworkHandler).
+     * Constructor of the ClientHandler used by the NioServer: the handler is never started as a thread,
+     * the messages are handed over by the selector loop through the onMessageReceived method.
+     * @param connection is the non-blocking connection of the client.
+     * @param server is a reference to the server.
+     */
+    public ClientHandler(NioConnection connection, Server server) {
+        this.nioConnection = connection;
+        this.server = server;
+    }
+
+    /**
+     * Main method of the ClientHandler. It is executed by the thread (platform or virtual) started by the server
+     * and, through it, it starts listening for messages from the client (NetworkHandler).
      */
     public void run() {
 
         try {
-            inputHandler = new BufferedReader(new InputStreamReader(clientSocket.getInputStream()));
-            outputHandler = new PrintWriter(clientSocket.getOutputStream());
-
-            loginInServer(inputHandler.readLine());
-            while( !( server.getLobbies().get(String.valueOf(lobbyID)).isMatchEnded() ) ) {
-                try {
-                    String msg = inputHandler.readLine();
-                    System.out.println("messaggio ricevuto dal client: " + msg);
-                    if(msg != null) {
-                        if (!msg.equals("{\"object\":\"ping\",\"sender_ID\":0}")) {
-                            if (server.getLobbies().get(String.valueOf(lobbyID)).isMatchEnded()) {
-                                server.getLobbiesEnd().set(lobbyID, true);
-                            } else {
-                                server.getLobbies().get(String.valueOf(lobbyID)).manageMsg(msg);
-                            }
-                        }
-                    }
-                }catch (SocketTimeoutException e){
-                    System.out.println("SocketTimeOut exception out " + e.getMessage());
-                    clientSocket.close();
-                    if(matchStarted || lobbyAccessed){
-                        //server.getLobbiesPlayersConnection().get(lobbyID).set(playerID, false);
-                        server.getLobbiesEnd().set(lobbyID, true);
-                        server.getLobbies().get(String.valueOf(lobbyID)).onePlayerDisconnected(playerID);
-                        if(matchStarted) {
-                            System.out.println("OUT1");
-                        }else if(lobbyAccessed) {
-                            System.out.println("OUT2");
-                        }else {
-                            System.out.println("OUT3");
-                        }
-                    }
+            if(server.getTransportMode() == TransportMode.VIRTUAL){
+                inputHandler = new BufferedInputStream(clientSocket.getInputStream(), VIRTUAL_BUFFER_SIZE);
+            }else{
+                inputHandler = new BufferedInputStream(clientSocket.getInputStream());
+            }
+            LineReader lineReader = new LineReader(inputHandler);
+            outputHandler = clientSocket.getOutputStream();
+            scheduleWriter();
+            startLivenessCheck();
+
+            String msg = lineReader.readLine();
+            while(msg != null) {
+                liveness.touch();
+                onMessageReceived(msg);
+
+                // the thread stops listening when the match of the player has ended
+                if(lobbyAccessed && controller.isMatchEnded()){
+                    liveness.cancel();
+                    return;
                 }
+                if(wireFormat.isFramed()){
+                    readFrames();
+                    return;
+                }
+                msg = lineReader.readLine();
             }
+            System.out.println("Connection closed by the client " + clientSocket.getRemoteSocketAddress());
+            onConnectionClosed();
+
         } catch (IOException e) {
             System.out.println("IO exception out " + e.getMessage());
-            if(matchStarted || lobbyAccessed){
-                //server.getLobbiesPlayersConnection().get(lobbyID).set(playerID, false);
-                server.getLobbiesEnd().set(lobbyID, true);
-                server.getLobbies().get(String.valueOf(lobbyID)).onePlayerDisconnected(playerID);
-                if(matchStarted) {
-                    System.out.println("OUT1");
-                }else if(lobbyAccessed) {
-                    System.out.println("OUT2");
-                }else {
-                    System.out.println("OUT3");
-                }
+            onConnectionClosed();
+        }
+    }
+
+    /**
+     * This method keeps reading from the socket after the client switched to frames: each frame is read with
+     * exactly the number of bytes written in its header, from the same buffered stream used for the lines.
+     * @throws IOException if an I/O error occurred or the client sent an invalid frame
+     */
+    private void readFrames() throws IOException {
+        FrameReader frameReader = new FrameReader(inputHandler);
+
+        Frame frame = frameReader.read();
+        while(frame != null){
+            liveness.touch();
+            onFrameReceived(frame);
+
+            if(lobbyAccessed && controller.isMatchEnded()){
+                liveness.cancel();
+                return;
+            }
+            frame = frameReader.read();
+        }
+        System.out.println("Connection closed by the client " + clientSocket.getRemoteSocketAddress());
+        onConnectionClosed();
+    }
+
+    /**
+     * This method analyses one frame received from the client: the tag is checked before decoding the payload,
+     * so the pings are dropped without decoding them. A compressed frame is inflated first.
+     * @param frame the frame received
+     * @throws IOException if the frame is compressed and the client did not ask for compression, or the
+     * compressed payload is not valid
+     */
+    public void onFrameReceived(Frame frame) throws IOException {
+        if(frame.isCompressed()){
+            if(compressor == null){
+                throw new IOException("compressed frame on a connection without compression");
+            }
+            compressor.inflate(frame);
+        }
+        if(frame.getType() == MessageType.PING){
+            return;
+        }
+        onMessageReceived(frame.payloadAsString());
+    }
+
+    /**
+     * This method analyses one message received from the client, regardless of the way it was read
+     * (blocking socket or NIO selector): ping messages are ignored, then the message is part of the login,
+     * or of the choice of the lobby, or it is handed over to the controller of the match.
+     * @param msg is the json message received from the client
+     */
+    public void onMessageReceived(String msg) {
+        if(isPing(msg)){
+            return;
+        }
+        System.out.println("messaggio ricevuto dal client: " + msg);
+
+        if(nicknamePlayer == null){
+            loginInServer(msg);
+        }else if(!lobbyAccessed){
+            // no message is expected while the request to join a lobby is waiting in its mailbox
+            if(controller == null){
+                receivingSpecsInfo(msg);
             }
+        }else if(!controller.isMatchEnded()){
+            controller.submitMsg(msg);
+        }
+    }
 
-        } catch (InterruptedException e) {
-            System.out.println("Interrupted exception out " + e.getMessage());
+    /**
+     * This method tells if a line received from the client is a ping, comparing its beginning with the object of
+     * the ping
+     * @param line the line, without the newline
+     * @return true if the line is a ping message
+     */
+    public static boolean isPing(String line) {
+        return line.startsWith(PING_PREFIX);
+    }
+
+    /**
+     * This method compares one byte of a line being received with the beginning of the ping, so the NioConnection
+     * recognises a ping while reading it, without copying the line
+     * @param position the position of the byte in the line
+     * @param b the byte read
+     * @return true if the byte is the one of the ping in that position, or it comes after the beginning of the ping
+     */
+    public static boolean matchesPing(int position, byte b) {
+        return position >= PING_PREFIX_LENGTH || PING_PREFIX_BYTES[position] == b;
+    }
+
+    /**
+     * This method starts the checks on the liveness of the client, it is called when the session starts
+     */
+    public void startLivenessCheck() {
+        liveness = server.getLivenessTimer().register(this);
+    }
+
+    /**
+     * This method records that something has been received from the client, it is used by the NioConnection
+     */
+    public void touchLiveness() {
+        LivenessTimer.Entry entry = liveness;
+        if(entry != null){
+            entry.touch();
+        }
+    }
+
+    /**
+     * This method is called by the LivenessTimer when nothing, not even a ping, has been received from the client
+     * for too long: the connection is closed and the disconnection is handled as any other.
+     */
+    public void onLivenessExpired() {
+        System.out.println("No message received from the client, disconnecting it");
+        if(nioConnection != null){
+            nioConnection.close();
+        }else{
+            closeSocket();
+        }
+        onConnectionClosed();
+    }
+
+    /**
+     * This method is called when the connection with the client is lost (closed by the client, timeout or I/O error):
+     * if the player was inside a lobby whose match is not ended yet, the controller is notified about the disconnection.
+     */
+    public void onConnectionClosed() {
+        if(!connectionClosed.compareAndSet(false, true)){
+            return;
+        }
+        LivenessTimer.Entry entry = liveness;
+        if(entry != null){
+            entry.cancel();
+        }
+
+        // the controller is set as soon as the player creates a lobby or asks to join one: the mailbox of the
+        // match handles the disconnection after the join, and ignores it if the player was never added
+        Controller lobby = controller;
+        if(lobby == null){
+            // the player never entered a lobby, so the nickname can be used again immediately
+            releaseNickname();
+        }
+        if(lobby != null && !lobby.isMatchEnded()){
+            //server.getLobbiesPlayersConnection().get(lobbyID).set(playerID, false);
+            lobby.submitPlayerDisconnected(this);
+            if(matchStarted) {
+                System.out.println("OUT1");
+            }else {
+                System.out.println("OUT2");
+            }
         }
     }
 
 
 
     /**
-     * This method in the server analyse all the received message from the client and calls the right method in consequence.
+     * This method in the server analyse the login message received from the client: if the nickname is valid
+     * the player is registered, otherwise a NicknameNotValidMessage is sent and the next login message is waited.
+     * The login can be a LoginMessage, followed by the choice of the lobby, or a QuickLoginMessage, which also
+     * creates or joins the lobby.
      *
      * @param receivedMessageInJson is the message received in json format through the socket reader.
      */
-    public void loginInServer(String receivedMessageInJson) throws IOException, InterruptedException {
+    public void loginInServer(String receivedMessageInJson) {
         System.out.println(receivedMessageInJson);
-        LoginMessage receivedMessageFromJson;
-        receivedMessageFromJson = gsonObj.fromJson(receivedMessageInJson, LoginMessage.class);
-        String messageObject = receivedMessageFromJson.getObjectOfMessage();
-        if(receivedMessageFromJson.getObjectOfMessage().equals("ping")){
-            loginInServer(inputHandler.readLine());
-        }else if (messageObject.equals("login")) {
-            if (checkNickname(receivedMessageFromJson.getNicknameOfPlayer())){
-                server.getPlayersNicknames().add(receivedMessageFromJson.getNicknameOfPlayer());
-                nicknamePlayer = receivedMessageFromJson.getNicknameOfPlayer();
-
-                checkNewMatchRequest(receivedMessageFromJson.isCreateNewMatch());
-
-                String messageReceivedInJson = inputHandler.readLine();
-                boolean specsMessage = false;
-                while(!specsMessage) {
-                    if(messageReceivedInJson.equals("{\"object\":\"ping\",\"sender_ID\":0}")){
-                        messageReceivedInJson = inputHandler.readLine();
-                    }else{
-                        receivingSpecsInfo(messageReceivedInJson);
-                        specsMessage = true;
-                    }
-                }
-
+        Message receivedMessageFromJson = MessageDecoder.SERVER_SIDE.decode(receivedMessageInJson);
+        if (receivedMessageFromJson instanceof PingMessage) {
+            return;
+        }
+        if (receivedMessageFromJson instanceof HelloMessage && !helloReceived) {
+            agreeCapabilities((HelloMessage) receivedMessageFromJson);
+            return;
+        }
+        if (receivedMessageFromJson instanceof FramingRequestMessage && !helloReceived) {
+            agreeFraming((FramingRequestMessage) receivedMessageFromJson);
+            return;
+        }
+        if (receivedMessageFromJson instanceof LoginMessage) {
+            LoginMessage loginMessage = (LoginMessage) receivedMessageFromJson;
+            // the nickname is checked and reserved in one step, so two players can't log in with the same one
+            if (NicknameRegistry.isValid(loginMessage.getNicknameOfPlayer()) &&
+                    server.getNicknames().reserve(loginMessage.getNicknameOfPlayer(), this)){
+                nicknamePlayer = loginMessage.getNicknameOfPlayer();
+
+                checkNewMatchRequest(loginMessage.isCreateNewMatch());
             }else{
                 sendingNicknameNotValid();
-
-                loginInServer(inputHandler.readLine());
             }
+        }else if (receivedMessageFromJson instanceof QuickLoginMessage) {
+            quickLogin((QuickLoginMessage) receivedMessageFromJson);
         }else {
             System.out.println("Error: not a Login message");
         }
     }
 
+    /**
+     * This method logs the player in and creates a new lobby or joins the first open lobby with the settings
+     * wanted, so the player gets into a lobby with a single request; the answer is the IDSetAfterLobbyChoiceMessage
+     * with the ID of the player, followed by the messages of the lobby.
+     * If the number of players of the new match is not 2 or 3 the lobby is not created, and the player is asked for
+     * the specifics of the match as after the LoginMessage.
+     * If there is no open lobby with the settings wanted, the login continues as the one done with the
+     * LoginMessage: the player receives the list of the open lobbies, or the request to create a new one.
+     * @param quickLoginMessage the message received from the client
+     */
+    private void quickLogin(QuickLoginMessage quickLoginMessage){
+        if (!NicknameRegistry.isValid(quickLoginMessage.getNicknameOfPlayer()) ||
+                !server.getNicknames().reserve(quickLoginMessage.getNicknameOfPlayer(), this)){
+            sendingNicknameNotValid();
+            return;
+        }
+        nicknamePlayer = quickLoginMessage.getNicknameOfPlayer();
+
+        if (quickLoginMessage.isCreateNewMatch()) {
+            // a match is played by 2 or 3 players: with any other number the specifics are asked again
+            if (quickLoginMessage.getNumOfPlayers() != 2 && quickLoginMessage.getNumOfPlayers() != 3) {
+                checkNewMatchRequest(true);
+                return;
+            }
+            MatchSpecsMessage matchSpecsMessage = new MatchSpecsMessage(quickLoginMessage.getNumOfPlayers(), quickLoginMessage.isExpertMode());
+            playerID = 0;
+            numberPlayerLobby = matchSpecsMessage.getNumOfPlayers();
+            sendMessageFromServer(new IDSetAfterLobbyChoiceMessage(playerID));
+            lobbyCreation(nicknamePlayer, MessageAdapters.GSON.toJson(matchSpecsMessage), matchSpecsMessage);
+            return;
+        }
+
+        Controller lobby = server.getLobbies().getOpenLobbies().firstOpen(quickLoginMessage.getNumOfPlayers(), expertModeOf(quickLoginMessage.getMode()));
+        if (lobby == null) {
+            askMatchToJoin(quickLoginMessage.getNumOfPlayers(), quickLoginMessage.getMode(), 0);
+        } else {
+            joinLobby(lobby.getMatchID());
+        }
+    }
+
     /**
      *Through this method we receive the specifics for the match: number of player and expert mode or not,
      * or the chosen lobby if the player decided not to create a new lobby but to join one already existing.
      * @param messageReceivedInJson the message received from the client containing the match's specifics
      */
     public void receivingSpecsInfo(String messageReceivedInJson){
-        Message messageReceivedFromJson = gsonObj.fromJson(messageReceivedInJson, Message.class);
-
-
-        if (messageReceivedFromJson.getObjectOfMessage().equals("creation")) {
-            MatchSpecsMessage matchSpecsMessage = gsonObj.fromJson(messageReceivedInJson, MatchSpecsMessage.class);
-            numberPlayerLobby = matchSpecsMessage.getNumOfPlayers();
-            lobbyCreation(nicknamePlayer);                                           //creates new lobby
-            server.getLobbies().get(String.valueOf(lobbyID)).manageMsg(messageReceivedInJson);
-
+        Message messageReceivedFromJson = MessageDecoder.SERVER_SIDE.decode(messageReceivedInJson);
+        SPECS_DISPATCHER.dispatch(this, messageReceivedInJson, messageReceivedFromJson);
+    }
 
-        } else if (messageReceivedFromJson.getObjectOfMessage().equals("chosen lobby")) {
-            ReplyChosenLobbyToJoinMessage replyChosenLobbyToJoinMessage = gsonObj.fromJson(messageReceivedInJson, ReplyChosenLobbyToJoinMessage.class);
+    /**
+     * This method creates a new lobby with the specifics received from the client
+     * @param matchSpecsInJson the message received from the client, in json format
+     * @param matchSpecsMessage the message received from the client, already decoded
+     */
+    private void onMatchSpecs(String matchSpecsInJson, MatchSpecsMessage matchSpecsMessage){
+        numberPlayerLobby = matchSpecsMessage.getNumOfPlayers();
+        lobbyCreation(nicknamePlayer, matchSpecsInJson, matchSpecsMessage);                    //creates new lobby
+    }
 
-            int tempLobbyID = replyChosenLobbyToJoinMessage.getLobbyIDChosen();
-            //CHECK IF FULL WHILE TRYING TO JOIN
-            int maxNumOfPlayerInTheLobbyChosen = server.getLobbies().get(String.valueOf(tempLobbyID)).getNumberOfPlayers();
-            int numOfPlayerInTheLobbyChosen = server.getLobbies().get(String.valueOf(tempLobbyID)).getPlayersAddedCounter();
+    /**
+     * This method tries to add the player to the lobby chosen
+     * @param replyChosenLobbyToJoinMessage the message received from the client with the ID of the lobby
+     */
+    private void onChosenLobby(ReplyChosenLobbyToJoinMessage replyChosenLobbyToJoinMessage){
+        joinLobby(replyChosenLobbyToJoinMessage.getLobbyIDChosen());
+    }
 
-            if (maxNumOfPlayerInTheLobbyChosen != numOfPlayerInTheLobbyChosen) {
-                lobbyID = tempLobbyID;
-                playerID = server.getLobbies().get(String.valueOf(lobbyID)).getPlayersAddedCounter();
-                //server.getLobbiesPlayersConnection().get(lobbyID).set(playerID, true);
-                numberPlayerLobby = server.getLobbies().get(String.valueOf(lobbyID)).getNumberOfPlayers();
-                lobbyAccessed = true;
+    /**
+     * This method asks the lobby with the given ID to add the player; the answer arrives through onLobbyJoined
+     * or onLobbyJoinRefused
+     * @param tempLobbyID the ID of the lobby
+     */
+    private void joinLobby(int tempLobbyID){
+        //CHECK IF FULL WHILE TRYING TO JOIN: the check is done by the mailbox of the lobby, together with the join
+        Controller lobbyChosen = server.getLobbies().get(tempLobbyID);
+
+        if (lobbyChosen != null) {
+            lobbyID = tempLobbyID;
+            controller = lobbyChosen;
+            lobbyChosen.submitJoin(this, nicknamePlayer);
+        } else {
+            onLobbyJoinRefused();
+        }
+    }
 
-                IDSetAfterLobbyChoiceMessage idSetAfterLobbyChoice = new IDSetAfterLobbyChoiceMessage(playerID);
-                sendMessageFromServer(idSetAfterLobbyChoice);
+    /**
+     * This method is called by the mailbox of the lobby chosen when the player has been accepted, just before the
+     * player is added to the match: the player is told its ID.
+     * @param lobby the controller of the lobby joined
+     * @param playerIDInTheLobby the ID given to the player
+     */
+    public void onLobbyJoined(Controller lobby, int playerIDInTheLobby) {
+        playerID = playerIDInTheLobby;
+        //server.getLobbiesPlayersConnection().get(lobbyID).set(playerID, true);
+        numberPlayerLobby = lobby.getNumberOfPlayers();
+        lobbyAccessed = true;
 
-                server.getLobbies().get(String.valueOf(lobbyID)).addPlayerHandler(this, nicknamePlayer);
+        IDSetAfterLobbyChoiceMessage idSetAfterLobbyChoice = new IDSetAfterLobbyChoiceMessage(playerID);
+        sendMessageFromServer(idSetAfterLobbyChoice);
+    }
 
-            } else {
-                NackMessage nackMessageForLobby = new NackMessage("lobby_not_available");
-                sendMessageFromServer(nackMessageForLobby);
-                server.getPlayersNicknames().remove(this.nicknamePlayer);
+    /**
+     * This method is called when the lobby chosen by the player can't be joined (full, already started or ended):
+     * the player is notified and disconnected.
+     */
+    public void onLobbyJoinRefused() {
+        controller = null;
+        NackMessage nackMessageForLobby = new NackMessage("lobby_not_available");
+        sendMessageFromServer(nackMessageForLobby);
+        releaseNickname();
 
-                try{
-                    socketClosing();
-                }catch (IOException e){
-                    e.printStackTrace();
-                }
-            }
+        try{
+            socketClosing();
+        }catch (IOException e){
+            e.printStackTrace();
         }
     }
-    /** this method checks if the nickname of the player who wants to log in is already
-     * used or not in the server, where we store in an arraylist (playersNicknames) all the nicknames
+
+    /**
+     * This method checks if the nickname of the player who wants to log in is already used in the server
      * @param nicknameChosenPlayer is the nickname to check
-     * @return true: the first one means that the size of the arraylist is not 0, but the nickname is not used
-     *         false: we check, the nickname is already used, 'equal' is set to 1, and we return false
-     *         true: the second one means the arraylist is empty, so the player is the first one, which means
-     *         his nickname can't be already used, so we return true.
-     * */
+     * @return true if the nickname is not used, false otherwise
+     */
     public boolean checkNickname(String nicknameChosenPlayer){
-        int totalNumberOfPlayers = this.server.getPlayersNicknames().size();
-        if (totalNumberOfPlayers != 0) {
-            int equal = 0;
-            for(int k = 0; k < totalNumberOfPlayers; k++){
-                if (server.getPlayersNicknames().get(k).equals(nicknameChosenPlayer)){
-                    equal = 1;
-                    break;
-                }
-            }
-            return equal != 1;
-        }else{
-            return true;
-        }
+        return !server.getNicknames().isReserved(nicknameChosenPlayer);
+    }
+
+    /**
+     * This method releases the nickname of the player, so it can be used again by another player; nothing happens
+     * if the player never logged in or if the nickname has already been released
+     */
+    public void releaseNickname(){
+        server.getNicknames().release(nicknamePlayer, this);
     }
 
     /** This method checks if the player wants to create a new match or not.
      * @param requestValue is the boolean 'createNewMatch' in the LoginMessage, true if he wants to create a new match, false otherwise. If
-     *                     requestValue is false, we first check if the number of total lobbies is 0, which means there is no lobby to join;
-     *                     if so, we send a NoLobbyAvailableMessage, otherwise we call the method askMatchToJoin.
+     *                     requestValue is false, we first check if there is a lobby waiting for players;
+     *                     if not, we send a NoLobbyAvailableMessage, otherwise we send the first page of the open lobbies.
      */
     public void checkNewMatchRequest(boolean requestValue){
         if(requestValue){
             playerID = 0;
             sendingAckMatchCreation(playerID, true);
         }else{
-            boolean availableLobby = false;
-
-            for(int i = 0; i < server.getLobbies().size(); i++){
-                if(!server.getLobbiesEnd().get(i)) {
-                    if (!server.getLobbies().get(String.valueOf(i)).getPlayingStatus()) {
-                        availableLobby = true;
-                    }
-                }
-            }
-
-            if(server.getLobbies().keySet().size() == 0 || !availableLobby){
-                playerID = 0;
-                NoLobbyAvailableMessage noLobbyAvailableMessage = new NoLobbyAvailableMessage(playerID);
-                sendMessageFromServer(noLobbyAvailableMessage);
-            }else{
-                askMatchToJoin();
-            }
+            askMatchToJoin(0, null, 0);
         }
     }
 
@@ -304,54 +610,66 @@ public class ClientHandler extends Thread {
     }
 
 
-    /** This method checks the status of each lobby (which is the controller associated in the hashmap lobbies).
-     * If the status is false, it means the match is waiting for other players to join, so it is available, and we add the boolean 'true' and we increase the counter
-     * of lobbies that are waiting. If the status is true, it means the match has already started, so it's not available, and we add the boolean 'false'.
-     * After that, if the counter is 0, it means all the lobbies are full, so a new one is required, and we
-     * send a NoLobbyAvailable Message, otherwise we send a AskMatchToJoinMessage. In the end, we set the player ID
+    /** This method sends to the player one page of the lobbies waiting for players, among the ones with the number
+     * of players and the mode requested. The lobbies are taken from the index of the open lobbies, so the matches
+     * already started or ended are never sent. If there is no lobby waiting for players at all, a new one is required,
+     * and we send a NoLobbyAvailable Message, otherwise we send a AskMatchToJoinMessage, even if no lobby matches the
+     * filters, so the player can change them.
+     * @param numOfPlayers the number of players of the lobbies requested, 0 for any number.
+     * @param mode the mode of the lobbies requested: "expert", "normal" or null for any mode.
+     * @param page the number of the page requested, starting from 0.
      */
-    public void askMatchToJoin() {
-        ArrayList<Boolean> availableLobbies = new ArrayList<>();
-        ArrayList<Integer> lobbiesNumberOfPlayers = new ArrayList<>();
-        ArrayList<Boolean> lobbiesExpertMode = new ArrayList<>();
-        ArrayList<Boolean> lobbiesEnd = server.getLobbiesEnd();
+    public void askMatchToJoin(int numOfPlayers, String mode, int page) {
+        LobbyIndex openLobbies = server.getLobbies().getOpenLobbies();
 
-        int numberOfLobbiesInWaiting = 0;
-        for(String lobby : server.getLobbies().keySet()) {
-            if(server.getLobbies().get(lobby).getPlayingStatus()) {
-                availableLobbies.add(Integer.parseInt(lobby), false);
-            }else {
-                if (server.getLobbiesEnd().get(Integer.parseInt(lobby))) {
-                    availableLobbies.add(Integer.parseInt(lobby), false);
-                }else{
-                    availableLobbies.add(Integer.parseInt(lobby), true);
-                }
-                numberOfLobbiesInWaiting ++;
-            }
-
-            // add number of players of the lobby
-            lobbiesNumberOfPlayers.add(server.getLobbies().get(lobby).getNumberOfPlayers());
-            // add expertMode of the lobby
-            lobbiesExpertMode.add(server.getLobbies().get(lobby).isExpertMode());
-        }
-        if(numberOfLobbiesInWaiting == 0){
+        if(!openLobbies.hasOpenLobby()){
             playerID = 0;
             NoLobbyAvailableMessage noLobbyAvailableMessage = new NoLobbyAvailableMessage(playerID);
             sendMessageFromServer(noLobbyAvailableMessage);
-        }else {
-            AskMatchToJoinMessage askMatchToJoinMessage = new AskMatchToJoinMessage(availableLobbies, lobbiesNumberOfPlayers, lobbiesExpertMode, lobbiesEnd);
-            sendMessageFromServer(askMatchToJoinMessage);
-            System.out.println("sent AskMatchToJoinMessage");
+            return;
         }
+
+        ArrayList<Controller> lobbies = openLobbies.findOpen(numOfPlayers, expertModeOf(mode));
+
+        int numberOfPages = (lobbies.size() + LOBBIES_PER_PAGE - 1) / LOBBIES_PER_PAGE;
+        page = Math.max(0, Math.min(page, numberOfPages - 1));
+
+        AskMatchToJoinMessage askMatchToJoinMessage = new AskMatchToJoinMessage(numOfPlayers, mode, page, numberOfPages);
+        for(int i = page * LOBBIES_PER_PAGE; i < lobbies.size() && i < (page + 1) * LOBBIES_PER_PAGE; i++){
+            Controller lobby = lobbies.get(i);
+            askMatchToJoinMessage.addLobby(lobby.getMatchID(), lobby.getNumberOfPlayers(), lobby.getPlayersAddedCounter(), lobby.isExpertMode());
+        }
+        sendMessageFromServer(askMatchToJoinMessage);
+        System.out.println("sent AskMatchToJoinMessage");
+    }
+
+
+    /**
+     * This method translates the mode of the lobbies requested by the player in the filter used by the index of
+     * the open lobbies
+     * @param mode "expert", "normal" or null for any mode
+     * @return true for the expert mode, false for the normal one, null for any mode
+     */
+    private static Boolean expertModeOf(String mode) {
+        if("expert".equals(mode)){
+            return true;
+        }else if("normal".equals(mode)){
+            return false;
+        }
+        return null;
     }
 
 
     /** This method creates a new lobby if the player wants, so if he has declared in the previous messages (e.g. LoginMessage)
-     * that he wants to create a new one.
+     * that he wants to create a new one. The lobby gets a new ID and it is set up before being visible to the
+     * other players.
      * @param nicknameOfNewPlayer is the nickname of the player who wants to create the new lobby.
+     * @param matchSpecsInJson is the message with the specifics of the match, handed over to the new controller.
+     * @param matchSpecsMessage is the same message already decoded, so the new controller does not parse it again.
      */
-    public void lobbyCreation(String nicknameOfNewPlayer) {
-        lobbyID = server.getLobbies().keySet().size();
+    public void lobbyCreation(String nicknameOfNewPlayer, String matchSpecsInJson, MatchSpecsMessage matchSpecsMessage) {
+        Controller newLobby = server.getLobbies().newLobby();
+        lobbyID = newLobby.getMatchID();
 
         /*ArrayList<Boolean> tempPlayers = new ArrayList<>();
         tempPlayers.add(true);
@@ -359,13 +677,14 @@ public class ClientHandler extends Thread {
             tempPlayers.add(false);
         }*/
         //server.getLobbiesPlayersConnection().add(tempPlayers);
-        lobbyAccessed = true;
-        server.getLobbies().put((String.valueOf(lobbyID)), new Controller(lobbyID));
-
         matchStarted = false;
-        server.getLobbiesEnd().add(false);
 
-        server.getLobbies().get(String.valueOf(lobbyID)).addPlayerHandler(this, nicknameOfNewPlayer);
+        newLobby.addPlayerHandler(this, nicknameOfNewPlayer);
+        newLobby.manageMsg(matchSpecsInJson, matchSpecsMessage);
+
+        controller = newLobby;
+        lobbyAccessed = true;
+        server.getLobbies().add(newLobby);
     }
 
 
@@ -374,8 +693,7 @@ public class ClientHandler extends Thread {
      */
     public void sendingNicknameNotValid(){
         NicknameNotValidMessage nicknameNotValidMessage = new NicknameNotValidMessage();
-        outputHandler.println(gsonObj.toJson(nicknameNotValidMessage));
-        outputHandler.flush();
+        sendEncodedMessage(EncodedMessage.of(nicknameNotValidMessage));
 
     }
 
@@ -384,13 +702,21 @@ public class ClientHandler extends Thread {
      * @param msgToSerialize is the message passed by the controller and sent to the client.
      */
     public void messageToSerialize(Message msgToSerialize){
-        if(msgToSerialize.getObjectOfMessage().equals("start")){
+        sendEncodedMessage(EncodedMessage.of(msgToSerialize));
+    }
+
+    /**
+     * This method sends to the client a message already serialized and encoded; it is used by the controller
+     * to send the same bytes to all the players of a broadcast.
+     * @param encodedMessage the message to send
+     */
+    public void sendEncodedMessage(EncodedMessage encodedMessage){
+        if(encodedMessage.getObjectOfMessage().equals("start")){
             matchStarted = true;
            // server.checkPlayersConnectionOnStart(lobbyID, playerID, numberPlayerLobby);
         }
 
-        outputHandler.println(gsonObj.toJson(msgToSerialize));
-        outputHandler.flush();
+        sendLine(encodedMessage);
     }
 
     /**
@@ -398,18 +724,242 @@ public class ClientHandler extends Thread {
      * @param msgToSend message that must be sent to the client, not yet serialized
      */
     public void sendMessageFromServer(Message msgToSend){
-        outputHandler.println(gsonObj.toJson(msgToSend));
-        outputHandler.flush();
+        sendLine(EncodedMessage.of(msgToSend));
+    }
+
+    /**
+     * This method answers the HelloMessage of the client with the capabilities agreed: the server supports all
+     * the capabilities of its version of the protocol, so the ones asked by the client are accepted, except the
+     * binary payloads and the compression asked without frames.
+     * The answer is still a json line, the following messages are written in the format agreed.
+     * @param hello the message received from the client
+     */
+    private void agreeCapabilities(HelloMessage hello){
+        helloReceived = true;
+        boolean framed = hello.isFramed();
+        HelloAckMessage answer = new HelloAckMessage(Math.min(hello.getProtocolVersion(), HelloMessage.PROTOCOL_VERSION),
+                framed, framed && hello.isBinary(), framed && hello.isCompressed(), hello.isBatching());
+        // the answer is not batched, so the batching can be agreed before it is queued
+        batching = answer.isBatching();
+        sendMessageFromServer(answer);
+
+        if (answer.isCompressed()) {
+            compressor = new FrameCompressor();
+        }
+        if (framed) {
+            wireFormat = answer.isBinary() ? WireFormat.BINARY_FRAMES : WireFormat.JSON_FRAMES;
+        }
+    }
+
+    /**
+     * This method answers the FramingRequestMessage of the clients written before the HelloMessage: the frames and
+     * the compression are agreed as asked, but the payloads stay in json, since the binary form of the messages has
+     * changed since those clients, and the batching is not agreed, since they expect the acks one by one.
+     * The answer is still a json line, the following messages are written as frames.
+     * @param request the message received from the client
+     */
+    private void agreeFraming(FramingRequestMessage request){
+        helloReceived = true;
+        FramingAckMessage answer = new FramingAckMessage(false, request.isCompressed());
+        sendMessageFromServer(answer);
+
+        if (answer.isCompressed()) {
+            compressor = new FrameCompressor();
+        }
+        wireFormat = WireFormat.JSON_FRAMES;
     }
 
     /**
-     * This method is used to close the socket and the input and output buffers.
+     * This method queues one encoded message, json followed by the new line, on the connection of the client;
+     * the message is written later by the writer of the connection, together with the other queued messages.
+     * A batched message is replaced by its parts if the client did not agree on batching.
+     * If the client is too slow and its queue is full, the socket is closed and the thread reading from it
+     * handles the disconnection.
+     * @param encodedMessage the encoded message
+     */
+    private void sendLine(EncodedMessage encodedMessage){
+        EncodedMessage[] parts = batching ? null : encodedMessage.getParts();
+        if(parts != null){
+            for(EncodedMessage part : parts){
+                sendLine(part);
+            }
+            return;
+        }
+        if(nioConnection != null){
+            nioConnection.send(encodedMessage);
+            return;
+        }
+
+        if(outboundQueue.offer(encodedMessage, wireFormat, compressor)){
+            scheduleWriter();
+        }else if(!connectionClosed.get()){
+            System.out.println("Outbound queue full, disconnecting " + clientSocket.getRemoteSocketAddress());
+            outboundQueue.close();
+            try{
+                clientSocket.close();
+            }catch (IOException e){
+                e.printStackTrace();
+            }
+        }
+    }
+
+    /**
+     * This method asks a writer to empty the outbound queue, unless a writer is already doing it.
+     * The writer is started by the first message queued, so the messages are joined only under backlog: the ones
+     * queued while the writer is starting or writing are taken together by its next poll.
+     */
+    private void scheduleWriter(){
+        if(writerScheduled.compareAndSet(false, true)){
+            Runnable writer = this::flushOutboundQueue;
+            if(!server.usesVirtualThreads() || !server.startVirtualThread(writer)){
+                WRITERS.execute(writer);
+            }
+        }
+    }
+
+    /**
+     * This method writes all the queued messages on the socket: the messages queued while the previous write was
+     * in progress are written together, with a single flush.
+     */
+    private void flushOutboundQueue(){
+        // the streams of the socket may not be open yet: in that case run() calls the writer again
+        OutputStream out = outputHandler;
+        if(out != null){
+            try{
+                ByteBuffer[] buffers = outboundQueue.pollAll();
+                while(buffers != null){
+                    writeBuffers(out, buffers);
+                    outboundQueue.recordFlush();
+                    buffers = outboundQueue.pollAll();
+                }
+            }catch (IOException e){
+                // the disconnection is detected by the thread reading from the socket
+                System.out.println("IO exception out " + e.getMessage());
+                outboundQueue.close();
+            }
+        }
+        if(closeWhenFlushed && (out == null || outboundQueue.isEmpty())){
+            closeSocket();
+        }
+        writerScheduled.set(false);
+
+        // a message may have been queued after the last poll, while the writer was still marked as scheduled
+        if(outputHandler != null && !outboundQueue.isEmpty()){
+            scheduleWriter();
+        }
+    }
+
+    /**
+     * This method writes the buffers of the messages on the socket through the write buffer of the connection:
+     * the bytes are read from the buffers shared by the encoded messages and sent when the write buffer is full
+     * and at the end, so the messages taken together leave with as few writes as possible and no new array.
+     * @param out the stream of the socket
+     * @param buffers the buffers of the messages, in order
+     * @throws IOException if the connection is lost
+     */
+    private void writeBuffers(OutputStream out, ByteBuffer[] buffers) throws IOException {
+        if(writeBuffer == null){
+            writeBuffer = new byte[WRITE_BUFFER_SIZE];
+        }
+        int filled = 0;
+        for(ByteBuffer buffer : buffers){
+            while(buffer.hasRemaining()){
+                if(filled == writeBuffer.length){
+                    out.write(writeBuffer, 0, filled);
+                    filled = 0;
+                }
+                int length = Math.min(buffer.remaining(), writeBuffer.length - filled);
+                buffer.get(writeBuffer, filled, length);
+                filled += length;
+            }
+        }
+        if(filled > 0){
+            out.write(writeBuffer, 0, filled);
+        }
+        out.flush();
+    }
+
+    public boolean isFramed() {
+        return wireFormat.isFramed();
+    }
+
+    public WireFormat getWireFormat() {
+        return wireFormat;
+    }
+
+    public FrameCompressor getCompressor() {
+        return compressor;
+    }
+
+    /**
+     * This method returns the number of messages waiting to be written to the client
+     * @return the length of the outbound queue
+     */
+    public int getOutboundQueueLength(){
+        return getOutboundQueue().getLength();
+    }
+
+    /**
+     * This method returns the number of writes done on the connection of the client
+     * @return the number of flushes of the outbound queue
+     */
+    public long getFlushCount(){
+        return getOutboundQueue().getFlushCount();
+    }
+
+    private OutboundQueue getOutboundQueue(){
+        if(nioConnection != null){
+            return nioConnection.getOutboundQueue();
+        }
+        return outboundQueue;
+    }
+
+    /**
+     * This method is used to close the socket and the input and output buffers, after the messages already
+     * queued (e.g. the nack explaining why the client is disconnected) have been written.
      * @throws IOException exception thrown if it occurs an I/0 error.
      */
     public void socketClosing() throws IOException {
-        outputHandler.close();
-        inputHandler.close();
-        clientSocket.close();
+        connectionClosed.set(true);
+        LivenessTimer.Entry entry = liveness;
+        if(entry != null){
+            entry.cancel();
+        }
+        if(nioConnection != null){
+            System.out.println("Client " + nioConnection.getRemoteAddress() + "disconnected from server.");
+            nioConnection.closeWhenFlushed();
+            return;
+        }
+        closeWhenFlushed = true;
+        scheduleWriter();
+    }
+
+    /**
+     * This method is used by the server to close the connection with a client whose match has ended and has
+     * been reclaimed; the messages already queued are written before closing.
+     */
+    public void closeConnection(){
+        if(connectionClosed.get()){
+            return;
+        }
+        try{
+            socketClosing();
+        }catch (IOException e){
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * This method closes the socket of the client; closing the socket also closes its streams and wakes up the
+     * thread blocked reading from it.
+     */
+    private void closeSocket(){
+        outboundQueue.close();
+        try{
+            clientSocket.close();
+        }catch (IOException e){
+            e.printStackTrace();
+        }
         System.out.println("Client " + clientSocket.getInetAddress() + "disconnected from server.");
     }
 
@@ -0,0 +1,256 @@
+package it.polimi.ingsw.server;
+
+import com.google.gson.Gson;
+import it.polimi.ingsw.messages.BatchedMessage;
+import it.polimi.ingsw.messages.Message;
+import it.polimi.ingsw.messages.MessageAdapters;
+import it.polimi.ingsw.network.BinaryCodec;
+import it.polimi.ingsw.network.FrameCodec;
+import it.polimi.ingsw.network.FrameCompressor;
+import it.polimi.ingsw.network.MessageType;
+import it.polimi.ingsw.network.WireFormat;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * This class represents a message already serialized and encoded as it is sent on the connection: the json line
+ * followed by the new line, in UTF-8, or the frame with the same json as payload for the connections using frames,
+ * or the frame with the binary form of the message for the connections that asked for it.
+ * A message sent as broadcast is encoded only once and the same bytes are written to all the players;
+ * the bytes are never modified after the creation, so the object can be shared by many threads.
+ */
+public final class EncodedMessage {
+    /**
+     * Gson object used to serialize the messages through their schemas; Gson is thread-safe, so one object is shared by all the messages
+     */
+    private static final Gson gson = MessageAdapters.GSON;
+
+    /**
+     * This attribute is the object of the encoded message (e.g. "start", "ack", "end")
+     */
+    private final String objectOfMessage;
+    /**
+     * This attribute contains the json line and the final new line, encoded in UTF-8
+     */
+    private final byte[] line;
+    /**
+     * This attribute contains the frame of the message, built the first time a connection using frames needs it
+     */
+    private volatile byte[] frame;
+    /**
+     * This attribute is the message, kept to build its binary form; it is null if the message was encoded
+     * from its json
+     */
+    private final Message message;
+    /**
+     * This attribute contains the frame with the binary form of the message, built the first time a connection
+     * using binary frames needs it
+     */
+    private volatile byte[] binaryFrame;
+    /**
+     * This attribute contains the json frame of the message with the payload compressed, built the first time
+     * a connection using compression needs it
+     */
+    private volatile byte[] compressedFrame;
+    /**
+     * This attribute contains the binary frame of the message with the payload compressed, built the first time
+     * a connection using binary frames and compression needs it
+     */
+    private volatile byte[] compressedBinaryFrame;
+    /**
+     * This attribute contains the parts of a batched message, each one encoded, built the first time a connection
+     * without batching needs them
+     */
+    private volatile EncodedMessage[] parts;
+
+    private EncodedMessage(String objectOfMessage, byte[] line, Message message) {
+        this.objectOfMessage = objectOfMessage;
+        this.line = line;
+        this.message = message;
+    }
+
+    /**
+     * This method serializes and encodes a message
+     * @param msg the message to encode
+     * @return the encoded message
+     */
+    public static EncodedMessage of(Message msg) {
+        return new EncodedMessage(msg.getObjectOfMessage(), (gson.toJson(msg) + "\n").getBytes(StandardCharsets.UTF_8), msg);
+    }
+
+    /**
+     * This method encodes a message already serialized
+     * @param objectOfMessage the object of the message
+     * @param json the serialized message, without the final new line
+     * @return the encoded message
+     */
+    public static EncodedMessage of(String objectOfMessage, String json) {
+        return new EncodedMessage(objectOfMessage, (json + "\n").getBytes(StandardCharsets.UTF_8), null);
+    }
+
+    public String getObjectOfMessage() {
+        return objectOfMessage;
+    }
+
+    /**
+     * This method returns the number of bytes of the encoded line
+     * @return the length of the line, new line included
+     */
+    public int length() {
+        return line.length;
+    }
+
+    /**
+     * This method creates a new read-only buffer on the encoded line; the bytes are shared, only the position
+     * of the buffer belongs to the caller
+     * @return the buffer, positioned at the beginning of the line
+     */
+    public ByteBuffer asBuffer() {
+        return ByteBuffer.wrap(line).asReadOnlyBuffer();
+    }
+
+    /**
+     * This method creates a new read-only buffer on the frame of the message, building it the first time;
+     * two threads may build it at the same time, with the same result
+     * @return the buffer, positioned at the beginning of the frame
+     */
+    public ByteBuffer asFrameBuffer() {
+        return ByteBuffer.wrap(frameBytes()).asReadOnlyBuffer();
+    }
+
+    /**
+     * This method returns the frame of the message, building it the first time
+     * @return the bytes of the frame
+     */
+    private byte[] frameBytes() {
+        byte[] bytes = frame;
+        if (bytes == null) {
+            bytes = FrameCodec.encode(MessageType.fromObject(objectOfMessage).getTag(), line, 0, line.length - 1);
+            frame = bytes;
+        }
+        return bytes;
+    }
+
+    /**
+     * This method creates a new read-only buffer on the frame with the binary form of the message, building it
+     * the first time; the messages without a binary form are sent as json frames.
+     * The message is encoded while it is queued, before the controller goes on, so it can't change in the meantime.
+     * @return the buffer, positioned at the beginning of the frame
+     */
+    public ByteBuffer asBinaryFrameBuffer() {
+        return ByteBuffer.wrap(binaryFrameBytes()).asReadOnlyBuffer();
+    }
+
+    /**
+     * This method returns the frame with the binary form of the message, building it the first time, or the
+     * json frame if the message has no binary form
+     * @return the bytes of the frame
+     */
+    private byte[] binaryFrameBytes() {
+        if (!BinaryCodec.supports(message)) {
+            return frameBytes();
+        }
+        byte[] bytes = binaryFrame;
+        if (bytes == null) {
+            bytes = FrameCodec.encodeBinary(message);
+            binaryFrame = bytes;
+        }
+        return bytes;
+    }
+
+    /**
+     * This method creates a new read-only buffer on the frame of the message with the payload compressed,
+     * building it the first time; the frame is compressed only if its payload is long enough, otherwise the
+     * same bytes sent on the connections without compression are used.
+     * A payload is always compressed to the same bytes, so the compressed frame built with the compressor of
+     * one connection is shared with the other ones.
+     * @param binary true to compress the binary form of the message, false to compress its json
+     * @param compressor the compressor of the connection
+     * @return the buffer, positioned at the beginning of the frame
+     */
+    public ByteBuffer asCompressedFrameBuffer(boolean binary, FrameCompressor compressor) {
+        byte[] bytes = binary ? compressedBinaryFrame : compressedFrame;
+        if (bytes == null) {
+            bytes = compressor.compress(binary ? binaryFrameBytes() : frameBytes());
+            if (binary) {
+                compressedBinaryFrame = bytes;
+            } else {
+                compressedFrame = bytes;
+            }
+        }
+        return ByteBuffer.wrap(bytes).asReadOnlyBuffer();
+    }
+
+    /**
+     * This method creates a new read-only buffer on the message as it's sent on a connection
+     * @param wireFormat the format used by the connection
+     * @return the buffer, positioned at the beginning of the message
+     */
+    public ByteBuffer asBuffer(WireFormat wireFormat) {
+        return asBuffer(wireFormat, null);
+    }
+
+    /**
+     * This method creates a new read-only buffer on the message as it's sent on a connection
+     * @param wireFormat the format used by the connection
+     * @param compressor the compressor of the connection, null if the connection does not compress the frames
+     * @return the buffer, positioned at the beginning of the message
+     */
+    public ByteBuffer asBuffer(WireFormat wireFormat, FrameCompressor compressor) {
+        if (compressor != null && wireFormat.isFramed()) {
+            return asCompressedFrameBuffer(wireFormat == WireFormat.BINARY_FRAMES, compressor);
+        }
+        switch (wireFormat) {
+            case JSON_FRAMES:
+                return asFrameBuffer();
+            case BINARY_FRAMES:
+                return asBinaryFrameBuffer();
+            default:
+                return asBuffer();
+        }
+    }
+
+    /**
+     * This method returns the parts of a batched message, each one encoded, building them the first time; they are
+     * sent in its place to the clients that did not agree on batching.
+     * As the binary form, the parts are encoded while the message is queued, before the controller goes on.
+     * @return the encoded parts, in order, or null if the message is not batched
+     */
+    public EncodedMessage[] getParts() {
+        if (!(message instanceof BatchedMessage)) {
+            return null;
+        }
+        EncodedMessage[] encodedParts = parts;
+        if (encodedParts == null) {
+            List<? extends Message> messages = ((BatchedMessage) message).getParts();
+            encodedParts = new EncodedMessage[messages.size()];
+            for (int i = 0; i < encodedParts.length; i++) {
+                encodedParts[i] = of(messages.get(i));
+            }
+            parts = encodedParts;
+        }
+        return encodedParts;
+    }
+
+    /**
+     * This method writes the encoded line on a stream
+     * @param out the stream of the connection
+     * @throws IOException if an I/O error occurred
+     */
+    public void writeTo(OutputStream out) throws IOException {
+        out.write(line);
+    }
+
+    /**
+     * This method decodes the line, without the final new line; it is meant for logs and tests
+     * @return the json message
+     */
+    @Override
+    public String toString() {
+        return new String(line, 0, line.length - 1, StandardCharsets.UTF_8);
+    }
+}
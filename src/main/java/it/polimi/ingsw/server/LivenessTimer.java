@@ -0,0 +1,215 @@
+package it.polimi.ingsw.server;
+
+import java.util.ArrayList;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This class checks that the clients are still alive, whatever the transport used by the server.
+ * Every connection only writes the time it last received something from its client; a single thread turns a
+ * hashed wheel of buckets, one bucket per tick, and looks only at the connections whose deadline falls in the
+ * current bucket: the ones that received something in the meantime are moved to the bucket of their new deadline,
+ * the others are disconnected.
+ * This replaces the timeout set on each socket, which can't be used with the NIO selector.
+ */
+public class LivenessTimer {
+    /**
+     * This attribute is the default time, in milliseconds, after which a client that sent nothing (not even a ping)
+     * is considered disconnected
+     */
+    public static final long DEFAULT_TIMEOUT = 10000;
+    /**
+     * This attribute is the time, in milliseconds, between two turns of the wheel
+     */
+    private static final long TICK = 500;
+    /**
+     * This attribute is the number of buckets of the wheel, it must be a power of two
+     */
+    private static final int WHEEL_SIZE = 32;
+
+    /**
+     * This class represents one connection tracked by the timer
+     */
+    public static class Entry {
+        /**
+         * This attribute is the handler disconnected when the client stops sending messages
+         */
+        private final ClientHandler clientHandler;
+        /**
+         * This attribute is the last time (System.nanoTime) something was received from the client
+         */
+        private volatile long lastSeen;
+        /**
+         * This attribute tells if the connection doesn't need to be checked anymore
+         */
+        private volatile boolean cancelled = false;
+
+        private Entry(ClientHandler clientHandler, long now) {
+            this.clientHandler = clientHandler;
+            this.lastSeen = now;
+        }
+
+        /**
+         * This method records that something has just been received from the client
+         */
+        public void touch() {
+            lastSeen = System.nanoTime();
+        }
+
+        /**
+         * This method records that something has been received from the client
+         * @param now the time of the message, as given by System.nanoTime
+         */
+        public void touch(long now) {
+            lastSeen = now;
+        }
+
+        /**
+         * This method stops the checks on the connection
+         */
+        public void cancel() {
+            cancelled = true;
+        }
+    }
+
+    /**
+     * This attribute is the time, in nanoseconds, after which a silent client is disconnected
+     */
+    private final long timeout;
+    /**
+     * This attribute is the time (System.nanoTime) of the tick number zero
+     */
+    private final long origin;
+    /**
+     * This attribute contains the buckets of the wheel, used only by the thread turning it
+     */
+    private final ArrayList<ArrayList<Entry>> wheel = new ArrayList<>();
+    /**
+     * This attribute contains the connections registered and not yet put in the wheel
+     */
+    private final ConcurrentLinkedQueue<Entry> registered = new ConcurrentLinkedQueue<>();
+    /**
+     * This attribute is the last tick whose bucket has been checked
+     */
+    private long lastTick;
+    /**
+     * This attribute is the thread turning the wheel, null until the timer is started
+     */
+    private ScheduledExecutorService scheduler;
+
+    /**
+     * Constructor of the LivenessTimer
+     * @param timeout time, in milliseconds, after which a client that sent nothing is disconnected
+     */
+    public LivenessTimer(long timeout) {
+        this.timeout = TimeUnit.MILLISECONDS.toNanos(timeout);
+        this.origin = System.nanoTime();
+        for (int i = 0; i < WHEEL_SIZE; i++) {
+            wheel.add(new ArrayList<>());
+        }
+    }
+
+    /**
+     * This method starts turning the wheel
+     */
+    public void start() {
+        scheduler = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread timer = new Thread(task, "liveness-timer");
+            timer.setDaemon(true);
+            return timer;
+        });
+        scheduler.scheduleAtFixedRate(() -> {
+            try {
+                advance(System.nanoTime());
+            } catch (RuntimeException e) {
+                e.printStackTrace();
+            }
+        }, TICK, TICK, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * This method stops the wheel
+     */
+    public void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    /**
+     * This method starts checking a connection, as if something had just been received from the client
+     * @param clientHandler the handler of the client
+     * @return the entry the connection must touch every time it receives something
+     */
+    public Entry register(ClientHandler clientHandler) {
+        Entry entry = new Entry(clientHandler, System.nanoTime());
+        registered.add(entry);
+        return entry;
+    }
+
+    /**
+     * This method turns the wheel up to the given time, checking the buckets of all the ticks passed
+     * @param now the current time, as given by System.nanoTime
+     * @return the number of connections found expired
+     */
+    public synchronized int advance(long now) {
+        long currentTick = tickOf(now);
+        Entry entry = registered.poll();
+        while (entry != null) {
+            schedule(entry, Math.max(tickOf(entry.lastSeen + timeout), lastTick + 1));
+            entry = registered.poll();
+        }
+
+        int expired = 0;
+        // every bucket is checked at most once, even if the wheel was not turned for a long time
+        long firstTick = Math.max(lastTick + 1, currentTick - WHEEL_SIZE + 1);
+        for (long tick = firstTick; tick <= currentTick; tick++) {
+            int index = (int) (tick & (WHEEL_SIZE - 1));
+            ArrayList<Entry> bucket = wheel.get(index);
+            if (bucket.isEmpty()) {
+                continue;
+            }
+            wheel.set(index, new ArrayList<>());
+            for (Entry checked : bucket) {
+                if (checked.cancelled) {
+                    continue;
+                }
+                long lastSeen = checked.lastSeen;
+                if (now - lastSeen >= timeout) {
+                    checked.cancelled = true;
+                    checked.clientHandler.onLivenessExpired();
+                    expired++;
+                } else {
+                    schedule(checked, Math.max(tickOf(lastSeen + timeout), currentTick + 1));
+                }
+            }
+        }
+        lastTick = Math.max(lastTick, currentTick);
+        return expired;
+    }
+
+    /**
+     * This method puts a connection in the bucket of the given tick; a deadline farther than a whole turn of the
+     * wheel is simply checked again one turn later
+     * @param entry the connection
+     * @param deadlineTick the tick when the connection must be checked
+     */
+    private void schedule(Entry entry, long deadlineTick) {
+        wheel.get((int) (deadlineTick & (WHEEL_SIZE - 1))).add(entry);
+    }
+
+    /**
+     * This method finds the tick of a time
+     * @param time the time, as given by System.nanoTime
+     * @return the number of ticks passed from the creation of the timer
+     */
+    private long tickOf(long time) {
+        return (time - origin) / TimeUnit.MILLISECONDS.toNanos(TICK);
+    }
+
+    public long getTimeout() {
+        return TimeUnit.NANOSECONDS.toMillis(timeout);
+    }
+}
@@ -0,0 +1,165 @@
+package it.polimi.ingsw.server;
+
+import it.polimi.ingsw.controller.Controller;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * This class is the index of the lobbies waiting for players, divided in buckets by number of players and
+ * mode (expert or not), so the players looking for a match to join only go through the open lobbies with the
+ * settings they want, and never through the matches already started or ended.
+ * A lobby is put in its bucket when it is added to the registry; it is taken out when it is removed from the
+ * registry or, lazily, the first time it is found started or ended while listing the lobbies.
+ */
+public class LobbyIndex {
+    /**
+     * This attribute is the smallest number of players of a match
+     */
+    private static final int MIN_PLAYERS = 2;
+    /**
+     * This attribute is the largest number of players of a match
+     */
+    private static final int MAX_PLAYERS = 3;
+
+    /**
+     * This attribute contains one bucket for each combination of number of players and mode, at the position
+     * given by bucketIndex; each bucket links the ID of its lobbies with their controller, sorted by ID
+     */
+    private final ConcurrentSkipListMap<Integer, Controller>[] buckets;
+
+    @SuppressWarnings("unchecked")
+    public LobbyIndex() {
+        buckets = new ConcurrentSkipListMap[(MAX_PLAYERS - MIN_PLAYERS + 1) * 2];
+        for (int i = 0; i < buckets.length; i++) {
+            buckets[i] = new ConcurrentSkipListMap<>();
+        }
+    }
+
+    /**
+     * This method computes the position of the bucket of a lobby
+     * @param numberOfPlayers number of players of the lobby
+     * @param expertMode mode of the lobby
+     * @return the index of the bucket, or -1 if no match can be played by that number of players
+     */
+    private static int bucketIndex(int numberOfPlayers, boolean expertMode) {
+        if (numberOfPlayers < MIN_PLAYERS || numberOfPlayers > MAX_PLAYERS) {
+            return -1;
+        }
+        return (numberOfPlayers - MIN_PLAYERS) * 2 + (expertMode ? 1 : 0);
+    }
+
+    /**
+     * This method tells if a bucket contains the lobbies wanted
+     * @param index the index of the bucket
+     * @param numberOfPlayers the number of players wanted, 0 for any number
+     * @param expertMode the mode wanted, null for any mode
+     * @return true if the lobbies of the bucket match the filters
+     */
+    private static boolean matches(int index, int numberOfPlayers, Boolean expertMode) {
+        if (numberOfPlayers != 0 && index / 2 != numberOfPlayers - MIN_PLAYERS) {
+            return false;
+        }
+        return expertMode == null || (index % 2 == 1) == expertMode;
+    }
+
+    /**
+     * This method adds a lobby to the index, if it's waiting for players
+     * @param controller the controller of the lobby
+     */
+    public void add(Controller controller) {
+        if (controller.getPlayingStatus() || controller.isMatchEnded()) {
+            return;
+        }
+        int index = bucketIndex(controller.getNumberOfPlayers(), controller.isExpertMode());
+        if (index >= 0) {
+            buckets[index].put(controller.getMatchID(), controller);
+        }
+    }
+
+    /**
+     * This method removes a lobby from the index
+     * @param controller the controller of the lobby
+     */
+    public void remove(Controller controller) {
+        int index = bucketIndex(controller.getNumberOfPlayers(), controller.isExpertMode());
+        if (index >= 0) {
+            buckets[index].remove(controller.getMatchID());
+        }
+    }
+
+    /**
+     * This method finds the lobbies waiting for players that match the filters, sorted by ID; the lobbies
+     * found started or ended are removed from the index
+     * @param numberOfPlayers the number of players of the lobbies wanted, 0 for any number
+     * @param expertMode the mode of the lobbies wanted, null for any mode
+     * @return the controllers of the open lobbies
+     */
+    public ArrayList<Controller> findOpen(int numberOfPlayers, Boolean expertMode) {
+        ArrayList<Controller> open = new ArrayList<>();
+        int bucketsFound = 0;
+        for (int i = 0; i < buckets.length; i++) {
+            if (!matches(i, numberOfPlayers, expertMode)) {
+                continue;
+            }
+            bucketsFound++;
+            for (Controller controller : buckets[i].values()) {
+                if (isClosed(controller)) {
+                    buckets[i].remove(controller.getMatchID());
+                } else {
+                    open.add(controller);
+                }
+            }
+        }
+        // each bucket is already sorted: the lobbies are sorted again only if they come from more buckets
+        if (bucketsFound > 1) {
+            open.sort(Comparator.comparingInt(Controller::getMatchID));
+        }
+        return open;
+    }
+
+    /**
+     * This method finds the open lobby with the lowest ID among the ones that match the filters, looking only at
+     * the head of each bucket; the lobbies found started or ended are removed from the index
+     * @param numberOfPlayers the number of players of the lobby wanted, 0 for any number
+     * @param expertMode the mode of the lobby wanted, null for any mode
+     * @return the controller of the lobby, or null if no open lobby matches the filters
+     */
+    public Controller firstOpen(int numberOfPlayers, Boolean expertMode) {
+        Controller first = null;
+        for (int i = 0; i < buckets.length; i++) {
+            if (!matches(i, numberOfPlayers, expertMode)) {
+                continue;
+            }
+            for (Controller controller : buckets[i].values()) {
+                if (isClosed(controller)) {
+                    buckets[i].remove(controller.getMatchID());
+                } else {
+                    if (first == null || controller.getMatchID() < first.getMatchID()) {
+                        first = controller;
+                    }
+                    break;
+                }
+            }
+        }
+        return first;
+    }
+
+    /**
+     * This method tells if there is at least one lobby waiting for players
+     * @return true if a lobby can be joined
+     */
+    public boolean hasOpenLobby() {
+        return firstOpen(0, null) != null;
+    }
+
+    /**
+     * This method tells if a lobby can't be joined anymore
+     * @param controller the controller of the lobby
+     * @return true if the match has started or ended
+     */
+    private static boolean isClosed(Controller controller) {
+        return controller.getPlayingStatus() || controller.isMatchEnded();
+    }
+}
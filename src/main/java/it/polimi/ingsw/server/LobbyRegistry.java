@@ -0,0 +1,107 @@
+package it.polimi.ingsw.server;
+
+import it.polimi.ingsw.controller.Controller;
+
+import java.util.Collection;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * This class contains all the lobbies of the server, each one identified by its ID and handled by its Controller.
+ * The IDs are assigned atomically, so two players creating a lobby at the same time always get different IDs,
+ * and the lobbies are stored in a concurrent map, so the ClientHandlers never lock the whole server.
+ */
+public class LobbyRegistry {
+    /**
+     * This attribute is the ID that will be given to the next lobby created
+     */
+    private final AtomicInteger nextLobbyID = new AtomicInteger(0);
+    /**
+     * This attribute links the ID of each lobby with the Controller of its match
+     */
+    private final ConcurrentHashMap<Integer, Controller> lobbies = new ConcurrentHashMap<>();
+    /**
+     * This attribute is the index of the lobbies waiting for players
+     */
+    private final LobbyIndex openLobbies = new LobbyIndex();
+
+    /**
+     * This method creates the controller of a new lobby with a new ID; the lobby is not visible to the other
+     * players until it is added to the registry, so it can be set up without any lock
+     * @return the controller of the new lobby
+     */
+    public Controller newLobby() {
+        return new Controller(nextLobbyID.getAndIncrement());
+    }
+
+    /**
+     * This method makes a lobby visible to the players looking for a match to join
+     * @param controller the controller of the lobby, created by newLobby()
+     */
+    public void add(Controller controller) {
+        lobbies.put(controller.getMatchID(), controller);
+        openLobbies.add(controller);
+    }
+
+    /**
+     * This method finds a lobby
+     * @param lobbyID the ID of the lobby
+     * @return the controller of the lobby, or null if there is no lobby with that ID
+     */
+    public Controller get(int lobbyID) {
+        return lobbies.get(lobbyID);
+    }
+
+    /**
+     * This method removes a lobby from the registry
+     * @param lobbyID the ID of the lobby
+     * @return the controller of the removed lobby, or null if there was no lobby with that ID
+     */
+    public Controller remove(int lobbyID) {
+        Controller controller = lobbies.remove(lobbyID);
+        if (controller != null) {
+            openLobbies.remove(controller);
+        }
+        return controller;
+    }
+
+    /**
+     * This method tells if the match of a lobby is ended; a lobby that does not exist anymore is considered ended
+     * @param lobbyID the ID of the lobby
+     * @return true if the match is ended
+     */
+    public boolean isEnded(int lobbyID) {
+        Controller controller = lobbies.get(lobbyID);
+        return controller == null || controller.isMatchEnded();
+    }
+
+    /**
+     * This method tells if a lobby is waiting for players, so it can be joined
+     * @param lobbyID the ID of the lobby
+     * @return true if the lobby exists, the match is not started and not ended
+     */
+    public boolean isOpen(int lobbyID) {
+        Controller controller = lobbies.get(lobbyID);
+        return controller != null && !controller.getPlayingStatus() && !controller.isMatchEnded();
+    }
+
+    /**
+     * This method returns the IDs given so far: every lobby in the registry has an ID lower than this one
+     * @return the number of IDs given
+     */
+    public int getIDsGiven() {
+        return nextLobbyID.get();
+    }
+
+    public LobbyIndex getOpenLobbies() {
+        return openLobbies;
+    }
+
+    public Collection<Controller> getLobbies() {
+        return lobbies.values();
+    }
+
+    public int size() {
+        return lobbies.size();
+    }
+}
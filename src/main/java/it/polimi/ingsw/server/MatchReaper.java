@@ -0,0 +1,139 @@
+package it.polimi.ingsw.server;
+
+import it.polimi.ingsw.controller.Controller;
+
+import java.util.ArrayList;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This class periodically looks for the matches that have ended and, after a grace period that lets the players
+ * read the end-of-match screen, it reclaims everything the match was using: the connections of its players are
+ * closed, their nicknames are released and the controller (with its model) is removed from the server.
+ * At each check it also reports the depth of the mailbox of every match.
+ */
+public class MatchReaper {
+    /**
+     * This attribute is the default time, in milliseconds, an ended match is kept before being reclaimed
+     */
+    public static final long DEFAULT_GRACE_PERIOD = 30000;
+    /**
+     * This attribute is the time, in milliseconds, between two checks of the lobbies
+     */
+    private static final long CHECK_PERIOD = 5000;
+
+    /**
+     * This attribute is the reference to the server, where lobbies and nicknames are stored
+     */
+    private final Server server;
+    /**
+     * This attribute is the time, in milliseconds, an ended match is kept before being reclaimed
+     */
+    private final long gracePeriod;
+    /**
+     * This attribute links the ID of each ended lobby with the time (System.nanoTime) it was found ended
+     */
+    private final ConcurrentHashMap<Integer, Long> endedSince = new ConcurrentHashMap<>();
+    /**
+     * This attribute is the thread running the checks, null until the reaper is started
+     */
+    private ScheduledExecutorService scheduler;
+
+    /**
+     * Constructor of the MatchReaper
+     * @param server reference to the server
+     * @param gracePeriod time, in milliseconds, an ended match is kept before being reclaimed
+     */
+    public MatchReaper(Server server, long gracePeriod) {
+        this.server = server;
+        this.gracePeriod = gracePeriod;
+    }
+
+    /**
+     * This method starts checking the lobbies periodically
+     */
+    public void start() {
+        scheduler = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread reaper = new Thread(task, "match-reaper");
+            reaper.setDaemon(true);
+            return reaper;
+        });
+        scheduler.scheduleWithFixedDelay(() -> {
+            try {
+                reap(System.nanoTime());
+                reportQueueDepths();
+            } catch (RuntimeException e) {
+                e.printStackTrace();
+            }
+        }, CHECK_PERIOD, CHECK_PERIOD, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * This method stops the checks
+     */
+    public void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    /**
+     * This method checks all the lobbies once: the ended ones are remembered, and the ones ended for longer
+     * than the grace period are reclaimed
+     * @param now the current time, as given by System.nanoTime
+     * @return the number of matches reclaimed
+     */
+    public int reap(long now) {
+        int reclaimed = 0;
+        LobbyRegistry lobbies = server.getLobbies();
+
+        for (Controller lobby : new ArrayList<>(lobbies.getLobbies())) {
+            if (!lobby.isMatchEnded()) {
+                continue;
+            }
+            long since = endedSince.computeIfAbsent(lobby.getMatchID(), id -> now);
+            if (now - since >= TimeUnit.MILLISECONDS.toNanos(gracePeriod)) {
+                reclaim(lobby);
+                reclaimed++;
+            }
+        }
+
+        return reclaimed;
+    }
+
+    /**
+     * This method prints the depth and the maximum depth of the mailbox of each match, so a match which can't keep
+     * up with its messages can be noticed
+     * @return the line printed, or null if there are no lobbies
+     */
+    public String reportQueueDepths() {
+        String report = server.getMatchQueueReport();
+        if (report != null) {
+            System.out.println(report);
+        }
+        return report;
+    }
+
+    /**
+     * This method reclaims an ended match: the connections are closed, the nicknames released and the lobby
+     * removed from the server
+     * @param lobby the controller of the ended match
+     */
+    private void reclaim(Controller lobby) {
+        ArrayList<ClientHandler> clientHandlers = new ArrayList<>(lobby.getClientHandlers());
+        ArrayList<String> nicknames = new ArrayList<>(lobby.getPlayersNickname());
+        for (int i = 0; i < clientHandlers.size(); i++) {
+            clientHandlers.get(i).closeConnection();
+            server.getNicknames().release(nicknames.get(i), clientHandlers.get(i));
+        }
+        server.getLobbies().remove(lobby.getMatchID());
+        endedSince.remove(lobby.getMatchID());
+        System.out.println("Match " + lobby.getMatchID() + " reclaimed");
+    }
+
+    public long getGracePeriod() {
+        return gracePeriod;
+    }
+}
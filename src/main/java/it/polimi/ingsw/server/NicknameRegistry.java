@@ -0,0 +1,66 @@
+package it.polimi.ingsw.server;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * This class contains the nicknames of the players connected to the server, each one linked with the
+ * ClientHandler of the player who reserved it.
+ * A nickname is reserved atomically, so two players logging in at the same time with the same nickname can't
+ * both get it, and it is released only by its owner, so a late release never frees the nickname of another player
+ * who reserved it later. Both operations take constant time, whatever the number of logins done.
+ */
+public class NicknameRegistry {
+    /**
+     * This attribute links each nickname in use with the ClientHandler of the player who reserved it
+     */
+    private final ConcurrentHashMap<String, ClientHandler> nicknames = new ConcurrentHashMap<>();
+
+    /**
+     * This method tells if a nickname can be used by a player, whether it is reserved or not: a login message
+     * without the nickname, or with a blank one, is refused before reserving it
+     * @param nickname the nickname chosen by the player, it can be null
+     * @return true if the nickname is not null and not blank
+     */
+    public static boolean isValid(String nickname) {
+        return nickname != null && !nickname.isBlank();
+    }
+
+    /**
+     * This method reserves a nickname, if nobody is using it
+     * @param nickname the nickname chosen by the player
+     * @param owner the ClientHandler of the player
+     * @return true if the nickname has been reserved, false if it's already used or it's not valid
+     */
+    public boolean reserve(String nickname, ClientHandler owner) {
+        if (!isValid(nickname)) {
+            return false;
+        }
+        return nicknames.putIfAbsent(nickname, owner) == null;
+    }
+
+    /**
+     * This method releases a nickname, if it is still reserved by the same player
+     * @param nickname the nickname to release
+     * @param owner the ClientHandler of the player who reserved it
+     * @return true if the nickname has been released
+     */
+    public boolean release(String nickname, ClientHandler owner) {
+        if (nickname == null) {
+            return false;
+        }
+        return nicknames.remove(nickname, owner);
+    }
+
+    /**
+     * This method tells if a nickname is used by a player
+     * @param nickname the nickname
+     * @return true if the nickname is reserved
+     */
+    public boolean isReserved(String nickname) {
+        return nickname != null && nicknames.containsKey(nickname);
+    }
+
+    public int size() {
+        return nicknames.size();
+    }
+}
@@ -0,0 +1,249 @@
+package it.polimi.ingsw.server;
+
+import it.polimi.ingsw.network.Frame;
+import it.polimi.ingsw.network.FrameDecoder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.SocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * This class represents the non-blocking connection with one client, it is used by the NioServer.
+ * It splits the bytes read from the channel into json lines (the same newline-delimited protocol used by the
+ * blocking ClientHandler), or into frames once the client asked for them, and it keeps the messages not yet written
+ * on the channel.
+ */
+public class NioConnection {
+    /**
+     * This attribute is the maximum length, in bytes, of a single message: a client sending a longer line
+     * is disconnected
+     */
+    private static final int MAX_LINE_LENGTH = 1 << 20;
+
+    /**
+     * This attribute is the channel of the client
+     */
+    private final SocketChannel channel;
+    /**
+     * This attribute is the key of the channel inside the selector of the NioServer
+     */
+    private final SelectionKey key;
+    /**
+     * This attribute is the reference to the server owning the selector
+     */
+    private final NioServer nioServer;
+    /**
+     * This attribute is the handler of the client session (login, lobby and match)
+     */
+    private ClientHandler clientHandler;
+    /**
+     * This attribute is the buffer where the bytes are read from the channel
+     */
+    private final ByteBuffer readBuffer = ByteBuffer.allocate(8192);
+    /**
+     * This attribute contains the bytes of the line that has not been completely received yet
+     */
+    private final ByteArrayOutputStream partialLine = new ByteArrayOutputStream();
+    /**
+     * This attribute tells if the bytes of the line being received are, so far, the beginning of a ping: it's used
+     * to recognise the pings without decoding them
+     */
+    private boolean mayBePing = true;
+    /**
+     * This attribute rebuilds the frames sent by the client, it is null while the client sends json lines
+     */
+    private FrameDecoder frameDecoder;
+    /**
+     * This attribute is the queue of the encoded lines waiting to be written on the channel
+     */
+    private final OutboundQueue outboundQueue = new OutboundQueue();
+    /**
+     * This attribute tells if the connection has been closed
+     */
+    private volatile boolean closed = false;
+    /**
+     * This attribute tells the connection to close itself as soon as all the queued lines have been written
+     */
+    private volatile boolean closeWhenFlushed = false;
+
+    /**
+     * Constructor of the NioConnection
+     * @param channel the channel accepted by the server, already in non-blocking mode
+     * @param key the key of the channel registered in the selector
+     * @param nioServer reference to the NioServer
+     */
+    public NioConnection(SocketChannel channel, SelectionKey key, NioServer nioServer) {
+        this.channel = channel;
+        this.key = key;
+        this.nioServer = nioServer;
+    }
+
+    public void setClientHandler(ClientHandler clientHandler) {
+        this.clientHandler = clientHandler;
+    }
+
+    public ClientHandler getClientHandler() {
+        return clientHandler;
+    }
+
+    /**
+     * This method reads all the bytes available on the channel and hands every complete line over to the
+     * ClientHandler; it's called by the selector thread when the channel is readable.
+     * @throws IOException if the channel has been closed by the client or an I/O error occurred
+     */
+    public void onReadable() throws IOException {
+        int read = channel.read(readBuffer);
+        if (read > 0) {
+            clientHandler.touchLiveness();
+        }
+        while (read > 0) {
+            readBuffer.flip();
+            while (readBuffer.hasRemaining()) {
+                if (frameDecoder != null) {
+                    Frame frame = frameDecoder.next(readBuffer);
+                    if (frame != null) {
+                        clientHandler.onFrameReceived(frame);
+                        if (closed) {
+                            return;
+                        }
+                    }
+                    continue;
+                }
+                byte b = readBuffer.get();
+                if (b == '\n') {
+                    boolean ping = mayBePing && partialLine.size() >= ClientHandler.PING_PREFIX_LENGTH;
+                    mayBePing = true;
+                    if (ping) {
+                        // the ping has already done its job by touching the liveness of the client
+                        partialLine.reset();
+                        continue;
+                    }
+                    String line = partialLine.toString(StandardCharsets.UTF_8);
+                    partialLine.reset();
+                    if (line.endsWith("\r")) {
+                        line = line.substring(0, line.length() - 1);
+                    }
+                    clientHandler.onMessageReceived(line);
+                    if (closed) {
+                        return;
+                    }
+                    if (clientHandler.isFramed()) {
+                        // the bytes after the request of frames are already a frame
+                        frameDecoder = new FrameDecoder();
+                    }
+                } else {
+                    if (mayBePing && !ClientHandler.matchesPing(partialLine.size(), b)) {
+                        mayBePing = false;
+                    }
+                    partialLine.write(b);
+                    if (partialLine.size() > MAX_LINE_LENGTH) {
+                        throw new IOException("message too long");
+                    }
+                }
+            }
+            readBuffer.clear();
+            read = channel.read(readBuffer);
+        }
+
+        if (read < 0) {
+            throw new IOException("connection closed by the client");
+        }
+    }
+
+    /**
+     * This method queues one encoded line to be sent to the client; if it's called by the selector thread the
+     * line is written immediately, otherwise the selector is woken up to write it.
+     * The bytes of the line are shared with the other connections receiving the same message.
+     * If the client is too slow and its queue is full, the client is disconnected.
+     * @param encodedMessage the encoded message
+     */
+    public void send(EncodedMessage encodedMessage) {
+        if (closed) {
+            return;
+        }
+        if (!outboundQueue.offer(encodedMessage, clientHandler.getWireFormat(), clientHandler.getCompressor())) {
+            System.out.println("Outbound queue full, disconnecting " + getRemoteAddress());
+            close();
+            clientHandler.onConnectionClosed();
+            return;
+        }
+        nioServer.requestWrite(this);
+    }
+
+    /**
+     * This method writes on the channel all the queued lines with a single gathering write; if the channel can't
+     * accept all of them, the connection asks the selector to be notified when the channel is writable again.
+     * It must be called only by the selector thread.
+     * @throws IOException if an I/O error occurred
+     */
+    public void onWritable() throws IOException {
+        ByteBuffer[] buffers = outboundQueue.peekAll();
+        if (buffers.length > 0) {
+            channel.write(buffers);
+            outboundQueue.recordFlush();
+        }
+        if (!key.isValid()) {
+            return;
+        }
+        if (outboundQueue.removeWritten()) {
+            if (closeWhenFlushed) {
+                close();
+                return;
+            }
+            key.interestOps(SelectionKey.OP_READ);
+        } else {
+            key.interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+        }
+    }
+
+    /**
+     * This method closes the channel and removes it from the selector
+     */
+    public void close() {
+        synchronized (outboundQueue) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            outboundQueue.close();
+        }
+        key.cancel();
+        try {
+            channel.close();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * This method closes the connection after the lines already queued have been written
+     */
+    public void closeWhenFlushed() {
+        closeWhenFlushed = true;
+        nioServer.requestWrite(this);
+    }
+
+    public boolean isClosed() {
+        return closed;
+    }
+
+    public OutboundQueue getOutboundQueue() {
+        return outboundQueue;
+    }
+
+    /**
+     * This method finds the address of the client
+     * @return the remote address of the channel or null if it's not available anymore
+     */
+    public SocketAddress getRemoteAddress() {
+        try {
+            return channel.getRemoteAddress();
+        } catch (IOException e) {
+            return null;
+        }
+    }
+}
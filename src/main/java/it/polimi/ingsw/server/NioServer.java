@@ -0,0 +1,178 @@
+package it.polimi.ingsw.server;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * This class accepts and handles all the clients with a single thread, using a Selector and non-blocking
+ * SocketChannels instead of one ClientHandler thread for each client.
+ * The protocol is the same newline-delimited json used by the blocking server, so the NetworkHandler does not
+ * need to know which kind of server it's connected to.
+ */
+public class NioServer {
+    /**
+     * This attribute is the reference to the server, where lobbies and nicknames are stored
+     */
+    private final Server server;
+    /**
+     * This attribute represents the number of port of the server.
+     */
+    private final int numberOfPort;
+    /**
+     * This attribute is the selector watching the server channel and all the clients' channels
+     */
+    private Selector selector;
+    /**
+     * This attribute is the thread running the selector loop
+     */
+    private Thread selectorThread;
+    /**
+     * This attribute is the list of connections that have new lines to write, queued by threads different
+     * from the selector one
+     */
+    private final ConcurrentLinkedQueue<NioConnection> writeRequests = new ConcurrentLinkedQueue<>();
+
+    /**
+     * Constructor of the NioServer
+     * @param numberOfPort the port where the server listens
+     * @param server reference to the server
+     */
+    public NioServer(int numberOfPort, Server server) {
+        this.numberOfPort = numberOfPort;
+        this.server = server;
+    }
+
+    /**
+     * This method opens the server channel and runs the selector loop; it never returns unless an I/O
+     * error occurs on the selector.
+     * @throws IOException if the server channel can't be opened
+     */
+    public void start() throws IOException {
+        selector = Selector.open();
+        selectorThread = Thread.currentThread();
+
+        ServerSocketChannel serverChannel = ServerSocketChannel.open();
+        serverChannel.bind(new InetSocketAddress(numberOfPort));
+        serverChannel.configureBlocking(false);
+        serverChannel.register(selector, SelectionKey.OP_ACCEPT);
+
+        while (true) {
+            selector.select();
+            flushWriteRequests();
+
+            Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+            while (keys.hasNext()) {
+                SelectionKey key = keys.next();
+                keys.remove();
+
+                if (!key.isValid()) {
+                    continue;
+                }
+                if (key.isAcceptable()) {
+                    accept(serverChannel);
+                    continue;
+                }
+
+                NioConnection connection = (NioConnection) key.attachment();
+                try {
+                    if (key.isReadable()) {
+                        connection.onReadable();
+                    }
+                    if (key.isValid() && key.isWritable()) {
+                        connection.onWritable();
+                    }
+                } catch (IOException e) {
+                    System.out.println("IO exception out " + e.getMessage());
+                    closeAfterError(connection);
+                } catch (RuntimeException e) {
+                    // e.g. a line that is not json: only this client is disconnected, the loop serves all the others
+                    System.out.println("Error handling the client " + connection.getRemoteAddress() + ": " + e);
+                    closeAfterError(connection);
+                }
+            }
+        }
+    }
+
+    /**
+     * This method closes a connection whose reading or writing failed, and handles the disconnection of the client
+     * @param connection the connection to close
+     */
+    private void closeAfterError(NioConnection connection) {
+        connection.close();
+        connection.getClientHandler().onConnectionClosed();
+    }
+
+    /**
+     * This method accepts a new client, registers its channel in the selector and creates its ClientHandler
+     * @param serverChannel the channel of the server
+     */
+    private void accept(ServerSocketChannel serverChannel) {
+        try {
+            SocketChannel clientChannel = serverChannel.accept();
+            if (clientChannel == null) {
+                return;
+            }
+            clientChannel.configureBlocking(false);
+            System.out.println("Client connected " + clientChannel.getRemoteAddress());
+
+            SelectionKey clientKey = clientChannel.register(selector, SelectionKey.OP_READ);
+            NioConnection connection = new NioConnection(clientChannel, clientKey, this);
+            ClientHandler clientHandler = new ClientHandler(connection, server);
+            connection.setClientHandler(clientHandler);
+            clientHandler.startLivenessCheck();
+            clientKey.attach(connection);
+        } catch (IOException e) {
+            System.out.println("I/O error: " + e);
+        }
+    }
+
+    /**
+     * This method is called by a connection that has new lines to write: the selector thread writes them
+     * immediately, while any other thread leaves the request to the selector and wakes it up.
+     * @param connection the connection with lines to write
+     */
+    void requestWrite(NioConnection connection) {
+        if (Thread.currentThread() == selectorThread) {
+            writeNow(connection);
+        } else {
+            writeRequests.add(connection);
+            selector.wakeup();
+        }
+    }
+
+    /**
+     * This method writes the lines of all the connections that asked for it from another thread
+     */
+    private void flushWriteRequests() {
+        NioConnection connection = writeRequests.poll();
+        while (connection != null) {
+            writeNow(connection);
+            connection = writeRequests.poll();
+        }
+    }
+
+    /**
+     * This method writes the queued lines of the connection, closing it if the write fails
+     * @param connection the connection with lines to write
+     */
+    private void writeNow(NioConnection connection) {
+        if (connection.isClosed()) {
+            return;
+        }
+        try {
+            connection.onWritable();
+        } catch (IOException e) {
+            System.out.println("IO exception out " + e.getMessage());
+            closeAfterError(connection);
+        } catch (RuntimeException e) {
+            System.out.println("Error writing to the client " + connection.getRemoteAddress() + ": " + e);
+            closeAfterError(connection);
+        }
+    }
+}
@@ -0,0 +1,175 @@
+package it.polimi.ingsw.server;
+
+import it.polimi.ingsw.network.FrameCompressor;
+import it.polimi.ingsw.network.WireFormat;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+
+/**
+ * This class is the bounded queue of the messages waiting to be written on the connection of one client.
+ * The thread running the game logic only adds the encoded messages to the queue, while the writer of the
+ * connection takes all the queued messages together and writes them with a single flush on the socket.
+ * The messages are joined only under backlog: the writer starts as soon as the first message is queued, so a
+ * message queued to an idle connection is written alone, and the ones queued while that write is in progress
+ * are joined in the next one. The acks of one move are sent as a single message to the clients agreeing on
+ * batching, so they never depend on the backlog.
+ * If the client is so slow that the queue is full, the message is refused and the client must be disconnected.
+ */
+public class OutboundQueue {
+    /**
+     * This attribute is the default maximum number of messages waiting in the queue
+     */
+    public static final int DEFAULT_CAPACITY = 512;
+
+    /**
+     * This attribute is the maximum number of messages waiting in the queue
+     */
+    private final int capacity;
+    /**
+     * This attribute contains the messages not yet written; the first buffer may have been partially written
+     */
+    private final ArrayDeque<ByteBuffer> messages = new ArrayDeque<>();
+    /**
+     * This attribute is the number of writes done on the connection
+     */
+    private long flushCount = 0;
+    /**
+     * This attribute is the highest number of messages waiting in the queue at the same time
+     */
+    private int maxLength = 0;
+    /**
+     * This attribute tells if the queue has been closed: no message is accepted anymore
+     */
+    private boolean closed = false;
+
+    /**
+     * Constructor of the OutboundQueue with the default capacity
+     */
+    public OutboundQueue() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Constructor of the OutboundQueue
+     * @param capacity the maximum number of messages waiting in the queue
+     */
+    public OutboundQueue(int capacity) {
+        this.capacity = capacity;
+    }
+
+    /**
+     * This method adds a message at the end of the queue, as a json line
+     * @param encodedMessage the message to write
+     * @return true if the message has been added, false if the queue is full or closed
+     */
+    public boolean offer(EncodedMessage encodedMessage) {
+        return offer(encodedMessage, WireFormat.JSON_LINES);
+    }
+
+    /**
+     * This method adds a message at the end of the queue; the form of the message is chosen now, so the messages
+     * queued before the connection switched to frames are still written as json lines
+     * @param encodedMessage the message to write
+     * @param wireFormat the format used by the connection
+     * @return true if the message has been added, false if the queue is full or closed
+     */
+    public boolean offer(EncodedMessage encodedMessage, WireFormat wireFormat) {
+        return offer(encodedMessage, wireFormat, null);
+    }
+
+    /**
+     * This method adds a message at the end of the queue; the form of the message is chosen now, so the messages
+     * queued before the connection switched to frames or to compression keep the form they had
+     * @param encodedMessage the message to write
+     * @param wireFormat the format used by the connection
+     * @param compressor the compressor of the connection, null if the connection does not compress the frames
+     * @return true if the message has been added, false if the queue is full or closed
+     */
+    public synchronized boolean offer(EncodedMessage encodedMessage, WireFormat wireFormat, FrameCompressor compressor) {
+        if (closed || messages.size() >= capacity) {
+            return false;
+        }
+        messages.add(encodedMessage.asBuffer(wireFormat, compressor));
+        maxLength = Math.max(maxLength, messages.size());
+        return true;
+    }
+
+    /**
+     * This method returns all the queued messages, in order, without removing them; it is used for the
+     * gathering write of a non-blocking channel, followed by removeWritten()
+     * @return the buffers of the queued messages
+     */
+    public synchronized ByteBuffer[] peekAll() {
+        return messages.toArray(new ByteBuffer[0]);
+    }
+
+    /**
+     * This method removes from the head of the queue the messages that have been completely written
+     * @return true if the queue is now empty
+     */
+    public synchronized boolean removeWritten() {
+        while (!messages.isEmpty() && !messages.peek().hasRemaining()) {
+            messages.poll();
+        }
+        return messages.isEmpty();
+    }
+
+    /**
+     * This method removes all the queued messages, ready to be written together on a blocking stream; the buffers
+     * are the ones shared by the encoded messages, so nothing is copied here
+     * @return the buffers of all the queued messages, in order, or null if the queue is empty
+     */
+    public synchronized ByteBuffer[] pollAll() {
+        if (messages.isEmpty()) {
+            return null;
+        }
+        ByteBuffer[] buffers = messages.toArray(new ByteBuffer[0]);
+        messages.clear();
+        return buffers;
+    }
+
+    /**
+     * This method counts one write done on the connection
+     */
+    public synchronized void recordFlush() {
+        flushCount++;
+    }
+
+    /**
+     * This method closes the queue and drops the messages not yet written
+     */
+    public synchronized void close() {
+        closed = true;
+        messages.clear();
+    }
+
+    public synchronized boolean isEmpty() {
+        return messages.isEmpty();
+    }
+
+    /**
+     * This method returns the number of messages waiting to be written
+     * @return the length of the queue
+     */
+    public synchronized int getLength() {
+        return messages.size();
+    }
+
+    /**
+     * This method returns the highest number of messages that have been waiting in the queue at the same time
+     * @return the maximum length reached by the queue
+     */
+    public synchronized int getMaxLength() {
+        return maxLength;
+    }
+
+    /**
+     * This method returns the number of writes done on the connection; compared with the number of messages
+     * sent it tells how many messages have been coalesced
+     * @return the number of flushes
+     */
+    public synchronized long getFlushCount() {
+        return flushCount;
+    }
+}
@@ -4,10 +4,12 @@ import it.polimi.ingsw.controller.Controller;
 
 
 import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
 import java.net.ServerSocket;
 import java.net.Socket;
-import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
 
 /** server class is the main class in the server side of the application and, through it, clients can connect */
 
@@ -28,24 +30,41 @@ public class Server {
      */
     private ServerSocket serverSocket;
 
+    /**
+     * This attribute tells how the connections with the clients are handled (thread per client or NIO selector)
+     */
+    private final TransportMode transportMode;
+
+    /**
+     * This attribute is the component reclaiming the ended matches, with their connections and nicknames
+     */
+    private final MatchReaper matchReaper;
+
+    /**
+     * This attribute is the timer checking that the clients are still sending messages, whatever the transport
+     */
+    private final LivenessTimer livenessTimer = new LivenessTimer(LivenessTimer.DEFAULT_TIMEOUT);
+
 
     /**
-     * this is the list of the players nicknames registered, connected, to the server.
+     * This attribute is the method Thread.startVirtualThread(Runnable), found through reflection because it is
+     * available only from Java 21; it is null if the JVM does not support virtual threads.
      */
-    private ArrayList<String> playersNicknames;
+    private static final Method START_VIRTUAL_THREAD = findStartVirtualThread();
 
 
     /**
-     * this HashMap links the lobby ID with the corresponding Controller that handles the corresponding game
+     * this is the registry of the players nicknames registered, connected, to the server.
+     * A nickname is reserved and released in constant time, without locking the server.
      */
-    private HashMap <String, Controller> lobbies;
+    private final NicknameRegistry nicknames = new NicknameRegistry();
+
 
     /**
-     * This arraylist is used to track the matches that have ended.
-     * The index of the array corresponds to the id of the lobby.
-     * True if the match is ended, false otherwise.
+     * this registry links the lobby ID with the corresponding Controller that handles the corresponding game;
+     * a match is ended when its Controller says so
      */
-    private ArrayList<Boolean> lobbiesEnd;
+    private final LobbyRegistry lobbies;
 
     /**
      * This double arraylist is used to check the players connections.
@@ -61,10 +80,29 @@ public class Server {
      * @param numberOfPort is the server port.
      */
     public Server(int numberOfPort){
+        this(numberOfPort, TransportMode.BLOCKING);
+    }
+
+    /**
+     * This constructor creates a new instance of the server.
+     * @param numberOfPort is the server port.
+     * @param transportMode is the way the connections with the clients are handled.
+     */
+    public Server(int numberOfPort, TransportMode transportMode){
+        this(numberOfPort, transportMode, MatchReaper.DEFAULT_GRACE_PERIOD);
+    }
+
+    /**
+     * This constructor creates a new instance of the server.
+     * @param numberOfPort is the server port.
+     * @param transportMode is the way the connections with the clients are handled.
+     * @param reaperGracePeriod is the time, in milliseconds, an ended match is kept before being reclaimed.
+     */
+    public Server(int numberOfPort, TransportMode transportMode, long reaperGracePeriod){
         this.numberOfPort = numberOfPort;
-        this.playersNicknames = new ArrayList<String>();
-        this.lobbies = new HashMap<>();
-        this.lobbiesEnd = new ArrayList<>();
+        this.transportMode = transportMode;
+        this.matchReaper = new MatchReaper(this, reaperGracePeriod);
+        this.lobbies = new LobbyRegistry();
         //this.lobbiesPlayersConnection = new ArrayList<ArrayList<Boolean>>();
     }
 
@@ -87,14 +125,31 @@ public class Server {
 
     /**
      * Main method of the server
-     * @param args are the main args.
+     * @param args are the main args: the first one, if present, is the transport mode ("blocking", "virtual" or "nio"),
+     *             the second one, if present, is the time in seconds an ended match is kept before being reclaimed.
      */
     public static void main(String[] args) {
         ServerSocket serverSocket = null;
-        Server server = new Server(4444);
+        TransportMode transportMode = TransportMode.BLOCKING;
+        if(args.length > 0){
+            try{
+                transportMode = TransportMode.valueOf(args[0].toUpperCase());
+            }catch (IllegalArgumentException e){
+                System.out.println("Unknown transport mode " + args[0] + ", using " + transportMode);
+            }
+        }
+        long reaperGracePeriod = MatchReaper.DEFAULT_GRACE_PERIOD;
+        if(args.length > 1){
+            try{
+                reaperGracePeriod = Long.parseLong(args[1]) * 1000;
+            }catch (NumberFormatException e){
+                System.out.println("Invalid grace period " + args[1] + ", using " + reaperGracePeriod / 1000 + " seconds");
+            }
+        }
+        Server server = new Server(4444, transportMode, reaperGracePeriod);
 
         try{
-            System.out.println("Server ready");
+            System.out.println("Server ready (" + transportMode + ")");
             server.start();
 
         }catch(IOException e){
@@ -106,9 +161,26 @@ public class Server {
     }
 
     /**
-     * this method launches the server.
+     * this method launches the server with the transport mode chosen at startup.
      */
     public void start() throws IOException {
+        matchReaper.start();
+        livenessTimer.start();
+        if(transportMode == TransportMode.NIO){
+            new NioServer(numberOfPort, this).start();
+        }else{
+            if(transportMode == TransportMode.VIRTUAL && !usesVirtualThreads()){
+                System.out.println("Virtual threads are not supported by this JVM, using platform threads");
+            }
+            startBlocking();
+        }
+    }
+
+    /**
+     * this method launches the server creating a new thread for each client connected: a platform thread in
+     * BLOCKING mode, a virtual thread in VIRTUAL mode.
+     */
+    private void startBlocking() throws IOException {
         serverSocket = new ServerSocket(numberOfPort);
         Socket clientSocket = null;
         while(true){
@@ -120,28 +192,108 @@ public class Server {
             }
 
             // new thread for a client
-            new ClientHandler(clientSocket, this).start();
+            startSession(new ClientHandler(clientSocket, this));
 
         }
     }
 
-    public synchronized ArrayList<String> getPlayersNicknames() {
-        return this.playersNicknames;
+    /**
+     * This method starts the thread running the session of one client.
+     * In VIRTUAL mode the session runs on a virtual thread, so the blocking reads of thousands of idle clients
+     * only keep a small stack on the heap; if the JVM has no virtual threads a platform thread is used.
+     * @param clientHandler the handler of the client just connected
+     */
+    private void startSession(ClientHandler clientHandler) {
+        if(usesVirtualThreads() && startVirtualThread(clientHandler)){
+            return;
+        }
+        new Thread(clientHandler).start();
     }
 
-    public synchronized HashMap<String, Controller> getLobbies() {
-        return lobbies;
+    /**
+     * This method runs a task on a new virtual thread; it is used for the sessions of the clients and for the
+     * writers of their messages, so in VIRTUAL mode no platform thread is taken for each client.
+     * @param task the task to run
+     * @return true if the virtual thread has been started, false if the JVM has no virtual threads or the
+     * thread could not be started, so the caller must use a platform thread
+     */
+    boolean startVirtualThread(Runnable task) {
+        if(START_VIRTUAL_THREAD == null){
+            return false;
+        }
+        try{
+            START_VIRTUAL_THREAD.invoke(null, task);
+            return true;
+        }catch (IllegalAccessException | InvocationTargetException e){
+            System.out.println("Virtual thread not started, using a platform thread: " + e);
+            return false;
+        }
+    }
+
+    /**
+     * This method looks for Thread.startVirtualThread(Runnable)
+     * @return the method, or null if the JVM does not support virtual threads
+     */
+    private static Method findStartVirtualThread() {
+        try{
+            return Thread.class.getMethod("startVirtualThread", Runnable.class);
+        }catch (NoSuchMethodException e){
+            return null;
+        }
+    }
+
+    /**
+     * This method tells if the sessions of the clients really run on virtual threads
+     * @return true if the server is in VIRTUAL mode and the JVM supports virtual threads
+     */
+    public boolean usesVirtualThreads() {
+        return transportMode == TransportMode.VIRTUAL && START_VIRTUAL_THREAD != null;
     }
 
-    public synchronized ArrayList<Boolean> getLobbiesEnd() {
-        return lobbiesEnd;
+    public MatchReaper getMatchReaper() {
+        return matchReaper;
     }
 
+    public LivenessTimer getLivenessTimer() {
+        return livenessTimer;
+    }
 
-    public synchronized void setPlayersNicknames(ArrayList<String> playersNicknames) {
-        this.playersNicknames = playersNicknames;
+    public TransportMode getTransportMode() {
+        return transportMode;
     }
 
+    /**
+     * This method reports how many messages are waiting in the mailbox of each match, and the most that have
+     * been waiting at the same time
+     * @return one line with the depth and the maximum depth of the mailbox of each lobby, ordered by lobby ID,
+     *         or null if there are no lobbies
+     */
+    public String getMatchQueueReport() {
+        Map<Integer, Controller> ordered = new TreeMap<>();
+        for(Controller lobby : lobbies.getLobbies()){
+            ordered.put(lobby.getMatchID(), lobby);
+        }
+        if(ordered.isEmpty()){
+            return null;
+        }
+
+        StringBuilder report = new StringBuilder("Mailboxes of the matches (depth/max depth):");
+        for(Controller lobby : ordered.values()){
+            report.append(' ').append(lobby.getMatchID()).append(": ")
+                    .append(lobby.getMailboxDepth()).append('/').append(lobby.getMailboxMaxDepth());
+        }
+        return report.toString();
+    }
+
+    public NicknameRegistry getNicknames() {
+        return nicknames;
+    }
+
+    public LobbyRegistry getLobbies() {
+        return lobbies;
+    }
+
+
     /*public synchronized ArrayList<ArrayList<Boolean>> getLobbiesPlayersConnection() {
         return lobbiesPlayersConnection;
     }
@@ -0,0 +1,13 @@
+package it.polimi.ingsw.server;
+
+/**
+ * This enumeration lists the ways the server can handle the connections with the clients:
+ * - BLOCKING: one ClientHandler thread for each client, reading with a blocking socket
+ * - VIRTUAL: like BLOCKING, but each ClientHandler runs on a virtual thread (Java 21 or newer)
+ * - NIO: one single selector thread for all the clients, reading from non-blocking channels
+ */
+public enum TransportMode {
+    BLOCKING,
+    VIRTUAL,
+    NIO
+}
@@ -0,0 +1,177 @@
+package it.polimi.ingsw;
+
+import com.google.gson.Gson;
+import it.polimi.ingsw.controller.Action_1;
+import it.polimi.ingsw.controller.Action_2;
+import it.polimi.ingsw.controller.Controller;
+import it.polimi.ingsw.messages.clientMessages.MatchSpecsMessage;
+import it.polimi.ingsw.model.Creature;
+import it.polimi.ingsw.model.Match;
+import it.polimi.ingsw.model.schoolboard.DiningRoom;
+import it.polimi.ingsw.model.schoolboard.Entrance;
+import it.polimi.ingsw.server.ClientHandler;
+import it.polimi.ingsw.server.Server;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.net.Socket;
+import java.util.ArrayList;
+
+public class Action1BatchTest {
+
+    /**
+     * This method creates a match of two players, mario and luigi, in expert mode and jumps to action_1
+     */
+    private Controller createLobbyInAction_1(){
+        Controller controller = new Controller(0);
+
+        controller.addPlayerHandler(new ClientHandler(new Socket(), new Server(4444)), "mario");
+        controller.addPlayerHandler(new ClientHandler(new Socket(), new Server(4444)), "luigi");
+
+        MatchSpecsMessage specs = new MatchSpecsMessage();
+        specs.setExpertMode(true);
+        specs.setNumOfPlayers(2);
+        specs.setSender_ID(0);
+        controller.manageMsg(new Gson().toJson(specs));
+
+        controller.setState(new Action_1());
+        return controller;
+    }
+
+    private String batch(int sender_ID, String students_ID, String locations){
+        return "{ \"object\": \"action_1_batch\", \"sender_ID\": \"" + sender_ID + "\", \"students_ID\": " + students_ID + ", \"locations\": " + locations + " }";
+    }
+
+    /**
+     * We test that all the students of a batch are moved and the state changes to action_2
+     */
+    @Test
+    public void batch_validMoves_studentsMovedAndAction_2() {
+        Controller controller = createLobbyInAction_1();
+        Match match = controller.getMatch();
+        Entrance mario_entrance = match.getPlayers().get(0).getSchoolBoard().getEntrance();
+        int previousPopulation = match.getRealmOfTheMatch().getArchipelagos().get(4).getTotalNumberOfStudents();
+
+        // mario moves two students into the dining room and one on an island
+        controller.manageMsg(batch(0, "[0, 1, 5]", "[-1, -1, 4]"));
+
+        Assertions.assertNull(mario_entrance.getStudentsInTheEntrance().get(0));
+        Assertions.assertNull(mario_entrance.getStudentsInTheEntrance().get(1));
+        Assertions.assertNull(mario_entrance.getStudentsInTheEntrance().get(5));
+        Assertions.assertEquals(2, match.getPlayers().get(0).getSchoolBoard().getDiningRoom().getTotalNumberOfStudents());
+        Assertions.assertEquals(previousPopulation + 1, match.getRealmOfTheMatch().getArchipelagos().get(4).getTotalNumberOfStudents());
+        Assertions.assertTrue(controller.getState() instanceof Action_2);
+    }
+
+    /**
+     * We test that no student is moved when the same student is moved twice in a batch
+     */
+    @Test
+    public void batch_sameStudentTwice_nothingMoved() {
+        Controller controller = createLobbyInAction_1();
+        Match match = controller.getMatch();
+        Entrance mario_entrance = match.getPlayers().get(0).getSchoolBoard().getEntrance();
+
+        controller.manageMsg(batch(0, "[0, 1, 1]", "[-1, 4, 4]"));
+
+        Assertions.assertNotNull(mario_entrance.getStudentsInTheEntrance().get(0));
+        Assertions.assertNotNull(mario_entrance.getStudentsInTheEntrance().get(1));
+        Assertions.assertEquals(0, match.getPlayers().get(0).getSchoolBoard().getDiningRoom().getTotalNumberOfStudents());
+        Assertions.assertTrue(controller.getState() instanceof Action_1);
+    }
+
+    /**
+     * We test that a batch is refused when its moves together put more than ten students at a table, even if each
+     * move alone would fit, while the same students are accepted if only one of them goes to that table
+     */
+    @Test
+    public void batch_tableOverflowingAcrossTheBatch_nothingMoved() {
+        Controller controller = createLobbyInAction_1();
+        Match match = controller.getMatch();
+        ArrayList<Creature> mario_entrance = match.getPlayers().get(0).getSchoolBoard().getEntrance().getStudentsInTheEntrance();
+        DiningRoom mario_diningRoom = match.getPlayers().get(0).getSchoolBoard().getDiningRoom();
+
+        // two students of the same type are in the entrance, since it has more students than types
+        int first = -1;
+        int second = -1;
+        for(int i = 0; i < mario_entrance.size() && second == -1; i++){
+            for(int j = 0; j < i; j++){
+                if(mario_entrance.get(i) == mario_entrance.get(j)){
+                    first = j;
+                    second = i;
+                    break;
+                }
+            }
+        }
+        int other = 0;
+        while(other == first || other == second){
+            other++;
+        }
+        Creature type = mario_entrance.get(first);
+        for(int i = 0; i < 9; i++){
+            mario_diningRoom.addStudent(type);
+        }
+
+        controller.manageMsg(batch(0, "[" + first + ", " + second + ", " + other + "]", "[-1, -1, 4]"));
+
+        Assertions.assertEquals(9, mario_diningRoom.getOccupiedSeatsAtTable(type));
+        Assertions.assertNotNull(mario_entrance.get(first));
+        Assertions.assertNotNull(mario_entrance.get(second));
+        Assertions.assertNotNull(mario_entrance.get(other));
+        Assertions.assertTrue(controller.getState() instanceof Action_1);
+
+        controller.manageMsg(batch(0, "[" + first + ", " + second + ", " + other + "]", "[-1, 4, 4]"));
+
+        Assertions.assertEquals(10, mario_diningRoom.getOccupiedSeatsAtTable(type));
+        Assertions.assertTrue(controller.getState() instanceof Action_2);
+    }
+
+    /**
+     * We test that a batch with fewer or more students than the ones to move is refused
+     */
+    @Test
+    public void batch_wrongSize_nothingMoved() {
+        Controller controller = createLobbyInAction_1();
+        Match match = controller.getMatch();
+        Entrance mario_entrance = match.getPlayers().get(0).getSchoolBoard().getEntrance();
+
+        controller.manageMsg(batch(0, "[0, 1]", "[-1, -1]"));
+        controller.manageMsg(batch(0, "[0, 1, 2, 3]", "[-1, -1, 4, 4]"));
+        // a different number of students and locations
+        controller.manageMsg(batch(0, "[0, 1, 2]", "[-1, -1]"));
+
+        for(int i = 0; i < 4; i++){
+            Assertions.assertNotNull(mario_entrance.getStudentsInTheEntrance().get(i));
+        }
+        Assertions.assertEquals(0, match.getPlayers().get(0).getSchoolBoard().getDiningRoom().getTotalNumberOfStudents());
+        Assertions.assertTrue(controller.getState() instanceof Action_1);
+    }
+
+    /**
+     * We test that after one single move the batch must contain only the students still to move
+     */
+    @Test
+    public void batch_afterOneSingleMove_onlyRemainingStudentsAccepted() {
+        Controller controller = createLobbyInAction_1();
+        Match match = controller.getMatch();
+        Entrance mario_entrance = match.getPlayers().get(0).getSchoolBoard().getEntrance();
+
+        controller.manageMsg("{ \"object\": \"action_1\", \"sender_ID\": \"0\", \"student_ID\": \"0\", \"location\": \"4\" }");
+        Assertions.assertNull(mario_entrance.getStudentsInTheEntrance().get(0));
+
+        // three more students would be one too many
+        controller.manageMsg(batch(0, "[1, 2, 3]", "[-1, -1, 4]"));
+        Assertions.assertNotNull(mario_entrance.getStudentsInTheEntrance().get(1));
+        Assertions.assertTrue(controller.getState() instanceof Action_1);
+
+        // the student already moved can't be moved again
+        controller.manageMsg(batch(0, "[0, 1]", "[-1, 4]"));
+        Assertions.assertNotNull(mario_entrance.getStudentsInTheEntrance().get(1));
+        Assertions.assertTrue(controller.getState() instanceof Action_1);
+
+        controller.manageMsg(batch(0, "[1, 2]", "[-1, 4]"));
+        Assertions.assertNull(mario_entrance.getStudentsInTheEntrance().get(1));
+        Assertions.assertNull(mario_entrance.getStudentsInTheEntrance().get(2));
+        Assertions.assertTrue(controller.getState() instanceof Action_2);
+    }
+}
@@ -30,6 +30,32 @@ public class ArchipelagoTest {
         Assertions.assertEquals(5, a.getStudentsOfType(Creature.DRAGON));
     }
 
+    /**
+     * We test if the students of another archipelago are all added, and if the population seen as a map
+     * always shows the current students and keeps the total when changed
+     */
+    @Test
+    public void addStudentsOf_otherArchipelago_populationAndTotalUpdated() {
+        Archipelago a = new Archipelago(3);
+        Archipelago b = new Archipelago(4);
+        a.addStudents(Creature.FROG, 2);
+        b.addStudent(Creature.FROG);
+        b.addStudents(Creature.GNOME, 3);
+
+        a.addStudentsOf(b);
+
+        Assertions.assertEquals(3, a.getStudentsOfType(Creature.FROG));
+        Assertions.assertEquals(3, a.getStudentsPopulation().get(Creature.GNOME));
+        Assertions.assertEquals(0, a.getStudentsPopulation().get(Creature.DRAGON));
+        Assertions.assertEquals(6, a.getTotalNumberOfStudents());
+        Assertions.assertEquals(5, a.getStudentsPopulation().size());
+
+        a.getStudentsPopulation().replace(Creature.GNOME, 1);
+        Assertions.assertEquals(1, a.getStudentsOfType(Creature.GNOME));
+        Assertions.assertEquals(4, a.getTotalNumberOfStudents());
+        Assertions.assertEquals(4, b.getTotalNumberOfStudents());
+    }
+
     /**
      * We test if the setting of the master happens without errors
      */
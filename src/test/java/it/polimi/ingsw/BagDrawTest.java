@@ -0,0 +1,91 @@
+package it.polimi.ingsw;
+
+import it.polimi.ingsw.model.Bag;
+import it.polimi.ingsw.model.Creature;
+import it.polimi.ingsw.model.MatchRandom;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+
+public class BagDrawTest {
+
+    /**
+     * We test that drawing all the students empties the bag and returns exactly the students it contained, 24 of
+     * each type, and that the students put back are drawn again
+     */
+    @Test
+    public void drawStudents_allStudents_twentyFourOfEachType() {
+        Bag bag = new Bag();
+
+        ArrayList<Creature> drawnStudents = bag.drawStudents(200);
+
+        Assertions.assertEquals(120, drawnStudents.size());
+        Assertions.assertEquals(0, bag.getNumberOfRemainingStudents());
+        Assertions.assertEquals(0, bag.getRemainingStudents().size());
+        for (Creature c : Creature.values()) {
+            Assertions.assertEquals(24, Collections.frequency(drawnStudents, c));
+        }
+
+        bag.addStudentsOfType(2, Creature.GNOME);
+        Assertions.assertEquals(Creature.GNOME, bag.drawOneStudent());
+        Assertions.assertEquals(Creature.GNOME, bag.drawOneStudent());
+        Assertions.assertEquals(0, bag.getNumberOfRemainingStudents());
+    }
+
+    /**
+     * We test that two bags with the same seed draw the same students
+     */
+    @Test
+    public void drawStudents_sameSeed_sameStudents() {
+        Bag first = new Bag(new MatchRandom(21));
+        Bag second = new Bag(new MatchRandom(21));
+
+        Assertions.assertEquals(first.drawSetUpStudents(), second.drawSetUpStudents());
+        Assertions.assertEquals(first.drawStudents(60), second.drawStudents(60));
+    }
+
+    /**
+     * We test that each type of student is drawn with a probability proportional to the number of students of that
+     * type in the bag: a student is drawn and put back many times, from a full bag, where all the types are equally
+     * likely, and from a bag with one frog for every three gnomes.
+     * The generator is seeded, so the frequencies are always the same and the test can't fail by chance.
+     */
+    @Test
+    public void drawOneStudent_seeded_probabilityProportionalToTheStudents() {
+        int draws = 10000;
+        Bag bag = new Bag(new MatchRandom(2022));
+
+        EnumMap<Creature, Integer> frequencies = drawAndPutBack(bag, draws);
+        for (Creature c : Creature.values()) {
+            int expected = draws / Creature.values().length;
+            Assertions.assertEquals(expected, frequencies.getOrDefault(c, 0), expected * 0.1, c.toString());
+        }
+
+        bag.drawStudents(120);
+        bag.addStudentsOfType(1, Creature.FROG);
+        bag.addStudentsOfType(3, Creature.GNOME);
+
+        frequencies = drawAndPutBack(bag, draws);
+        Assertions.assertEquals(draws / 4, frequencies.get(Creature.FROG), draws / 4 * 0.1);
+        Assertions.assertEquals(draws * 3 / 4, frequencies.get(Creature.GNOME), draws * 3 / 4 * 0.1);
+        Assertions.assertEquals(2, frequencies.size());
+        Assertions.assertEquals(4, bag.getNumberOfRemainingStudents());
+    }
+
+    /**
+     * This method draws one student and puts it back in the bag the given number of times
+     * @return how many times each type of student has been drawn
+     */
+    private EnumMap<Creature, Integer> drawAndPutBack(Bag bag, int draws) {
+        EnumMap<Creature, Integer> frequencies = new EnumMap<>(Creature.class);
+        for (int i = 0; i < draws; i++) {
+            Creature drawn = bag.drawOneStudent();
+            frequencies.merge(drawn, 1, Integer::sum);
+            bag.addStudentsOfType(1, drawn);
+        }
+        return frequencies;
+    }
+}
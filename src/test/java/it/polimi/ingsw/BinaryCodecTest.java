@@ -0,0 +1,188 @@
+package it.polimi.ingsw;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParser;
+import it.polimi.ingsw.messages.Message;
+import it.polimi.ingsw.messages.serverMessages.AckCharactersMessage;
+import it.polimi.ingsw.messages.serverMessages.AckMessage;
+import it.polimi.ingsw.messages.serverMessages.EndOfMatchMessage;
+import it.polimi.ingsw.messages.serverMessages.MatchStartMessage;
+import it.polimi.ingsw.messages.serverMessages.NackMessage;
+import it.polimi.ingsw.messages.serverMessages.StudentsMovedMessage;
+import it.polimi.ingsw.messages.serverMessages.TurnResultMessage;
+import it.polimi.ingsw.model.Creature;
+import it.polimi.ingsw.model.Tower;
+import it.polimi.ingsw.model.Wizard;
+import it.polimi.ingsw.network.BinaryCodec;
+import it.polimi.ingsw.network.Frame;
+import it.polimi.ingsw.network.FrameCodec;
+import it.polimi.ingsw.network.FrameReader;
+import it.polimi.ingsw.network.MessageType;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+
+public class BinaryCodecTest {
+    private final Gson gson = new Gson();
+
+    /**
+     * This method checks that a message decoded from its binary form has the same json of the original one,
+     * and that the binary form is shorter
+     */
+    private void assertRoundTrip(Message message) throws IOException {
+        byte[] payload = BinaryCodec.encode(message);
+        Message decoded = BinaryCodec.decode(payload, payload.length, message.getClass());
+
+        String json = gson.toJson(message);
+        Assertions.assertEquals(JsonParser.parseString(json), JsonParser.parseString(gson.toJson(decoded)));
+        Assertions.assertTrue(payload.length < json.length());
+    }
+
+    @Test
+    public void roundTrip_ackMessages_sameJson() throws IOException {
+        AckMessage movement = new AckMessage();
+        movement.setSubObject("action_1_island");
+        movement.setRecipient(2);
+        movement.setNextPlayer(0);
+        movement.setStudentMoved_ID(17);
+        movement.setTypeOfStudentMoved(Creature.GNOME);
+        movement.setDestinationIsland_ID(11);
+        movement.setPreviousOwnerOfProfessor(-1);
+        movement.setStudents(new ArrayList<>(Arrays.asList(Creature.FROG, Creature.DRAGON)));
+        movement.setNotAvailableTowerColors(new ArrayList<>(Arrays.asList(Tower.BLACK, Tower.GREY)));
+        movement.setNotAvailableDecks(new ArrayList<>(Arrays.asList(Wizard.CLOUDWITCH)));
+        assertRoundTrip(movement);
+
+        AckMessage motherNature = new AckMessage();
+        motherNature.setSubObject("action_2");
+        motherNature.setIslandsUnified("both");
+        motherNature.setIslands_ID(new ArrayList<>(Arrays.asList(3, 4, 5)));
+        motherNature.setRemovedNoEntryTile(true);
+        motherNature.setIslandThatLostNoEntryTile(4);
+        motherNature.setMasterChanged(true);
+        motherNature.setNewMaster_ID(1);
+        motherNature.setTowerColor(Tower.WHITE);
+        motherNature.setEndOfMatch(true);
+        assertRoundTrip(motherNature);
+    }
+
+    @Test
+    public void roundTrip_ackCharactersMessage_sameJson() throws IOException {
+        AckCharactersMessage ack = new AckCharactersMessage(1, "herbalist", 14);
+        ack.setSubObject("herbalist");
+        ack.setIsland_ID(6);
+        ack.setNumberOfElementsOnTheCard(3);
+        ack.setStudentsOnCard(new ArrayList<>(Arrays.asList(Creature.UNICORN, Creature.FAIRY)));
+        ack.setCreature(Creature.FROG);
+        HashMap<Creature, Integer> diningRoom = new HashMap<>();
+        diningRoom.put(Creature.DRAGON, 4);
+        diningRoom.put(Creature.FROG, 0);
+        ack.setPlayerDiningRoom(diningRoom);
+        ack.setPlayerProfessors(0, new ArrayList<>(Arrays.asList(Creature.DRAGON)));
+        ack.setPlayerProfessors(1, new ArrayList<>());
+        ack.setPlayerCoins(2);
+        assertRoundTrip(ack);
+    }
+
+    @Test
+    public void roundTrip_matchStartMessage_sameJson() throws IOException {
+        MatchStartMessage start = new MatchStartMessage(1, 7, 2, true);
+        start.setNicknames(new ArrayList<>(Arrays.asList("mario", "luigi")));
+        start.setStudentsOnIslands(new ArrayList<>(Arrays.asList(Creature.FROG, null, Creature.GNOME)));
+        start.setStudentsInEntrance(0, new ArrayList<>(Arrays.asList(Creature.FAIRY, Creature.FAIRY)));
+        start.setStudentsInEntrance(1, new ArrayList<>(Arrays.asList(Creature.DRAGON)));
+        start.setCharacters(new LinkedHashSet<>(Arrays.asList("monk", "knight", "jester")));
+        start.setMonkStudents(new ArrayList<>(Arrays.asList(Creature.UNICORN)));
+        assertRoundTrip(start);
+    }
+
+    @Test
+    public void roundTrip_nackAndEndMessages_sameJson() throws IOException {
+        assertRoundTrip(new NackMessage("lobby_not_available"));
+        assertRoundTrip(new EndOfMatchMessage(-1, "", "three islands"));
+        assertRoundTrip(new EndOfMatchMessage(0, "mario", "towers_finished"));
+    }
+
+    /**
+     * We test that the acks inside the result of an action_2 are encoded with it, also when some of them are null
+     */
+    @Test
+    public void roundTrip_turnResultMessage_sameJson() throws IOException {
+        AckMessage movement = new AckMessage();
+        movement.setSubObject("action_2_movement");
+        movement.setRecipient(1);
+        movement.setNextPlayer(1);
+        movement.setDestinationIsland_ID(7);
+
+        TurnResultMessage noEntryTile = new TurnResultMessage();
+        noEntryTile.setMovement(movement);
+        assertRoundTrip(noEntryTile);
+
+        AckMessage influence = new AckMessage();
+        influence.setSubObject("action_2_influence");
+        influence.setMasterChanged(true);
+        influence.setNewMaster_ID(1);
+        influence.setTowerColor(Tower.BLACK);
+        AckMessage union = new AckMessage();
+        union.setSubObject("action_2_union");
+        union.setIslandsUnified("next");
+        union.setIslands_ID(new ArrayList<>(Arrays.asList(8)));
+
+        TurnResultMessage complete = new TurnResultMessage();
+        complete.setMovement(movement);
+        complete.setInfluence(influence);
+        complete.setUnion(union);
+        assertRoundTrip(complete);
+        Assertions.assertEquals(MessageType.ACTION_2_RESULT, MessageType.fromObject(complete.getObjectOfMessage()));
+    }
+
+    /**
+     * We test that the acks of a batch of moves of action_1 are encoded in order
+     */
+    @Test
+    public void roundTrip_studentsMovedMessage_sameJson() throws IOException {
+        StudentsMovedMessage result = new StudentsMovedMessage();
+        for (int student = 0; student < 4; student++) {
+            AckMessage move = new AckMessage();
+            move.setSubObject(student < 2 ? "action_1_dining_room" : "action_1_island");
+            move.setRecipient(2);
+            move.setNextPlayer(2);
+            move.setStudentMoved_ID(student);
+            move.setTypeOfStudentMoved(Creature.values()[student]);
+            move.setDestinationIsland_ID(student < 2 ? 0 : 9);
+            move.setProfessorTaken(student == 0);
+            result.addMove(move);
+        }
+        assertRoundTrip(result);
+        Assertions.assertEquals(2, result.getNextPlayer());
+    }
+
+    /**
+     * We test that the frame of a binary message is flagged and decoded with the class of its tag
+     */
+    @Test
+    public void encodeBinary_frame_decodedByTag() throws IOException {
+        EndOfMatchMessage end = new EndOfMatchMessage(1, "luigi", "disconnection");
+        FrameReader reader = new FrameReader(new ByteArrayInputStream(FrameCodec.encodeBinary(end)));
+
+        Frame frame = reader.read();
+        Assertions.assertTrue(frame.isBinary());
+        Assertions.assertEquals(MessageType.END, frame.getType());
+        Assertions.assertEquals(gson.toJson(end), gson.toJson(frame.decodeBinary()));
+    }
+
+    /**
+     * We test that a truncated payload is refused
+     */
+    @Test
+    public void decode_truncatedPayload_refused() {
+        byte[] payload = BinaryCodec.encode(new NackMessage("deck"));
+        Assertions.assertThrows(IOException.class, () -> BinaryCodec.decode(payload, payload.length - 3, NackMessage.class));
+    }
+}
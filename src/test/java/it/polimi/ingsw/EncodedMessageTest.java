@@ -0,0 +1,102 @@
+package it.polimi.ingsw;
+
+import it.polimi.ingsw.messages.MessageAdapters;
+import it.polimi.ingsw.messages.serverMessages.AckMessage;
+import it.polimi.ingsw.messages.serverMessages.TurnResultMessage;
+import it.polimi.ingsw.server.EncodedMessage;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+public class EncodedMessageTest {
+
+    /**
+     * We test that the encoded message is the json produced by the message adapters followed by the new line
+     */
+    @Test
+    public void of_ackMessage_jsonLine() throws IOException {
+        AckMessage ack = new AckMessage();
+        ack.setSubObject("waiting");
+        String json = MessageAdapters.GSON.toJson(ack);
+
+        EncodedMessage encoded = EncodedMessage.of(ack);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        encoded.writeTo(out);
+
+        Assertions.assertEquals(json + "\n", out.toString(StandardCharsets.UTF_8));
+        Assertions.assertEquals(json, encoded.toString());
+        Assertions.assertEquals("ack", encoded.getObjectOfMessage());
+    }
+
+    /**
+     * We test that the buffers given to different connections share the bytes but not the position,
+     * so writing the message to one player doesn't consume it for the others
+     */
+    @Test
+    public void asBuffer_twoBuffers_independentPositions() {
+        EncodedMessage encoded = EncodedMessage.of("ack", "{\"object\":\"ack\"}");
+        ByteBuffer first = encoded.asBuffer();
+        ByteBuffer second = encoded.asBuffer();
+
+        first.position(first.limit());
+
+        Assertions.assertTrue(first.isReadOnly());
+        Assertions.assertEquals(encoded.length(), second.remaining());
+    }
+
+    /**
+     * We test that a turn result is split in the acks it carries, without the ones not performed, for the clients
+     * that did not agree on batching, and that the other messages have no parts
+     */
+    @Test
+    public void getParts_turnResult_acksInOrder() {
+        AckMessage movement = new AckMessage();
+        movement.setSubObject("action_2_movement");
+        AckMessage union = new AckMessage();
+        union.setSubObject("action_2_union");
+        TurnResultMessage turnResult = new TurnResultMessage();
+        turnResult.setMovement(movement);
+        turnResult.setUnion(union);
+
+        EncodedMessage[] parts = EncodedMessage.of(turnResult).getParts();
+
+        Assertions.assertEquals(2, parts.length);
+        Assertions.assertEquals(MessageAdapters.GSON.toJson(movement), parts[0].toString());
+        Assertions.assertEquals(MessageAdapters.GSON.toJson(union), parts[1].toString());
+        Assertions.assertNull(EncodedMessage.of(movement).getParts());
+    }
+
+    /**
+     * We test that when mother nature reached a no entry tile the clients that did not agree on batching still
+     * receive the three acks, with the empty influence and union acks sent before the batching
+     */
+    @Test
+    public void getParts_turnResultNoEntryTile_emptyAcksRebuilt() {
+        AckMessage movement = new AckMessage();
+        movement.setSubObject("action_2_movement");
+        movement.setRecipient(1);
+        movement.setNextPlayer(1);
+        movement.setRemovedNoEntryTile(true);
+        TurnResultMessage turnResult = new TurnResultMessage();
+        turnResult.setMovement(movement);
+
+        List<AckMessage> acks = turnResult.getParts();
+        EncodedMessage[] parts = EncodedMessage.of(turnResult).getParts();
+
+        Assertions.assertEquals(3, parts.length);
+        Assertions.assertEquals(MessageAdapters.GSON.toJson(movement), parts[0].toString());
+        Assertions.assertEquals("action_2_influence", acks.get(1).getSubObject());
+        Assertions.assertFalse(acks.get(1).isMasterChanged());
+        Assertions.assertEquals("action_2_union", acks.get(2).getSubObject());
+        Assertions.assertEquals("none", acks.get(2).getIslandsUnified());
+        for (AckMessage ack : acks) {
+            Assertions.assertEquals(1, ack.getRecipient());
+            Assertions.assertEquals(1, ack.getNextPlayer());
+        }
+    }
+}
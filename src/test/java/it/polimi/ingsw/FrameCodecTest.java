@@ -0,0 +1,158 @@
+package it.polimi.ingsw;
+
+import it.polimi.ingsw.messages.clientMessages.PingMessage;
+import it.polimi.ingsw.messages.serverMessages.AskMatchToJoinMessage;
+import it.polimi.ingsw.messages.serverMessages.NackMessage;
+import it.polimi.ingsw.network.Frame;
+import it.polimi.ingsw.network.FrameCodec;
+import it.polimi.ingsw.network.FrameCompressor;
+import it.polimi.ingsw.network.FrameDecoder;
+import it.polimi.ingsw.network.FrameReader;
+import it.polimi.ingsw.network.MessageType;
+import it.polimi.ingsw.network.WireFormat;
+import it.polimi.ingsw.server.EncodedMessage;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+
+public class FrameCodecTest {
+
+    /**
+     * We test that the frames written one after the other are read back with their tag and payload,
+     * and that the end of the stream between two frames is reported as null
+     */
+    @Test
+    public void read_encodedFrames_sameTagAndPayload() throws IOException {
+        ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        stream.write(FrameCodec.encode("ping", "{\"object\":\"ping\",\"sender_ID\":0}"));
+        String longJson = "{\"object\":\"nack\",\"subObject\":\"" + "x".repeat(1000) + "\"}";
+        stream.write(FrameCodec.encode("nack", longJson));
+        stream.write(FrameCodec.encode("unknown object", "{}"));
+
+        FrameReader reader = new FrameReader(new ByteArrayInputStream(stream.toByteArray()));
+        Frame frame = reader.read();
+        Assertions.assertEquals(MessageType.PING, frame.getType());
+        frame = reader.read();
+        Assertions.assertEquals(MessageType.NACK, frame.getType());
+        Assertions.assertEquals(longJson, frame.payloadAsString());
+        frame = reader.read();
+        Assertions.assertEquals(MessageType.GENERIC, frame.getType());
+        Assertions.assertEquals("{}", frame.payloadAsString());
+        Assertions.assertNull(reader.read());
+    }
+
+    /**
+     * We test that the decoder used by the NIO server rebuilds the frames when they arrive split in many
+     * reads or joined in the same read
+     */
+    @Test
+    public void next_splitAndJoinedFrames_allDecoded() throws IOException {
+        EncodedMessage nack = EncodedMessage.of(new NackMessage("lobby_not_available"));
+        EncodedMessage ping = EncodedMessage.of(new PingMessage());
+        ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        for (EncodedMessage message : new EncodedMessage[]{nack, ping, nack}) {
+            ByteBuffer frame = message.asFrameBuffer();
+            byte[] bytes = new byte[frame.remaining()];
+            frame.get(bytes);
+            stream.write(bytes);
+        }
+        byte[] bytes = stream.toByteArray();
+
+        FrameDecoder decoder = new FrameDecoder();
+        ArrayList<String> received = new ArrayList<>();
+        // the bytes arrive three at a time
+        for (int i = 0; i < bytes.length; i += 3) {
+            ByteBuffer read = ByteBuffer.wrap(bytes, i, Math.min(3, bytes.length - i));
+            while (read.hasRemaining()) {
+                Frame frame = decoder.next(read);
+                if (frame != null) {
+                    received.add(frame.getType() + " " + frame.payloadAsString());
+                }
+            }
+        }
+
+        Assertions.assertEquals(3, received.size());
+        Assertions.assertEquals("NACK " + nack, received.get(0));
+        Assertions.assertEquals("PING " + ping, received.get(1));
+        Assertions.assertEquals("NACK " + nack, received.get(2));
+    }
+
+    /**
+     * We test that a frame longer than the maximum length is refused
+     */
+    @Test
+    public void read_tooLongFrame_refused() {
+        byte[] header = {0x7F, 0, 0, 0, 0};
+        FrameReader reader = new FrameReader(new ByteArrayInputStream(header));
+        Assertions.assertThrows(IOException.class, reader::read);
+    }
+
+    /**
+     * We test that a long list of lobbies is sent compressed and read back equal, while a short message
+     * is sent as it is
+     */
+    @Test
+    public void inflate_compressedFrames_samePayload() throws IOException {
+        AskMatchToJoinMessage lobbies = new AskMatchToJoinMessage(0, null, 0, 1);
+        ArrayList<Integer> lobbiesID = new ArrayList<>();
+        ArrayList<Integer> numberOfPlayers = new ArrayList<>();
+        ArrayList<Integer> playersAdded = new ArrayList<>();
+        ArrayList<Boolean> expertMode = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            lobbiesID.add(i);
+            numberOfPlayers.add(2 + i % 3);
+            playersAdded.add(1);
+            expertMode.add(i % 2 == 0);
+        }
+        lobbies.setLobbiesID(lobbiesID);
+        lobbies.setLobbiesNumberOfPlayers(numberOfPlayers);
+        lobbies.setLobbiesPlayersAdded(playersAdded);
+        lobbies.setLobbiesExpertMode(expertMode);
+        EncodedMessage longMessage = EncodedMessage.of(lobbies);
+        EncodedMessage shortMessage = EncodedMessage.of(new NackMessage("lobby_not_available"));
+
+        FrameCompressor sender = new FrameCompressor();
+        ByteBuffer compressed = longMessage.asBuffer(WireFormat.JSON_FRAMES, sender);
+        ByteBuffer notCompressed = shortMessage.asBuffer(WireFormat.JSON_FRAMES, sender);
+        Assertions.assertTrue(compressed.remaining() * 2 < longMessage.asFrameBuffer().remaining());
+        Assertions.assertEquals(shortMessage.asFrameBuffer(), notCompressed);
+        // the compressed frame is built once and shared by all the connections
+        Assertions.assertEquals(compressed, longMessage.asBuffer(WireFormat.JSON_FRAMES, new FrameCompressor()));
+
+        ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        for (ByteBuffer frame : new ByteBuffer[]{compressed, notCompressed}) {
+            byte[] bytes = new byte[frame.remaining()];
+            frame.get(bytes);
+            stream.write(bytes);
+        }
+        FrameReader reader = new FrameReader(new ByteArrayInputStream(stream.toByteArray()));
+        FrameCompressor receiver = new FrameCompressor();
+
+        Frame frame = reader.read();
+        Assertions.assertTrue(frame.isCompressed());
+        receiver.inflate(frame);
+        Assertions.assertFalse(frame.isCompressed());
+        Assertions.assertEquals(MessageType.fromObject("join match"), frame.getType());
+        Assertions.assertEquals(longMessage.toString(), frame.payloadAsString());
+
+        frame = reader.read();
+        Assertions.assertFalse(frame.isCompressed());
+        Assertions.assertEquals(shortMessage.toString(), receiver.inflate(frame).payloadAsString());
+    }
+
+    /**
+     * We test that a compressed frame whose payload is not valid is refused
+     */
+    @Test
+    public void inflate_invalidCompressedFrame_refused() throws IOException {
+        byte[] payload = {0, 0, 0, 10, 1, 2, 3, 4};
+        byte[] bytes = FrameCodec.encode(MessageType.fromObject("start").getTag() | FrameCodec.COMPRESSED_FLAG, payload, 0, payload.length);
+        Frame frame = new FrameReader(new ByteArrayInputStream(bytes)).read();
+        Assertions.assertThrows(IOException.class, () -> new FrameCompressor().inflate(frame));
+    }
+}
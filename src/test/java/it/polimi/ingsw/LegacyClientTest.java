@@ -0,0 +1,168 @@
+package it.polimi.ingsw;
+
+import it.polimi.ingsw.messages.Message;
+import it.polimi.ingsw.messages.MessageAdapters;
+import it.polimi.ingsw.messages.MessageDecoder;
+import it.polimi.ingsw.messages.clientMessages.FramingRequestMessage;
+import it.polimi.ingsw.messages.clientMessages.HelloMessage;
+import it.polimi.ingsw.messages.serverMessages.AckMessage;
+import it.polimi.ingsw.messages.serverMessages.FramingAckMessage;
+import it.polimi.ingsw.messages.serverMessages.HelloAckMessage;
+import it.polimi.ingsw.messages.serverMessages.TurnResultMessage;
+import it.polimi.ingsw.network.Frame;
+import it.polimi.ingsw.network.FrameReader;
+import it.polimi.ingsw.server.ClientHandler;
+import it.polimi.ingsw.server.Server;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+
+public class LegacyClientTest {
+
+    private Socket client;
+    private ClientHandler clientHandler;
+
+    /**
+     * This method connects a client to a ClientHandler in blocking mode, reading from the socket in a daemon thread
+     */
+    private void connect() throws IOException {
+        try (ServerSocket serverSocket = new ServerSocket(0)) {
+            client = new Socket("localhost", serverSocket.getLocalPort());
+            client.setSoTimeout(5000);
+            clientHandler = new ClientHandler(serverSocket.accept(), new Server(4444));
+        }
+        Thread reader = new Thread(clientHandler);
+        reader.setDaemon(true);
+        reader.start();
+    }
+
+    @AfterEach
+    public void close() throws IOException {
+        if (client != null) {
+            client.close();
+        }
+    }
+
+    private void sendLine(Message message) throws IOException {
+        OutputStream out = client.getOutputStream();
+        out.write((MessageAdapters.GSON.toJson(message) + "\n").getBytes(StandardCharsets.UTF_8));
+        out.flush();
+    }
+
+    private Message readLine() throws IOException {
+        return MessageDecoder.CLIENT_SIDE.decode(readJsonLine());
+    }
+
+    /**
+     * This method reads one json line, one byte at a time, so no byte of the following frames is read
+     */
+    private String readJsonLine() throws IOException {
+        InputStream in = client.getInputStream();
+        ByteArrayOutputStream line = new ByteArrayOutputStream();
+        int b = in.read();
+        while (b >= 0 && b != '\n') {
+            line.write(b);
+            b = in.read();
+        }
+        Assertions.assertTrue(b >= 0, "connection closed");
+        return line.toString(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * This method creates the result of an action_2 with the three acks
+     */
+    private TurnResultMessage turnResult() {
+        AckMessage movement = new AckMessage();
+        movement.setSubObject("action_2_movement");
+        movement.setDestinationIsland_ID(6);
+        AckMessage influence = new AckMessage();
+        influence.setSubObject("action_2_influence");
+        AckMessage union = new AckMessage();
+        union.setSubObject("action_2_union");
+        union.setIslandsUnified("none");
+
+        TurnResultMessage turnResult = new TurnResultMessage();
+        turnResult.setMovement(movement);
+        turnResult.setInfluence(influence);
+        turnResult.setUnion(union);
+        return turnResult;
+    }
+
+    private void assertActionTwoAcks(Message movement, Message influence, Message union) {
+        Assertions.assertEquals("action_2_movement", ((AckMessage) movement).getSubObject());
+        Assertions.assertEquals(6, ((AckMessage) movement).getDestinationIsland_ID());
+        Assertions.assertEquals("action_2_influence", ((AckMessage) influence).getSubObject());
+        Assertions.assertEquals("action_2_union", ((AckMessage) union).getSubObject());
+    }
+
+    /**
+     * We test that a client which doesn't send the hello receives the three acks of the action_2 as json lines
+     */
+    @Test
+    public void noHello_turnResult_threeAckLines() throws IOException {
+        connect();
+
+        clientHandler.sendMessageFromServer(turnResult());
+
+        assertActionTwoAcks(readLine(), readLine(), readLine());
+    }
+
+    /**
+     * We test that a client which agreed on batching receives the action_2 as a single turn result
+     */
+    @Test
+    public void helloWithBatching_turnResult_singleMessage() throws IOException {
+        connect();
+        sendLine(new HelloMessage(false, false, false, true));
+        Assertions.assertTrue(readLine() instanceof HelloAckMessage);
+
+        AckMessage waiting = new AckMessage();
+        waiting.setSubObject("waiting");
+        clientHandler.sendMessageFromServer(turnResult());
+        clientHandler.sendMessageFromServer(waiting);
+
+        Message received = readLine();
+        Assertions.assertTrue(received instanceof TurnResultMessage);
+        Assertions.assertEquals(6, ((TurnResultMessage) received).getMovement().getDestinationIsland_ID());
+        // the next message is not a part of the turn result
+        Assertions.assertEquals("waiting", ((AckMessage) readLine()).getSubObject());
+    }
+
+    /**
+     * We test that a client asking for frames with the FramingRequestMessage, sent before the hello existed, gets
+     * the FramingAckMessage it waits for, with json payloads even if it asked for the binary ones, and then the
+     * three acks of the action_2 as frames
+     */
+    @Test
+    public void framingRequest_turnResult_framingAckAndThreeAckFrames() throws IOException, InterruptedException {
+        connect();
+        sendLine(new FramingRequestMessage(true, false));
+
+        FramingAckMessage answer = MessageAdapters.GSON.fromJson(readJsonLine(), FramingAckMessage.class);
+        Assertions.assertEquals("framing", answer.getObjectOfMessage());
+        Assertions.assertFalse(answer.isBinary());
+        // the connection switches to frames right after the answer has been queued
+        for (int attempt = 0; !clientHandler.isFramed() && attempt < 50; attempt++) {
+            Thread.sleep(10);
+        }
+
+        clientHandler.sendMessageFromServer(turnResult());
+
+        FrameReader frameReader = new FrameReader(client.getInputStream());
+        Message[] acks = new Message[3];
+        for (int i = 0; i < acks.length; i++) {
+            Frame frame = frameReader.read();
+            Assertions.assertFalse(frame.isBinary());
+            acks[i] = MessageDecoder.CLIENT_SIDE.decode(frame.payloadAsString());
+        }
+        assertActionTwoAcks(acks[0], acks[1], acks[2]);
+    }
+}
@@ -0,0 +1,85 @@
+package it.polimi.ingsw;
+
+import com.google.gson.Gson;
+import it.polimi.ingsw.messages.MessageAdapters;
+import it.polimi.ingsw.messages.clientMessages.LoginMessage;
+import it.polimi.ingsw.messages.clientMessages.PingMessage;
+import it.polimi.ingsw.server.ClientHandler;
+import it.polimi.ingsw.server.LivenessTimer;
+import it.polimi.ingsw.server.Server;
+import it.polimi.ingsw.server.TransportMode;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+public class LivenessTimerTest {
+
+    private long after(long start, long millis){
+        return start + TimeUnit.MILLISECONDS.toNanos(millis);
+    }
+
+    /**
+     * We test that a client is disconnected only when nothing has been received for the whole timeout (at most one
+     * tick of the wheel later), and that a client whose checks have been cancelled is never disconnected
+     */
+    @Test
+    public void advance_silentClients_expiredAfterTimeout() {
+        Server server = new Server(4444, TransportMode.BLOCKING, 1000);
+        LivenessTimer timer = new LivenessTimer(1000);
+        LivenessTimer.Entry silent = timer.register(new ClientHandler(new Socket(), server));
+        LivenessTimer.Entry talking = timer.register(new ClientHandler(new Socket(), server));
+        LivenessTimer.Entry cancelled = timer.register(new ClientHandler(new Socket(), server));
+        long start = System.nanoTime();
+        silent.touch(start);
+        talking.touch(start);
+        cancelled.cancel();
+
+        Assertions.assertEquals(0, timer.advance(after(start, 500)));
+        talking.touch(after(start, 800));
+
+        Assertions.assertEquals(1, timer.advance(after(start, 1100)));
+        Assertions.assertEquals(0, timer.advance(after(start, 1700)));
+        Assertions.assertEquals(1, timer.advance(after(start, 2300)));
+        Assertions.assertEquals(0, timer.advance(after(start, 60000)));
+    }
+
+    /**
+     * This method checks a line byte by byte, as the NioConnection does while reading it
+     */
+    private boolean isPingByBytes(String line) {
+        byte[] bytes = line.getBytes(StandardCharsets.UTF_8);
+        for (int i = 0; i < bytes.length; i++) {
+            if (!ClientHandler.matchesPing(i, bytes[i])) {
+                return false;
+            }
+        }
+        return bytes.length >= ClientHandler.PING_PREFIX_LENGTH;
+    }
+
+    /**
+     * We test that the ping sent by the client is recognised, whatever its sender_ID and also with the '\r' of
+     * CRLF lines, while the other messages are not, even with the same length and an object starting with 'p'
+     */
+    @Test
+    public void isPing_onlyPingMessage() {
+        Gson gson = new Gson();
+        PingMessage fromPlayer12 = new PingMessage();
+        fromPlayer12.setSender_ID(12);
+        String[] pings = {gson.toJson(new PingMessage()), MessageAdapters.GSON.toJson(new PingMessage()),
+                MessageAdapters.GSON.toJson(fromPlayer12), gson.toJson(new PingMessage()) + "\r"};
+        String[] notPings = {gson.toJson(new LoginMessage("peach", true)), "{\"object\":\"pong\",\"sender_ID\":0}",
+                "{\"object\":\"pingpong\",\"ID\":0}", "{\"object\":\"p"};
+
+        for (String ping : pings) {
+            Assertions.assertTrue(ClientHandler.isPing(ping), ping);
+            Assertions.assertTrue(isPingByBytes(ping), ping);
+        }
+        for (String line : notPings) {
+            Assertions.assertFalse(ClientHandler.isPing(line), line);
+            Assertions.assertFalse(isPingByBytes(line), line);
+        }
+    }
+}
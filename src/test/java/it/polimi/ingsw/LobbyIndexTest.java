@@ -0,0 +1,90 @@
+package it.polimi.ingsw;
+
+import it.polimi.ingsw.controller.Controller;
+import it.polimi.ingsw.server.LobbyIndex;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+
+public class LobbyIndexTest {
+
+    private Controller createLobby(int ID, int numberOfPlayers, boolean expertMode){
+        Controller controller = new Controller(ID);
+        controller.setNumberOfPlayers(numberOfPlayers);
+        controller.setExpertMode(expertMode);
+        return controller;
+    }
+
+    /**
+     * We test that the filters on the number of players and on the mode select the right buckets,
+     * and that the lobbies are sorted by ID
+     */
+    @Test
+    public void findOpen_filters_onlyMatchingLobbiesSortedByID() {
+        LobbyIndex index = new LobbyIndex();
+        index.add(createLobby(3, 2, false));
+        index.add(createLobby(0, 3, true));
+        index.add(createLobby(1, 2, false));
+        index.add(createLobby(2, 2, true));
+
+        ArrayList<Controller> all = index.findOpen(0, null);
+        Assertions.assertEquals(4, all.size());
+        for(int i = 0; i < all.size(); i++){
+            Assertions.assertEquals(i, all.get(i).getMatchID());
+        }
+
+        ArrayList<Controller> twoPlayersNormal = index.findOpen(2, false);
+        Assertions.assertEquals(2, twoPlayersNormal.size());
+        Assertions.assertEquals(1, twoPlayersNormal.get(0).getMatchID());
+        Assertions.assertEquals(3, twoPlayersNormal.get(1).getMatchID());
+
+        Assertions.assertEquals(2, index.findOpen(0, true).size());
+        Assertions.assertEquals(1, index.findOpen(3, null).size());
+    }
+
+    /**
+     * We test that the lobbies started or ended are not listed and are removed from the index
+     */
+    @Test
+    public void findOpen_startedAndEndedLobbies_notListed() {
+        LobbyIndex index = new LobbyIndex();
+        Controller started = createLobby(0, 2, false);
+        Controller ended = createLobby(1, 2, false);
+        Controller waiting = createLobby(2, 2, false);
+        index.add(started);
+        index.add(ended);
+        index.add(waiting);
+
+        started.setPlaying(true);
+        ended.setMatchEnded(true);
+
+        ArrayList<Controller> open = index.findOpen(0, null);
+        Assertions.assertEquals(1, open.size());
+        Assertions.assertEquals(2, open.get(0).getMatchID());
+
+        index.remove(waiting);
+        Assertions.assertFalse(index.hasOpenLobby());
+    }
+
+    /**
+     * We test that the first open lobby is the one with the lowest ID among the matching buckets, skipping the
+     * lobbies already started
+     */
+    @Test
+    public void firstOpen_filters_lowestOpenIDOrNull() {
+        LobbyIndex index = new LobbyIndex();
+        Controller started = createLobby(0, 2, false);
+        index.add(started);
+        index.add(createLobby(4, 2, false));
+        index.add(createLobby(2, 2, true));
+        index.add(createLobby(1, 3, true));
+        started.setPlaying(true);
+
+        Assertions.assertEquals(1, index.firstOpen(0, null).getMatchID());
+        Assertions.assertEquals(2, index.firstOpen(2, null).getMatchID());
+        Assertions.assertEquals(4, index.firstOpen(2, false).getMatchID());
+        Assertions.assertEquals(1, index.firstOpen(0, true).getMatchID());
+        Assertions.assertNull(index.firstOpen(3, false));
+    }
+}
@@ -0,0 +1,65 @@
+package it.polimi.ingsw;
+
+import it.polimi.ingsw.controller.Controller;
+import it.polimi.ingsw.server.LobbyRegistry;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+
+public class LobbyRegistryTest {
+
+    /**
+     * We test that lobbies created at the same time by many threads all get different IDs
+     */
+    @Test
+    public void newLobby_manyThreads_differentIDs() throws InterruptedException {
+        LobbyRegistry registry = new LobbyRegistry();
+        int threads = 8;
+        int lobbiesPerThread = 250;
+
+        ArrayList<Thread> creators = new ArrayList<>();
+        for(int t = 0; t < threads; t++){
+            creators.add(new Thread(() -> {
+                for(int i = 0; i < lobbiesPerThread; i++){
+                    registry.add(registry.newLobby());
+                }
+            }));
+        }
+        for(Thread c : creators){
+            c.start();
+        }
+        for(Thread c : creators){
+            c.join();
+        }
+
+        Assertions.assertEquals(threads * lobbiesPerThread, registry.size());
+        Assertions.assertEquals(threads * lobbiesPerThread, registry.getIDsGiven());
+        for(int id = 0; id < threads * lobbiesPerThread; id++){
+            Assertions.assertEquals(id, registry.get(id).getMatchID());
+        }
+    }
+
+    /**
+     * We test that a lobby is not visible until it is added, that it is open while it's waiting for players
+     * and that a removed lobby is considered ended
+     */
+    @Test
+    public void isOpen_lifecycleOfALobby() {
+        LobbyRegistry registry = new LobbyRegistry();
+        Controller lobby = registry.newLobby();
+
+        Assertions.assertNull(registry.get(lobby.getMatchID()));
+        Assertions.assertFalse(registry.isOpen(lobby.getMatchID()));
+
+        registry.add(lobby);
+        Assertions.assertTrue(registry.isOpen(lobby.getMatchID()));
+        Assertions.assertFalse(registry.isEnded(lobby.getMatchID()));
+
+        lobby.setMatchEnded(true);
+        Assertions.assertFalse(registry.isOpen(lobby.getMatchID()));
+
+        registry.remove(lobby.getMatchID());
+        Assertions.assertTrue(registry.isEnded(lobby.getMatchID()));
+    }
+}
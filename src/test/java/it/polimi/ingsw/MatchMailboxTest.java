@@ -0,0 +1,85 @@
+package it.polimi.ingsw;
+
+import it.polimi.ingsw.controller.MatchMailbox;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+public class MatchMailboxTest {
+
+    /**
+     * We test that the tasks submitted by many threads are all executed, one at a time, and that the tasks
+     * submitted by the same thread are executed in the order they were submitted
+     */
+    @Test
+    public void submit_manyThreads_tasksExecutedInOrderAndNeverTogether() throws InterruptedException {
+        MatchMailbox mailbox = new MatchMailbox();
+        int threads = 4;
+        int tasksPerThread = 1000;
+        ArrayList<ArrayList<Integer>> executed = new ArrayList<>();
+        for(int t = 0; t < threads; t++){
+            executed.add(new ArrayList<>());
+        }
+        int[] running = {0};
+        boolean[] overlap = {false};
+        CountDownLatch done = new CountDownLatch(threads * tasksPerThread);
+
+        ArrayList<Thread> producers = new ArrayList<>();
+        for(int t = 0; t < threads; t++){
+            int producer = t;
+            producers.add(new Thread(() -> {
+                for(int i = 0; i < tasksPerThread; i++){
+                    int task = i;
+                    mailbox.submit(() -> {
+                        // no lock here: the mailbox must execute one task at a time
+                        running[0]++;
+                        if(running[0] > 1){
+                            overlap[0] = true;
+                        }
+                        executed.get(producer).add(task);
+                        running[0]--;
+                        done.countDown();
+                    });
+                }
+            }));
+        }
+        for(Thread p : producers){
+            p.start();
+        }
+
+        Assertions.assertTrue(done.await(10, TimeUnit.SECONDS));
+        Assertions.assertFalse(overlap[0]);
+        for(int t = 0; t < threads; t++){
+            Assertions.assertEquals(tasksPerThread, executed.get(t).size());
+            for(int i = 0; i < tasksPerThread; i++){
+                Assertions.assertEquals(i, executed.get(t).get(i));
+            }
+        }
+    }
+
+    /**
+     * We test that a task throwing an exception doesn't stop the mailbox and that the depth goes back to zero
+     * when all the tasks have been executed
+     */
+    @Test
+    public void submit_taskThrowsException_nextTasksExecutedAndDepthZero() throws InterruptedException {
+        MatchMailbox mailbox = new MatchMailbox();
+        CountDownLatch done = new CountDownLatch(1);
+
+        mailbox.submit(() -> {
+            throw new IllegalStateException("wrong message");
+        });
+        mailbox.submit(done::countDown);
+
+        Assertions.assertTrue(done.await(5, TimeUnit.SECONDS));
+        long deadline = System.currentTimeMillis() + 5000;
+        while(mailbox.getDepth() != 0 && System.currentTimeMillis() < deadline){
+            Thread.sleep(10);
+        }
+        Assertions.assertEquals(0, mailbox.getDepth());
+        Assertions.assertTrue(mailbox.getMaxDepth() >= 1);
+    }
+}
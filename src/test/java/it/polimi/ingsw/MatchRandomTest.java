@@ -0,0 +1,60 @@
+package it.polimi.ingsw;
+
+import it.polimi.ingsw.model.Archipelago;
+import it.polimi.ingsw.model.Match;
+import it.polimi.ingsw.model.MatchRandom;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+
+public class MatchRandomTest {
+
+    /**
+     * This method describes the random part of the setup of a match: mother nature, the students on the islands,
+     * the students in the entrances and the next draws from the bag
+     */
+    private String setUpOf(Match match) {
+        match.addPlayer("mario");
+        match.addPlayer("luigi");
+        StringBuilder description = new StringBuilder();
+        description.append(match.getPositionOfMotherNature());
+        for (Archipelago archipelago : match.getRealmOfTheMatch().getArchipelagos()) {
+            description.append(archipelago.getStudentsPopulation());
+        }
+        for (int i = 0; i < 2; i++) {
+            description.append(match.getPlayerByID(i).getSchoolBoard().getEntrance().getStudentsInTheEntrance());
+        }
+        description.append(match.getBagOfTheMatch().drawStudents(20));
+        return description.toString();
+    }
+
+    /**
+     * We test that two matches created with the same seed are set up in the same way, and that the seed is kept
+     */
+    @Test
+    public void sameSeed_sameSetUp() {
+        Match first = new Match(0, 2, true, new MatchRandom(42));
+        Match second = new Match(1, 2, true, new MatchRandom(42));
+
+        Assertions.assertEquals(setUpOf(first), setUpOf(second));
+        Assertions.assertEquals(42, first.getRandom().getSeed());
+    }
+
+    /**
+     * We test that the numbers drawn are inside the bound and that all the values can be drawn
+     */
+    @Test
+    public void nextInt_allValuesInsideTheBound() {
+        MatchRandom random = new MatchRandom(7);
+        ArrayList<Integer> drawn = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            int value = random.nextInt(12);
+            Assertions.assertTrue(value >= 0 && value < 12);
+            if (!drawn.contains(value)) {
+                drawn.add(value);
+            }
+        }
+        Assertions.assertEquals(12, drawn.size());
+    }
+}
@@ -0,0 +1,83 @@
+package it.polimi.ingsw;
+
+import it.polimi.ingsw.controller.Controller;
+import it.polimi.ingsw.server.ClientHandler;
+import it.polimi.ingsw.server.MatchReaper;
+import it.polimi.ingsw.server.Server;
+import it.polimi.ingsw.server.TransportMode;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.net.Socket;
+import java.util.concurrent.TimeUnit;
+
+public class MatchReaperTest {
+
+    /**
+     * We test that an ended match is kept for the grace period and then removed from the server together with
+     * the nicknames of its players, while a match still playing is never touched
+     */
+    @Test
+    public void reap_endedMatch_reclaimedAfterGracePeriod() {
+        Server server = new Server(4444, TransportMode.BLOCKING, 1000);
+        MatchReaper reaper = server.getMatchReaper();
+
+        Controller ended = server.getLobbies().newLobby();
+        ended.setNumberOfPlayers(3);
+        ClientHandler mario = new ClientHandler(new Socket(), server);
+        ClientHandler luigi = new ClientHandler(new Socket(), server);
+        ended.addPlayerHandler(mario, "mario");
+        ended.addPlayerHandler(luigi, "luigi");
+        server.getNicknames().reserve("mario", mario);
+        server.getNicknames().reserve("luigi", luigi);
+        server.getLobbies().add(ended);
+
+        Controller waiting = server.getLobbies().newLobby();
+        waiting.setNumberOfPlayers(2);
+        ClientHandler toad = new ClientHandler(new Socket(), server);
+        waiting.addPlayerHandler(toad, "toad");
+        server.getNicknames().reserve("toad", toad);
+        server.getLobbies().add(waiting);
+
+        ended.setMatchEnded(true);
+        long now = System.nanoTime();
+
+        // first check: the match is found ended, the grace period starts
+        Assertions.assertEquals(0, reaper.reap(now));
+        Assertions.assertNotNull(server.getLobbies().get(ended.getMatchID()));
+
+        // grace period not over yet
+        Assertions.assertEquals(0, reaper.reap(now + TimeUnit.MILLISECONDS.toNanos(999)));
+
+        Assertions.assertEquals(1, reaper.reap(now + TimeUnit.MILLISECONDS.toNanos(1000)));
+        Assertions.assertNull(server.getLobbies().get(ended.getMatchID()));
+        Assertions.assertNotNull(server.getLobbies().get(waiting.getMatchID()));
+        Assertions.assertFalse(server.getNicknames().isReserved("mario"));
+        Assertions.assertFalse(server.getNicknames().isReserved("luigi"));
+        Assertions.assertTrue(server.getNicknames().isReserved("toad"));
+    }
+
+    /**
+     * We test that at each check the depth and the maximum depth of the mailbox of each match are reported,
+     * and that nothing is reported without lobbies
+     */
+    @Test
+    public void reportQueueDepths_eachMatchWithDepthAndMaxDepth() throws InterruptedException {
+        Server server = new Server(4444, TransportMode.BLOCKING, 1000);
+        MatchReaper reaper = server.getMatchReaper();
+        Assertions.assertNull(reaper.reportQueueDepths());
+
+        Controller busy = server.getLobbies().newLobby();
+        server.getLobbies().add(busy);
+        Controller idle = server.getLobbies().newLobby();
+        server.getLobbies().add(idle);
+
+        busy.submitMsg("{\"object\":\"ping\",\"sender_ID\":0}");
+        for (int attempt = 0; attempt < 100 && busy.getMailboxDepth() > 0; attempt++) {
+            Thread.sleep(10);
+        }
+
+        Assertions.assertEquals("Mailboxes of the matches (depth/max depth): " + busy.getMatchID() + ": 0/1 " +
+                idle.getMatchID() + ": 0/0", reaper.reportQueueDepths());
+    }
+}
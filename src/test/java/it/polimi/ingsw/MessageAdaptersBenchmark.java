@@ -0,0 +1,129 @@
+package it.polimi.ingsw;
+
+import com.google.gson.Gson;
+import it.polimi.ingsw.messages.Message;
+import it.polimi.ingsw.messages.MessageAdapters;
+import it.polimi.ingsw.messages.clientMessages.MovedStudentsFromEntranceMessage;
+import it.polimi.ingsw.messages.serverMessages.AckMessage;
+import it.polimi.ingsw.messages.serverMessages.MatchStartMessage;
+import it.polimi.ingsw.model.Creature;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+
+/**
+ * This class compares the time and the memory needed to write and read the messages with the reflective
+ * adapters of Gson and with the schemas of MessageAdapters.
+ * It is not a test: it is run by hand, after mvn test-compile, with
+ * java -cp target/test-classes:target/classes:[gson jar] it.polimi.ingsw.MessageAdaptersBenchmark
+ */
+public class MessageAdaptersBenchmark {
+    private static final int WARM_UP_ROUNDS = 5;
+    private static final int ROUNDS = 5;
+    private static final int OPERATIONS = 100_000;
+
+    /**
+     * This attribute is used to keep the results alive, so the work is not removed by the JIT
+     */
+    private static long sink = 0;
+
+    public static void main(String[] args) {
+        Gson reflective = new Gson();
+        Gson schemas = MessageAdapters.GSON;
+        Message[] messages = {movedStudent(), ack(), matchStart()};
+
+        for (Message message : messages) {
+            String json = reflective.toJson(message);
+            Class<? extends Message> messageClass = message.getClass();
+            System.out.println(messageClass.getSimpleName() + " (" + json.length() + " chars)");
+
+            compare("  write", () -> sink += reflective.toJson(message).length(),
+                    () -> sink += schemas.toJson(message).length());
+            compare("  read ", () -> sink += reflective.fromJson(json, messageClass).getSender_ID(),
+                    () -> sink += schemas.fromJson(json, messageClass).getSender_ID());
+        }
+        System.out.println("(" + sink + ")");
+    }
+
+    /**
+     * This method runs the two operations many times, alternating the rounds so both of them find the JIT in the
+     * same state, and prints for each one the best time and the bytes allocated for each call
+     */
+    private static void compare(String name, Runnable reflectiveOperation, Runnable schemaOperation) {
+        for (int round = 0; round < WARM_UP_ROUNDS; round++) {
+            run(reflectiveOperation);
+            run(schemaOperation);
+        }
+        long[] best = {Long.MAX_VALUE, Long.MAX_VALUE};
+        long[] allocated = {0, 0};
+        Runnable[] operations = {reflectiveOperation, schemaOperation};
+        for (int round = 0; round < ROUNDS; round++) {
+            for (int i = 0; i < operations.length; i++) {
+                long allocatedBefore = allocatedBytes();
+                best[i] = Math.min(best[i], run(operations[i]));
+                allocated[i] += allocatedBytes() - allocatedBefore;
+            }
+        }
+        System.out.printf("%s reflective %8.1f ns/op %6d B/op | schema %8.1f ns/op %6d B/op%n", name,
+                (double) best[0] / OPERATIONS, allocated[0] / ((long) ROUNDS * OPERATIONS),
+                (double) best[1] / OPERATIONS, allocated[1] / ((long) ROUNDS * OPERATIONS));
+    }
+
+    private static long run(Runnable operation) {
+        long start = System.nanoTime();
+        for (int i = 0; i < OPERATIONS; i++) {
+            operation.run();
+        }
+        return System.nanoTime() - start;
+    }
+
+    /**
+     * This method returns the bytes allocated so far by this thread, or 0 if the JVM does not count them
+     */
+    private static long allocatedBytes() {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) bean).getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+        return 0;
+    }
+
+    private static Message movedStudent() {
+        MovedStudentsFromEntranceMessage message = new MovedStudentsFromEntranceMessage(1);
+        message.setSender_ID(1);
+        message.setStudent_ID(4);
+        message.setLocation(-1);
+        return message;
+    }
+
+    private static Message ack() {
+        AckMessage message = new AckMessage();
+        message.setSubObject("action_1_dining_room");
+        message.setRecipient(1);
+        message.setNextPlayer(2);
+        message.setStudentMoved_ID(4);
+        message.setTypeOfStudentMoved(Creature.FROG);
+        message.setProfessorTaken(true);
+        message.setPreviousOwnerOfProfessor(0);
+        message.setStudents(new ArrayList<>(Arrays.asList(Creature.DRAGON, Creature.GNOME, Creature.FAIRY)));
+        return message;
+    }
+
+    private static Message matchStart() {
+        MatchStartMessage message = new MatchStartMessage(0, 3, 3, true);
+        message.setNicknames(new ArrayList<>(Arrays.asList("mario", "luigi", "peach")));
+        ArrayList<Creature> islands = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            islands.add(Creature.values()[i % Creature.values().length]);
+        }
+        message.setStudentsOnIslands(islands);
+        for (int player = 0; player < 3; player++) {
+            message.setStudentsInEntrance(player, new ArrayList<>(islands.subList(0, 9)));
+        }
+        message.setCharacters(new LinkedHashSet<>(Arrays.asList("monk", "cook", "herbalist")));
+        message.setMonkStudents(new ArrayList<>(islands.subList(0, 4)));
+        return message;
+    }
+}
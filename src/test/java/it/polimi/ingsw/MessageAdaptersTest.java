@@ -0,0 +1,199 @@
+package it.polimi.ingsw;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import it.polimi.ingsw.messages.Message;
+import it.polimi.ingsw.messages.MessageAdapters;
+import it.polimi.ingsw.messages.clientMessages.*;
+import it.polimi.ingsw.messages.serverMessages.*;
+import it.polimi.ingsw.model.Creature;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+public class MessageAdaptersTest {
+    private static final Class<?>[] MESSAGE_CLASSES = {
+            Message.class, PingMessage.class, BagClickMessage.class, HelloMessage.class, LoginMessage.class,
+            MatchSpecsMessage.class, LobbyListRequestMessage.class, ReplyChosenLobbyToJoinMessage.class,
+            ChosenTowerColorMessage.class, ChosenDeckMessage.class, ChosenAssistantCardMessage.class,
+            MovedStudentsFromEntranceMessage.class, MovedMotherNatureMessage.class, ChosenCloudMessage.class,
+            CharacterRequestMessage.class, CharacterDataMessage.class, HelloAckMessage.class,
+            NicknameNotValidMessage.class, AckMatchCreationMessage.class, AskMatchToJoinMessage.class,
+            NoLobbyAvailableMessage.class, IDSetAfterLobbyChoiceMessage.class, MatchStartMessage.class,
+            NackMessage.class, EndOfMatchMessage.class, AckMessage.class, AckCharactersMessage.class,
+            TurnResultMessage.class, MovedStudentsBatchMessage.class, StudentsMovedMessage.class, QuickLoginMessage.class
+    };
+
+    private final Gson reflective = new Gson();
+    private int counter = 0;
+
+    /**
+     * This method builds a value of the given type, different for each call
+     */
+    private Object sample(Type type) throws Exception {
+        counter++;
+        if (type instanceof ParameterizedType) {
+            ParameterizedType parameterized = (ParameterizedType) type;
+            Class<?> raw = (Class<?>) parameterized.getRawType();
+            Type[] arguments = parameterized.getActualTypeArguments();
+            if (Map.class.isAssignableFrom(raw)) {
+                HashMap<Object, Object> map = new HashMap<>();
+                map.put(sample(arguments[0]), sample(arguments[1]));
+                return map;
+            }
+            Collection<Object> collection = Set.class.isAssignableFrom(raw) ? new LinkedHashSet<>() : new ArrayList<>();
+            collection.add(sample(arguments[0]));
+            collection.add(sample(arguments[0]));
+            return collection;
+        }
+        Class<?> raw = (Class<?>) type;
+        if (raw == int.class || raw == Integer.class) {
+            return counter;
+        }
+        if (raw == boolean.class || raw == Boolean.class) {
+            return true;
+        }
+        if (raw == String.class) {
+            return "value" + counter;
+        }
+        if (Message.class.isAssignableFrom(raw)) {
+            return filled(raw);
+        }
+        if (raw.isEnum()) {
+            Object[] constants = raw.getEnumConstants();
+            return constants[counter % constants.length];
+        }
+        throw new IllegalArgumentException("no sample for " + type);
+    }
+
+    /**
+     * This method creates a message of the given class with all its fields set
+     */
+    private Message filled(Class<?> messageClass) throws Exception {
+        Message message = MessageAdapters.GSON.fromJson("{}", messageClass.asSubclass(Message.class));
+        for (Class<?> c = messageClass; c != Object.class; c = c.getSuperclass()) {
+            for (Field field : c.getDeclaredFields()) {
+                if (Modifier.isStatic(field.getModifiers())) {
+                    continue;
+                }
+                field.setAccessible(true);
+                field.set(message, sample(field.getGenericType()));
+            }
+        }
+        return message;
+    }
+
+    /**
+     * This method checks that every message class is read and written through its schema
+     */
+    @Test
+    public void everyMessageHasASchema() {
+        for (Class<?> messageClass : MESSAGE_CLASSES) {
+            Assertions.assertTrue(MessageAdapters.supports(messageClass), messageClass.getSimpleName());
+        }
+    }
+
+    /**
+     * This method tells if the schema of the class leaves out the fields with the value given by the constructor,
+     * also in the messages it contains
+     */
+    private boolean sparse(Class<?> messageClass) {
+        return messageClass == AckMessage.class || messageClass == AckCharactersMessage.class ||
+                messageClass == TurnResultMessage.class || messageClass == StudentsMovedMessage.class;
+    }
+
+    /**
+     * This method checks that the schemas write the same json written by Gson, except for the sparse ones, and
+     * that every message read back is equal to the one written
+     */
+    @Test
+    public void sameJsonOfTheReflectiveAdapter() throws Exception {
+        for (Class<?> messageClass : MESSAGE_CLASSES) {
+            Message message = filled(messageClass);
+            String expected = reflective.toJson(message);
+            String written = MessageAdapters.GSON.toJson(message);
+
+            if (!sparse(messageClass)) {
+                Assertions.assertEquals(expected, written, messageClass.getSimpleName());
+            }
+
+            Message decoded = MessageAdapters.GSON.fromJson(written, messageClass.asSubclass(Message.class));
+            Assertions.assertEquals(messageClass, decoded.getClass());
+            Assertions.assertEquals(expected, reflective.toJson(decoded), messageClass.getSimpleName());
+            Assertions.assertEquals(decoded.getClass(), reflective.fromJson(written, messageClass).getClass());
+        }
+    }
+
+    /**
+     * This method checks that the messages created by the constructors, with null fields, are written as Gson
+     * does, also when nulls are serialized
+     */
+    @Test
+    public void nullFieldsAsTheReflectiveAdapter() {
+        Message[] messages = {new MatchStartMessage(), new NackMessage(), new CharacterDataMessage(), new ChosenDeckMessage()};
+        Gson reflectiveWithNulls = new GsonBuilder().serializeNulls().create();
+        Gson withNulls = MessageAdapters.GSON.newBuilder().serializeNulls().create();
+
+        for (Message message : messages) {
+            Assertions.assertEquals(reflective.toJson(message), MessageAdapters.GSON.toJson(message));
+            Assertions.assertEquals(reflectiveWithNulls.toJson(message), withNulls.toJson(message));
+        }
+    }
+
+    /**
+     * This method checks that an ack writes only the fields set for its kind, and the object even if it has not
+     * been changed, and that the ack read back is equal to the one written, also by the reflective adapter
+     */
+    @Test
+    public void sparseAckWritesOnlyTheFieldsSet() {
+        AckMessage ack = new AckMessage();
+        ack.setSubObject("action_3");
+        ack.setRecipient(1);
+        ack.setNextPlayer(2);
+        ack.setCloudChosen_ID(0);
+        ack.setStudents(new ArrayList<>(List.of(Creature.DRAGON, Creature.FROG, Creature.GNOME)));
+
+        String written = MessageAdapters.GSON.toJson(ack);
+
+        Assertions.assertEquals("{\"subObject\":\"action_3\",\"recipient\":1,\"nextPlayer\":2," +
+                "\"students\":[\"DRAGON\",\"FROG\",\"GNOME\"],\"object\":\"ack\"}", written);
+        Assertions.assertTrue(written.length() * 2 < reflective.toJson(ack).length());
+        Assertions.assertEquals(reflective.toJson(ack), reflective.toJson(MessageAdapters.GSON.fromJson(written, AckMessage.class)));
+        Assertions.assertEquals(reflective.toJson(ack), reflective.toJson(reflective.fromJson(written, AckMessage.class)));
+
+        AckCharactersMessage characterAck = new AckCharactersMessage(1, "monk", 12);
+        characterAck.setStudent(Creature.UNICORN);
+        String characterWritten = MessageAdapters.GSON.toJson(characterAck);
+        Assertions.assertEquals("{\"character\":\"monk\",\"coinReserve\":12,\"student\":\"UNICORN\",\"recipient\":1," +
+                "\"object\":\"character_ack\"}", characterWritten);
+        Assertions.assertEquals(reflective.toJson(characterAck),
+                reflective.toJson(MessageAdapters.GSON.fromJson(characterWritten, AckCharactersMessage.class)));
+    }
+
+    /**
+     * This method checks that unknown fields are skipped and that values are read as lenient as Gson does
+     */
+    @Test
+    public void readsAsTheReflectiveAdapter() {
+        String json = "{\"numOfPlayers\":\"3\",\"expertMode\":\"true\",\"unknown\":{\"a\":[1,2]},\"object\":\"creation\",\"sender_ID\":null}";
+
+        MatchSpecsMessage message = MessageAdapters.GSON.fromJson(json, MatchSpecsMessage.class);
+        MatchSpecsMessage expected = reflective.fromJson(json, MatchSpecsMessage.class);
+
+        Assertions.assertEquals(3, message.getNumOfPlayers());
+        Assertions.assertTrue(message.isExpertMode());
+        Assertions.assertEquals(reflective.toJson(expected), reflective.toJson(message));
+        Assertions.assertNull(MessageAdapters.GSON.fromJson("null", MatchSpecsMessage.class));
+    }
+}
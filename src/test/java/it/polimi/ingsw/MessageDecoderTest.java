@@ -0,0 +1,97 @@
+package it.polimi.ingsw;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import it.polimi.ingsw.messages.Message;
+import it.polimi.ingsw.messages.MessageDecoder;
+import it.polimi.ingsw.messages.MessageDispatcher;
+import it.polimi.ingsw.messages.clientMessages.ChosenCloudMessage;
+import it.polimi.ingsw.messages.clientMessages.LobbyListRequestMessage;
+import it.polimi.ingsw.messages.clientMessages.MovedStudentsFromEntranceMessage;
+import it.polimi.ingsw.messages.serverMessages.HelloAckMessage;
+import it.polimi.ingsw.messages.serverMessages.NackMessage;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+
+public class MessageDecoderTest {
+    private final Gson gson = new Gson();
+
+    /**
+     * This method checks that a message is decoded to the class registered for its object, with all its fields
+     */
+    @Test
+    public void decodesToTheRegisteredClass() {
+        MovedStudentsFromEntranceMessage sent = new MovedStudentsFromEntranceMessage(2);
+        sent.setSender_ID(2);
+        sent.setStudent_ID(5);
+        sent.setLocation(-1);
+
+        Message decoded = MessageDecoder.SERVER_SIDE.decode(gson.toJson(sent));
+
+        Assertions.assertTrue(decoded instanceof MovedStudentsFromEntranceMessage);
+        MovedStudentsFromEntranceMessage received = (MovedStudentsFromEntranceMessage) decoded;
+        Assertions.assertEquals(2, received.getSender_ID());
+        Assertions.assertEquals(5, received.getStudent_ID());
+        Assertions.assertEquals(-1, received.getLocation());
+        Assertions.assertEquals("action_1", received.getObjectOfMessage());
+    }
+
+    /**
+     * This method checks that the same object is decoded to different classes on the two sides of the connection
+     */
+    @Test
+    public void eachSideHasItsOwnClasses() {
+        String json = gson.toJson(new HelloAckMessage(1, true, true, false, true));
+
+        Assertions.assertTrue(MessageDecoder.CLIENT_SIDE.decode(json) instanceof HelloAckMessage);
+        Assertions.assertFalse(MessageDecoder.SERVER_SIDE.decode(json) instanceof HelloAckMessage);
+        Assertions.assertTrue(MessageDecoder.SERVER_SIDE.decode(gson.toJson(new NackMessage("deck"))).getClass() == Message.class);
+    }
+
+    /**
+     * This method checks that a message with an unknown or missing object is decoded as a generic message
+     */
+    @Test
+    public void unknownObjectIsAGenericMessage() {
+        Message unknown = MessageDecoder.SERVER_SIDE.decode("{\"object\":\"unknown\",\"sender_ID\":3}");
+        Assertions.assertEquals(Message.class, unknown.getClass());
+        Assertions.assertEquals("unknown", unknown.getObjectOfMessage());
+        Assertions.assertEquals(3, unknown.getSender_ID());
+
+        Message missing = MessageDecoder.SERVER_SIDE.decode("{\"sender_ID\":1}");
+        Assertions.assertEquals(Message.class, missing.getClass());
+        Assertions.assertNull(missing.getObjectOfMessage());
+    }
+
+    /**
+     * This method checks that a json that is not an object is refused
+     */
+    @Test
+    public void notAnObjectIsRefused() {
+        Assertions.assertThrows(JsonParseException.class, () -> MessageDecoder.SERVER_SIDE.decode("[1,2]"));
+        Assertions.assertThrows(JsonParseException.class, () -> MessageDecoder.SERVER_SIDE.decode("{\"object\":"));
+    }
+
+    /**
+     * This method checks that the dispatcher calls only the handler registered for the class of the message and
+     * tells when no handler is registered
+     */
+    @Test
+    public void dispatcherCallsTheHandlerOfTheClass() {
+        MessageDispatcher<ArrayList<String>, String> dispatcher = new MessageDispatcher<ArrayList<String>, String>()
+                .on(ChosenCloudMessage.class, (log, context, message) -> log.add(context + " cloud " + message.getCloud_ID()))
+                .on(LobbyListRequestMessage.class, (log, context, message) -> log.add(context + " page " + message.getPage()));
+        ArrayList<String> log = new ArrayList<>();
+
+        Assertions.assertTrue(dispatcher.dispatch(log, "a", MessageDecoder.SERVER_SIDE.decode("{\"object\":\"action_3\",\"cloud_ID\":1}")));
+        Assertions.assertTrue(dispatcher.dispatch(log, "b", new LobbyListRequestMessage(3, "expert", 2)));
+        Assertions.assertFalse(dispatcher.dispatch(log, "c", new NackMessage("deck")));
+        Assertions.assertFalse(dispatcher.dispatch(log, "d", null));
+
+        Assertions.assertEquals(2, log.size());
+        Assertions.assertEquals("a cloud 1", log.get(0));
+        Assertions.assertEquals("b page 2", log.get(1));
+    }
+}
@@ -0,0 +1,101 @@
+package it.polimi.ingsw;
+
+import it.polimi.ingsw.server.ClientHandler;
+import it.polimi.ingsw.server.NicknameRegistry;
+import it.polimi.ingsw.server.Server;
+import it.polimi.ingsw.server.TransportMode;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class NicknameRegistryTest {
+
+    /**
+     * We test that when many players try to log in at the same time with the same nickname only one of them gets it
+     */
+    @Test
+    public void reserve_sameNicknameConcurrently_onlyOneWinner() throws InterruptedException {
+        Server server = new Server(4444, TransportMode.BLOCKING, 1000);
+        NicknameRegistry registry = server.getNicknames();
+        AtomicInteger winners = new AtomicInteger(0);
+        CountDownLatch start = new CountDownLatch(1);
+        ArrayList<Thread> players = new ArrayList<>();
+
+        for(int i = 0; i < 16; i++){
+            ClientHandler handler = new ClientHandler(new Socket(), server);
+            Thread player = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                if(registry.reserve("mario", handler)){
+                    winners.incrementAndGet();
+                }
+            });
+            players.add(player);
+            player.start();
+        }
+        start.countDown();
+        for(Thread player : players){
+            player.join();
+        }
+
+        Assertions.assertEquals(1, winners.get());
+        Assertions.assertEquals(1, registry.size());
+    }
+
+    /**
+     * We test that a login without the nickname, or with a blank one, is refused without reserving anything,
+     * with both the login messages
+     */
+    @Test
+    public void login_nullOrBlankNickname_refused() {
+        Server server = new Server(4444, TransportMode.BLOCKING, 1000);
+        NicknameRegistry registry = server.getNicknames();
+        String[] logins = {
+                "{\"createNewMatch\":true,\"object\":\"login\"}",
+                "{\"nicknameOfPlayer\":\"  \",\"createNewMatch\":true,\"object\":\"login\"}",
+                "{\"createNewMatch\":true,\"numOfPlayers\":2,\"object\":\"quick login\"}",
+                "{\"nicknameOfPlayer\":\"\",\"createNewMatch\":false,\"object\":\"quick login\"}"
+        };
+
+        for(String login : logins){
+            ClientHandler handler = new ClientHandler(new Socket(), server);
+            handler.loginInServer(login);
+            Assertions.assertEquals(1, handler.getOutboundQueueLength(), login);
+        }
+
+        Assertions.assertEquals(0, registry.size());
+        Assertions.assertFalse(NicknameRegistry.isValid(null));
+        Assertions.assertFalse(registry.reserve(null, new ClientHandler(new Socket(), server)));
+        Assertions.assertFalse(registry.isReserved(null));
+    }
+
+    /**
+     * We test that a nickname can be released only by the player who reserved it, and then it can be used again
+     */
+    @Test
+    public void release_onlyByOwner() {
+        Server server = new Server(4444, TransportMode.BLOCKING, 1000);
+        NicknameRegistry registry = server.getNicknames();
+        ClientHandler first = new ClientHandler(new Socket(), server);
+        ClientHandler second = new ClientHandler(new Socket(), server);
+
+        Assertions.assertTrue(registry.reserve("luigi", first));
+        Assertions.assertFalse(registry.reserve("luigi", second));
+
+        Assertions.assertFalse(registry.release("luigi", second));
+        Assertions.assertTrue(registry.isReserved("luigi"));
+
+        Assertions.assertTrue(registry.release("luigi", first));
+        Assertions.assertFalse(registry.isReserved("luigi"));
+        Assertions.assertFalse(registry.release(null, first));
+
+        Assertions.assertTrue(registry.reserve("luigi", second));
+    }
+}
@@ -0,0 +1,83 @@
+package it.polimi.ingsw;
+
+import it.polimi.ingsw.server.Server;
+import it.polimi.ingsw.server.TransportMode;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+
+public class NioServerTest {
+
+    /**
+     * This method starts a server in NIO mode on a free port, in a daemon thread
+     * @return the port of the server
+     */
+    private int startServer() throws IOException {
+        int port;
+        try (ServerSocket free = new ServerSocket(0)) {
+            port = free.getLocalPort();
+        }
+        Server server = new Server(port, TransportMode.NIO, 1000);
+        Thread serverThread = new Thread(() -> {
+            try {
+                server.start();
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        });
+        serverThread.setDaemon(true);
+        serverThread.start();
+        return port;
+    }
+
+    /**
+     * This method connects a client to the server, waiting for the server to be listening
+     */
+    private Socket connect(int port) throws IOException, InterruptedException {
+        for (int attempt = 0; ; attempt++) {
+            try {
+                Socket socket = new Socket("localhost", port);
+                socket.setSoTimeout(5000);
+                return socket;
+            } catch (IOException e) {
+                if (attempt == 50) {
+                    throw e;
+                }
+                Thread.sleep(100);
+            }
+        }
+    }
+
+    private void sendLine(Socket socket, String line) throws IOException {
+        OutputStream out = socket.getOutputStream();
+        out.write((line + "\n").getBytes(StandardCharsets.UTF_8));
+        out.flush();
+    }
+
+    /**
+     * We test that a client sending a line which is not json is disconnected, while the selector thread keeps
+     * serving the other clients: a second client can still log in
+     */
+    @Test
+    public void malformedLine_onlyThatClientDisconnected() throws IOException, InterruptedException {
+        int port = startServer();
+
+        try (Socket broken = connect(port); Socket mario = connect(port)) {
+            sendLine(broken, "this is not json {");
+            Assertions.assertEquals(-1, broken.getInputStream().read());
+
+            sendLine(mario, "{\"nicknameOfPlayer\":\"mario\",\"createNewMatch\":true,\"object\":\"login\"}");
+            BufferedReader reader = new BufferedReader(new InputStreamReader(mario.getInputStream(), StandardCharsets.UTF_8));
+            String answer = reader.readLine();
+            Assertions.assertNotNull(answer);
+            Assertions.assertTrue(answer.contains("\"MatchCreation\""), answer);
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package it.polimi.ingsw;
+
+import it.polimi.ingsw.server.EncodedMessage;
+import it.polimi.ingsw.server.OutboundQueue;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+public class OutboundQueueTest {
+
+    /**
+     * This method reads the buffers taken from the queue as one string
+     */
+    private String join(ByteBuffer[] buffers) {
+        StringBuilder joined = new StringBuilder();
+        for (ByteBuffer buffer : buffers) {
+            byte[] bytes = new byte[buffer.remaining()];
+            buffer.get(bytes);
+            joined.append(new String(bytes, StandardCharsets.UTF_8));
+        }
+        return joined.toString();
+    }
+
+    /**
+     * We test that the queue gives back the buffers shared by the encoded message, without copying its bytes
+     */
+    @Test
+    public void pollAll_sharedBufferNotCopied() {
+        OutboundQueue queue = new OutboundQueue();
+        EncodedMessage encoded = EncodedMessage.of("ack", "{\"subObject\":\"movement\"}");
+        queue.offer(encoded);
+        queue.offer(encoded);
+
+        ByteBuffer[] buffers = queue.pollAll();
+
+        Assertions.assertEquals(2, buffers.length);
+        Assertions.assertTrue(buffers[0].isReadOnly());
+        Assertions.assertEquals(encoded.length(), buffers[0].remaining());
+        Assertions.assertEquals(encoded.length(), buffers[1].remaining());
+        Assertions.assertTrue(queue.isEmpty());
+    }
+
+    /**
+     * We test that the messages queued together are joined, in order, in one single write
+     */
+    @Test
+    public void pollAll_threeAcks_joinedInOneWrite() {
+        OutboundQueue queue = new OutboundQueue();
+        queue.offer(EncodedMessage.of("ack", "{\"subObject\":\"movement\"}"));
+        queue.offer(EncodedMessage.of("ack", "{\"subObject\":\"influence\"}"));
+        queue.offer(EncodedMessage.of("ack", "{\"subObject\":\"union\"}"));
+
+        Assertions.assertEquals(3, queue.getLength());
+        ByteBuffer[] buffers = queue.pollAll();
+        queue.recordFlush();
+
+        Assertions.assertEquals("{\"subObject\":\"movement\"}\n{\"subObject\":\"influence\"}\n{\"subObject\":\"union\"}\n",
+                join(buffers));
+        Assertions.assertEquals(3, buffers.length);
+        Assertions.assertTrue(queue.isEmpty());
+        Assertions.assertNull(queue.pollAll());
+        Assertions.assertEquals(1, queue.getFlushCount());
+        Assertions.assertEquals(3, queue.getMaxLength());
+    }
+
+    /**
+     * We test that the messages are joined only under backlog: the first message is taken alone by the writer,
+     * the ones queued while it is being written are joined in the next write
+     */
+    @Test
+    public void pollAll_messagesQueuedDuringAWrite_joinedInTheNextWrite() {
+        OutboundQueue queue = new OutboundQueue();
+        queue.offer(EncodedMessage.of("ack", "{\"subObject\":\"movement\"}"));
+
+        ByteBuffer[] first = queue.pollAll();
+        // the writer is writing the first message when the next ones are queued
+        queue.offer(EncodedMessage.of("ack", "{\"subObject\":\"influence\"}"));
+        queue.offer(EncodedMessage.of("ack", "{\"subObject\":\"union\"}"));
+        queue.recordFlush();
+        ByteBuffer[] second = queue.pollAll();
+        queue.recordFlush();
+
+        Assertions.assertEquals("{\"subObject\":\"movement\"}\n", join(first));
+        Assertions.assertEquals("{\"subObject\":\"influence\"}\n{\"subObject\":\"union\"}\n", join(second));
+        Assertions.assertEquals(2, queue.getFlushCount());
+        Assertions.assertEquals(2, queue.getMaxLength());
+    }
+
+    /**
+     * We test that a full queue refuses the new messages, as a closed queue does
+     */
+    @Test
+    public void offer_fullOrClosedQueue_messageRefused() {
+        OutboundQueue queue = new OutboundQueue(2);
+        EncodedMessage msg = EncodedMessage.of("ack", "{}");
+
+        Assertions.assertTrue(queue.offer(msg));
+        Assertions.assertTrue(queue.offer(msg));
+        Assertions.assertFalse(queue.offer(msg));
+
+        queue.close();
+        Assertions.assertTrue(queue.isEmpty());
+        Assertions.assertFalse(queue.offer(msg));
+    }
+
+    /**
+     * We test that after a partial gathering write only the completely written messages are removed
+     */
+    @Test
+    public void removeWritten_partialWrite_unfinishedMessageKept() {
+        OutboundQueue queue = new OutboundQueue();
+        queue.offer(EncodedMessage.of("ack", "{\"a\":1}"));
+        queue.offer(EncodedMessage.of("ack", "{\"b\":2}"));
+
+        ByteBuffer[] buffers = queue.peekAll();
+        buffers[0].position(buffers[0].limit());
+        buffers[1].position(1);
+
+        Assertions.assertFalse(queue.removeWritten());
+        Assertions.assertEquals(1, queue.getLength());
+        Assertions.assertEquals("\"b\":2}\n", join(queue.pollAll()));
+    }
+}
@@ -0,0 +1,121 @@
+package it.polimi.ingsw;
+
+import it.polimi.ingsw.server.Server;
+import it.polimi.ingsw.server.TransportMode;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+
+public class QuickLoginTest {
+
+    private Server server;
+    private int port;
+
+    /**
+     * This method starts a server in NIO mode on a free port, in a daemon thread
+     */
+    private void startServer() throws IOException {
+        try (ServerSocket free = new ServerSocket(0)) {
+            port = free.getLocalPort();
+        }
+        server = new Server(port, TransportMode.NIO, 1000);
+        Thread serverThread = new Thread(() -> {
+            try {
+                server.start();
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        });
+        serverThread.setDaemon(true);
+        serverThread.start();
+    }
+
+    /**
+     * This method connects a client to the server, waiting for the server to be listening
+     */
+    private Socket connect() throws IOException, InterruptedException {
+        for (int attempt = 0; ; attempt++) {
+            try {
+                Socket socket = new Socket("localhost", port);
+                socket.setSoTimeout(5000);
+                return socket;
+            } catch (IOException e) {
+                if (attempt == 50) {
+                    throw e;
+                }
+                Thread.sleep(100);
+            }
+        }
+    }
+
+    private void sendLine(Socket socket, String line) throws IOException {
+        OutputStream out = socket.getOutputStream();
+        out.write((line + "\n").getBytes(StandardCharsets.UTF_8));
+        out.flush();
+    }
+
+    private BufferedReader reader(Socket socket) throws IOException {
+        return new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+    }
+
+    /**
+     * We test that the player creating a match with the quick login gets its ID and the new lobby, and that a
+     * second player asking for any lobby joins the first open one
+     */
+    @Test
+    public void quickLogin_createThenJoinFirstOpen() throws IOException, InterruptedException {
+        startServer();
+
+        try (Socket mario = connect(); Socket luigi = connect()) {
+            sendLine(mario, "{\"nicknameOfPlayer\":\"mario\",\"createNewMatch\":true,\"numOfPlayers\":2,\"expertMode\":false,\"object\":\"quick login\"}");
+            String answer = reader(mario).readLine();
+            Assertions.assertTrue(answer.contains("\"playerID_set\"") && answer.contains("\"playerID\":0"), answer);
+
+            sendLine(luigi, "{\"nicknameOfPlayer\":\"luigi\",\"createNewMatch\":false,\"numOfPlayers\":0,\"object\":\"quick login\"}");
+            answer = reader(luigi).readLine();
+            Assertions.assertTrue(answer.contains("\"playerID_set\"") && answer.contains("\"playerID\":1"), answer);
+            Assertions.assertEquals(1, server.getLobbies().getLobbies().size());
+        }
+    }
+
+    /**
+     * We test that a player asking for a kind of lobby which is not open receives the list of the lobbies, filtered
+     * as requested, instead of joining a different one
+     */
+    @Test
+    public void quickLogin_noMatchingLobby_listOfLobbiesSent() throws IOException, InterruptedException {
+        startServer();
+
+        try (Socket mario = connect(); Socket luigi = connect()) {
+            sendLine(mario, "{\"nicknameOfPlayer\":\"mario\",\"createNewMatch\":true,\"numOfPlayers\":2,\"expertMode\":false,\"object\":\"quick login\"}");
+            Assertions.assertNotNull(reader(mario).readLine());
+
+            sendLine(luigi, "{\"nicknameOfPlayer\":\"luigi\",\"createNewMatch\":false,\"numOfPlayers\":3,\"object\":\"quick login\"}");
+            String answer = reader(luigi).readLine();
+            Assertions.assertTrue(answer.contains("\"join match\"") && answer.contains("\"numOfPlayersFilter\":3"), answer);
+        }
+    }
+
+    /**
+     * We test that a match can't be created with a number of players different from 2 or 3: no lobby is created
+     * and the player is asked for the specifics of the match
+     */
+    @Test
+    public void quickLogin_wrongNumberOfPlayers_specsAskedAgain() throws IOException, InterruptedException {
+        startServer();
+
+        try (Socket mario = connect()) {
+            sendLine(mario, "{\"nicknameOfPlayer\":\"mario\",\"createNewMatch\":true,\"numOfPlayers\":5,\"expertMode\":false,\"object\":\"quick login\"}");
+            String answer = reader(mario).readLine();
+            Assertions.assertTrue(answer.contains("\"MatchCreation\"") && answer.contains("\"newMatchNeeded\":true"), answer);
+            Assertions.assertEquals(0, server.getLobbies().getLobbies().size());
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package it.polimi.ingsw;
+
+import com.google.gson.Gson;
+import it.polimi.ingsw.controller.Action_2;
+import it.polimi.ingsw.controller.ChooseAssistantCard;
+import it.polimi.ingsw.controller.Controller;
+import it.polimi.ingsw.messages.clientMessages.MatchSpecsMessage;
+import it.polimi.ingsw.model.Bag;
+import it.polimi.ingsw.model.Match;
+import it.polimi.ingsw.model.Realm;
+import it.polimi.ingsw.model.Wizard;
+import it.polimi.ingsw.server.ClientHandler;
+import it.polimi.ingsw.server.Server;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.net.Socket;
+
+public class RealmRingTest {
+
+    /**
+     * We test the ring of the archipelagos after some unions:
+     * - the number of archipelagos left
+     * - the archipelago each island belongs to, also through a chain of unions
+     * - the steps between two archipelagos, which count each group of islands once
+     * - the movement of mother nature across a group of islands
+     */
+    @Test
+    public void ringAfterUnifications() {
+        Realm realm = new Realm(2, new Bag());
+        realm.setDestinationOfMotherNature(0);
+
+        realm.unifyArchipelago(2, 3);
+        realm.unifyArchipelago(2, 1);
+        realm.unifyArchipelago(5, 4);
+        Assertions.assertEquals(9, realm.getNumberOfArchipelagos());
+
+        Assertions.assertEquals(2, realm.archipelagoOf(1));
+        Assertions.assertEquals(5, realm.archipelagoOf(4));
+        realm.unifyArchipelago(5, 2);
+        Assertions.assertEquals(5, realm.archipelagoOf(1));
+        Assertions.assertEquals(5, realm.archipelagoOf(3));
+        Assertions.assertEquals(8, realm.getNumberOfArchipelagos());
+
+        Assertions.assertEquals(6, realm.nextIsland(3));
+        Assertions.assertEquals(0, realm.previousIsland(5));
+        Assertions.assertEquals(1, realm.stepsBetween(0, 5));
+        Assertions.assertEquals(2, realm.stepsBetween(0, 6));
+        Assertions.assertEquals(7, realm.stepsBetween(5, 0));
+        Assertions.assertEquals(8, realm.stepsBetween(6, 6));
+
+        realm.moveMotherNatureWithSteps(2);
+        Assertions.assertEquals(6, realm.getPositionOfMotherNature());
+        realm.moveMotherNatureWithSteps(7);
+        Assertions.assertEquals(5, realm.getPositionOfMotherNature());
+    }
+
+    /**
+     * We test that in action_2 the movement of mother nature is measured in archipelagos: with an assistant card
+     * allowing two steps mother nature can cross the group of islands from 1 to 5 and reach island 6, but not
+     * island 7, nor an island which is part of the group
+     */
+    @Test
+    public void action_2_movementAcrossMergedIslands() {
+        Controller controller = new Controller(0);
+        controller.addPlayerHandler(new ClientHandler(new Socket(), new Server(4444)), "mario");
+        controller.addPlayerHandler(new ClientHandler(new Socket(), new Server(4444)), "luigi");
+
+        MatchSpecsMessage specs = new MatchSpecsMessage();
+        specs.setExpertMode(false);
+        specs.setNumOfPlayers(2);
+        specs.setSender_ID(0);
+        controller.manageMsg(new Gson().toJson(specs));
+
+        Match match = controller.getMatch();
+        match.getPlayers().get(0).chooseDeck(Wizard.CLOUDWITCH);
+        match.getPlayers().get(1).chooseDeck(Wizard.DESERTWIZARD);
+
+        // mario plays the assistant moving mother nature by two steps
+        controller.setState(new ChooseAssistantCard());
+        controller.manageMsg("{ \"object\": \"assistant_chosen\", \"sender_ID\": \"0\", \"assistantChosen\": \"3\" }");
+        controller.manageMsg("{ \"object\": \"assistant_chosen\", \"sender_ID\": \"1\", \"assistantChosen\": \"6\" }");
+
+        controller.setState(new Action_2());
+        Realm realm = match.getRealmOfTheMatch();
+        // the islands from 1 to 5 become the archipelago 5, next to mother nature
+        realm.setDestinationOfMotherNature(0);
+        realm.unifyArchipelago(2, 3);
+        realm.unifyArchipelago(2, 1);
+        realm.unifyArchipelago(5, 4);
+        realm.unifyArchipelago(5, 2);
+
+        // island 3 is part of the archipelago 5
+        controller.manageMsg("{ \"object\": \"action_2\", \"sender_ID\": \"0\", \"destinationIsland_ID\": \"3\" }");
+        Assertions.assertEquals(0, realm.getPositionOfMotherNature());
+
+        // island 7 is three archipelagos away
+        controller.manageMsg("{ \"object\": \"action_2\", \"sender_ID\": \"0\", \"destinationIsland_ID\": \"7\" }");
+        Assertions.assertEquals(0, realm.getPositionOfMotherNature());
+
+        // island 6 is two archipelagos away, even if six islands away
+        controller.manageMsg("{ \"object\": \"action_2\", \"sender_ID\": \"0\", \"destinationIsland_ID\": \"6\" }");
+        Assertions.assertEquals(6, realm.getPositionOfMotherNature());
+    }
+}
@@ -1,6 +1,7 @@
 package it.polimi.ingsw;
 
 import it.polimi.ingsw.model.*;
+import it.polimi.ingsw.model.schoolboard.ProfessorTable;
 import it.polimi.ingsw.model.schoolboard.SchoolBoard;
 import org.junit.jupiter.api.Test;
 
@@ -18,6 +19,34 @@ class SchoolBoardTest {
         assertTrue(schoolBoard.getControlledProfessors().contains(Creature.DRAGON));
     }
 
+    /** checks if the match always knows who controls each professor, and if the professors of each player are counted,
+     * while the professors are moved from a table to another */
+    @Test
+    void ownerOfProfessor_followsTheTables() {
+        Match match = new Match(0, 2, false);
+        match.addPlayer("james");
+        match.addPlayer("lily");
+        ProfessorTable jamesTable = match.getPlayerByID(0).getSchoolBoard().getProfessorTable();
+        ProfessorTable lilyTable = match.getPlayerByID(1).getSchoolBoard().getProfessorTable();
+
+        assertEquals(-1, match.getOwnerOfProfessor(Creature.FROG));
+
+        jamesTable.addProfessor(Creature.FROG);
+        jamesTable.addProfessor(Creature.GNOME);
+        assertEquals(0, match.getOwnerOfProfessor(Creature.FROG));
+        assertEquals(2, match.getPlayerByID(0).getNumberOfProfessors());
+
+        jamesTable.removeProfessor(Creature.FROG);
+        lilyTable.addProfessor(Creature.FROG);
+        assertEquals(1, match.getOwnerOfProfessor(Creature.FROG));
+        assertEquals(1, match.getPlayerByID(0).getNumberOfProfessors());
+        assertEquals(1, match.getPlayerByID(1).getNumberOfProfessors());
+
+        lilyTable.getOccupiedSeats().replace(Creature.FROG, false);
+        assertEquals(-1, match.getOwnerOfProfessor(Creature.FROG));
+        assertEquals(0, match.getPlayerByID(1).getNumberOfProfessors());
+    }
+
     /** checks if the initial setup of the entrance correctly works */
     @Test
     void initialSetUpStudentsInTheEntrance(){